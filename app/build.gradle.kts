@@ -1,5 +1,6 @@
 plugins {
     alias(libs.plugins.android.application)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -36,6 +37,11 @@ android {
     buildFeatures {
         viewBinding = false
     }
+
+    testOptions {
+        // Services run against :mockserver on the JVM; android.util.Log and friends become no-ops
+        unitTests.isReturnDefaultValues = true
+    }
     
     lint {
         // Skip lint errors for now to allow build
@@ -44,8 +50,26 @@ android {
     }
 }
 
+baselineProfile {
+    // Generate on demand (./gradlew :app:generateBaselineProfile), not on every release build
+    automaticGenerationDuringBuild = false
+}
+
+androidComponents {
+    // Release stays unsigned until it has a real keystore. Only the variants the baseline-profile
+    // plugin derives from it are debug-signed, so they can be installed on test devices
+    listOf("benchmarkRelease", "nonMinifiedRelease").forEach { buildType ->
+        onVariants(selector().withBuildType(buildType)) { variant ->
+            variant.signingConfig.setConfig(android.signingConfigs.getByName("debug"))
+        }
+    }
+}
+
 dependencies {
 
+    // Models, JSON decoding and money math (plain Java, benchmarked in :benchmarks)
+    implementation(project(":core"))
+
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -63,6 +87,10 @@ dependencies {
     // Multidex support
     implementation("androidx.multidex:multidex:2.0.1")
     
+    // Installs the baseline profile on devices where it was not installed by the Play Store
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":baselineprofile"))
+    
     // OpenStreetMap (OSMDroid) - Free, no API key needed
     implementation("org.osmdroid:osmdroid-android:6.1.17")
     
@@ -70,6 +98,8 @@ dependencies {
     implementation("com.google.android.gms:play-services-location:21.0.1")
     
     testImplementation(libs.junit)
+    // Real backend shapes on a loopback port, plus a working org.json (android.jar only has stubs)
+    testImplementation(project(":mockserver"))
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
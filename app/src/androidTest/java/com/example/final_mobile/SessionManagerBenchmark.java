@@ -0,0 +1,119 @@
+package com.example.final_mobile;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.final_mobile.models.User;
+import com.example.final_mobile.services.SessionManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Microbenchmark for the SessionManager read path: SharedPreferences reads (how the getters
+ * used to work) vs the in-memory snapshot. Results are logged under the "SessionBenchmark" tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SessionManagerBenchmark {
+    private static final String TAG = "SessionBenchmark";
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    private SessionManager sessionManager;
+    private SharedPreferences pref;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        sessionManager = SessionManager.getInstance(context);
+        pref = context.getSharedPreferences("BankingAppSession", Context.MODE_PRIVATE);
+
+        User user = new User("u-1", "bench@example.com", "Nguyen Van A", "0900000000");
+        user.setCustomerType("CUSTOMER");
+        user.setAccountNumber("1234567890");
+        sessionManager.createLoginSession("header.payload.signature", "refresh", user);
+        sessionManager.flushPendingWrites();
+        // Give the write-behind thread a moment so the legacy path reads real values
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    @After
+    public void tearDown() {
+        sessionManager.logoutUser();
+    }
+
+    @Test
+    public void getToken() {
+        assertEquals(pref.getString("token", null), sessionManager.getToken());
+
+        double before = measure(() -> pref.getString("token", null));
+        double after = measure(() -> sessionManager.getToken());
+
+        Log.i(TAG, String.format("getToken: prefs %.1f ns/op, snapshot %.1f ns/op", before, after));
+        assertTrue(after <= before);
+    }
+
+    @Test
+    public void getCurrentUser() {
+        double before = measure(this::legacyGetCurrentUser);
+        double after = measure(() -> sessionManager.getCurrentUser());
+
+        Log.i(TAG, String.format("getCurrentUser: prefs %.1f ns/op, snapshot %.1f ns/op", before, after));
+        assertTrue(after <= before);
+    }
+
+    // What getCurrentUser() used to do: isLoggedIn() reads plus one read per field
+    private Object legacyGetCurrentUser() {
+        if (!pref.getBoolean("isLoggedIn", false)) {
+            return null;
+        }
+        long lastActivity = pref.getLong("lastActivity", 0);
+        if (System.currentTimeMillis() - lastActivity > 7L * 24 * 60 * 60 * 1000) {
+            return null;
+        }
+        User user = new User();
+        user.setId(pref.getString("userId", ""));
+        user.setEmail(pref.getString("userEmail", ""));
+        user.setFullName(pref.getString("userName", ""));
+        user.setPhone(pref.getString("userPhone", ""));
+        user.setCustomerType(pref.getString("userType", "CUSTOMER"));
+        user.setAccountNumber(pref.getString("accountNumber", ""));
+        return user;
+    }
+
+    private interface Op {
+        Object run();
+    }
+
+    // Mean ns per call after a warmup; the sink keeps the JIT from dropping the calls
+    private static double measure(Op op) {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            Object result = op.run();
+            sink += result != null ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Object result = op.run();
+            sink += result != null ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == Integer.MIN_VALUE) {
+            Log.v(TAG, "unreachable");
+        }
+        return (double) elapsed / ITERATIONS;
+    }
+}
@@ -18,19 +18,21 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.models.Transaction;
 import com.example.final_mobile.services.AccountService;
 import com.example.final_mobile.services.SessionManager;
 import com.example.final_mobile.services.TransactionService;
+import com.example.final_mobile.utils.StatusColors;
 
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class AccountDetailFragment extends Fragment {
     private static final String TAG = "AccountDetailFragment";
@@ -170,14 +172,14 @@ public class AccountDetailFragment extends Fragment {
     private void displaySavingsInfo() {
         if (account.getInterestRate() != null) {
             BigDecimal interestRate = account.getInterestRate();
-            tvInterestRate.setText(String.format(Locale.getDefault(), "%.2f%%/năm", interestRate.doubleValue()));
+            tvInterestRate.setText(DisplayFormatter.formatAnnualRate(interestRate));
 
             // Calculate monthly interest
             BigDecimal monthlyInterest = accountService.calculateMonthlyInterest(account);
             tvMonthlyInterest.setText(formatCurrency(monthlyInterest));
 
             // Calculate annual earnings
-            BigDecimal annualEarnings = account.getBalance()
+            BigDecimal annualEarnings = account.getBalance().toBigDecimal()
                 .multiply(interestRate)
                 .divide(new BigDecimal("100"), 2, BigDecimal.ROUND_HALF_UP);
             tvAnnualEarnings.setText(formatCurrency(annualEarnings));
@@ -190,19 +192,18 @@ public class AccountDetailFragment extends Fragment {
 
     private void displayMortgageInfo() {
         // Loan remaining (balance is negative for mortgage)
-        BigDecimal loanRemaining = account.getBalance().abs();
+        Money loanRemaining = account.getBalance().abs();
         tvLoanRemaining.setText(formatCurrency(loanRemaining));
 
         // Monthly payment
-        BigDecimal monthlyPayment = accountService.calculateMonthlyMortgagePayment(account);
+        Money monthlyPayment = accountService.calculateMonthlyMortgagePayment(account);
         tvMonthlyPayment.setText(formatCurrency(monthlyPayment));
 
         // Next payment date (assuming monthly payments on the 1st)
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.MONTH, 1);
         calendar.set(Calendar.DAY_OF_MONTH, 1);
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-        tvNextPaymentDate.setText(sdf.format(calendar.getTime()));
+        tvNextPaymentDate.setText(DisplayFormatter.formatDate(calendar.getTime()));
     }
 
     private void loadTransactionHistory() {
@@ -279,8 +280,11 @@ public class AccountDetailFragment extends Fragment {
     }
 
     private String formatCurrency(BigDecimal amount) {
-        if (amount == null) return "0 VNĐ";
-        return String.format(Locale.getDefault(), "%,.0f VNĐ", amount.doubleValue());
+        return CurrencyFormatter.format(amount);
+    }
+
+    private String formatCurrency(Money amount) {
+        return CurrencyFormatter.format(amount);
     }
 
     // Transaction Adapter
@@ -339,32 +343,12 @@ public class AccountDetailFragment extends Fragment {
                     tvAmount.setText("0 VNĐ");
                 }
 
-                tvType.setText(getTransactionTypeName(transaction.getTransactionType()));
-
-                String status = transaction.getStatus();
-                tvStatus.setText(status != null ? status : "N/A");
-                
-                // Set status color
-                if ("COMPLETED".equals(status)) {
-                    tvStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark, null));
-                } else if ("PENDING".equals(status)) {
-                    tvStatus.setTextColor(getResources().getColor(android.R.color.holo_orange_dark, null));
-                } else if ("FAILED".equals(status)) {
-                    tvStatus.setTextColor(getResources().getColor(android.R.color.holo_red_dark, null));
-                }
+                tvType.setText(DisplayFormatter.transactionTypeLabel(transaction.getTransactionType()));
+
+                StatusColors.bind(tvStatus, transaction.getStatus());
             }
         }
     }
 
-    private String getTransactionTypeName(String type) {
-        if (type == null) return "N/A";
-        switch (type) {
-            case "TRANSFER": return "Chuyển tiền";
-            case "DEPOSIT": return "Nạp tiền";
-            case "WITHDRAWAL": return "Rút tiền";
-            case "PAYMENT": return "Thanh toán";
-            default: return type;
-        }
-    }
 }
 
@@ -0,0 +1,191 @@
+package com.example.final_mobile;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import com.example.final_mobile.core.ApiMetrics;
+import com.example.final_mobile.core.LatencyHistogram;
+import com.example.final_mobile.core.PaymentStageMetrics;
+import com.example.final_mobile.services.ApiService;
+import com.example.final_mobile.services.PaymentPipeline;
+import com.google.android.material.switchmaterial.SwitchMaterial;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Officer-only view of ApiService's per-endpoint metrics, slowest endpoints first
+public class ApiDiagnosticsFragment extends Fragment {
+    private static final String TAG = "ApiDiagnosticsFragment";
+
+    private SwitchMaterial switchEnabled;
+    private TextView tvSummary;
+    private TextView tvMetrics;
+    private ApiMetrics metrics;
+    private PaymentStageMetrics paymentStages;
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor();
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        return inflater.inflate(R.layout.fragment_api_diagnostics, container, false);
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        ApiService apiService = ApiService.getInstance(requireContext());
+        metrics = apiService.getMetrics();
+        paymentStages = PaymentPipeline.getInstance(requireContext()).getStageMetrics();
+
+        switchEnabled = view.findViewById(R.id.switch_metrics_enabled);
+        tvSummary = view.findViewById(R.id.tv_metrics_summary);
+        tvMetrics = view.findViewById(R.id.tv_metrics);
+        Button btnRefresh = view.findViewById(R.id.btn_refresh_metrics);
+        Button btnReset = view.findViewById(R.id.btn_reset_metrics);
+        Button btnExport = view.findViewById(R.id.btn_export_metrics);
+
+        switchEnabled.setChecked(metrics.isEnabled());
+        switchEnabled.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            apiService.setMetricsEnabled(isChecked);
+            render();
+        });
+        btnRefresh.setOnClickListener(v -> render());
+        btnReset.setOnClickListener(v -> {
+            metrics.reset();
+            paymentStages.reset();
+            render();
+        });
+        btnExport.setOnClickListener(v -> export());
+
+        render();
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+        render();
+    }
+
+    private void render() {
+        List<ApiMetrics.Endpoint> endpoints = new ArrayList<>(metrics.getEndpoints());
+        long requests = 0;
+        long errors = 0;
+        for (ApiMetrics.Endpoint endpoint : endpoints) {
+            requests += endpoint.getRequestCount();
+            errors += endpoint.getErrorCount();
+        }
+        tvSummary.setText(metrics.isEnabled()
+                ? String.format(Locale.getDefault(), "%d yêu cầu, %d lỗi, %d endpoint", requests, errors, endpoints.size())
+                : "Đang tắt. Bật để ghi nhận thời gian chờ, kết nối, phản hồi, tải, phân tích JSON và các bước thanh toán.");
+
+        List<PaymentStageMetrics.ServiceType> payments = paymentStages.getServiceTypes();
+        if (endpoints.isEmpty() && payments.isEmpty()) {
+            tvMetrics.setText("Chưa có số liệu");
+            return;
+        }
+        // Slowest first by p90 of the whole request
+        Collections.sort(endpoints, (a, b) -> Long.compare(
+                b.getHistogram(ApiMetrics.Phase.TOTAL).getPercentile(90),
+                a.getHistogram(ApiMetrics.Phase.TOTAL).getPercentile(90)));
+
+        StringBuilder text = new StringBuilder();
+        for (ApiMetrics.Endpoint endpoint : endpoints) {
+            long count = Math.max(1, endpoint.getRequestCount());
+            text.append(endpoint.getName()).append('\n');
+            text.append(String.format(Locale.US, "  %d yêu cầu, %d lỗi, gửi %.1f KB, nhận %.1f KB/yêu cầu%n",
+                    endpoint.getRequestCount(), endpoint.getErrorCount(),
+                    endpoint.getBytesSent() / 1024.0 / count, endpoint.getBytesReceived() / 1024.0 / count));
+            text.append(String.format(Locale.US, "  %-9s %8s %8s %8s %8s%n", "ms", "p50", "p90", "p99", "max"));
+            for (ApiMetrics.Phase phase : ApiMetrics.Phase.values()) {
+                LatencyHistogram histogram = endpoint.getHistogram(phase);
+                if (histogram.getCount() > 0) {
+                    text.append(String.format(Locale.US, "  %-9s %8.1f %8.1f %8.1f %8.1f%n", phase.label,
+                            histogram.getPercentile(50) / 1000.0, histogram.getPercentile(90) / 1000.0,
+                            histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+                }
+            }
+            text.append("  kết quả:");
+            for (Map.Entry<String, Long> outcome : endpoint.getOutcomes().entrySet()) {
+                text.append(' ').append(outcome.getKey()).append(" x").append(outcome.getValue());
+            }
+            text.append("\n\n");
+        }
+        appendPaymentStages(text, payments);
+        tvMetrics.setText(text);
+    }
+
+    // Utility payments by stage; OTP entry is the user's time on the OTP dialog
+    private void appendPaymentStages(StringBuilder text, List<PaymentStageMetrics.ServiceType> payments) {
+        for (PaymentStageMetrics.ServiceType type : payments) {
+            text.append("Thanh toán ").append(type.getName())
+                    .append(String.format(Locale.US, " (%d lần thử lại)%n", type.getRetries()));
+            text.append(String.format(Locale.US, "  %-9s %8s %8s %8s %6s%n", "ms", "p50", "p90", "max", "lỗi"));
+            for (PaymentStageMetrics.Stage stage : PaymentStageMetrics.Stage.values()) {
+                LatencyHistogram histogram = type.getHistogram(stage);
+                if (histogram.getCount() > 0 || type.getFailures(stage) > 0) {
+                    text.append(String.format(Locale.US, "  %-9s %8.1f %8.1f %8.1f %6d%n", stage.label,
+                            histogram.getPercentile(50) / 1000.0, histogram.getPercentile(90) / 1000.0,
+                            histogram.getMax() / 1000.0, type.getFailures(stage)));
+                }
+            }
+            text.append('\n');
+        }
+    }
+
+    // Writes the full histograms to the app's external files dir, for adb pull and offline analysis
+    private void export() {
+        File dir = requireContext().getExternalFilesDir(null);
+        if (dir == null) {
+            Toast.makeText(getContext(), "Không tìm thấy bộ nhớ để xuất", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String name = "api-metrics-" + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date()) + ".json";
+        File file = new File(dir, name);
+        exportExecutor.execute(() -> {
+            String result;
+            try (OutputStream out = new FileOutputStream(file)) {
+                JSONObject json = metrics.toJson();
+                json.put("payment_stages", paymentStages.toJson());
+                out.write(json.toString(2).getBytes(StandardCharsets.UTF_8));
+                result = "Đã xuất: " + file.getAbsolutePath();
+            } catch (Exception e) {
+                Log.e(TAG, "Export failed", e);
+                result = "Lỗi xuất số liệu: " + e.getMessage();
+            }
+            String message = result;
+            if (getActivity() != null && isAdded()) {
+                getActivity().runOnUiThread(() -> Toast.makeText(getContext(), message, Toast.LENGTH_LONG).show());
+            }
+        });
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        exportExecutor.shutdown();
+    }
+}
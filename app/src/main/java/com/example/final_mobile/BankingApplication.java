@@ -1,13 +1,86 @@
 package com.example.final_mobile;
 
-import android.app.Application;
-import androidx.multidex.MultiDex;
+import android.os.Process;
+import android.util.Log;
+
 import androidx.multidex.MultiDexApplication;
 
+import com.example.final_mobile.services.ApiService;
+import com.example.final_mobile.services.SessionManager;
+import com.example.final_mobile.utils.ImageLoader;
+import com.example.final_mobile.utils.StartupGraph;
+import com.example.final_mobile.utils.StartupTrace;
+
+import org.osmdroid.config.Configuration;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class BankingApplication extends MultiDexApplication {
+    private static final String TAG = "BankingApplication";
+
+    // Startup task names
+    public static final String TASK_SESSION = "session";
+    public static final String TASK_API = "api";
+    public static final String TASK_PRECONNECT = "preconnect";
+    public static final String TASK_OSMDROID = "osmdroid";
+
+    private static final int STARTUP_THREADS = 2;
+
+    private static StartupGraph startupGraph;
+
     @Override
     public void onCreate() {
         super.onCreate();
+        StartupTrace.mark("application_on_create");
+
+        // Nothing here may touch the UI; the first activity only blocks on a component
+        // (via its synchronized getInstance) if it needs it before its task finished
+        startupGraph = new StartupGraph()
+                .add(TASK_SESSION, () -> SessionManager.getInstance(this))
+                .add(TASK_API, () -> ApiService.getInstance(this), TASK_SESSION)
+                .add(TASK_PRECONNECT, () -> ApiService.getInstance(this).preconnect(), TASK_API)
+                .add(TASK_OSMDROID, this::configureOsmdroid);
+        startupGraph.start(createStartupExecutor());
+
+        StartupTrace.mark("application_on_create_done");
     }
-}
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        ImageLoader.onTrimMemory(level);
+    }
+
+    public static StartupGraph getStartupGraph() {
+        return startupGraph;
+    }
+
+    // True once the named startup task has run (e.g. so screens can skip duplicate init)
+    public static boolean isStartupTaskDone(String name) {
+        return startupGraph != null && startupGraph.isDone(name);
+    }
+
+    private void configureOsmdroid() {
+        Configuration.getInstance().load(this, getSharedPreferences("osmdroid", 0));
+        Configuration.getInstance().setUserAgentValue("BankingApp/1.0");
+    }
+
+    // Small background pool whose threads go away once startup is over
+    private static ThreadPoolExecutor createStartupExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(STARTUP_THREADS, STARTUP_THREADS,
+                5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, "startup-" + count.incrementAndGet());
+                    thread.setUncaughtExceptionHandler((t, e) -> Log.e(TAG, "Startup thread crashed", e));
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -17,6 +17,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.final_mobile.core.CurrencyFormatter;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.services.AdminService;
 import com.google.android.material.button.MaterialButton;
@@ -25,10 +26,8 @@ import com.google.android.material.switchmaterial.SwitchMaterial;
 import com.google.android.material.textfield.TextInputEditText;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 public class CustomerListFragment extends Fragment {
 
@@ -573,10 +572,8 @@ public class CustomerListFragment extends Fragment {
             llAccountList.setVisibility(View.VISIBLE);
             llAccountList.removeAllViews();
             
-            NumberFormat currencyFormat = NumberFormat.getNumberInstance(Locale.getDefault());
-            
             for (Account account : accounts) {
-                View accountView = createAccountDetailView(account, currencyFormat);
+                View accountView = createAccountDetailView(account);
                 llAccountList.addView(accountView);
             }
         }
@@ -584,7 +581,7 @@ public class CustomerListFragment extends Fragment {
         dialog.show();
     }
     
-    private View createAccountDetailView(Account account, NumberFormat currencyFormat) {
+    private View createAccountDetailView(Account account) {
         LayoutInflater inflater = LayoutInflater.from(getContext());
         MaterialCardView cardView = (MaterialCardView) inflater.inflate(R.layout.item_account_detail, null);
         
@@ -599,8 +596,7 @@ public class CustomerListFragment extends Fragment {
         tvAccountNumber.setText("Số tài khoản: " + accountNumber);
         
         // Set balance
-        BigDecimal balance = account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO;
-        String balanceStr = currencyFormat.format(balance) + " " + (account.getCurrency() != null ? account.getCurrency() : "VND");
+        String balanceStr = CurrencyFormatter.format(account.getBalance());
         tvBalance.setText(balanceStr);
         
         // Set interest rate
@@ -4,10 +4,9 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Matrix;
 import android.hardware.Camera;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
@@ -22,15 +21,17 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import com.example.final_mobile.services.EkycService;
+import com.example.final_mobile.utils.FaceImagePipeline;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class FaceCaptureActivity extends AppCompatActivity {
     private static final String TAG = "FaceCaptureActivity";
     private static final int CAMERA_PERMISSION_REQUEST = 100;
     private static final int CAMERA_REQUEST = 101;
+    private static final int CAMERA_ID = 0;
 
     private Camera camera;
     private SurfaceView surfaceView;
@@ -40,88 +41,90 @@ public class FaceCaptureActivity extends AppCompatActivity {
     private Button retakeButton;
     private Button uploadButton;
     private Bitmap capturedBitmap;
-    private File capturedImageFile;
+    private volatile FaceImagePipeline.Result capturedImage;
     private EkycService ekycService;
+    private final FaceImagePipeline imagePipeline = new FaceImagePipeline();
+    private final ExecutorService processingExecutor = Executors.newSingleThreadExecutor();
+    private long captureStartTime;
 
     private Camera.PictureCallback pictureCallback = new Camera.PictureCallback() {
         @Override
         public void onPictureTaken(byte[] data, Camera camera) {
-            try {
-                if (data == null || data.length == 0) {
-                    Log.e(TAG, "Picture data is null or empty");
-                    runOnUiThread(() -> {
-                        Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không có dữ liệu ảnh", Toast.LENGTH_SHORT).show();
-                        camera.startPreview(); // Restart preview
-                    });
-                    return;
-                }
-                
-                // Convert byte array to bitmap
-                Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length);
-                
-                if (bitmap == null) {
-                    Log.e(TAG, "Failed to decode bitmap");
-                    runOnUiThread(() -> {
-                        Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không thể xử lý ảnh", Toast.LENGTH_SHORT).show();
-                        camera.startPreview(); // Restart preview
-                    });
-                    return;
-                }
-                
-                // Rotate bitmap if needed (camera orientation)
-                Matrix matrix = new Matrix();
-                matrix.postRotate(90); // Most Android cameras need 90 degree rotation
-                Bitmap rotatedBitmap = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
-                
-                // Recycle original bitmap to free memory
-                if (bitmap != rotatedBitmap) {
-                    bitmap.recycle();
-                }
-                
-                capturedBitmap = rotatedBitmap;
-                
-                // Save to file
-                capturedImageFile = saveBitmapToFile(rotatedBitmap);
-                
-                if (capturedImageFile == null) {
-                    Log.e(TAG, "Failed to save image file");
-                    runOnUiThread(() -> {
-                        Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không thể lưu ảnh", Toast.LENGTH_SHORT).show();
-                        camera.startPreview(); // Restart preview
-                    });
-                    return;
-                }
-                
-                // Show preview and buttons
+            if (data == null || data.length == 0) {
+                Log.e(TAG, "Picture data is null or empty");
                 runOnUiThread(() -> {
-                    captureButton.setVisibility(View.GONE);
-                    retakeButton.setVisibility(View.VISIBLE);
-                    uploadButton.setVisibility(View.VISIBLE);
-                    Toast.makeText(FaceCaptureActivity.this, "Ảnh đã được chụp. Vui lòng kiểm tra và tải lên.", Toast.LENGTH_SHORT).show();
+                    Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không có dữ liệu ảnh", Toast.LENGTH_SHORT).show();
+                    resetCaptureButton();
+                    camera.startPreview(); // Restart preview
                 });
-                
-                // Restart preview
-                camera.startPreview();
-                
-            } catch (OutOfMemoryError e) {
-                Log.e(TAG, "Out of memory processing image", e);
+                return;
+            }
+
+            // Decode/rotate/encode off the main thread; the pipeline reuses its buffers between retakes
+            processingExecutor.execute(() -> processCapturedImage(data));
+        }
+    };
+
+    private void processCapturedImage(byte[] data) {
+        try {
+            FaceImagePipeline.Result result = imagePipeline.process(data, getCaptureRotation());
+
+            if (result == null) {
+                Log.e(TAG, "Failed to decode bitmap");
                 runOnUiThread(() -> {
-                    Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không đủ bộ nhớ để xử lý ảnh", Toast.LENGTH_LONG).show();
-                    if (camera != null) {
-                        camera.startPreview();
-                    }
+                    Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không thể xử lý ảnh", Toast.LENGTH_SHORT).show();
+                    resetCaptureButton();
+                    restartPreview();
                 });
-            } catch (Exception e) {
-                Log.e(TAG, "Error processing captured image", e);
+                return;
+            }
+
+            if (!result.isAcceptable()) {
+                // Rejected locally in a few ms instead of after an upload round trip
+                String reason = result.quality.getPrimaryIssue().getMessage();
+                Log.d(TAG, "Capture rejected by quality gate: " + result.quality);
                 runOnUiThread(() -> {
-                    Toast.makeText(FaceCaptureActivity.this, "Lỗi xử lý ảnh: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    if (camera != null) {
-                        camera.startPreview();
-                    }
+                    Toast.makeText(FaceCaptureActivity.this, reason, Toast.LENGTH_LONG).show();
+                    resetCaptureButton();
+                    restartPreview();
                 });
+                return;
             }
+
+            capturedImage = result;
+            capturedBitmap = result.bitmap;
+
+            Runtime runtime = Runtime.getRuntime();
+            long usedHeapKb = (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+            Log.d(TAG, "Capture-to-ready: " + (SystemClock.elapsedRealtime() - captureStartTime) + " ms"
+                    + " (processing " + result.processingMs + " ms), JPEG " + result.jpegLength / 1024 + " KB"
+                    + ", heap used " + usedHeapKb + " KB / max " + runtime.maxMemory() / 1024 + " KB");
+
+            // Show preview and buttons
+            runOnUiThread(() -> {
+                captureButton.setVisibility(View.GONE);
+                retakeButton.setVisibility(View.VISIBLE);
+                uploadButton.setVisibility(View.VISIBLE);
+                Toast.makeText(FaceCaptureActivity.this, "Ảnh đã được chụp. Vui lòng kiểm tra và tải lên.", Toast.LENGTH_SHORT).show();
+                restartPreview();
+            });
+
+        } catch (OutOfMemoryError e) {
+            Log.e(TAG, "Out of memory processing image", e);
+            runOnUiThread(() -> {
+                Toast.makeText(FaceCaptureActivity.this, "Lỗi: Không đủ bộ nhớ để xử lý ảnh", Toast.LENGTH_LONG).show();
+                resetCaptureButton();
+                restartPreview();
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error processing captured image", e);
+            runOnUiThread(() -> {
+                Toast.makeText(FaceCaptureActivity.this, "Lỗi xử lý ảnh: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                resetCaptureButton();
+                restartPreview();
+            });
         }
-    };
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -164,6 +167,7 @@ public class FaceCaptureActivity extends AppCompatActivity {
                 // Disable button during capture
                 captureButton.setEnabled(false);
                 captureButton.setText("Đang chụp...");
+                captureStartTime = SystemClock.elapsedRealtime();
                 
                 // Take picture with shutter callback for better UX
                 camera.takePicture(
@@ -191,15 +195,12 @@ public class FaceCaptureActivity extends AppCompatActivity {
         
         // Retake button click
         retakeButton.setOnClickListener(v -> {
+            // Keep the pipeline's bitmap and buffer; the next capture overwrites them
             capturedBitmap = null;
-            if (capturedImageFile != null && capturedImageFile.exists()) {
-                capturedImageFile.delete();
-            }
-            capturedImageFile = null;
+            capturedImage = null;
             
             captureButton.setVisibility(View.VISIBLE);
-            captureButton.setEnabled(true);
-            captureButton.setText("Chụp ảnh");
+            resetCaptureButton();
             retakeButton.setVisibility(View.GONE);
             uploadButton.setVisibility(View.GONE);
             
@@ -217,7 +218,7 @@ public class FaceCaptureActivity extends AppCompatActivity {
         
         // Upload button click
         uploadButton.setOnClickListener(v -> {
-            if (capturedImageFile != null && capturedImageFile.exists()) {
+            if (capturedImage != null) {
                 uploadFaceImage();
             } else {
                 Toast.makeText(this, "Không tìm thấy ảnh. Vui lòng chụp lại.", Toast.LENGTH_SHORT).show();
@@ -248,7 +249,7 @@ public class FaceCaptureActivity extends AppCompatActivity {
     private void initializeCamera() {
         try {
             // Try to open camera (0 = back camera)
-            camera = Camera.open(0);
+            camera = Camera.open(CAMERA_ID);
             if (camera == null) {
                 Toast.makeText(this, "Không thể mở camera. Vui lòng thử lại.", Toast.LENGTH_SHORT).show();
                 return;
@@ -281,7 +282,7 @@ public class FaceCaptureActivity extends AppCompatActivity {
             parameters.setJpegQuality(85);
             
             camera.setParameters(parameters);
-            camera.setDisplayOrientation(90);
+            camera.setDisplayOrientation(getCaptureRotation());
             
         } catch (Exception e) {
             Log.e(TAG, "Error initializing camera", e);
@@ -305,16 +306,47 @@ public class FaceCaptureActivity extends AppCompatActivity {
         return bestSize;
     }
     
+    // Smallest picture size that still covers the upload target; decoding a 12MP frame only to downsample it is wasted work
     private Camera.Size getBestPictureSize(Camera.Parameters parameters) {
         Camera.Size bestSize = null;
+        Camera.Size largestSize = null;
         for (Camera.Size size : parameters.getSupportedPictureSizes()) {
-            if (bestSize == null) {
-                bestSize = size;
-            } else if (size.width * size.height > bestSize.width * bestSize.height) {
+            if (largestSize == null || size.width * size.height > largestSize.width * largestSize.height) {
+                largestSize = size;
+            }
+            if (Math.max(size.width, size.height) >= FaceImagePipeline.TARGET_MAX_EDGE
+                    && (bestSize == null || size.width * size.height < bestSize.width * bestSize.height)) {
                 bestSize = size;
             }
         }
-        return bestSize;
+        return bestSize != null ? bestSize : largestSize;
+    }
+
+    // Rotation needed to show/upload the picture upright in portrait
+    private int getCaptureRotation() {
+        try {
+            Camera.CameraInfo info = new Camera.CameraInfo();
+            Camera.getCameraInfo(CAMERA_ID, info);
+            return info.orientation;
+        } catch (Exception e) {
+            Log.w(TAG, "Unable to read camera orientation, assuming 90", e);
+            return 90; // Most Android cameras need 90 degree rotation
+        }
+    }
+
+    private void resetCaptureButton() {
+        captureButton.setEnabled(true);
+        captureButton.setText("Chụp ảnh");
+    }
+
+    private void restartPreview() {
+        if (camera != null) {
+            try {
+                camera.startPreview();
+            } catch (Exception e) {
+                Log.e(TAG, "Error restarting preview", e);
+            }
+        }
     }
 
     private SurfaceHolder.Callback surfaceCallback = new SurfaceHolder.Callback() {
@@ -381,37 +413,29 @@ public class FaceCaptureActivity extends AppCompatActivity {
         }
     }
 
-    private File saveBitmapToFile(Bitmap bitmap) {
-        try {
-            File cacheDir = getCacheDir();
-            File imageFile = new File(cacheDir, "face_capture_" + System.currentTimeMillis() + ".jpg");
-            
-            FileOutputStream fos = new FileOutputStream(imageFile);
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 85, fos);
-            fos.flush();
-            fos.close();
-            
-            return imageFile;
-        } catch (IOException e) {
-            Log.e(TAG, "Error saving bitmap to file", e);
-            return null;
-        }
-    }
-
     private void uploadFaceImage() {
-        if (capturedImageFile == null || !capturedImageFile.exists()) {
+        FaceImagePipeline.Result image = capturedImage;
+        if (image == null) {
             Toast.makeText(this, "Không tìm thấy ảnh. Vui lòng chụp lại.", Toast.LENGTH_SHORT).show();
             return;
         }
 
+        // The upload reads the pipeline buffer directly, so block retakes until it finishes
+        CharSequence uploadButtonText = uploadButton.getText();
         uploadButton.setEnabled(false);
+        retakeButton.setEnabled(false);
         Toast.makeText(this, "Đang tải ảnh lên...", Toast.LENGTH_SHORT).show();
 
-        ekycService.uploadFaceImage(capturedImageFile, new EkycService.EkycCallback() {
+        ekycService.uploadFaceImage(image.jpeg, image.jpegLength, (bytesSent, totalBytes) -> {
+            int percent = totalBytes > 0 ? (int) (bytesSent * 100 / totalBytes) : 0;
+            runOnUiThread(() -> uploadButton.setText("Đang tải " + percent + "%"));
+        }, new EkycService.EkycCallback() {
             @Override
             public void onSuccess(org.json.JSONObject data) {
                 runOnUiThread(() -> {
                     uploadButton.setEnabled(true);
+                    uploadButton.setText(uploadButtonText);
+                    retakeButton.setEnabled(true);
                     try {
                         String status = data.optString("verification_status", "PENDING");
                         String message = "Tải ảnh thành công! Trạng thái xác thực: " + status;
@@ -435,6 +459,8 @@ public class FaceCaptureActivity extends AppCompatActivity {
             public void onError(String error) {
                 runOnUiThread(() -> {
                     uploadButton.setEnabled(true);
+                    uploadButton.setText(uploadButtonText);
+                    retakeButton.setEnabled(true);
                     Toast.makeText(FaceCaptureActivity.this, "Lỗi: " + error, Toast.LENGTH_LONG).show();
                 });
             }
@@ -459,6 +485,9 @@ public class FaceCaptureActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         releaseCamera();
+        // Release after any in-flight processing; the JPEG buffer itself stays valid for a pending upload
+        processingExecutor.execute(imagePipeline::release);
+        processingExecutor.shutdown();
     }
 }
 
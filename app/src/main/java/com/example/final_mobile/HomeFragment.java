@@ -20,19 +20,21 @@ import android.view.LayoutInflater;
 import android.widget.LinearLayout;
 import android.widget.ImageView;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.models.Transaction;
 import com.example.final_mobile.models.User;
 import com.example.final_mobile.services.AccountService;
+import com.example.final_mobile.services.SessionDataStore;
 import com.example.final_mobile.services.SessionManager;
 import com.example.final_mobile.services.TransactionService;
+import com.example.final_mobile.utils.LoginTimeline;
 import com.google.android.material.card.MaterialCardView;
 
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class HomeFragment extends Fragment {
 
@@ -57,6 +59,8 @@ public class HomeFragment extends Fragment {
     private AccountService accountService;
     private TransactionService transactionService;
     private SessionManager sessionManager;
+    // onViewCreated already loaded the data, so the onResume that follows it skips the reload
+    private boolean skipResumeReload;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -75,8 +79,66 @@ public class HomeFragment extends Fragment {
         
         initViews(view);
         setupUI();
-        loadUserData();
-        loadRecentTransactions();
+        // Last-known balance from the quick unlock cache renders before the network call returns
+        Account cachedAccount = accountService.getCachedPrimaryAccount();
+        if (cachedAccount != null) {
+            updatePrimaryAccountDisplay(cachedAccount);
+        }
+        if (SessionDataStore.getInstance().claimFirstRender()) {
+            renderFromSessionStore();
+        } else {
+            loadUserData();
+            loadRecentTransactions();
+        }
+        skipResumeReload = true;
+
+        view.post(() -> LoginTimeline.reportHomeFrame("HomeFragment"));
+    }
+
+    // Use what the post-login prefetch loaded (waiting for it if still in flight) and only go to
+    // the network for what it could not provide
+    private void renderFromSessionStore() {
+        SessionDataStore store = SessionDataStore.getInstance();
+
+        store.profile.whenAvailable(user -> runIfAttached(() -> {
+            if (user != null && tvWelcomeMessage != null) {
+                tvWelcomeMessage.setText("Chào " + getFirstName(user.getFullName()) + "!");
+            }
+        }));
+
+        boolean waitingForAccount = store.primaryAccount.whenAvailable(account -> runIfAttached(() -> {
+            if (account != null) {
+                updatePrimaryAccountDisplay(account);
+                LoginTimeline.mark("home_balance_from_memory");
+            } else {
+                loadUserData();
+            }
+        }));
+        if (!waitingForAccount) {
+            loadUserData();
+        }
+
+        boolean waitingForTransactions = store.recentTransactions.whenAvailable(transactions -> runIfAttached(() -> {
+            if (transactions != null) {
+                updateRecentTransactionsDisplay(transactions);
+                LoginTimeline.mark("home_transactions_from_memory");
+            } else {
+                loadRecentTransactions();
+            }
+        }));
+        if (!waitingForTransactions) {
+            loadRecentTransactions();
+        }
+    }
+
+    private void runIfAttached(Runnable action) {
+        if (getActivity() != null) {
+            getActivity().runOnUiThread(() -> {
+                if (isAdded() && getView() != null) {
+                    action.run();
+                }
+            });
+        }
     }
 
     private void initViews(View view) {
@@ -177,7 +239,7 @@ public class HomeFragment extends Fragment {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {}
+            public void onBalanceSuccess(Money balance) {}
 
             @Override
             public void onError(String error) {
@@ -256,7 +318,7 @@ public class HomeFragment extends Fragment {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {}
+            public void onBalanceSuccess(Money balance) {}
 
             @Override
             public void onError(String error) {
@@ -305,7 +367,7 @@ public class HomeFragment extends Fragment {
                     return;
                 }
                 
-                if (amount.compareTo(account.getBalance()) > 0) {
+                if (amount.compareTo(account.getBalance().toBigDecimal()) > 0) {
                     Toast.makeText(getContext(), "Số dư không đủ", Toast.LENGTH_SHORT).show();
                     return;
                 }
@@ -352,7 +414,7 @@ public class HomeFragment extends Fragment {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {}
+            public void onBalanceSuccess(Money balance) {}
 
             @Override
             public void onError(String error) {
@@ -398,7 +460,7 @@ public class HomeFragment extends Fragment {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {}
+            public void onBalanceSuccess(Money balance) {}
 
             @Override
             public void onError(String error) {
@@ -550,7 +612,7 @@ public class HomeFragment extends Fragment {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {
+            public void onBalanceSuccess(Money balance) {
                 // Not used in this context
             }
 
@@ -607,7 +669,7 @@ public class HomeFragment extends Fragment {
     // Update primary account display - ensure balance and account number are synchronized
     private void updatePrimaryAccountDisplay(Account primaryAccount) {
         if (primaryAccount != null) {
-            BigDecimal balance = primaryAccount.getBalance();
+            Money balance = primaryAccount.getBalance();
             String formattedBalance = primaryAccount.getFormattedBalance();
             
             Log.d(TAG, "🔄 [DEBUG] Updating display - Balance: " + balance + 
@@ -674,7 +736,7 @@ public class HomeFragment extends Fragment {
         
         // Update mortgage account display
         if (mortgageAccount != null && tvMortgagePayment != null) {
-            BigDecimal monthlyPayment = accountService.calculateMonthlyMortgagePayment(mortgageAccount);
+            Money monthlyPayment = accountService.calculateMonthlyMortgagePayment(mortgageAccount);
             tvMortgagePayment.setText("Trả góp tháng: " + formatCurrency(monthlyPayment));
         }
     }
@@ -689,7 +751,11 @@ public class HomeFragment extends Fragment {
     }
 
     private String formatCurrency(BigDecimal amount) {
-        return String.format("%,.0f VNĐ", amount.doubleValue());
+        return CurrencyFormatter.format(amount);
+    }
+
+    private String formatCurrency(Money amount) {
+        return CurrencyFormatter.format(amount);
     }
 
     private void loadRecentTransactions() {
@@ -781,19 +847,15 @@ public class HomeFragment extends Fragment {
         // Set description
         String description = transaction.getDescription();
         if (description == null || description.isEmpty()) {
-            description = getTransactionTypeName(transactionType);
+            description = DisplayFormatter.transactionTypeLabel(transactionType, "Giao dịch");
         }
         tvDescription.setText(description);
 
         // Set time
-        if (transaction.getCreatedAt() != null) {
-            tvTime.setText(formatTransactionTime(transaction.getCreatedAt()));
-        } else {
-            tvTime.setText("Vừa xong");
-        }
+        tvTime.setText(DisplayFormatter.formatRelative(transaction.getCreatedAt()));
 
         // Set amount with color
-        BigDecimal amount = transaction.getAmount();
+        Money amount = transaction.getAmount();
         if (amount != null) {
             boolean isNegative = "TRANSFER".equals(transactionType) || "WITHDRAWAL".equals(transactionType);
             String amountText = (isNegative ? "-" : "+") + formatCurrency(amount);
@@ -813,48 +875,14 @@ public class HomeFragment extends Fragment {
         return view;
     }
 
-    private String getTransactionTypeName(String type) {
-        if (type == null) return "Giao dịch";
-        switch (type) {
-            case "TRANSFER": return "Chuyển tiền";
-            case "DEPOSIT": return "Nạp tiền";
-            case "WITHDRAWAL": return "Rút tiền";
-            case "PAYMENT": return "Thanh toán";
-            default: return "Giao dịch";
-        }
-    }
-
-    private String formatTransactionTime(Date date) {
-        if (date == null) return "Vừa xong";
-        
-        Date now = new Date();
-        long diff = now.getTime() - date.getTime();
-        long diffMinutes = diff / (60 * 1000);
-        long diffHours = diff / (60 * 60 * 1000);
-        long diffDays = diff / (24 * 60 * 60 * 1000);
-
-        if (diffMinutes < 1) {
-            return "Vừa xong";
-        } else if (diffMinutes < 60) {
-            return diffMinutes + " phút trước";
-        } else if (diffHours < 24) {
-            return diffHours + " giờ trước";
-        } else if (diffDays == 1) {
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm", Locale.getDefault());
-            return "Hôm qua, " + sdf.format(date);
-        } else if (diffDays < 7) {
-            SimpleDateFormat sdf = new SimpleDateFormat("EEEE, HH:mm", Locale.getDefault());
-            return sdf.format(date);
-        } else {
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy, HH:mm", Locale.getDefault());
-            return sdf.format(date);
-        }
-    }
-
     @Override
     public void onResume() {
         super.onResume();
-        // Refresh data when fragment becomes visible
+        // Refresh data when fragment becomes visible again
+        if (skipResumeReload) {
+            skipResumeReload = false;
+            return;
+        }
         loadUserData();
         loadRecentTransactions();
     }
@@ -10,6 +10,7 @@ import android.view.ViewGroup;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.SeekBar;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -20,15 +21,17 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.InterestProjector;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.services.AccountService;
 import com.example.final_mobile.services.SessionManager;
 
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 public class InterestCalculatorFragment extends Fragment {
     private static final String TAG = "InterestCalculatorFragment";
@@ -38,6 +41,9 @@ public class InterestCalculatorFragment extends Fragment {
     private TextView tvInterestRate;
     private TextView tvProjectedBalance;
     private TextView tvTotalInterest;
+    private TextView tvMonths;
+    private SeekBar seekBarMonths;
+    private Spinner spinnerCompounding;
     private RecyclerView rvProjection;
     private Button btnCalculate;
     private AccountService accountService;
@@ -46,6 +52,14 @@ public class InterestCalculatorFragment extends Fragment {
     private List<Account> savingAccounts = new ArrayList<>();
     private ProjectionAdapter projectionAdapter;
 
+    private static final int DEFAULT_MONTHS = 12;
+    // Spinner order of spinner_compounding
+    private static final InterestProjector.Compounding[] COMPOUNDING_OPTIONS = {
+            InterestProjector.Compounding.MONTHLY,
+            InterestProjector.Compounding.QUARTERLY,
+            InterestProjector.Compounding.AT_MATURITY
+    };
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -72,14 +86,51 @@ public class InterestCalculatorFragment extends Fragment {
         tvInterestRate = view.findViewById(R.id.tv_interest_rate);
         tvProjectedBalance = view.findViewById(R.id.tv_projected_balance);
         tvTotalInterest = view.findViewById(R.id.tv_total_interest);
+        tvMonths = view.findViewById(R.id.tv_months);
+        seekBarMonths = view.findViewById(R.id.seekbar_months);
+        spinnerCompounding = view.findViewById(R.id.spinner_compounding);
         rvProjection = view.findViewById(R.id.rv_projection);
         btnCalculate = view.findViewById(R.id.btn_calculate);
 
         btnCalculate.setOnClickListener(v -> calculateProjection());
+
+        // The projection is computed on the device, so it can follow the slider as it moves
+        seekBarMonths.setMax(InterestProjector.MAX_MONTHS - 1);
+        seekBarMonths.setProgress(DEFAULT_MONTHS - 1);
+        tvMonths.setText("Kỳ hạn: " + DEFAULT_MONTHS + " tháng");
+        seekBarMonths.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                tvMonths.setText("Kỳ hạn: " + (progress + 1) + " tháng");
+                if (fromUser) {
+                    calculateProjection();
+                }
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {}
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {}
+        });
+
+        ArrayAdapter<String> compoundingAdapter = new ArrayAdapter<>(requireContext(),
+            android.R.layout.simple_spinner_item, new String[]{"Hàng tháng", "Hàng quý", "Cuối kỳ"});
+        compoundingAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        spinnerCompounding.setAdapter(compoundingAdapter);
+        spinnerCompounding.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                calculateProjection();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
     }
 
     private void setupRecyclerView() {
-        projectionAdapter = new ProjectionAdapter(new ArrayList<>());
+        projectionAdapter = new ProjectionAdapter();
         rvProjection.setLayoutManager(new LinearLayoutManager(getContext()));
         rvProjection.setAdapter(projectionAdapter);
     }
@@ -125,7 +176,7 @@ public class InterestCalculatorFragment extends Fragment {
             public void onSingleAccountSuccess(Account account) {}
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {}
+            public void onBalanceSuccess(Money balance) {}
 
             @Override
             public void onError(String error) {
@@ -166,8 +217,7 @@ public class InterestCalculatorFragment extends Fragment {
     private void updateAccountInfo(Account account) {
         tvCurrentBalance.setText(account.getFormattedBalance());
         if (account.getInterestRate() != null) {
-            tvInterestRate.setText(String.format(Locale.getDefault(), "%.2f%%/năm", 
-                account.getInterestRate().doubleValue()));
+            tvInterestRate.setText(DisplayFormatter.formatAnnualRate(account.getInterestRate()));
         } else {
             tvInterestRate.setText("Chưa có");
         }
@@ -185,64 +235,37 @@ public class InterestCalculatorFragment extends Fragment {
             return;
         }
 
-        progressDialog.setMessage("Đang tính toán dự kiến lãi suất...");
-        progressDialog.show();
-
-        accountService.getInterestProjection(selectedAccount.getId(), 12, 
-            new AccountService.InterestProjectionCallback() {
-                @Override
-                public void onSuccess(AccountService.InterestProjection projection) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            displayProjection(projection);
-                        });
-                    }
-                }
-
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            Toast.makeText(getContext(), "Lỗi: " + error, Toast.LENGTH_SHORT).show();
-                        });
-                    }
-                }
-            });
+        // Same monthly-compounding formula as accounts/{id}/interest-projection, in exact minor units;
+        // a 360-month schedule takes a few microseconds, so there is no round trip or spinner
+        int compoundingPosition = Math.max(0, spinnerCompounding.getSelectedItemPosition());
+        InterestProjector.Schedule schedule = InterestProjector.project(
+            selectedAccount.getBalance().toBigDecimal().max(BigDecimal.ZERO), selectedAccount.getInterestRate(),
+            seekBarMonths.getProgress() + 1, COMPOUNDING_OPTIONS[compoundingPosition]);
+        displayProjection(schedule);
     }
 
-    private void displayProjection(AccountService.InterestProjection projection) {
-        NumberFormat formatter = NumberFormat.getNumberInstance(Locale.getDefault());
-        formatter.setMaximumFractionDigits(0);
+    private void displayProjection(InterestProjector.Schedule schedule) {
+        tvProjectedBalance.setText(CurrencyFormatter.formatVnd(InterestProjector.toDong(schedule.getFinalBalance())));
+        tvTotalInterest.setText(CurrencyFormatter.formatVnd(InterestProjector.toDong(schedule.getTotalInterest())));
 
-        tvProjectedBalance.setText(formatter.format(projection.getProjectedBalance()) + " VND");
-        tvTotalInterest.setText(formatter.format(projection.getTotalInterest()) + " VND");
-
-        if (projection.getMonthlyDetails() != null && !projection.getMonthlyDetails().isEmpty()) {
-            projectionAdapter.setProjections(projection.getMonthlyDetails());
-        } else {
-            projectionAdapter.setProjections(new ArrayList<>());
-        }
+        projectionAdapter.setSchedule(schedule);
         
         // Show message if balance is zero
-        if (projection.getCurrentBalance() != null && 
-            projection.getCurrentBalance().compareTo(BigDecimal.ZERO) == 0) {
+        if (schedule.getPrincipal() == 0) {
             Toast.makeText(getContext(), 
                 "Số dư hiện tại là 0 VND. Vui lòng nạp tiền vào tài khoản để tính lãi suất.", 
                 Toast.LENGTH_LONG).show();
         }
     }
 
+    // Binds rows straight from the schedule, so only the months scrolled into view are formatted
     private class ProjectionAdapter extends RecyclerView.Adapter<ProjectionAdapter.ViewHolder> {
-        private List<AccountService.MonthlyProjection> projections;
-
-        public ProjectionAdapter(List<AccountService.MonthlyProjection> projections) {
-            this.projections = projections;
-        }
+        // Reused across binds; rows are only bound on the main thread
+        private final StringBuilder line = new StringBuilder(96);
+        private InterestProjector.Schedule schedule;
 
-        public void setProjections(List<AccountService.MonthlyProjection> projections) {
-            this.projections = projections;
+        public void setSchedule(InterestProjector.Schedule schedule) {
+            this.schedule = schedule;
             notifyDataSetChanged();
         }
 
@@ -256,21 +279,19 @@ public class InterestCalculatorFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-            AccountService.MonthlyProjection projection = projections.get(position);
-            NumberFormat formatter = NumberFormat.getNumberInstance(Locale.getDefault());
-            formatter.setMaximumFractionDigits(0);
-
-            holder.tvTitle.setText("Tháng " + projection.getMonth());
-            holder.tvSubtitle.setText(String.format(Locale.getDefault(),
-                "Số dư: %s VND | Lãi tháng: %s VND | Tổng lãi: %s VND",
-                formatter.format(projection.getBalance()),
-                formatter.format(projection.getMonthlyInterest()),
-                formatter.format(projection.getCumulativeInterest())));
+            int month = position + 1;
+            holder.tvTitle.setText("Tháng " + month);
+            line.setLength(0);
+            line.append("Số dư: ");
+            CurrencyFormatter.appendGrouped(line, InterestProjector.toDong(schedule.getBalance(month))).append(" VNĐ | Lãi tháng: ");
+            CurrencyFormatter.appendGrouped(line, InterestProjector.toDong(schedule.getInterest(month))).append(" VNĐ | Tổng lãi: ");
+            CurrencyFormatter.appendGrouped(line, InterestProjector.toDong(schedule.getCumulativeInterest(month))).append(" VNĐ");
+            holder.tvSubtitle.setText(line.toString());
         }
 
         @Override
         public int getItemCount() {
-            return projections.size();
+            return schedule != null ? schedule.getMonths() : 0;
         }
 
         class ViewHolder extends RecyclerView.ViewHolder {
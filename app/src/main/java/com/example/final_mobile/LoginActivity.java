@@ -13,30 +13,39 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.final_mobile.models.User;
 import com.example.final_mobile.services.AuthService;
+import com.example.final_mobile.services.QuickUnlockManager;
 import com.example.final_mobile.services.SessionManager;
+import com.example.final_mobile.utils.BiometricHelper;
+import com.example.final_mobile.utils.LoginTimeline;
+import com.example.final_mobile.utils.StartupTrace;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 import android.widget.TextView;
 import android.widget.EditText;
 import android.view.LayoutInflater;
 
+import javax.crypto.Cipher;
+
 public class LoginActivity extends AppCompatActivity {
 
     private TextInputEditText etEmail, etPassword;
-    private MaterialButton btnLogin;
+    private MaterialButton btnLogin, btnQuickUnlock;
     private TextView tvForgotPassword, tvRegisterLink;
     private ProgressDialog progressDialog;
     private AuthService authService;
     private SessionManager sessionManager;
+    private QuickUnlockManager quickUnlockManager;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        StartupTrace.mark("login_on_create");
         setContentView(R.layout.activity_login);
 
         // Initialize services
         authService = new AuthService(this);
         sessionManager = SessionManager.getInstance(this);
+        quickUnlockManager = QuickUnlockManager.getInstance(this);
 
         // Always show login screen - user must login every time
         // If you want auto-login, uncomment the code below:
@@ -47,12 +56,25 @@ public class LoginActivity extends AppCompatActivity {
 
         initViews();
         setupUI();
+
+        // Quick unlock replaces the login round trip when it was enabled on this device
+        if (quickUnlockManager.isAvailable()) {
+            btnQuickUnlock.setVisibility(View.VISIBLE);
+            if (savedInstanceState == null) {
+                showQuickUnlockPrompt();
+            }
+        }
+
+        // Runs after the first layout/draw pass of this window
+        getWindow().getDecorView().post(() ->
+                StartupTrace.reportFirstFrame("LoginActivity", BankingApplication.getStartupGraph()));
     }
 
     private void initViews() {
         etEmail = findViewById(R.id.et_email);
         etPassword = findViewById(R.id.et_password);
         btnLogin = findViewById(R.id.btn_login);
+        btnQuickUnlock = findViewById(R.id.btn_quick_unlock);
         tvForgotPassword = findViewById(R.id.tv_forgot_password);
         tvRegisterLink = findViewById(R.id.tv_register_link);
         
@@ -71,6 +93,8 @@ public class LoginActivity extends AppCompatActivity {
             }
         });
 
+        btnQuickUnlock.setOnClickListener(v -> showQuickUnlockPrompt());
+
         // Set click listener for forgot password
         tvForgotPassword.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -102,6 +126,7 @@ public class LoginActivity extends AppCompatActivity {
         // Show loading
         progressDialog.show();
         btnLogin.setEnabled(false);
+        LoginTimeline.begin();
 
         // Call authentication service
         authService.login(email, password, new AuthService.AuthCallback() {
@@ -111,7 +136,7 @@ public class LoginActivity extends AppCompatActivity {
                     progressDialog.dismiss();
                     btnLogin.setEnabled(true);
                     Toast.makeText(LoginActivity.this, "Đăng nhập thành công!", Toast.LENGTH_SHORT).show();
-                    navigateToMainActivity();
+                    offerQuickUnlockThenNavigate();
                 });
             }
 
@@ -126,6 +151,7 @@ public class LoginActivity extends AppCompatActivity {
 
             @Override
             public void onOtpRequired(String message) {
+                LoginTimeline.mark("otp_required");
                 runOnUiThread(() -> {
                     progressDialog.dismiss();
                     btnLogin.setEnabled(true);
@@ -217,7 +243,7 @@ public class LoginActivity extends AppCompatActivity {
                 runOnUiThread(() -> {
                     progressDialog.dismiss();
                     Toast.makeText(LoginActivity.this, "Đăng nhập thành công!", Toast.LENGTH_SHORT).show();
-                    navigateToMainActivity();
+                    offerQuickUnlockThenNavigate();
                 });
             }
 
@@ -236,6 +262,66 @@ public class LoginActivity extends AppCompatActivity {
         });
     }
 
+    private void showQuickUnlockPrompt() {
+        Cipher cipher = quickUnlockManager.createUnlockCipher();
+        if (cipher == null) {
+            // Key invalidated (e.g. a new fingerprint was enrolled): fall back to password login
+            btnQuickUnlock.setVisibility(View.GONE);
+            Toast.makeText(this, "Vui lòng đăng nhập lại bằng mật khẩu", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        BiometricHelper.showCryptoPrompt(this, "Mở khóa nhanh", "Xác thực để mở phiên đăng nhập đã lưu", cipher,
+                new BiometricHelper.CryptoCallback() {
+                    @Override
+                    public void onSuccess(Cipher authorizedCipher) {
+                        LoginTimeline.begin();
+                        if (quickUnlockManager.unlock(authorizedCipher)) {
+                            Intent intent = new Intent(LoginActivity.this, MainActivity.class);
+                            intent.putExtra(MainActivity.EXTRA_QUICK_UNLOCK, true);
+                            startActivity(intent);
+                            finish();
+                        } else {
+                            quickUnlockManager.disable();
+                            btnQuickUnlock.setVisibility(View.GONE);
+                            showErrorDialog("Mở khóa nhanh", "Không thể mở phiên đã lưu. Vui lòng đăng nhập lại.");
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(LoginActivity.this, error, Toast.LENGTH_SHORT).show();
+                    }
+
+                    @Override
+                    public void onCancel() {
+                        // User chose password login
+                    }
+                });
+    }
+
+    private void offerQuickUnlockThenNavigate() {
+        if (quickUnlockManager.isEnabled() || !BiometricHelper.isStrongBiometricAvailable(this)) {
+            if (quickUnlockManager.isEnabled()) {
+                // Re-encrypt the cache with the new session
+                quickUnlockManager.onSessionUpdated();
+            }
+            navigateToMainActivity();
+            return;
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Mở khóa nhanh")
+                .setMessage("Lần sau mở ứng dụng bằng vân tay thay vì nhập mật khẩu và OTP?")
+                .setCancelable(false)
+                .setPositiveButton("Bật", (dialog, which) -> {
+                    quickUnlockManager.enable();
+                    navigateToMainActivity();
+                })
+                .setNegativeButton("Để sau", (dialog, which) -> navigateToMainActivity())
+                .show();
+    }
+
     private void showErrorDialog(String title, String message) {
         new AlertDialog.Builder(this)
                 .setTitle(title)
@@ -3,6 +3,7 @@ package com.example.final_mobile;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.MenuItem;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -10,15 +11,22 @@ import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
 
+import com.example.final_mobile.services.PaymentGatewayService;
+import com.example.final_mobile.services.PaymentStatusTracker;
+import com.example.final_mobile.services.QuickUnlockManager;
 import com.example.final_mobile.services.SessionManager;
+import com.example.final_mobile.utils.LoginTimeline;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class MainActivity extends AppCompatActivity {
 
     private BottomNavigationView bottomNavigation;
     private FragmentManager fragmentManager;
+    public static final String EXTRA_QUICK_UNLOCK = "quick_unlock";
+
     private SessionManager sessionManager;
     private BottomNavigationView.OnNavigationItemSelectedListener navigationListener;
+    private final PaymentStatusTracker.StatusListener paymentStatusListener = this::onPaymentStatusChanged;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -35,6 +43,7 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
         
+        LoginTimeline.mark("main_activity_create");
         setContentView(R.layout.activity_main);
 
         initViews();
@@ -51,6 +60,36 @@ public class MainActivity extends AppCompatActivity {
                 loadFragment(new HomeFragment());
             }
         }
+
+        if (savedInstanceState == null && getIntent().getBooleanExtra(EXTRA_QUICK_UNLOCK, false)) {
+            validateQuickUnlockSession();
+        }
+    }
+
+    // Cached data is already on screen; one background refresh confirms the session is still valid
+    private void validateQuickUnlockSession() {
+        QuickUnlockManager.getInstance(this).validateSession(new QuickUnlockManager.ValidationCallback() {
+            @Override
+            public void onValid() {
+            }
+
+            @Override
+            public void onInvalid() {
+                if (isFinishing()) {
+                    return;
+                }
+                Toast.makeText(MainActivity.this, "Phiên đăng nhập đã hết hạn. Vui lòng đăng nhập lại.", Toast.LENGTH_LONG).show();
+                Intent intent = new Intent(MainActivity.this, LoginActivity.class);
+                intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                startActivity(intent);
+                finish();
+            }
+
+            @Override
+            public void onOffline() {
+                Toast.makeText(MainActivity.this, "Đang hiển thị dữ liệu đã lưu", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void initViews() {
@@ -135,6 +174,27 @@ public class MainActivity extends AppCompatActivity {
         } else {
             // Update last activity time
             sessionManager.updateLastActivity();
+            // Payments left pending in the browser, possibly by an earlier process
+            PaymentStatusTracker.getInstance(this).subscribe(paymentStatusListener);
         }
     }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        PaymentStatusTracker.getInstance(this).unsubscribe(paymentStatusListener);
+    }
+
+    private void onPaymentStatusChanged(PaymentGatewayService.PaymentResult payment, boolean isFinal) {
+        if (isFinal) {
+            Toast.makeText(this, PaymentStatusTracker.describe(payment), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Persist the latest activity timestamp before the process may be killed
+        sessionManager.flushPendingWrites();
+    }
 }
\ No newline at end of file
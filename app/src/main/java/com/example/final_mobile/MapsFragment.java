@@ -77,10 +77,12 @@ public class MapsFragment extends Fragment {
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         
-        // Configure OSMDroid
-        Configuration.getInstance().load(getContext(), 
-            getContext().getSharedPreferences("osmdroid", 0));
-        Configuration.getInstance().setUserAgentValue("BankingApp/1.0");
+        // Configure OSMDroid (normally already done in the background at startup)
+        if (!BankingApplication.isStartupTaskDone(BankingApplication.TASK_OSMDROID)) {
+            Configuration.getInstance().load(getContext(), 
+                getContext().getSharedPreferences("osmdroid", 0));
+            Configuration.getInstance().setUserAgentValue("BankingApp/1.0");
+        }
     }
 
     @Override
@@ -14,14 +14,15 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.services.AdminService;
 import com.example.final_mobile.services.SessionManager;
+import com.example.final_mobile.utils.StatusColors;
 import com.google.android.material.card.MaterialCardView;
 
-import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
 
 public class OfficerHomeFragment extends Fragment {
 
@@ -36,6 +37,7 @@ public class OfficerHomeFragment extends Fragment {
     
     private MaterialCardView cardCustomers;
     private MaterialCardView cardCreateAccount;
+    private MaterialCardView cardApiDiagnostics;
     
     private LinearLayout llRecentTransactions;
     
@@ -79,6 +81,7 @@ public class OfficerHomeFragment extends Fragment {
         
         cardCustomers = view.findViewById(R.id.card_customers);
         cardCreateAccount = view.findViewById(R.id.card_create_account);
+        cardApiDiagnostics = view.findViewById(R.id.card_api_diagnostics);
         
         llRecentTransactions = view.findViewById(R.id.ll_recent_transactions);
         
@@ -96,6 +99,7 @@ public class OfficerHomeFragment extends Fragment {
         // Setup click listeners
         cardCustomers.setOnClickListener(v -> navigateToCustomersFragment());
         cardCreateAccount.setOnClickListener(v -> showCreateAccountDialog());
+        cardApiDiagnostics.setOnClickListener(v -> navigateTo(new ApiDiagnosticsFragment()));
         btnLoadMoreTransactions.setOnClickListener(v -> loadMoreTransactions());
     }
 
@@ -255,37 +259,16 @@ public class OfficerHomeFragment extends Fragment {
             tvTransactionId.setText("GD: N/A");
         }
         
-        tvAmount.setText(formatCurrency(transaction.getAmount() != null ? transaction.getAmount() : BigDecimal.ZERO));
-        tvType.setText(getTransactionTypeName(transaction.getType()));
+        tvAmount.setText(formatCurrency(transaction.getAmount() != null ? transaction.getAmount() : Money.ZERO));
+        tvType.setText(DisplayFormatter.transactionTypeLabel(transaction.getType()));
         
-        String status = transaction.getStatus();
-        tvStatus.setText(status != null ? status : "N/A");
-        
-        // Set status color
-        if ("COMPLETED".equals(status)) {
-            tvStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark, null));
-        } else if ("PENDING".equals(status)) {
-            tvStatus.setTextColor(getResources().getColor(android.R.color.holo_orange_dark, null));
-        } else if ("FAILED".equals(status)) {
-            tvStatus.setTextColor(getResources().getColor(android.R.color.holo_red_dark, null));
-        }
+        StatusColors.bind(tvStatus, transaction.getStatus());
 
         return view;
     }
 
-    private String getTransactionTypeName(String type) {
-        switch (type) {
-            case "TRANSFER": return "Chuyển tiền";
-            case "DEPOSIT": return "Nạp tiền";
-            case "WITHDRAWAL": return "Rút tiền";
-            case "UTILITY": return "Tiện ích";
-            default: return type;
-        }
-    }
-
-    private String formatCurrency(BigDecimal amount) {
-        NumberFormat formatter = NumberFormat.getNumberInstance(Locale.getDefault());
-        return formatter.format(amount) + " VNĐ";
+    private String formatCurrency(Money amount) {
+        return CurrencyFormatter.format(amount);
     }
 
     private String getFirstName(String fullName) {
@@ -297,12 +280,15 @@ public class OfficerHomeFragment extends Fragment {
     }
 
     private void navigateToCustomersFragment() {
+        navigateTo(new CustomerListFragment());
+    }
+
+    private void navigateTo(Fragment fragment) {
         if (getActivity() == null || !isAdded()) {
             return;
         }
         
         try {
-            Fragment fragment = new CustomerListFragment();
             getActivity().getSupportFragmentManager()
                 .beginTransaction()
                 .replace(R.id.fragment_container, fragment)
@@ -16,9 +16,11 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.services.AccountService;
 import com.example.final_mobile.services.PaymentGatewayService;
+import com.example.final_mobile.services.PaymentStatusTracker;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
@@ -31,6 +33,8 @@ public class PaymentActivity extends AppCompatActivity {
     private Account primaryAccount;
     private AccountService accountService;
     private PaymentGatewayService paymentGatewayService;
+    private PaymentStatusTracker paymentStatusTracker;
+    private final PaymentStatusTracker.StatusListener paymentStatusListener = this::onPaymentStatusChanged;
     private ProgressDialog progressDialog;
 
     @Override
@@ -41,6 +45,7 @@ public class PaymentActivity extends AppCompatActivity {
         // Initialize services
         accountService = new AccountService(this);
         paymentGatewayService = new PaymentGatewayService(this);
+        paymentStatusTracker = PaymentStatusTracker.getInstance(this);
         progressDialog = new ProgressDialog(this);
         progressDialog.setCancelable(false);
 
@@ -49,6 +54,33 @@ public class PaymentActivity extends AppCompatActivity {
         setupUI();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Back from the VNPay page: the outcome arrives through the tracker, not the browser
+        paymentStatusTracker.subscribe(paymentStatusListener);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        paymentStatusTracker.unsubscribe(paymentStatusListener);
+    }
+
+    private void onPaymentStatusChanged(PaymentGatewayService.PaymentResult payment, boolean isFinal) {
+        if (!isFinal || isFinishing()) {
+            return;
+        }
+        new AlertDialog.Builder(this)
+            .setTitle("COMPLETED".equals(payment.getStatus()) ? "Thành công" : "Thanh toán không thành công")
+            .setMessage(PaymentStatusTracker.describe(payment) + "\n\nMã giao dịch: " + payment.getPaymentId())
+            .setPositiveButton("OK", null)
+            .show();
+        if ("COMPLETED".equals(payment.getStatus())) {
+            loadAccountInfo();
+        }
+    }
+
     private void initViews() {
         // Setup toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -93,7 +125,7 @@ public class PaymentActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {
+            public void onBalanceSuccess(Money balance) {
                 // Not used
             }
 
@@ -256,6 +288,7 @@ public class PaymentActivity extends AppCompatActivity {
                         
                         // Open VNPay payment URL in browser
                         if (result.getPaymentUrl() != null) {
+                            paymentStatusTracker.track(result);
                             Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(result.getPaymentUrl()));
                             startActivity(browserIntent);
                             
@@ -295,19 +328,21 @@ public class PaymentActivity extends AppCompatActivity {
             new PaymentGatewayService.PaymentCallback() {
                 @Override
                 public void onSuccess(PaymentGatewayService.PaymentResult result) {
+                    // Normally settled already; otherwise the tracker reports the outcome
+                    paymentStatusTracker.track(result);
                     runOnUiThread(() -> {
                         progressDialog.dismiss();
                         
                         String message = String.format(
                             "Chuyển khoản thành công!\n\n" +
                             "Mã giao dịch: %s\n" +
-                            "Số tiền: %s VND\n" +
+                            "Số tiền: %s\n" +
                             "Ngân hàng: %s\n" +
                             "Tài khoản nhận: %s\n" +
                             "Tên người nhận: %s\n" +
                             "Mã tham chiếu: %s",
                             result.getPaymentId(),
-                            result.getAmount().toString(),
+                            result.getAmount().format(),
                             bankName,
                             recipientAccount,
                             recipientName,
@@ -12,6 +12,7 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageButton;
+import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -24,9 +25,12 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.example.final_mobile.models.User;
+import com.example.final_mobile.services.ApiConfig;
 import com.example.final_mobile.services.AuthService;
 import com.example.final_mobile.services.EkycService;
+import com.example.final_mobile.services.EkycStatusMonitor;
 import com.example.final_mobile.services.UserService;
+import com.example.final_mobile.utils.ImageLoader;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -36,9 +40,11 @@ public class ProfileFragment extends Fragment {
     private TextView tvUserName;
     private TextView tvUserEmail;
     private TextView tvUserPhone;
+    private ImageView ivAvatarPhoto;
     private LinearLayout btnPersonalInfo;
     private LinearLayout btnSecurity;
     private LinearLayout btnEkyc;
+    private TextView tvEkycStatus;
     private LinearLayout btnSupport;
     private LinearLayout btnAbout;
     private Button btnLogout;
@@ -46,6 +52,8 @@ public class ProfileFragment extends Fragment {
     private UserService userService;
     private AuthService authService;
     private EkycService ekycService;
+    private EkycStatusMonitor ekycStatusMonitor;
+    private final EkycStatusMonitor.StatusListener ekycStatusListener = this::onEkycStatusChanged;
     private ProgressDialog progressDialog;
     private User currentUser;
     
@@ -65,10 +73,14 @@ public class ProfileFragment extends Fragment {
         userService = new UserService(getContext());
         authService = new AuthService(getContext());
         ekycService = new EkycService(getContext());
+        ekycStatusMonitor = EkycStatusMonitor.getInstance(getContext());
         
         initViews(view);
         setupUI();
         loadUserProfile();
+
+        // Show the last known eKYC status right away; the monitor pushes changes while subscribed
+        displayEkycStatus(ekycStatusMonitor.getCachedStatus());
     }
 
     private void initViews(View view) {
@@ -76,9 +88,12 @@ public class ProfileFragment extends Fragment {
         tvUserName = view.findViewById(R.id.tv_user_name);
         tvUserEmail = view.findViewById(R.id.tv_user_email);
         tvUserPhone = view.findViewById(R.id.tv_user_phone);
+        ivAvatarPhoto = view.findViewById(R.id.iv_avatar_photo);
+        ivAvatarPhoto.setClipToOutline(true);
         btnPersonalInfo = view.findViewById(R.id.btn_personal_info);
         btnSecurity = view.findViewById(R.id.btn_security);
         btnEkyc = view.findViewById(R.id.btn_ekyc);
+        tvEkycStatus = view.findViewById(R.id.tv_ekyc_status);
         btnSupport = view.findViewById(R.id.btn_support);
         btnAbout = view.findViewById(R.id.btn_about);
         btnLogout = view.findViewById(R.id.btn_logout);
@@ -565,6 +580,7 @@ public class ProfileFragment extends Fragment {
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
                         progressDialog.dismiss();
+                        ekycStatusMonitor.updateStatus(data);
                         try {
                             String status = data.optString("verification_status", "NOT_STARTED");
                             boolean isValid = data.optBoolean("is_valid", false);
@@ -577,7 +593,17 @@ public class ProfileFragment extends Fragment {
                                     message += "Chưa bắt đầu\n\nVui lòng chụp ảnh khuôn mặt để bắt đầu xác thực eKYC.";
                                     break;
                                 case "PENDING":
-                                    message += "Đang chờ xác thực\n\nẢnh khuôn mặt đã được tải lên. Đang chờ hệ thống xác thực.";
+                                    message += "Đang chờ xác thực\n\nẢnh khuôn mặt đã được tải lên. ";
+                                    String processingStatus = data.optString("processing_status", "");
+                                    if ("QUEUED".equals(processingStatus)) {
+                                        message += "Ảnh đang chờ xử lý.";
+                                    } else if ("PROCESSING".equals(processingStatus)) {
+                                        message += "Hệ thống đang xử lý ảnh.";
+                                    } else if ("FAILED".equals(processingStatus)) {
+                                        message += "Xử lý ảnh thất bại. Vui lòng chụp lại.";
+                                    } else {
+                                        message += "Đang chờ hệ thống xác thực.";
+                                    }
                                     break;
                                 case "VERIFIED":
                                     message += "Đã xác thực ✓\n\n";
@@ -630,6 +656,8 @@ public class ProfileFragment extends Fragment {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == REQUEST_CODE_FACE_CAPTURE) {
             if (resultCode == Activity.RESULT_OK) {
+                // A new image is pending verification; fetch it and start watching for the result
+                ekycStatusMonitor.refresh();
                 if (data != null) {
                     String status = data.getStringExtra("verification_status");
                     if (status != null) {
@@ -649,6 +677,74 @@ public class ProfileFragment extends Fragment {
         super.onResume();
         // Refresh profile when fragment becomes visible
         loadUserProfile();
+        ekycStatusMonitor.subscribe(ekycStatusListener);
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        ekycStatusMonitor.unsubscribe(ekycStatusListener);
+    }
+
+    private void onEkycStatusChanged(JSONObject status) {
+        if (!isAdded()) {
+            return;
+        }
+        displayEkycStatus(status);
+
+        String verificationStatus = status.optString("verification_status", "");
+        if ("VERIFIED".equals(verificationStatus)) {
+            Toast.makeText(getContext(), "Xác thực eKYC thành công", Toast.LENGTH_SHORT).show();
+        } else if ("REJECTED".equals(verificationStatus)) {
+            Toast.makeText(getContext(), "Xác thực eKYC bị từ chối. Vui lòng chụp lại.", Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private void displayEkycStatus(JSONObject status) {
+        if (tvEkycStatus == null || status == null) {
+            return;
+        }
+
+        String label;
+        switch (status.optString("verification_status", "NOT_STARTED")) {
+            case "PENDING":
+                label = "Đang xử lý";
+                break;
+            case "VERIFIED":
+                label = status.optBoolean("is_valid", false) ? "Đã xác thực" : "Hết hạn";
+                break;
+            case "REJECTED":
+                label = "Bị từ chối";
+                break;
+            case "EXPIRED":
+                label = "Hết hạn";
+                break;
+            default:
+                label = "Chưa xác thực";
+        }
+        tvEkycStatus.setText(label);
+        tvEkycStatus.setVisibility(View.VISIBLE);
+        displayAvatar(status.optString("face_image_version", ""));
+    }
+
+    // The eKYC face image as avatar; the version in the URL changes with every new upload
+    private void displayAvatar(String faceImageVersion) {
+        ImageLoader imageLoader = ImageLoader.getInstance(getContext());
+        if (faceImageVersion.isEmpty()) {
+            imageLoader.cancel(ivAvatarPhoto);
+            ivAvatarPhoto.setVisibility(View.GONE);
+            return;
+        }
+        ivAvatarPhoto.setVisibility(View.VISIBLE);
+        imageLoader.load(ApiConfig.FACE_IMAGE + "?variant=thumbnail&v=" + faceImageVersion, ivAvatarPhoto, 0);
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (ivAvatarPhoto != null) {
+            ImageLoader.getInstance(getContext()).cancel(ivAvatarPhoto);
+        }
     }
 
     @Override
@@ -10,14 +10,15 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Transaction;
 import com.example.final_mobile.services.SessionManager;
 import com.example.final_mobile.services.TransactionService;
+import com.example.final_mobile.utils.StatusColors;
 
-import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 
 public class TransactionDetailActivity extends AppCompatActivity {
     private static final String TAG = "TransactionDetailActivity";
@@ -72,14 +73,15 @@ public class TransactionDetailActivity extends AppCompatActivity {
             transaction.setFromAccountNumber(bundle.getString("from_account_number", ""));
             transaction.setToAccountNumber(bundle.getString("to_account_number", ""));
             
+            String currency = bundle.getString("currency", Money.VND);
             String amountStr = bundle.getString("amount", "0");
             try {
-                transaction.setAmount(new java.math.BigDecimal(amountStr));
-            } catch (Exception e) {
-                transaction.setAmount(java.math.BigDecimal.ZERO);
+                transaction.setAmount(Money.parse(amountStr, currency));
+            } catch (RuntimeException e) {
+                transaction.setAmount(Money.zero(currency));
             }
             
-            transaction.setCurrency(bundle.getString("currency", "VND"));
+            transaction.setCurrency(currency);
             transaction.setTransactionType(bundle.getString("transaction_type", ""));
             transaction.setStatus(bundle.getString("status", ""));
             transaction.setDescription(bundle.getString("description", ""));
@@ -191,8 +193,6 @@ public class TransactionDetailActivity extends AppCompatActivity {
     }
     
     private void displayTransaction(Transaction transaction) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss", Locale.getDefault());
-        
         // Transaction ID
         if (transaction.getId() != null) {
             tvTransactionId.setText(transaction.getId());
@@ -219,12 +219,10 @@ public class TransactionDetailActivity extends AppCompatActivity {
         }
         
         // Type
-        tvType.setText(getTransactionTypeName(transaction.getTransactionType()));
+        tvType.setText(DisplayFormatter.transactionTypeLabel(transaction.getTransactionType()));
         
         // Status
-        String status = transaction.getStatus();
-        tvStatus.setText(getStatusName(status));
-        setStatusColor(status);
+        StatusColors.bind(tvStatus, transaction.getStatus());
         
         // Description
         if (transaction.getDescription() != null && !transaction.getDescription().isEmpty()) {
@@ -248,15 +246,11 @@ public class TransactionDetailActivity extends AppCompatActivity {
         }
         
         // Created At
-        if (transaction.getCreatedAt() != null) {
-            tvCreatedAt.setText(dateFormat.format(transaction.getCreatedAt()));
-        } else {
-            tvCreatedAt.setText("N/A");
-        }
+        tvCreatedAt.setText(DisplayFormatter.formatDateTime(transaction.getCreatedAt()));
         
         // Completed At
         if (transaction.getCompletedAt() != null) {
-            tvCompletedAt.setText(dateFormat.format(transaction.getCompletedAt()));
+            tvCompletedAt.setText(DisplayFormatter.formatDateTime(transaction.getCompletedAt()));
         } else {
             tvCompletedAt.setText("Chưa hoàn thành");
         }
@@ -269,55 +263,8 @@ public class TransactionDetailActivity extends AppCompatActivity {
         }
     }
     
-    private void setStatusColor(String status) {
-        int colorRes;
-        switch (status) {
-            case "COMPLETED":
-                colorRes = android.R.color.holo_green_dark;
-                break;
-            case "PENDING":
-            case "PROCESSING":
-                colorRes = android.R.color.holo_orange_dark;
-                break;
-            case "FAILED":
-                colorRes = android.R.color.holo_red_dark;
-                break;
-            case "CANCELLED":
-                colorRes = android.R.color.darker_gray;
-                break;
-            default:
-                colorRes = android.R.color.darker_gray;
-        }
-        tvStatus.setTextColor(getResources().getColor(colorRes, null));
-    }
-    
-    private String getTransactionTypeName(String type) {
-        if (type == null) return "N/A";
-        switch (type) {
-            case "TRANSFER": return "Chuyển tiền";
-            case "DEPOSIT": return "Nạp tiền";
-            case "WITHDRAWAL": return "Rút tiền";
-            case "PAYMENT": return "Thanh toán";
-            case "TOPUP": return "Nạp tiền điện thoại";
-            default: return type;
-        }
-    }
-    
-    private String getStatusName(String status) {
-        if (status == null) return "N/A";
-        switch (status) {
-            case "COMPLETED": return "Hoàn thành";
-            case "PENDING": return "Chờ xử lý";
-            case "PROCESSING": return "Đang xử lý";
-            case "FAILED": return "Thất bại";
-            case "CANCELLED": return "Đã hủy";
-            default: return status;
-        }
-    }
-    
-    private String formatCurrency(BigDecimal amount) {
-        if (amount == null) return "0 VNĐ";
-        return String.format(Locale.getDefault(), "%,.0f VNĐ", amount.doubleValue());
+    private String formatCurrency(Money amount) {
+        return CurrencyFormatter.format(amount);
     }
     
     @Override
@@ -26,22 +26,25 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.final_mobile.adapters.TransactionAdapter;
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.models.Transaction;
 import com.example.final_mobile.services.AccountService;
 import com.example.final_mobile.services.AdminService;
 import com.example.final_mobile.services.EkycService;
+import com.example.final_mobile.services.FeeScheduleStore;
 import com.example.final_mobile.services.SessionManager;
 import com.example.final_mobile.services.TransactionService;
 import com.example.final_mobile.utils.BiometricHelper;
+import com.example.final_mobile.utils.FeeQuoteWatcher;
 
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class TransactionFragment extends Fragment {
 
@@ -62,7 +65,7 @@ public class TransactionFragment extends Fragment {
     
     // Store transfer details for biometric verification
     private String pendingToAccountNumber;
-    private BigDecimal pendingAmount;
+    private Money pendingAmount;
     private String pendingDescription;
     private boolean isAdmin = false;
     private int currentPage = 1;
@@ -87,6 +90,7 @@ public class TransactionFragment extends Fragment {
         
         // Initialize services
         transactionService = new TransactionService(getContext());
+        FeeScheduleStore.getInstance(getContext()).refresh();
         accountService = new AccountService(getContext());
         adminService = new AdminService(getContext());
         ekycService = new EkycService(getContext());
@@ -274,7 +278,7 @@ public class TransactionFragment extends Fragment {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {
+            public void onBalanceSuccess(Money balance) {
                 // Not used here
             }
 
@@ -456,6 +460,7 @@ public class TransactionFragment extends Fragment {
         TextInputEditText etAccountNumber = dialogView.findViewById(R.id.et_account_number);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
         TextInputEditText etDescription = dialogView.findViewById(R.id.et_description);
+        FeeQuoteWatcher.attach(etAmount, transactionService::calculateFee);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -482,7 +487,7 @@ public class TransactionFragment extends Fragment {
 
             if (validateTransferInput(accountNumber, amountStr, description)) {
                 dialog.dismiss();
-                performTransfer(accountNumber, new BigDecimal(amountStr), description);
+                performTransfer(accountNumber, Money.parse(amountStr, Money.VND), description);
             }
         });
         
@@ -506,27 +511,27 @@ public class TransactionFragment extends Fragment {
         }
 
         try {
-            BigDecimal amount = new BigDecimal(amountStr);
+            Money amount = Money.parse(amountStr, Money.VND);
             
             // Check minimum amount
-            BigDecimal minAmount = new BigDecimal("10000");
-            if (amount.compareTo(minAmount) < 0) {
-                Toast.makeText(getContext(), "Số tiền chuyển tối thiểu là 10,000 VND", Toast.LENGTH_SHORT).show();
+            Money minAmount = transactionService.getMinTransferAmount();
+            if (amount.isLessThan(minAmount)) {
+                Toast.makeText(getContext(), "Số tiền chuyển tối thiểu là " + minAmount.format(), Toast.LENGTH_SHORT).show();
                 return false;
             }
             
             // Calculate fee and check balance
-            BigDecimal fee = transactionService.calculateFee(amount);
-            BigDecimal totalAmount = amount.add(fee);
-            BigDecimal balance = primaryAccount.getBalance();
+            Money fee = transactionService.calculateFee(amount);
+            Money totalAmount = amount.plus(fee);
+            Money balance = primaryAccount.getBalance();
             
-            if (balance == null || balance.compareTo(totalAmount) < 0) {
-                String message = String.format("Số dư không đủ. Bạn cần %s VND (bao gồm phí %s VND) nhưng số dư hiện tại là %s VND",
-                    formatAmount(totalAmount), formatAmount(fee), formatAmount(balance));
+            if (balance == null || balance.isLessThan(totalAmount)) {
+                String message = String.format("Số dư không đủ. Bạn cần %s (bao gồm phí %s) nhưng số dư hiện tại là %s",
+                    totalAmount.format(), fee.format(), CurrencyFormatter.format(balance));
                 Toast.makeText(getContext(), message, Toast.LENGTH_LONG).show();
                 return false;
             }
-        } catch (NumberFormatException e) {
+        } catch (NumberFormatException | ArithmeticException e) {
             Toast.makeText(getContext(), "Số tiền không hợp lệ", Toast.LENGTH_SHORT).show();
             return false;
         }
@@ -539,9 +544,9 @@ public class TransactionFragment extends Fragment {
         return true;
     }
 
-    private void performTransfer(String toAccountNumber, BigDecimal amount, String description) {
+    private void performTransfer(String toAccountNumber, Money amount, String description) {
         // Check if this is a high-value transaction requiring biometric verification
-        double amountDouble = amount.doubleValue();
+        double amountDouble = amount.toBigDecimal().doubleValue();
         if (EkycService.requiresBiometricVerification(amountDouble)) {
             // Store transfer details
             pendingToAccountNumber = toAccountNumber;
@@ -554,7 +559,7 @@ public class TransactionFragment extends Fragment {
                 android.util.Log.d("TransactionFragment", "🔐 [DEBUG] Using biometric authentication");
                 BiometricHelper.showTransactionBiometricPrompt(
                     getActivity(),
-                    amountDouble,
+                    amount,
                     new BiometricHelper.BiometricCallback() {
                         @Override
                         public void onSuccess() {
@@ -836,15 +841,12 @@ public class TransactionFragment extends Fragment {
             android.R.layout.simple_list_item_1, statusOptions);
         spinnerStatus.setAdapter(statusAdapter);
         
-        // Date formatter
-        SimpleDateFormat dateFormatter = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-        
         // Set current date values
         if (currentFilterDateFrom != null) {
-            etDateFrom.setText(dateFormatter.format(currentFilterDateFrom));
+            etDateFrom.setText(DisplayFormatter.formatDate(currentFilterDateFrom));
         }
         if (currentFilterDateTo != null) {
-            etDateTo.setText(dateFormatter.format(currentFilterDateTo));
+            etDateTo.setText(DisplayFormatter.formatDate(currentFilterDateTo));
         }
         
         // Date picker listeners
@@ -857,7 +859,7 @@ public class TransactionFragment extends Fragment {
                 Calendar selectedDate = Calendar.getInstance();
                 selectedDate.set(year, month, dayOfMonth);
                 currentFilterDateFrom = selectedDate.getTime();
-                etDateFrom.setText(dateFormatter.format(currentFilterDateFrom));
+                etDateFrom.setText(DisplayFormatter.formatDate(currentFilterDateFrom));
             }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
         });
         
@@ -870,7 +872,7 @@ public class TransactionFragment extends Fragment {
                 Calendar selectedDate = Calendar.getInstance();
                 selectedDate.set(year, month, dayOfMonth);
                 currentFilterDateTo = selectedDate.getTime();
-                etDateTo.setText(dateFormatter.format(currentFilterDateTo));
+                etDateTo.setText(DisplayFormatter.formatDate(currentFilterDateTo));
             }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
         });
         
@@ -1179,14 +1181,6 @@ public class TransactionFragment extends Fragment {
         dialog.show();
     }
 
-    private String formatAmount(BigDecimal amount) {
-        if (amount == null) {
-            return "0";
-        }
-        // Format with thousand separator
-        return amount.toPlainString().replaceAll("(\\d)(?=(\\d{3})+(?!\\d))", "$1.");
-    }
-
     @Override
     public void onResume() {
         super.onResume();
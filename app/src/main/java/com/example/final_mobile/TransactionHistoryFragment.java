@@ -15,9 +15,13 @@ import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Transaction;
 import com.example.final_mobile.services.SessionManager;
 import com.example.final_mobile.services.TransactionService;
+import com.example.final_mobile.utils.StatusColors;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -191,36 +195,15 @@ public class TransactionHistoryFragment extends Fragment {
                     tvAmount.setText("0 VNĐ");
                 }
 
-                tvType.setText(getTransactionTypeName(transaction.getTransactionType()));
-
-                String status = transaction.getStatus();
-                tvStatus.setText(status != null ? status : "N/A");
-                
-                if ("COMPLETED".equals(status)) {
-                    tvStatus.setTextColor(getResources().getColor(android.R.color.holo_green_dark, null));
-                } else if ("PENDING".equals(status)) {
-                    tvStatus.setTextColor(getResources().getColor(android.R.color.holo_orange_dark, null));
-                } else if ("FAILED".equals(status)) {
-                    tvStatus.setTextColor(getResources().getColor(android.R.color.holo_red_dark, null));
-                }
-            }
-        }
-    }
+                tvType.setText(DisplayFormatter.transactionTypeLabel(transaction.getTransactionType()));
 
-    private String getTransactionTypeName(String type) {
-        if (type == null) return "N/A";
-        switch (type) {
-            case "TRANSFER": return "Chuyển tiền";
-            case "DEPOSIT": return "Nạp tiền";
-            case "WITHDRAWAL": return "Rút tiền";
-            case "PAYMENT": return "Thanh toán";
-            default: return type;
+                StatusColors.bind(tvStatus, transaction.getStatus());
+            }
         }
     }
 
-    private String formatCurrency(java.math.BigDecimal amount) {
-        if (amount == null) return "0 VNĐ";
-        return String.format(java.util.Locale.getDefault(), "%,.0f VNĐ", amount.doubleValue());
+    private String formatCurrency(Money amount) {
+        return CurrencyFormatter.format(amount);
     }
 }
 
@@ -3,8 +3,10 @@ package com.example.final_mobile;
 import android.app.AlertDialog;
 import android.app.ProgressDialog;
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.InputType;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -23,20 +25,31 @@ import androidx.annotation.Nullable;
 import androidx.cardview.widget.CardView;
 import androidx.fragment.app.Fragment;
 
+import com.example.final_mobile.core.Biller;
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.core.PaymentStageMetrics;
+import com.example.final_mobile.core.SavedBillers;
+import com.example.final_mobile.services.BillerDirectory;
+import com.example.final_mobile.services.FeeScheduleStore;
+import com.example.final_mobile.services.PaymentPipeline;
 import com.example.final_mobile.services.UtilityService;
+import com.example.final_mobile.utils.FeeQuoteWatcher;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class UtilitiesFragment extends Fragment {
 
     private TextView tvFragmentLabel;
     private UtilityService utilityService;
+    private BillerDirectory billerDirectory;
     private ProgressDialog progressDialog;
     
-    // For OTP verification
-    private String currentTransactionId;
-    private String currentOtp;
-    private UtilityService.UtilityPayment currentPayment;
+    // Payment waiting for its OTP
+    private PaymentPipeline.Payment currentPayment;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -49,6 +62,9 @@ public class UtilitiesFragment extends Fragment {
         super.onViewCreated(view, savedInstanceState);
         
         utilityService = new UtilityService(getContext());
+        billerDirectory = BillerDirectory.getInstance(getContext());
+        // No-op once this process has checked the schedule
+        FeeScheduleStore.getInstance(getContext()).refresh();
         progressDialog = new ProgressDialog(getContext());
         progressDialog.setCancelable(false);
         
@@ -56,6 +72,13 @@ public class UtilitiesFragment extends Fragment {
         setupUI(view);
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        // Amounts due on saved bills, so their dialogs open filled in; no-op while still fresh
+        billerDirectory.prefetch();
+    }
+
     private void initViews(View view) {
         tvFragmentLabel = view.findViewById(R.id.tv_fragment_label);
     }
@@ -146,6 +169,9 @@ public class UtilitiesFragment extends Fragment {
         TextInputEditText etCustomerName = dialogView.findViewById(R.id.et_customer_name);
         TextInputEditText etPeriod = dialogView.findViewById(R.id.et_period);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.ELECTRICITY);
+        prefillFromSavedBills(Biller.ELECTRICITY, etCustomerNumber, etCustomerName,
+                SavedBillers.Entry::getCustomerName, etAmount);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -167,7 +193,8 @@ public class UtilitiesFragment extends Fragment {
             if (validateBillPayment(customerNumber, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processElectricityBill(customerNumber, amount, customerName, period);
+                startPayment(Biller.ELECTRICITY, customerNumber, amount,
+                        Biller.details("customerName", customerName, "period", period));
             }
         });
         
@@ -186,6 +213,9 @@ public class UtilitiesFragment extends Fragment {
         TextInputEditText etCustomerName = dialogView.findViewById(R.id.et_customer_name);
         TextInputEditText etPeriod = dialogView.findViewById(R.id.et_period);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.WATER);
+        prefillFromSavedBills(Biller.WATER, etCustomerNumber, etCustomerName,
+                SavedBillers.Entry::getCustomerName, etAmount);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -207,7 +237,8 @@ public class UtilitiesFragment extends Fragment {
             if (validateBillPayment(customerNumber, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processWaterBill(customerNumber, amount, customerName, period);
+                startPayment(Biller.WATER, customerNumber, amount,
+                        Biller.details("customerName", customerName, "period", period));
             }
         });
         
@@ -228,11 +259,14 @@ public class UtilitiesFragment extends Fragment {
         
         // Reuse customer name field as provider field
         com.google.android.material.textfield.TextInputLayout tilCustomerName = dialogView.findViewById(R.id.til_customer_name);
-        tilCustomerName.setHint("Nhà cung cấp (VNPT, FPT, Viettel)");
+        tilCustomerName.setHint("Nhà cung cấp (" + providerNames(Biller.INTERNET, "VNPT, FPT, Viettel") + ")");
         
         TextInputEditText etCustomerNumber = dialogView.findViewById(R.id.et_customer_number);
         TextInputEditText etProvider = dialogView.findViewById(R.id.et_customer_name); // Reuse customer name field for provider
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.INTERNET);
+        prefillFromSavedBills(Biller.INTERNET, etCustomerNumber, etProvider,
+                SavedBillers.Entry::getProvider, etAmount);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -253,7 +287,7 @@ public class UtilitiesFragment extends Fragment {
             if (validateBillPayment(customerNumber, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processInternetBill(customerNumber, amount, provider);
+                startPayment(Biller.INTERNET, customerNumber, amount, Biller.details("provider", provider));
             }
         });
         
@@ -265,6 +299,7 @@ public class UtilitiesFragment extends Fragment {
         
         TextInputEditText etPhoneNumber = dialogView.findViewById(R.id.et_phone_number);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.PHONE_TOPUP);
         TextInputEditText etProvider = dialogView.findViewById(R.id.et_provider);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
@@ -286,7 +321,7 @@ public class UtilitiesFragment extends Fragment {
             if (validatePhoneTopup(phoneNumber, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processMobileTopup(phoneNumber, amount, provider);
+                startPayment(Biller.PHONE_TOPUP, phoneNumber, amount, Biller.details("provider", provider));
             }
         });
         
@@ -308,6 +343,7 @@ public class UtilitiesFragment extends Fragment {
         TextInputEditText etAirline = dialogView.findViewById(R.id.et_airline);
         TextInputEditText etRoute = dialogView.findViewById(R.id.et_route);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.FLIGHT);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -329,7 +365,7 @@ public class UtilitiesFragment extends Fragment {
             if (validateFlightBooking(flightNumber, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processFlightBooking(flightNumber, amount, airline, null, null, null, route);
+                startPayment(Biller.FLIGHT, flightNumber, amount, Biller.details("airline", airline, "route", route));
             }
         });
         
@@ -343,6 +379,7 @@ public class UtilitiesFragment extends Fragment {
         TextInputEditText etCinema = dialogView.findViewById(R.id.et_cinema);
         TextInputEditText etQuantity = dialogView.findViewById(R.id.et_quantity);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.MOVIE);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -365,7 +402,7 @@ public class UtilitiesFragment extends Fragment {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
                 int quantity = quantityStr.isEmpty() ? 1 : Integer.parseInt(quantityStr);
-                processMovieTicket(movieName, amount, cinema, null, null, quantity);
+                startPayment(Biller.MOVIE, movieName, amount, Biller.details("cinema", cinema, "quantity", quantity));
             }
         });
         
@@ -378,6 +415,7 @@ public class UtilitiesFragment extends Fragment {
         TextInputEditText etHotelName = dialogView.findViewById(R.id.et_hotel_name);
         TextInputEditText etRoomType = dialogView.findViewById(R.id.et_room_type);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.HOTEL);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -398,7 +436,7 @@ public class UtilitiesFragment extends Fragment {
             if (validateHotelBooking(hotelName, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processHotelBooking(hotelName, amount, null, null, null, roomType);
+                startPayment(Biller.HOTEL, hotelName, amount, Biller.details("roomType", roomType));
             }
         });
         
@@ -412,6 +450,7 @@ public class UtilitiesFragment extends Fragment {
         TextInputEditText etPlatform = dialogView.findViewById(R.id.et_platform);
         TextInputEditText etProductName = dialogView.findViewById(R.id.et_product_name);
         TextInputEditText etAmount = dialogView.findViewById(R.id.et_amount);
+        attachFeeQuote(etAmount, Biller.ECOMMERCE);
         
         MaterialButton btnCancel = dialogView.findViewById(R.id.btn_cancel);
         MaterialButton btnConfirm = dialogView.findViewById(R.id.btn_confirm);
@@ -433,7 +472,7 @@ public class UtilitiesFragment extends Fragment {
             if (validateEcommercePayment(orderId, amountStr)) {
                 dialog.dismiss();
                 BigDecimal amount = new BigDecimal(amountStr);
-                processEcommercePayment(orderId, amount, platform, productName, null);
+                startPayment(Biller.ECOMMERCE, orderId, amount, Biller.details("platform", platform, "productName", productName));
             }
         });
         
@@ -511,347 +550,122 @@ public class UtilitiesFragment extends Fragment {
         return validateBillPayment(orderId, amount);
     }
 
-    private void processElectricityBill(String customerNumber, BigDecimal amount, String customerName, String period) {
+    // Every biller goes through the same pipeline and reports to paymentListener
+    private void startPayment(Biller biller, String reference, BigDecimal amount, Map<String, Object> details) {
         progressDialog.setMessage("Đang xử lý...");
         progressDialog.show();
-
-        utilityService.payElectricityBill(null, customerNumber, amount, customerName, period, 
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
-
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
-            });
+        utilityService.pay(biller, null, reference, amount, details, paymentListener);
     }
 
-    private void processWaterBill(String customerNumber, BigDecimal amount, String customerName, String period) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.payWaterBill(null, customerNumber, amount, customerName, period,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
-
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
+    private final PaymentPipeline.Listener paymentListener = new PaymentPipeline.Listener() {
+        @Override
+        public void onOtpRequired(PaymentPipeline.Payment payment) {
+            runOnUiThread(() -> {
+                progressDialog.dismiss();
+                currentPayment = payment;
+                showOTPDialog(payment);
             });
-    }
-
-    private void processInternetBill(String customerNumber, BigDecimal amount, String provider) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.payInternetBill(null, customerNumber, amount, provider, null,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
+        }
 
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
+        @Override
+        public void onCompleted(PaymentPipeline.Payment payment, String message) {
+            String reference = payment.getReceipt() != null ? payment.getReceipt().getReferenceNumber() : null;
+            String text = TextUtils.isEmpty(reference) ? message : message + "\nMã tham chiếu: " + reference;
+            runOnUiThread(() -> {
+                progressDialog.dismiss();
+                showSuccessDialog(text);
             });
-    }
-
-    private void processMobileTopup(String phoneNumber, BigDecimal amount, String provider) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.mobileTopup(null, phoneNumber, amount, provider,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
+        }
 
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
+        @Override
+        public void onError(PaymentPipeline.Payment payment, PaymentStageMetrics.Stage stage, String error) {
+            runOnUiThread(() -> {
+                progressDialog.dismiss();
+                showErrorDialog(stage == PaymentStageMetrics.Stage.VERIFY ? "Lỗi xác thực" : "Lỗi", error);
             });
-    }
-
-    private void processFlightBooking(String flightNumber, BigDecimal amount, String airline,
-                                      String departureDate, String arrivalDate, String passengerName, String route) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.bookFlight(null, flightNumber, amount, airline, departureDate, arrivalDate, passengerName, route,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
+        }
+    };
 
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
-            });
+    private void runOnUiThread(Runnable action) {
+        if (getActivity() != null) {
+            getActivity().runOnUiThread(action);
+        }
     }
 
-    private void processMovieTicket(String movieName, BigDecimal amount, String cinema,
-                                    String showTime, String seatNumber, Integer quantity) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.buyMovieTicket(null, movieName, amount, cinema, showTime, seatNumber, quantity,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
-
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
-            });
+    // Live fee and total under the amount field, from the cached fee schedule
+    private void attachFeeQuote(TextInputEditText etAmount, Biller biller) {
+        FeeQuoteWatcher.attach(etAmount, amount -> utilityService.calculateFee(biller.getServiceType(), amount));
     }
 
-    private void processHotelBooking(String hotelName, BigDecimal amount, String checkInDate,
-                                     String checkOutDate, String guestName, String roomType) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.bookHotel(null, hotelName, amount, checkInDate, checkOutDate, guestName, roomType,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
+    /**
+     * Fill a bill dialog from the most recently paid bill of this kind, and again whenever the
+     * customer number typed matches another saved bill. Fields the user has typed in are kept.
+     */
+    private void prefillFromSavedBills(Biller biller, TextInputEditText etReference, TextInputEditText etName,
+                                       Function<SavedBillers.Entry, String> nameOf, TextInputEditText etAmount) {
+        List<SavedBillers.Entry> saved = billerDirectory.getSavedBillers(biller.getServiceType());
+        if (!saved.isEmpty()) {
+            etReference.setText(saved.get(0).getReference());
+            fillFromSavedBill(saved.get(0), etName, nameOf, etAmount);
+        }
+        etReference.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
 
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
 
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
+            @Override
+            public void afterTextChanged(Editable s) {
+                SavedBillers.Entry entry = billerDirectory.findSavedBiller(biller.getServiceType(), s.toString().trim());
+                if (entry != null) {
+                    fillFromSavedBill(entry, etName, nameOf, etAmount);
                 }
-            });
+            }
+        });
     }
 
-    private void processEcommercePayment(String orderId, BigDecimal amount, String platform,
-                                         String productName, String merchantName) {
-        progressDialog.setMessage("Đang xử lý...");
-        progressDialog.show();
-
-        utilityService.payEcommerce(null, orderId, amount, platform, productName, merchantName,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            currentTransactionId = transactionId;
-                            currentOtp = otp;
-                            currentPayment = payment;
-                            showOTPDialog(payment);
-                        });
-                    }
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
+    private void fillFromSavedBill(SavedBillers.Entry entry, TextInputEditText etName,
+                                   Function<SavedBillers.Entry, String> nameOf, TextInputEditText etAmount) {
+        String name = nameOf.apply(entry);
+        if (TextUtils.isEmpty(etName.getText()) && !TextUtils.isEmpty(name)) {
+            etName.setText(name);
+        }
+        if (!TextUtils.isEmpty(etAmount.getText())) {
+            return;
+        }
+        // Prefer the amount due; a bill already paid this month is left for the user to fill in
+        BillerDirectory.BillInfo info = billerDirectory.getBillInfo(entry.getServiceType(), entry.getReference());
+        Money amount = info != null ? info.getAmountDue() : null;
+        if (amount == null && (info == null || !info.isPaidThisMonth())) {
+            amount = entry.getLastAmount();
+        }
+        if (amount != null && amount.signum() > 0) {
+            etAmount.setText(amount.toBigDecimal().toPlainString());
+        }
+    }
 
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi", error);
-                        });
-                    }
-                }
-            });
+    // Provider names from the cached catalog, or the fallback before it has been fetched
+    private String providerNames(Biller biller, String fallback) {
+        List<String> names = new ArrayList<>();
+        for (UtilityService.ServiceProvider provider : billerDirectory.getProviders(biller.getServiceType())) {
+            names.add(provider.getName());
+        }
+        return names.isEmpty() ? fallback : TextUtils.join(", ", names);
     }
 
-    private void showOTPDialog(UtilityService.UtilityPayment payment) {
+    private void showOTPDialog(PaymentPipeline.Payment payment) {
         View dialogView = LayoutInflater.from(getContext()).inflate(R.layout.dialog_otp_verification, null);
         
+        UtilityService.UtilityPayment quote = payment.getQuote();
         TextView tvTransactionInfo = dialogView.findViewById(R.id.tv_transaction_info);
-        String info = "Giao dịch: " + payment.getDescription() + "\n" +
-                     "Số tiền: " + payment.getFormattedAmount() + "\n" +
-                     "Phí: " + String.format("%,.0f %s", payment.getFee().doubleValue(), payment.getCurrency()) + "\n" +
-                     "Tổng cộng: " + payment.getFormattedTotalAmount() + "\n\n" +
-                     "OTP (Dev): " + currentOtp;
+        String info = "Giao dịch: " + quote.getDescription() + "\n" +
+                     "Số tiền: " + quote.getFormattedAmount() + "\n" +
+                     "Phí: " + quote.getFormattedFee() + "\n" +
+                     "Tổng cộng: " + quote.getFormattedTotalAmount() + "\n\n" +
+                     "OTP (Dev): " + payment.getDevelopmentOtp();
         tvTransactionInfo.setText(info);
         
         TextInputEditText etOtp = dialogView.findViewById(R.id.et_otp);
@@ -864,7 +678,11 @@ public class UtilitiesFragment extends Fragment {
             .setCancelable(false)
             .create();
         
-        btnCancel.setOnClickListener(v -> dialog.dismiss());
+        btnCancel.setOnClickListener(v -> {
+            dialog.dismiss();
+            payment.cancel();
+            currentPayment = null;
+        });
         btnConfirm.setOnClickListener(v -> {
             String otp = etOtp.getText().toString().trim();
             if (!TextUtils.isEmpty(otp)) {
@@ -879,36 +697,12 @@ public class UtilitiesFragment extends Fragment {
     }
 
     private void verifyOTP(String otp) {
+        if (currentPayment == null) {
+            return;
+        }
         progressDialog.setMessage("Đang xác thực OTP...");
         progressDialog.show();
-
-        utilityService.verifyUtilityOTP(currentTransactionId, otp,
-            new UtilityService.UtilityCallback() {
-                @Override
-                public void onInitiateSuccess(String transactionId, String otp, UtilityService.UtilityPayment payment) {
-                    // Not used
-                }
-
-                @Override
-                public void onVerifySuccess(String message) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showSuccessDialog(message);
-                        });
-                    }
-                }
-
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            progressDialog.dismiss();
-                            showErrorDialog("Lỗi xác thực", error);
-                        });
-                    }
-                }
-            });
+        currentPayment.verify(otp);
     }
 
     private void showSuccessDialog(String message) {
@@ -926,17 +720,11 @@ public class UtilitiesFragment extends Fragment {
         
         btnOk.setOnClickListener(v -> {
             dialog.dismiss();
-            // Reset current transaction data
-            currentTransactionId = null;
-            currentOtp = null;
             currentPayment = null;
         });
         
         dialog.show();
         
-        // Reset current transaction data
-        currentTransactionId = null;
-        currentOtp = null;
         currentPayment = null;
     }
 
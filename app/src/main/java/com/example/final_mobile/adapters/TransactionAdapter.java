@@ -9,31 +9,49 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.final_mobile.R;
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.ListDiff;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Transaction;
+import com.example.final_mobile.utils.StatusColors;
 
-import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.Objects;
 
 public class TransactionAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     private static final int TYPE_TRANSACTION = 0;
     private static final int TYPE_LOADING = 1;
     
+    // Same transaction = same ID; same contents = nothing shown in the row changed
+    private static final ListDiff.ItemCallback<Transaction> DIFF_CALLBACK = new ListDiff.ItemCallback<Transaction>() {
+        @Override
+        public boolean areItemsTheSame(Transaction oldItem, Transaction newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(Transaction oldItem, Transaction newItem) {
+            return Objects.equals(oldItem.getAmount(), newItem.getAmount())
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getTransactionType(), newItem.getTransactionType())
+                    && Objects.equals(oldItem.getFromAccountId(), newItem.getFromAccountId())
+                    && Objects.equals(oldItem.getToAccountId(), newItem.getToAccountId());
+        }
+    };
+
     private List<Transaction> transactions;
     private OnTransactionClickListener listener;
     private boolean isLoading = false;
-    // Date format not needed since date view is not in layout
-    // private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", Locale.getDefault());
     
     public interface OnTransactionClickListener {
         void onTransactionClick(Transaction transaction);
     }
     
     public TransactionAdapter(List<Transaction> transactions) {
-        this.transactions = transactions != null ? transactions : new ArrayList<>();
+        this.transactions = transactions != null ? new ArrayList<>(transactions) : new ArrayList<>();
     }
     
     public void setOnTransactionClickListener(OnTransactionClickListener listener) {
@@ -41,8 +59,26 @@ public class TransactionAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
     }
     
     public void setTransactions(List<Transaction> transactions) {
-        this.transactions = transactions != null ? transactions : new ArrayList<>();
-        notifyDataSetChanged();
+        List<Transaction> oldTransactions = this.transactions;
+        // Own a copy so later changes to the caller's list cannot desync the adapter
+        this.transactions = transactions != null ? new ArrayList<>(transactions) : new ArrayList<>();
+        // Only rebind the rows that changed (a refresh usually just adds a few on top)
+        ListDiff.dispatch(oldTransactions, this.transactions, DIFF_CALLBACK, new ListDiff.UpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                notifyItemRangeInserted(position, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                notifyItemRangeRemoved(position, count);
+            }
+
+            @Override
+            public void onChanged(int position, int count) {
+                notifyItemRangeChanged(position, count);
+            }
+        });
     }
     
     public void addTransactions(List<Transaction> newTransactions) {
@@ -159,21 +195,12 @@ public class TransactionAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
                 tvAmount.setText("0 VNĐ");
             }
             
-            // Type
-            tvType.setText(getTransactionTypeName(transaction.getTransactionType()));
-            
-            // Status
-            String status = transaction.getStatus();
-            if (status != null) {
-                tvStatus.setText(getStatusName(status));
-                setStatusColor(status);
-            } else {
-                tvStatus.setText("N/A");
-            }
+            tvType.setText(DisplayFormatter.transactionTypeLabel(transaction.getTransactionType()));
+            StatusColors.bind(tvStatus, transaction.getStatus());
             
             // Date (if view exists) - not in current layout, so skip
             // if (tvDate != null && transaction.getCreatedAt() != null) {
-            //     tvDate.setText(dateFormat.format(transaction.getCreatedAt()));
+            //     tvDate.setText(DisplayFormatter.formatDateTime(transaction.getCreatedAt()));
             // }
             
             // Description (if view exists) - not in current layout, so skip
@@ -183,55 +210,8 @@ public class TransactionAdapter extends RecyclerView.Adapter<RecyclerView.ViewHo
             // }
         }
         
-        private void setStatusColor(String status) {
-            int colorRes;
-            switch (status) {
-                case "COMPLETED":
-                    colorRes = android.R.color.holo_green_dark;
-                    break;
-                case "PENDING":
-                case "PROCESSING":
-                    colorRes = android.R.color.holo_orange_dark;
-                    break;
-                case "FAILED":
-                    colorRes = android.R.color.holo_red_dark;
-                    break;
-                case "CANCELLED":
-                    colorRes = android.R.color.darker_gray;
-                    break;
-                default:
-                    colorRes = android.R.color.darker_gray;
-            }
-            tvStatus.setTextColor(itemView.getContext().getResources().getColor(colorRes, null));
-        }
-        
-        private String getTransactionTypeName(String type) {
-            if (type == null) return "N/A";
-            switch (type) {
-                case "TRANSFER": return "Chuyển tiền";
-                case "DEPOSIT": return "Nạp tiền";
-                case "WITHDRAWAL": return "Rút tiền";
-                case "PAYMENT": return "Thanh toán";
-                case "TOPUP": return "Nạp tiền điện thoại";
-                default: return type;
-            }
-        }
-        
-        private String getStatusName(String status) {
-            if (status == null) return "N/A";
-            switch (status) {
-                case "COMPLETED": return "Hoàn thành";
-                case "PENDING": return "Chờ xử lý";
-                case "PROCESSING": return "Đang xử lý";
-                case "FAILED": return "Thất bại";
-                case "CANCELLED": return "Đã hủy";
-                default: return status;
-            }
-        }
-        
-        private String formatCurrency(BigDecimal amount) {
-            if (amount == null) return "0 VNĐ";
-            return String.format(Locale.getDefault(), "%,.0f VNĐ", amount.doubleValue());
+        private String formatCurrency(Money amount) {
+            return CurrencyFormatter.format(amount);
         }
     }
     
@@ -3,6 +3,9 @@ package com.example.final_mobile.services;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.final_mobile.core.AccountJsonParser;
+import com.example.final_mobile.core.BankingMath;
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 
 import org.json.JSONArray;
@@ -30,7 +33,7 @@ public class AccountService {
     public interface AccountCallback {
         void onSuccess(List<Account> accounts);
         void onSingleAccountSuccess(Account account);
-        void onBalanceSuccess(BigDecimal balance);
+        void onBalanceSuccess(Money balance);
         void onError(String error);
     }
 
@@ -47,6 +50,7 @@ public class AccountService {
                         JSONArray accountsArray = response.getJSONArray("data");
                         Log.d(TAG, "📊 [DEBUG] Found " + accountsArray.length() + " accounts");
                         List<Account> accounts = parseAccountsFromJson(accountsArray);
+                        QuickUnlockManager.getInstance(context).onAccountsLoaded(accountsArray);
                         
                         // Log balance for each account
                         for (Account account : accounts) {
@@ -94,7 +98,11 @@ public class AccountService {
                     boolean success = response.getBoolean("success");
                     if (success) {
                         JSONObject data = response.getJSONObject("data");
-                        BigDecimal balance = new BigDecimal(data.getString("balance"));
+                        String currency = data.optString("currency", Money.VND);
+                        Money balance = Money.fromJson(data, "balance", currency);
+                        if (balance == null) {
+                            throw new JSONException("Missing balance");
+                        }
                         callback.onBalanceSuccess(balance);
                     } else {
                         String message = response.optString("message", "Failed to fetch balance");
@@ -112,7 +120,7 @@ public class AccountService {
                 
                 // Return dummy balance for demo
                 if (statusCode == -1) {
-                    callback.onBalanceSuccess(new BigDecimal("250000000")); // 250M VND
+                    callback.onBalanceSuccess(Money.vnd(250_000_000)); // 250M VND
                 } else {
                     callback.onError(getErrorMessage(error, statusCode));
                 }
@@ -160,68 +168,12 @@ public class AccountService {
 
     // Parse accounts from JSON array
     private List<Account> parseAccountsFromJson(JSONArray accountsArray) throws JSONException {
-        List<Account> accounts = new ArrayList<>();
-        for (int i = 0; i < accountsArray.length(); i++) {
-            JSONObject accountJson = accountsArray.getJSONObject(i);
-            Account account = parseAccountFromJson(accountJson);
-            accounts.add(account);
-        }
-        return accounts;
+        return AccountJsonParser.parseAccounts(accountsArray);
     }
 
     // Parse single account from JSON
     private Account parseAccountFromJson(JSONObject accountJson) throws JSONException {
-        Account account = new Account();
-        
-        // Handle both id and _id fields
-        String id = accountJson.optString("id", accountJson.optString("_id", ""));
-        account.setId(id);
-        
-        // user_id is optional (may not exist in some responses like interest projection)
-        if (accountJson.has("user_id") && !accountJson.isNull("user_id")) {
-            account.setUserId(accountJson.getString("user_id"));
-        }
-        
-        account.setAccountNumber(accountJson.optString("account_number", ""));
-        account.setAccountType(accountJson.optString("account_type", ""));
-        
-        // Parse balance with detailed logging
-        String balanceStr = "0";
-        if (accountJson.has("balance") && !accountJson.isNull("balance")) {
-            // Handle both string and number types
-            if (accountJson.get("balance") instanceof Number) {
-                balanceStr = String.valueOf(accountJson.getDouble("balance"));
-            } else {
-                balanceStr = accountJson.getString("balance");
-            }
-        } else if (accountJson.has("current_balance") && !accountJson.isNull("current_balance")) {
-            // Some APIs use current_balance instead of balance
-            if (accountJson.get("current_balance") instanceof Number) {
-                balanceStr = String.valueOf(accountJson.getDouble("current_balance"));
-            } else {
-                balanceStr = accountJson.getString("current_balance");
-            }
-        }
-        
-        BigDecimal balance = new BigDecimal(balanceStr);
-        account.setBalance(balance);
-        
-        Log.d(TAG, "💵 [DEBUG] Parsed balance: " + balanceStr + " -> " + balance + 
-            " for account: " + account.getAccountNumber());
-        
-        account.setCurrency(accountJson.optString("currency", "VND"));
-        account.setActive(accountJson.optBoolean("is_active", true));
-        
-        // Parse interest_rate - can be number or string
-        if (accountJson.has("interest_rate") && !accountJson.isNull("interest_rate")) {
-            if (accountJson.get("interest_rate") instanceof Number) {
-                account.setInterestRate(BigDecimal.valueOf(accountJson.getDouble("interest_rate")));
-            } else {
-                account.setInterestRate(new BigDecimal(accountJson.getString("interest_rate")));
-            }
-        }
-        
-        return account;
+        return AccountJsonParser.parseAccount(accountJson);
     }
 
     // Create dummy accounts for demo purposes
@@ -234,7 +186,7 @@ public class AccountService {
         checkingAccount.setUserId(sessionManager.getUserId());
         checkingAccount.setAccountNumber("1234567890123456");
         checkingAccount.setAccountType(Account.TYPE_CHECKING);
-        checkingAccount.setBalance(new BigDecimal("250000000")); // 250M VND
+        checkingAccount.setBalance(Money.vnd(250_000_000)); // 250M VND
         checkingAccount.setCurrency("VND");
         checkingAccount.setActive(true);
         checkingAccount.setCreatedAt(new Date());
@@ -246,7 +198,7 @@ public class AccountService {
         savingsAccount.setUserId(sessionManager.getUserId());
         savingsAccount.setAccountNumber("1234567890123457");
         savingsAccount.setAccountType(Account.TYPE_SAVING);
-        savingsAccount.setBalance(new BigDecimal("150000000")); // 150M VND
+        savingsAccount.setBalance(Money.vnd(150_000_000)); // 150M VND
         savingsAccount.setInterestRate(new BigDecimal("6.5")); // 6.5% yearly
         savingsAccount.setCurrency("VND");
         savingsAccount.setActive(true);
@@ -259,7 +211,7 @@ public class AccountService {
         mortgageAccount.setUserId(sessionManager.getUserId());
         mortgageAccount.setAccountNumber("1234567890123458");
         mortgageAccount.setAccountType(Account.TYPE_MORTGAGE);
-        mortgageAccount.setBalance(new BigDecimal("-500000000")); // -500M VND (loan)
+        mortgageAccount.setBalance(Money.vnd(-500_000_000)); // -500M VND (loan)
         mortgageAccount.setInterestRate(new BigDecimal("8.2")); // 8.2% yearly
         mortgageAccount.setCurrency("VND");
         mortgageAccount.setActive(true);
@@ -270,18 +222,36 @@ public class AccountService {
         return accounts;
     }
 
+    // Primary account from the quick unlock cache (last-known balances), or null if none is cached
+    public Account getCachedPrimaryAccount() {
+        JSONArray cached = QuickUnlockManager.getInstance(context).getCachedAccounts();
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return findPrimaryAccount(parseAccountsFromJson(cached));
+        } catch (JSONException e) {
+            Log.e(TAG, "Error parsing cached accounts", e);
+        }
+        return null;
+    }
+
+    // The active checking account, or null
+    public static Account findPrimaryAccount(List<Account> accounts) {
+        for (Account account : accounts) {
+            if (account.isCheckingAccount() && account.isActive()) {
+                return account;
+            }
+        }
+        return null;
+    }
+
     // Get primary checking account
     public void getPrimaryAccount(AccountCallback callback) {
         getUserAccounts(new AccountCallback() {
             @Override
             public void onSuccess(List<Account> accounts) {
-                Account primaryAccount = null;
-                for (Account account : accounts) {
-                    if (account.isCheckingAccount() && account.isActive()) {
-                        primaryAccount = account;
-                        break;
-                    }
-                }
+                Account primaryAccount = findPrimaryAccount(accounts);
                 
                 if (primaryAccount != null) {
                     List<Account> singleAccountList = new ArrayList<>();
@@ -298,7 +268,7 @@ public class AccountService {
             }
 
             @Override
-            public void onBalanceSuccess(BigDecimal balance) {
+            public void onBalanceSuccess(Money balance) {
                 // Not used in this context
             }
 
@@ -311,36 +281,12 @@ public class AccountService {
 
     // Calculate monthly interest for savings account
     public BigDecimal calculateMonthlyInterest(Account account) {
-        if (!account.isSavingAccount() || account.getInterestRate() == null) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal yearlyRate = account.getInterestRate().divide(new BigDecimal("100"));
-        BigDecimal monthlyRate = yearlyRate.divide(new BigDecimal("12"), 6, BigDecimal.ROUND_HALF_UP);
-        return account.getBalance().multiply(monthlyRate);
+        return BankingMath.monthlyInterest(account);
     }
 
     // Calculate monthly mortgage payment
-    public BigDecimal calculateMonthlyMortgagePayment(Account account) {
-        if (!account.isMortgageAccount() || account.getInterestRate() == null) {
-            return BigDecimal.ZERO;
-        }
-        
-        // Simple calculation - in real app this would be more complex
-        BigDecimal loanAmount = account.getBalance().abs();
-        BigDecimal yearlyRate = account.getInterestRate().divide(new BigDecimal("100"));
-        BigDecimal monthlyRate = yearlyRate.divide(new BigDecimal("12"), 6, BigDecimal.ROUND_HALF_UP);
-        
-        // Assuming 20-year term
-        int termMonths = 20 * 12;
-        
-        // Monthly payment formula: P * [r(1+r)^n] / [(1+r)^n - 1]
-        BigDecimal onePlusR = BigDecimal.ONE.add(monthlyRate);
-        BigDecimal onePlusRPowerN = onePlusR.pow(termMonths);
-        BigDecimal numerator = loanAmount.multiply(monthlyRate).multiply(onePlusRPowerN);
-        BigDecimal denominator = onePlusRPowerN.subtract(BigDecimal.ONE);
-        
-        return numerator.divide(denominator, 0, BigDecimal.ROUND_HALF_UP);
+    public Money calculateMonthlyMortgagePayment(Account account) {
+        return BankingMath.monthlyMortgagePayment(account);
     }
 
     // Deposit money to account
@@ -353,7 +299,7 @@ public class AccountService {
                 requestBody.put("description", description);
             }
 
-            apiService.post(ApiConfig.DEPOSIT_MONEY, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.DEPOSIT_MONEY, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
@@ -396,7 +342,7 @@ public class AccountService {
                 requestBody.put("description", description);
             }
 
-            apiService.post(ApiConfig.WITHDRAW_MONEY, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.WITHDRAW_MONEY, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
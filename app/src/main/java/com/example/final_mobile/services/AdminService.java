@@ -2,6 +2,7 @@ package com.example.final_mobile.services;
 
 import android.content.Context;
 
+import com.example.final_mobile.core.Money;
 import com.example.final_mobile.models.Account;
 import com.example.final_mobile.models.User;
 
@@ -81,7 +82,7 @@ public class AdminService {
     public static class DashboardStats {
         private int totalCustomers;
         private int activeAccounts;
-        private BigDecimal totalBalance;
+        private Money totalBalance;
         private int todayTransactions;
         private List<RecentTransaction> recentTransactions;
 
@@ -89,8 +90,8 @@ public class AdminService {
         public void setTotalCustomers(int totalCustomers) { this.totalCustomers = totalCustomers; }
         public int getActiveAccounts() { return activeAccounts; }
         public void setActiveAccounts(int activeAccounts) { this.activeAccounts = activeAccounts; }
-        public BigDecimal getTotalBalance() { return totalBalance; }
-        public void setTotalBalance(BigDecimal totalBalance) { this.totalBalance = totalBalance; }
+        public Money getTotalBalance() { return totalBalance; }
+        public void setTotalBalance(Money totalBalance) { this.totalBalance = totalBalance; }
         public int getTodayTransactions() { return todayTransactions; }
         public void setTodayTransactions(int todayTransactions) { this.todayTransactions = todayTransactions; }
         public List<RecentTransaction> getRecentTransactions() { return recentTransactions; }
@@ -99,7 +100,7 @@ public class AdminService {
 
     public static class RecentTransaction {
         private String transactionId;
-        private BigDecimal amount;
+        private Money amount;
         private String type;
         private String status;
         private String description;
@@ -107,8 +108,8 @@ public class AdminService {
 
         public String getTransactionId() { return transactionId; }
         public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
         public String getType() { return type; }
         public void setType(String type) { this.type = type; }
         public String getStatus() { return status; }
@@ -153,22 +154,12 @@ public class AdminService {
                         android.util.Log.d("AdminService", "Total customers: " + stats.getTotalCustomers());
                         android.util.Log.d("AdminService", "Active accounts: " + stats.getActiveAccounts());
                         
-                        // Handle total_balance as number
-                        BigDecimal totalBalance = BigDecimal.ZERO;
-                        if (data.has("total_balance") && !data.isNull("total_balance")) {
-                            try {
-                                if (data.get("total_balance") instanceof Number) {
-                                    totalBalance = BigDecimal.valueOf(data.getDouble("total_balance"));
-                                } else {
-                                    String balanceStr = data.getString("total_balance");
-                                    if (balanceStr != null && !balanceStr.isEmpty()) {
-                                        totalBalance = new BigDecimal(balanceStr);
-                                    }
-                                }
-                            } catch (Exception e) {
-                                android.util.Log.e("AdminService", "Error parsing total_balance: " + e.getMessage());
-                                totalBalance = BigDecimal.ZERO;
-                            }
+                        // Handle total_balance as number or string
+                        Money totalBalance = Money.ZERO;
+                        try {
+                            totalBalance = parseMoney(data, "total_balance");
+                        } catch (Exception e) {
+                            android.util.Log.e("AdminService", "Error parsing total_balance: " + e.getMessage());
                         }
                         stats.setTotalBalance(totalBalance);
                         
@@ -184,15 +175,7 @@ public class AdminService {
                                 transaction.setTransactionId(t.optString("transaction_id", ""));
                                 
                                 // Handle amount as number or string
-                                if (t.has("amount")) {
-                                    if (t.get("amount") instanceof Number) {
-                                        transaction.setAmount(BigDecimal.valueOf(t.getDouble("amount")));
-                                    } else {
-                                        transaction.setAmount(new BigDecimal(t.getString("amount")));
-                                    }
-                                } else {
-                                    transaction.setAmount(BigDecimal.ZERO);
-                                }
+                                transaction.setAmount(parseMoney(t, "amount"));
                                 
                                 transaction.setType(t.optString("type", ""));
                                 transaction.setStatus(t.optString("status", ""));
@@ -460,6 +443,12 @@ public class AdminService {
         });
     }
 
+    // Balance or amount as a number or string, in the object's currency (VND if absent); zero if missing
+    private static Money parseMoney(JSONObject json, String key) throws JSONException {
+        String currency = json.optString("currency", Money.VND);
+        return Money.fromJson(json, key, currency, Money.zero(currency));
+    }
+
     // Helper method to parse account from JSON
     private Account parseAccountFromJson(JSONObject accountJson) throws JSONException {
         Account account = new Account();
@@ -471,15 +460,7 @@ public class AdminService {
         account.setAccountType(accountJson.optString("account_type", ""));
         
         // Handle balance as number or string
-        if (accountJson.has("balance")) {
-            if (accountJson.get("balance") instanceof Number) {
-                account.setBalance(BigDecimal.valueOf(accountJson.getDouble("balance")));
-            } else {
-                account.setBalance(new BigDecimal(accountJson.getString("balance")));
-            }
-        } else {
-            account.setBalance(BigDecimal.ZERO);
-        }
+        account.setBalance(parseMoney(accountJson, "balance"));
         
         account.setCurrency(accountJson.optString("currency", "VND"));
         account.setActive(accountJson.optBoolean("is_active", true));
@@ -514,15 +495,7 @@ public class AdminService {
             Account primaryAccount = new Account();
             primaryAccount.setAccountNumber(primaryAccountJson.optString("account_number", ""));
             // Handle balance as number or string
-            if (primaryAccountJson.has("balance")) {
-                if (primaryAccountJson.get("balance") instanceof Number) {
-                    primaryAccount.setBalance(BigDecimal.valueOf(primaryAccountJson.getDouble("balance")));
-                } else {
-                    primaryAccount.setBalance(new BigDecimal(primaryAccountJson.getString("balance")));
-                }
-            } else {
-                primaryAccount.setBalance(BigDecimal.ZERO);
-            }
+            primaryAccount.setBalance(parseMoney(primaryAccountJson, "balance"));
             customer.setPrimaryAccount(primaryAccount);
         }
 
@@ -581,15 +554,7 @@ public class AdminService {
             account.setAccountNumber(accountJson.optString("account_number", ""));
             
             // Handle balance
-            if (accountJson.has("balance")) {
-                if (accountJson.get("balance") instanceof Number) {
-                    account.setBalance(BigDecimal.valueOf(accountJson.getDouble("balance")));
-                } else {
-                    account.setBalance(new BigDecimal(accountJson.getString("balance")));
-                }
-            } else {
-                account.setBalance(BigDecimal.ZERO);
-            }
+            account.setBalance(parseMoney(accountJson, "balance"));
             
             // Handle interest_rate
             if (accountJson.has("interest_rate") && !accountJson.isNull("interest_rate")) {
@@ -630,7 +595,7 @@ public class AdminService {
                 android.util.Log.e("AdminService", "Error encoding status: " + e.getMessage());
             }
         }
-        android.util.Log.d("AdminService", "Calling getAllTransactions: " + ApiConfig.BASE_URL + endpoint);
+        android.util.Log.d("AdminService", "Calling getAllTransactions: " + ApiService.getBaseUrl() + endpoint);
         apiService.get(endpoint, new ApiService.ApiCallback() {
             @Override
             public void onSuccess(JSONObject response) {
@@ -671,15 +636,7 @@ public class AdminService {
                                 transaction.setTransactionId(t.optString("transaction_id", ""));
                                 
                                 // Handle amount as number or string
-                                if (t.has("amount")) {
-                                    if (t.get("amount") instanceof Number) {
-                                        transaction.setAmount(BigDecimal.valueOf(t.getDouble("amount")));
-                                    } else {
-                                        transaction.setAmount(new BigDecimal(t.getString("amount")));
-                                    }
-                                } else {
-                                    transaction.setAmount(BigDecimal.ZERO);
-                                }
+                                transaction.setAmount(parseMoney(t, "amount"));
                                 
                                 transaction.setType(t.optString("type", ""));
                                 transaction.setStatus(t.optString("status", ""));
@@ -742,7 +699,7 @@ public class AdminService {
                 requestBody.put("description", description);
             }
 
-            apiService.post(ApiConfig.ADMIN_TRANSFER_MONEY, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.ADMIN_TRANSFER_MONEY, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
@@ -776,7 +733,7 @@ public class AdminService {
                 requestBody.put("description", description);
             }
 
-            apiService.post(ApiConfig.ADMIN_DEPOSIT_MONEY, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.ADMIN_DEPOSIT_MONEY, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
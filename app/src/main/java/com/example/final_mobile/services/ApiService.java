@@ -1,30 +1,57 @@
 package com.example.final_mobile.services;
 
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.util.Log;
 
+import com.example.final_mobile.core.ApiMetrics;
+import com.example.final_mobile.core.IdempotencyKeys;
+import com.example.final_mobile.core.RetryPolicy;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class ApiService {
     private static final String TAG = "ApiService";
     private static ApiService instance;
+    // ApiConfig.BASE_URL unless a test or benchmark points the app at MockBankingServer
+    private static volatile String baseUrl = ApiConfig.BASE_URL;
+    // Officer diagnostics switch; kept across restarts so a slow screen can be reproduced after enabling
+    private static final String DIAGNOSTICS_PREFS = "api_diagnostics";
+    private static final String KEY_METRICS_ENABLED = "metrics_enabled";
+    // Requests that move money; the backend runs each Idempotency-Key once, so a repeat is safe
+    public static final RetryPolicy MONEY_RETRY = RetryPolicy.transientErrors(2, 1000);
     private ExecutorService executor;
+    // Watch requests are held open by the server; they get their own threads so they never take
+    // one of the pool's four from normal requests
+    private final ExecutorService longPollExecutor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Random jitter = new Random();
+    private final IdempotencyKeys idempotencyKeys = new IdempotencyKeys();
     private Context context;
+    private AuthTokenManager tokenManager;
+    private final ApiMetrics metrics = new ApiMetrics();
 
     private ApiService(Context context) {
         this.context = context.getApplicationContext();
         this.executor = Executors.newFixedThreadPool(4);
+        this.tokenManager = new AuthTokenManager(new SessionTokenStore(), this::refreshTokens);
+        metrics.setEnabled(diagnosticsPrefs().getBoolean(KEY_METRICS_ENABLED, false));
     }
 
     public static synchronized ApiService getInstance(Context context) {
@@ -34,6 +61,28 @@ public class ApiService {
         return instance;
     }
 
+    public static void setBaseUrl(String url) {
+        baseUrl = url != null ? url : ApiConfig.BASE_URL;
+    }
+
+    public static String getBaseUrl() {
+        return baseUrl;
+    }
+
+    // Per-endpoint phase histograms, bytes and outcomes; recorded only while enabled
+    public ApiMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetricsEnabled(boolean enabled) {
+        metrics.setEnabled(enabled);
+        diagnosticsPrefs().edit().putBoolean(KEY_METRICS_ENABLED, enabled).apply();
+    }
+
+    private SharedPreferences diagnosticsPrefs() {
+        return context.getSharedPreferences(DIAGNOSTICS_PREFS, Context.MODE_PRIVATE);
+    }
+
     // Callback interface for API responses
     public interface ApiCallback {
         void onSuccess(JSONObject response);
@@ -42,172 +91,361 @@ public class ApiService {
 
     // Generic POST request method
     public void post(String endpoint, JSONObject requestBody, ApiCallback callback) {
-        executor.execute(() -> {
-            try {
-                URL url = new URL(ApiConfig.BASE_URL + endpoint);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                
-                // Set request properties
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setDoOutput(true);
-                connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
-                connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
-
-                // Add authorization header if token exists
-                String token = SessionManager.getInstance(context).getToken();
-                if (token != null && !token.isEmpty()) {
-                    connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
-                }
-
-                // Send request body
-                if (requestBody != null) {
-                    try (OutputStream os = connection.getOutputStream()) {
-                        byte[] input = requestBody.toString().getBytes("utf-8");
-                        os.write(input, 0, input.length);
-                    }
-                }
+        long enqueued = System.nanoTime();
+        executor.execute(() -> executeJson("POST", endpoint, requestBody, null, callback, enqueued));
+    }
 
-                // Get response
-                int responseCode = connection.getResponseCode();
-                String response = readResponse(connection, responseCode);
+    // POST with an Idempotency-Key, for callers that keep the key across their own retries
+    public void post(String endpoint, JSONObject requestBody, String idempotencyKey, ApiCallback callback) {
+        long enqueued = System.nanoTime();
+        executor.execute(() -> executeJson("POST", endpoint, requestBody, idempotencyKey, callback, enqueued));
+    }
 
-                Log.d(TAG, "POST " + endpoint + " - Response Code: " + responseCode);
-                Log.d(TAG, "Response: " + response);
+    /**
+     * POST a request that moves money. It carries an Idempotency-Key, and while its outcome is
+     * unknown (no response, a gateway error, or the backend still running an earlier attempt) it
+     * is sent again with the same key after a jittered backoff, as policy allows. The key is kept
+     * until a definite answer, so repeating a transfer that timed out cannot move the money twice.
+     */
+    public void postIdempotent(String endpoint, JSONObject requestBody, RetryPolicy policy, ApiCallback callback) {
+        String body = requestBody.toString();
+        sendIdempotent(endpoint, requestBody, body, idempotencyKeys.keyFor(endpoint, body), policy, 0, callback);
+    }
 
-                // Parse response and call callback
-                handleResponse(response, responseCode, callback);
+    private void sendIdempotent(String endpoint, JSONObject requestBody, String body, String key, RetryPolicy policy,
+                                int retries, ApiCallback callback) {
+        post(endpoint, requestBody, key, new ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                idempotencyKeys.resolve(endpoint, body);
+                callback.onSuccess(response);
+            }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error in POST request: " + e.getMessage(), e);
-                callback.onError("Network error: " + e.getMessage(), -1);
+            @Override
+            public void onError(String error, int statusCode) {
+                if (policy.shouldRetry(retries, statusCode)) {
+                    long delay = policy.backoffMillis(retries, jitter);
+                    Log.w(TAG, "POST " + endpoint + " failed with " + statusCode + ", retry " + (retries + 1) + " in " + delay + " ms");
+                    retryScheduler.schedule(() -> sendIdempotent(endpoint, requestBody, body, key, policy, retries + 1, callback),
+                            delay, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                if (IdempotencyKeys.isOutcomeKnown(statusCode)) {
+                    idempotencyKeys.resolve(endpoint, body);
+                }
+                callback.onError(error, statusCode);
             }
         });
     }
 
     // Generic GET request method
     public void get(String endpoint, ApiCallback callback) {
-        executor.execute(() -> {
-            try {
-                String fullUrl = ApiConfig.BASE_URL + endpoint;
-                Log.d(TAG, "GET Request - Full URL: " + fullUrl);
-                URL url = new URL(fullUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                
-                // Set request properties
-                connection.setRequestMethod("GET");
-                connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
-                connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
-
-                // Add authorization header if token exists
-                String token = SessionManager.getInstance(context).getToken();
-                if (token != null && !token.isEmpty()) {
-                    connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+        long enqueued = System.nanoTime();
+        executor.execute(() -> executeJson("GET", endpoint, null, null, callback, enqueued));
+    }
+
+    // Generic PUT request method
+    public void put(String endpoint, JSONObject requestBody, ApiCallback callback) {
+        long enqueued = System.nanoTime();
+        executor.execute(() -> executeJson("PUT", endpoint, requestBody, null, callback, enqueued));
+    }
+
+    // Generic DELETE request method
+    public void delete(String endpoint, ApiCallback callback) {
+        long enqueued = System.nanoTime();
+        executor.execute(() -> executeJson("DELETE", endpoint, null, null, callback, enqueued));
+    }
+
+    private void executeJson(String method, String endpoint, JSONObject requestBody, String idempotencyKey,
+                             ApiCallback callback, long enqueuedNanos) {
+        execute(method, endpoint, (token, responseCode, sample) ->
+                sendJson(method, endpoint, requestBody, idempotencyKey, token, responseCode, sample), callback, enqueuedNanos);
+    }
+
+    /**
+     * GET a watch endpoint, which the server holds open until something changes. Runs on its own
+     * thread and is left out of ApiMetrics, whose latency histograms the held time would swamp.
+     * Cancelling the returned LongPoll closes the connection; the callback is then never called.
+     */
+    public LongPoll longPoll(String endpoint, ApiCallback callback) {
+        LongPoll poll = new LongPoll();
+        ApiCallback unlessCancelled = new ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                if (!poll.isCancelled()) {
+                    callback.onSuccess(response);
+                }
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                if (!poll.isCancelled()) {
+                    callback.onError(error, statusCode);
                 }
+            }
+        };
+        longPollExecutor.execute(() -> execute("GET", endpoint, (token, responseCode, sample) ->
+                sendJson("GET", endpoint, null, null, token, responseCode, null, poll), unlessCancelled, 0, false));
+        return poll;
+    }
 
-                // Get response
-                int responseCode = connection.getResponseCode();
-                String response = readResponse(connection, responseCode);
+    // A running long-poll; cancel() aborts it from any thread
+    public static final class LongPoll {
+        private boolean cancelled;
+        private HttpURLConnection connection;
 
-                Log.d(TAG, "GET " + endpoint + " - Response Code: " + responseCode);
-                Log.d(TAG, "Response: " + response);
+        synchronized void attach(HttpURLConnection connection) throws IOException {
+            if (cancelled) {
+                throw new IOException("Long-poll cancelled");
+            }
+            this.connection = connection;
+        }
 
-                // Parse response and call callback
-                handleResponse(response, responseCode, callback);
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error in GET request: " + e.getMessage(), e);
-                callback.onError("Network error: " + e.getMessage(), -1);
+        public void cancel() {
+            HttpURLConnection open;
+            synchronized (this) {
+                cancelled = true;
+                open = connection;
+                connection = null;
             }
-        });
+            if (open != null) {
+                open.disconnect();
+            }
+        }
     }
 
-    // Generic PUT request method
-    public void put(String endpoint, JSONObject requestBody, ApiCallback callback) {
-        executor.execute(() -> {
-            try {
-                URL url = new URL(ApiConfig.BASE_URL + endpoint);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                
-                // Set request properties
-                connection.setRequestMethod("PUT");
-                connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setDoOutput(true);
-                connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
-                connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
-
-                // Add authorization header if token exists
-                String token = SessionManager.getInstance(context).getToken();
-                if (token != null && !token.isEmpty()) {
-                    connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
-                }
+    // One attempt of a request with the given token; the status code goes to responseCode[0]
+    private interface Attempt {
+        String send(String token, int[] responseCode, ApiMetrics.Sample sample) throws IOException;
+    }
+
+    // Runs on the executor. A 401 caused by an expired token is retried once with the token from
+    // AuthTokenManager, which refreshes at most once no matter how many requests failed together.
+    private void execute(String method, String endpoint, Attempt attempt, ApiCallback callback, long enqueuedNanos) {
+        execute(method, endpoint, attempt, callback, enqueuedNanos, true);
+    }
 
-                // Send request body
-                if (requestBody != null) {
-                    try (OutputStream os = connection.getOutputStream()) {
-                        byte[] input = requestBody.toString().getBytes("utf-8");
-                        os.write(input, 0, input.length);
+    private void execute(String method, String endpoint, Attempt attempt, ApiCallback callback, long enqueuedNanos,
+                         boolean recorded) {
+        ApiMetrics.Sample sample = recorded ? metrics.begin(method, endpoint, enqueuedNanos) : null;
+        try {
+            String token = tokenManager.getValidToken();
+            int[] responseCode = new int[1];
+            String response = attempt.send(token, responseCode, sample);
+
+            if (responseCode[0] == ApiConfig.UNAUTHORIZED && token != null && !token.isEmpty() && !isAuthEndpoint(endpoint)) {
+                String refreshedToken = tokenManager.onUnauthorized(token);
+                if (refreshedToken != null) {
+                    Log.d(TAG, method + " " + endpoint + " - replaying with refreshed token");
+                    if (sample != null) {
+                        // The rejected attempt counts as its own request
+                        sample.finish(responseCode[0]);
+                        sample = metrics.begin(method, endpoint, 0);
                     }
+                    response = attempt.send(refreshedToken, responseCode, sample);
                 }
+            }
+
+            Log.d(TAG, method + " " + endpoint + " - Response Code: " + responseCode[0]);
+            Log.d(TAG, "Response: " + response);
+
+            // Parse response and call callback
+            handleResponse(response, responseCode[0], callback, sample);
+            if (sample != null) {
+                sample.mark(ApiMetrics.Phase.CALLBACK);
+                sample.finish(responseCode[0]);
+            }
+
+        } catch (Exception e) {
+            if (sample != null) {
+                sample.fail(e);
+            }
+            Log.e(TAG, "Error in " + method + " request: " + e.getMessage(), e);
+            callback.onError("Network error: " + e.getMessage(), -1);
+        }
+    }
 
-                // Get response
-                int responseCode = connection.getResponseCode();
-                String response = readResponse(connection, responseCode);
+    // Send one JSON request; the status code is returned through responseCode[0]. sample may be null.
+    private String sendJson(String method, String endpoint, JSONObject requestBody, String idempotencyKey, String token,
+                            int[] responseCode, ApiMetrics.Sample sample) throws IOException {
+        return sendJson(method, endpoint, requestBody, idempotencyKey, token, responseCode, sample, null);
+    }
 
-                Log.d(TAG, "PUT " + endpoint + " - Response Code: " + responseCode);
-                Log.d(TAG, "Response: " + response);
+    // poll, if given, gets the connection so it can be aborted
+    private String sendJson(String method, String endpoint, JSONObject requestBody, String idempotencyKey, String token,
+                            int[] responseCode, ApiMetrics.Sample sample, LongPoll poll) throws IOException {
+        if (sample != null) {
+            // Waiting for a valid token is not part of the connect phase
+            sample.restartPhase();
+        }
+        String fullUrl = baseUrl + endpoint;
+        if ("GET".equals(method)) {
+            Log.d(TAG, "GET Request - Full URL: " + fullUrl);
+        }
+        URL url = new URL(fullUrl);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (poll != null) {
+            poll.attach(connection);
+        }
 
-                // Parse response and call callback
-                handleResponse(response, responseCode, callback);
+        // Set request properties
+        connection.setRequestMethod(method);
+        if (requestBody != null) {
+            connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, ApiConfig.CONTENT_TYPE_JSON);
+            connection.setDoOutput(true);
+        }
+        connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
+        connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
+        connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error in PUT request: " + e.getMessage(), e);
-                callback.onError("Network error: " + e.getMessage(), -1);
+        // Add authorization header if token exists
+        if (token != null && !token.isEmpty()) {
+            connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+        }
+        if (idempotencyKey != null) {
+            connection.setRequestProperty(IdempotencyKeys.HEADER, idempotencyKey);
+        }
+
+        if (sample != null) {
+            connection.connect();
+            sample.mark(ApiMetrics.Phase.CONNECT);
+        }
+
+        // Send request body
+        if (requestBody != null) {
+            try (OutputStream os = connection.getOutputStream()) {
+                byte[] input = requestBody.toString().getBytes("utf-8");
+                os.write(input, 0, input.length);
+                if (sample != null) {
+                    sample.addBytesSent(input.length);
+                }
             }
-        });
+        }
+
+        // Get response
+        responseCode[0] = connection.getResponseCode();
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.TTFB);
+        }
+        if (idempotencyKey != null && "true".equals(connection.getHeaderField(IdempotencyKeys.REPLAYED_HEADER))) {
+            Log.i(TAG, method + " " + endpoint + " - answered from an earlier attempt");
+        }
+        String response = readResponse(connection, responseCode[0], sample);
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.DOWNLOAD);
+        }
+        return response;
     }
 
-    // Generic DELETE request method
-    public void delete(String endpoint, ApiCallback callback) {
-        executor.execute(() -> {
+    // Login/OTP/refresh calls must never trigger a refresh themselves
+    private static boolean isAuthEndpoint(String endpoint) {
+        return endpoint.startsWith(ApiConfig.LOGIN) || endpoint.startsWith(ApiConfig.REGISTER)
+                || endpoint.startsWith(ApiConfig.REFRESH_TOKEN) || endpoint.startsWith(ApiConfig.VERIFY_OTP)
+                || endpoint.startsWith(ApiConfig.SEND_OTP);
+    }
+
+    // Synchronous token refresh used by AuthTokenManager (already on a worker thread)
+    private AuthTokenManager.Tokens refreshTokens(String refreshToken) throws IOException {
+        try {
+            JSONObject requestBody = new JSONObject();
+            requestBody.put("refreshToken", refreshToken);
+            requestBody.put("refresh_token", refreshToken);
+
+            int[] responseCode = new int[1];
+            ApiMetrics.Sample sample = metrics.begin("POST", ApiConfig.REFRESH_TOKEN, 0);
+            String response;
             try {
-                URL url = new URL(ApiConfig.BASE_URL + endpoint);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                
-                // Set request properties
-                connection.setRequestMethod("DELETE");
-                connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
-                connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
-
-                // Add authorization header if token exists
-                String token = SessionManager.getInstance(context).getToken();
-                if (token != null && !token.isEmpty()) {
-                    connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+                response = sendJson("POST", ApiConfig.REFRESH_TOKEN, requestBody, null, null, responseCode, sample);
+            } catch (IOException e) {
+                if (sample != null) {
+                    sample.fail(e);
                 }
+                throw e;
+            }
+            if (sample != null) {
+                sample.finish(responseCode[0]);
+            }
+            Log.d(TAG, "Token refresh - Response Code: " + responseCode[0]);
 
-                // Get response
-                int responseCode = connection.getResponseCode();
-                String response = readResponse(connection, responseCode);
+            if (responseCode[0] == -1 || responseCode[0] >= ApiConfig.INTERNAL_SERVER_ERROR) {
+                // Server unreachable or broken - not a verdict on the refresh token
+                throw new IOException("Token refresh failed with status " + responseCode[0]);
+            }
+            if (responseCode[0] < 200 || responseCode[0] >= 300 || response.isEmpty()) {
+                return null;
+            }
 
-                Log.d(TAG, "DELETE " + endpoint + " - Response Code: " + responseCode);
-                Log.d(TAG, "Response: " + response);
+            JSONObject json = new JSONObject(response);
+            JSONObject data = json.optJSONObject("data");
+            if (!json.optBoolean("success", false) || data == null) {
+                return null;
+            }
+            String accessToken = data.optString("access_token", data.optString("accessToken", data.optString("token", "")));
+            String newRefreshToken = data.optString("refresh_token", data.optString("refreshToken", ""));
+            return new AuthTokenManager.Tokens(accessToken, newRefreshToken);
+        } catch (JSONException e) {
+            Log.e(TAG, "Error parsing token refresh response", e);
+            return null;
+        }
+    }
 
-                // Parse response and call callback
-                handleResponse(response, responseCode, callback);
+    // Resolve DNS and open a keep-alive connection to the API host so the first real request
+    // does not pay for it. Blocking - call it from a background thread.
+    public void preconnect() {
+        long start = System.currentTimeMillis();
+        try {
+            int[] responseCode = new int[1];
+            // Reading the whole response returns the socket to HttpURLConnection's keep-alive pool
+            sendJson("GET", ApiConfig.API_TEST, null, null, null, responseCode, null);
+            Log.d(TAG, "Preconnect to " + baseUrl + " took " + (System.currentTimeMillis() - start)
+                    + " ms (status " + responseCode[0] + ")");
+        } catch (IOException e) {
+            Log.w(TAG, "Preconnect failed after " + (System.currentTimeMillis() - start) + " ms: " + e.getMessage());
+        }
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error in DELETE request: " + e.getMessage(), e);
-                callback.onError("Network error: " + e.getMessage(), -1);
-            }
-        });
+    public IdempotencyKeys getIdempotencyKeys() {
+        return idempotencyKeys;
+    }
+
+    public AuthTokenManager getTokenManager() {
+        return tokenManager;
+    }
+
+    // Tokens live in SessionManager so they survive process death
+    private class SessionTokenStore implements AuthTokenManager.TokenStore {
+        @Override
+        public String getToken() {
+            return SessionManager.getInstance(context).getToken();
+        }
+
+        @Override
+        public String getRefreshToken() {
+            return SessionManager.getInstance(context).getRefreshToken();
+        }
+
+        @Override
+        public void updateTokens(String token, String refreshToken) {
+            SessionManager.getInstance(context).updateTokens(token, refreshToken);
+            // Keep the encrypted quick unlock copy on the rotated refresh token
+            QuickUnlockManager.getInstance(context).onSessionUpdated();
+        }
+
+        @Override
+        public void clear() {
+            Log.w(TAG, "Refresh token rejected, ending session");
+            SessionManager.getInstance(context).logoutUser();
+            // The cached refresh token is the same one, so quick unlock can no longer work
+            QuickUnlockManager.getInstance(context).disable();
+        }
     }
 
     // Read response from connection
-    private String readResponse(HttpURLConnection connection, int responseCode) throws IOException {
+    private String readResponse(HttpURLConnection connection, int responseCode, ApiMetrics.Sample sample) throws IOException {
         BufferedReader reader = null;
         StringBuilder response = new StringBuilder();
         
@@ -220,6 +458,9 @@ public class ApiService {
             }
 
             if (inputStream != null) {
+                if (sample != null) {
+                    inputStream = sample.countReceived(inputStream);
+                }
                 reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
                 String line;
                 while ((line = reader.readLine()) != null) {
@@ -256,7 +497,7 @@ public class ApiService {
     }
 
     // Handle API response
-    private void handleResponse(String response, int responseCode, ApiCallback callback) {
+    private void handleResponse(String response, int responseCode, ApiCallback callback, ApiMetrics.Sample sample) {
         // Check if response is empty
         if (response == null || response.trim().isEmpty()) {
             Log.e(TAG, "Empty response from server. Status code: " + responseCode);
@@ -299,7 +540,10 @@ public class ApiService {
             Log.d(TAG, "Parsing response (length: " + cleanedResponse.length() + "): " + logResponse);
             
             JSONObject jsonResponse = new JSONObject(cleanedResponse);
-            
+            if (sample != null) {
+                sample.mark(ApiMetrics.Phase.PARSE);
+            }
+
             if (responseCode >= 200 && responseCode < 300) {
                 callback.onSuccess(jsonResponse);
             } else {
@@ -326,77 +570,236 @@ public class ApiService {
         }
     }
 
+    // Progress listener for uploads (called on the network thread)
+    public interface ProgressListener {
+        void onProgress(long bytesSent, long totalBytes);
+    }
+
     // Multipart POST request for file uploads
     public void postMultipart(String endpoint, java.io.File file, String fieldName, ApiCallback callback) {
-        executor.execute(() -> {
-            java.io.FileInputStream fileInputStream = null;
-            OutputStream outputStream = null;
-            try {
-                URL url = new URL(ApiConfig.BASE_URL + endpoint);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                
-                // Set request properties for multipart
-                String boundary = "----WebKitFormBoundary" + System.currentTimeMillis();
-                connection.setRequestMethod("POST");
-                connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, "multipart/form-data; boundary=" + boundary);
-                connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
-                connection.setDoOutput(true);
-                connection.setDoInput(true);
-                connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
-                connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
-
-                // Add authorization header if token exists
-                String token = SessionManager.getInstance(context).getToken();
-                if (token != null && !token.isEmpty()) {
-                    connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
-                }
+        postMultipart(endpoint, file, fieldName, null, callback);
+    }
+
+    public void postMultipart(String endpoint, java.io.File file, String fieldName, ProgressListener progressListener, ApiCallback callback) {
+        long enqueued = System.nanoTime();
+        executor.execute(() -> execute("POST", endpoint, (token, responseCode, sample) ->
+                sendMultipart(endpoint, file.getName(), fieldName, () -> new java.io.FileInputStream(file), file.length(),
+                        progressListener, token, responseCode, sample), callback, enqueued));
+    }
+
+    // Multipart POST request for in-memory image data (e.g. a freshly encoded capture)
+    public void postMultipart(String endpoint, byte[] data, int length, String fileName, String fieldName, ApiCallback callback) {
+        postMultipart(endpoint, data, length, fileName, fieldName, null, callback);
+    }
+
+    public void postMultipart(String endpoint, byte[] data, int length, String fileName, String fieldName, ProgressListener progressListener, ApiCallback callback) {
+        long enqueued = System.nanoTime();
+        executor.execute(() -> execute("POST", endpoint, (token, responseCode, sample) ->
+                sendMultipart(endpoint, fileName, fieldName, () -> new java.io.ByteArrayInputStream(data, 0, length), length,
+                        progressListener, token, responseCode, sample), callback, enqueued));
+    }
+
+    // Opens the upload body; called once per attempt, so a replay after a 401 sends it again
+    private interface BodySource {
+        InputStream open() throws IOException;
+    }
+
+    // Stream a single-part multipart body. The length is known up front, so fixed-length
+    // streaming mode keeps HttpURLConnection from buffering the whole body in memory.
+    private String sendMultipart(String endpoint, String fileName, String fieldName, BodySource bodySource, long bodyLength,
+                                 ProgressListener progressListener, String token, int[] responseCode,
+                                 ApiMetrics.Sample sample) throws IOException {
+        URL url = new URL(baseUrl + endpoint);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+        // Set request properties for multipart
+        String boundary = "----WebKitFormBoundary" + System.currentTimeMillis();
+        byte[] head = ("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + fieldName + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes("UTF-8");
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes("UTF-8");
+        long totalLength = head.length + bodyLength + tail.length;
+
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, ApiConfig.CONTENT_TYPE_MULTIPART + "; boundary=" + boundary);
+        connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
+        connection.setDoOutput(true);
+        connection.setDoInput(true);
+        connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
+        connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
+        connection.setFixedLengthStreamingMode(totalLength);
+
+        // Add authorization header if token exists
+        if (token != null && !token.isEmpty()) {
+            connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+        }
 
-                // Write multipart data
-                outputStream = connection.getOutputStream();
-                
-                // Write file part
-                outputStream.write(("--" + boundary + "\r\n").getBytes());
-                outputStream.write(("Content-Disposition: form-data; name=\"" + fieldName + "\"; filename=\"" + file.getName() + "\"\r\n").getBytes());
-                outputStream.write(("Content-Type: image/jpeg\r\n\r\n").getBytes());
-                
-                // Write file content
-                fileInputStream = new java.io.FileInputStream(file);
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = fileInputStream.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, bytesRead);
+        if (sample != null) {
+            sample.restartPhase();
+            connection.connect();
+            sample.mark(ApiMetrics.Phase.CONNECT);
+            sample.addBytesSent(totalLength);
+        }
+
+        // Write multipart data
+        try (InputStream body = bodySource.open(); OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(head);
+            long sent = head.length;
+
+            byte[] buffer = new byte[16 * 1024];
+            int bytesRead;
+            while ((bytesRead = body.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, bytesRead);
+                sent += bytesRead;
+                if (progressListener != null) {
+                    progressListener.onProgress(sent, totalLength);
                 }
-                
-                // Write boundary end
-                outputStream.write(("\r\n--" + boundary + "--\r\n").getBytes());
-                outputStream.flush();
+            }
 
-                // Get response
-                int responseCode = connection.getResponseCode();
-                String response = readResponse(connection, responseCode);
+            outputStream.write(tail);
+            outputStream.flush();
+            if (progressListener != null) {
+                progressListener.onProgress(totalLength, totalLength);
+            }
+        }
 
-                Log.d(TAG, "POST Multipart " + endpoint + " - Response Code: " + responseCode);
-                Log.d(TAG, "Response: " + response);
+        // Get response
+        responseCode[0] = connection.getResponseCode();
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.TTFB);
+        }
+        String response = readResponse(connection, responseCode[0], sample);
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.DOWNLOAD);
+        }
+        Log.d(TAG, "POST Multipart " + endpoint + " (" + bodyLength + " bytes)");
+        return response;
+    }
 
-                // Parse response and call callback
-                handleResponse(response, responseCode, callback);
+    // PUT raw bytes (used for resumable upload chunks)
+    public void putBinary(String endpoint, byte[] data, int offset, int length, ApiCallback callback) {
+        long enqueued = System.nanoTime();
+        executor.execute(() -> execute("PUT", endpoint, (token, responseCode, sample) ->
+                sendBinary(endpoint, data, offset, length, token, responseCode, sample), callback, enqueued));
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error in multipart POST request: " + e.getMessage(), e);
-                callback.onError("Network error: " + e.getMessage(), -1);
-            } finally {
-                try {
-                    if (fileInputStream != null) {
-                        fileInputStream.close();
-                    }
-                    if (outputStream != null) {
-                        outputStream.close();
+    private String sendBinary(String endpoint, byte[] data, int offset, int length, String token, int[] responseCode,
+                              ApiMetrics.Sample sample) throws IOException {
+        URL url = new URL(baseUrl + endpoint);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+        // Set request properties
+        connection.setRequestMethod("PUT");
+        connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, ApiConfig.CONTENT_TYPE_OCTET_STREAM);
+        connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
+        connection.setDoOutput(true);
+        connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
+        connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
+        connection.setFixedLengthStreamingMode(length);
+
+        // Add authorization header if token exists
+        if (token != null && !token.isEmpty()) {
+            connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+        }
+
+        if (sample != null) {
+            sample.restartPhase();
+            connection.connect();
+            sample.mark(ApiMetrics.Phase.CONNECT);
+            sample.addBytesSent(length);
+        }
+
+        // Send request body
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(data, offset, length);
+        }
+
+        // Get response
+        responseCode[0] = connection.getResponseCode();
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.TTFB);
+        }
+        String response = readResponse(connection, responseCode[0], sample);
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.DOWNLOAD);
+        }
+        Log.d(TAG, "PUT binary " + endpoint + " (" + length + " bytes)");
+        return response;
+    }
+
+    /**
+     * GET raw bytes into {@code destination} (used by ImageLoader). Blocks, so call it off the
+     * main thread. Returns the status code; the file is only written for a 2xx response, and a
+     * 401 is retried once with a refreshed token like the JSON requests.
+     */
+    public int downloadToFile(String endpoint, File destination) throws IOException {
+        ApiMetrics.Sample sample = metrics.begin("GET", endpoint, System.nanoTime());
+        try {
+            String token = tokenManager.getValidToken();
+            int responseCode = download(endpoint, destination, token, sample);
+            if (responseCode == ApiConfig.UNAUTHORIZED && token != null && !token.isEmpty()) {
+                String refreshedToken = tokenManager.onUnauthorized(token);
+                if (refreshedToken != null) {
+                    if (sample != null) {
+                        sample.finish(responseCode);
+                        sample = metrics.begin("GET", endpoint, 0);
                     }
-                } catch (IOException e) {
-                    Log.e(TAG, "Error closing streams", e);
+                    responseCode = download(endpoint, destination, refreshedToken, sample);
                 }
             }
-        });
+            Log.d(TAG, "GET download " + endpoint + " - Response Code: " + responseCode);
+            if (sample != null) {
+                sample.finish(responseCode);
+            }
+            return responseCode;
+        } catch (IOException | RuntimeException e) {
+            if (sample != null) {
+                sample.fail(e);
+            }
+            throw e;
+        }
+    }
+
+    private int download(String endpoint, File destination, String token, ApiMetrics.Sample sample) throws IOException {
+        if (sample != null) {
+            sample.restartPhase();
+        }
+        URL url = new URL(baseUrl + endpoint);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(ApiConfig.CONNECT_TIMEOUT);
+        connection.setReadTimeout(ApiConfig.READ_TIMEOUT);
+        if (token != null && !token.isEmpty()) {
+            connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+        }
+        if (sample != null) {
+            connection.connect();
+            sample.mark(ApiMetrics.Phase.CONNECT);
+        }
+
+        int responseCode = connection.getResponseCode();
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.TTFB);
+        }
+        if (responseCode < 200 || responseCode >= 300) {
+            // Drain the error body so the connection can be reused
+            readResponse(connection, responseCode, sample);
+            return responseCode;
+        }
+        InputStream in = connection.getInputStream();
+        if (sample != null) {
+            in = sample.countReceived(in);
+        }
+        try (InputStream body = in; OutputStream out = new FileOutputStream(destination)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        if (sample != null) {
+            sample.mark(ApiMetrics.Phase.DOWNLOAD);
+        }
+        return responseCode;
     }
 
     // Cleanup method
@@ -404,5 +807,6 @@ public class ApiService {
         if (executor != null && !executor.isShutdown()) {
             executor.shutdown();
         }
+        retryScheduler.shutdown();
     }
 }
@@ -3,11 +3,17 @@ package com.example.final_mobile.services;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.models.Account;
+import com.example.final_mobile.models.Transaction;
 import com.example.final_mobile.models.User;
+import com.example.final_mobile.utils.LoginTimeline;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.List;
+
 public class AuthService {
     private static final String TAG = "AuthService";
     private ApiService apiService;
@@ -56,6 +62,8 @@ public class AuthService {
                             
                             // Create session
                             sessionManager.createLoginSession(token, refreshToken, user);
+                            LoginTimeline.mark("session_created");
+                            startPostLoginPrefetch(user);
                             callback.onSuccess(user);
                         } else {
                             String message = response.optString("message", "Registration failed");
@@ -114,6 +122,8 @@ public class AuthService {
                             
                             // Create session
                             sessionManager.createLoginSession(token, refreshToken, user);
+                            LoginTimeline.mark("session_created");
+                            startPostLoginPrefetch(user);
                             callback.onSuccess(user);
                         } else {
                             String message = response.optString("message", "Login failed");
@@ -169,6 +179,8 @@ public class AuthService {
                                 
                                 // Create session
                                 sessionManager.createLoginSession(token, refreshToken, user);
+                                LoginTimeline.mark("session_created");
+                                startPostLoginPrefetch(user);
                                 callback.onSuccess(user);
                             } else {
                                 callback.onError("Session data not found");
@@ -233,6 +245,9 @@ public class AuthService {
 
     // Logout
     public void logout(AuthCallback callback) {
+        // An explicit logout also forgets the quick unlock session and the prefetched data
+        QuickUnlockManager.getInstance(context).disable();
+        SessionDataStore.getInstance().clear();
         apiService.post(ApiConfig.LOGOUT, null, new ApiService.ApiCallback() {
             @Override
             public void onSuccess(JSONObject response) {
@@ -265,6 +280,7 @@ public class AuthService {
 
         try {
             JSONObject requestBody = new JSONObject();
+            requestBody.put("refreshToken", refreshToken);
             requestBody.put("refresh_token", refreshToken);
 
             apiService.post(ApiConfig.REFRESH_TOKEN, requestBody, new ApiService.ApiCallback() {
@@ -275,7 +291,10 @@ public class AuthService {
                         if (success) {
                             JSONObject data = response.getJSONObject("data");
                             String newToken = data.getString("token");
-                            sessionManager.updateToken(newToken);
+                            // The server rotates the refresh token on every refresh
+                            String newRefreshToken = data.optString("refresh_token", data.optString("refreshToken", ""));
+                            sessionManager.updateTokens(newToken, newRefreshToken);
+                            QuickUnlockManager.getInstance(context).onSessionUpdated();
                             
                             if (callback != null) {
                                 callback.onSuccess(sessionManager.getCurrentUser());
@@ -303,6 +322,104 @@ public class AuthService {
         }
     }
 
+    /**
+     * Fetch what the first screens need as soon as the token is stored, all in parallel:
+     * profile, accounts (the primary account is picked from the same response), the first
+     * transactions page and the eKYC status. Results land in SessionDataStore (eKYC status in
+     * EkycStatusMonitor's cache) so HomeFragment can render from memory.
+     */
+    private void startPostLoginPrefetch(User user) {
+        SessionDataStore store = SessionDataStore.getInstance();
+        store.clear();
+        LoginTimeline.mark("prefetch_start");
+
+        long profileTicket = store.profile.begin();
+        new UserService(context).getUserProfile(new UserService.UserCallback() {
+            @Override
+            public void onSuccess(User profile) {
+                store.profile.complete(profileTicket, profile);
+                LoginTimeline.mark("prefetch_profile");
+            }
+
+            @Override
+            public void onUpdateSuccess(String message) {
+                // Not used here
+            }
+
+            @Override
+            public void onError(String error) {
+                store.profile.fail(profileTicket);
+                LoginTimeline.mark("prefetch_profile_failed");
+            }
+        });
+
+        // Bank officers land on the officer dashboard, which loads its own data
+        if (user.isBankOfficer()) {
+            return;
+        }
+
+        long accountsTicket = store.accounts.begin();
+        long primaryTicket = store.primaryAccount.begin();
+        new AccountService(context).getUserAccounts(new AccountService.AccountCallback() {
+            @Override
+            public void onSuccess(List<Account> accounts) {
+                store.accounts.complete(accountsTicket, accounts);
+                Account primary = AccountService.findPrimaryAccount(accounts);
+                if (primary != null) {
+                    store.primaryAccount.complete(primaryTicket, primary);
+                } else {
+                    store.primaryAccount.fail(primaryTicket);
+                }
+                LoginTimeline.mark("prefetch_accounts");
+            }
+
+            @Override
+            public void onSingleAccountSuccess(Account account) {
+                // Not used here
+            }
+
+            @Override
+            public void onBalanceSuccess(Money balance) {
+                // Not used here
+            }
+
+            @Override
+            public void onError(String error) {
+                store.accounts.fail(accountsTicket);
+                store.primaryAccount.fail(primaryTicket);
+                LoginTimeline.mark("prefetch_accounts_failed");
+            }
+        });
+
+        long transactionsTicket = store.recentTransactions.begin();
+        new TransactionService(context).getRecentTransactions(new TransactionService.TransactionCallback() {
+            @Override
+            public void onSuccess(List<Transaction> transactions) {
+                store.recentTransactions.complete(transactionsTicket, transactions);
+                LoginTimeline.mark("prefetch_transactions");
+            }
+
+            @Override
+            public void onSingleTransactionSuccess(Transaction transaction) {
+                // Not used here
+            }
+
+            @Override
+            public void onError(String error) {
+                store.recentTransactions.fail(transactionsTicket);
+                LoginTimeline.mark("prefetch_transactions_failed");
+            }
+
+            @Override
+            public void onOtpRequired(String message, String transactionId) {
+                // Not used here
+            }
+        });
+
+        EkycStatusMonitor.getInstance(context).refresh();
+        FeeScheduleStore.getInstance(context).refresh();
+    }
+
     // Check if user is authenticated
     public boolean isAuthenticated() {
         return sessionManager.isLoggedIn();
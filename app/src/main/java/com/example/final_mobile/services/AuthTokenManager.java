@@ -0,0 +1,202 @@
+package com.example.final_mobile.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the access token fresh for ApiService.
+ *
+ * - Proactive: {@link #getValidToken()} refreshes when the JWT exp claim is within
+ *   {@link #EXPIRY_SKEW_MS} of now, so most requests never see a 401.
+ * - Reactive: after a 401, {@link #onUnauthorized(String)} performs at most one refresh for
+ *   that token. Concurrent callers wait on the same lock and, once the first refresh finished,
+ *   get the new token without refreshing again, so they can replay their request.
+ *
+ * Plain Java (no Android classes) so the concurrency behaviour is unit-testable on the JVM.
+ */
+public class AuthTokenManager {
+
+    // Refresh this long before the token actually expires
+    public static final long EXPIRY_SKEW_MS = 60 * 1000;
+
+    private static final Pattern EXP_PATTERN = Pattern.compile("\"exp\"\\s*:\\s*(\\d+)");
+
+    public interface TokenStore {
+        String getToken();
+        String getRefreshToken();
+        void updateTokens(String token, String refreshToken);
+        void clear();
+    }
+
+    public interface Refresher {
+        /**
+         * Exchange the refresh token synchronously. Returns null if the server rejected it;
+         * throws IOException if the server could not be reached.
+         */
+        Tokens refresh(String refreshToken) throws IOException;
+    }
+
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static class Tokens {
+        public final String accessToken;
+        public final String refreshToken;
+
+        public Tokens(String accessToken, String refreshToken) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+        }
+    }
+
+    private final TokenStore store;
+    private final Refresher refresher;
+    private final Clock clock;
+    private final Object refreshLock = new Object();
+    private volatile int refreshCount = 0;
+
+    public AuthTokenManager(TokenStore store, Refresher refresher) {
+        this(store, refresher, System::currentTimeMillis);
+    }
+
+    public AuthTokenManager(TokenStore store, Refresher refresher, Clock clock) {
+        this.store = store;
+        this.refresher = refresher;
+        this.clock = clock;
+    }
+
+    /**
+     * Current token, refreshed first if it is about to expire. Falls back to the current
+     * token if the refresh cannot be done (the request will then get its own 401).
+     */
+    public String getValidToken() {
+        String token = store.getToken();
+        if (token == null || token.isEmpty()) {
+            return token;
+        }
+
+        long expiresAt = getExpiryMillis(token);
+        if (expiresAt > 0 && expiresAt - clock.currentTimeMillis() <= EXPIRY_SKEW_MS) {
+            String refreshed = refreshIfCurrent(token);
+            if (refreshed != null) {
+                return refreshed;
+            }
+        }
+        return store.getToken();
+    }
+
+    /**
+     * Called after a request made with {@code rejectedToken} got a 401. Returns the token to
+     * replay with, or null if there is none (refresh rejected or unavailable).
+     */
+    public String onUnauthorized(String rejectedToken) {
+        return refreshIfCurrent(rejectedToken);
+    }
+
+    // Number of refresh calls made so far (for diagnostics and tests)
+    public int getRefreshCount() {
+        return refreshCount;
+    }
+
+    // Single flight: only the first caller holding a stale token refreshes; later callers
+    // see that the stored token already changed and reuse it
+    private String refreshIfCurrent(String staleToken) {
+        synchronized (refreshLock) {
+            String current = store.getToken();
+            if (current != null && !current.isEmpty() && !current.equals(staleToken)) {
+                return current;
+            }
+
+            String refreshToken = store.getRefreshToken();
+            if (refreshToken == null || refreshToken.isEmpty()) {
+                return null;
+            }
+
+            Tokens tokens;
+            try {
+                refreshCount++;
+                tokens = refresher.refresh(refreshToken);
+            } catch (IOException e) {
+                // Network problem - keep the session, the caller reports the original error
+                return null;
+            }
+
+            if (tokens == null || tokens.accessToken == null || tokens.accessToken.isEmpty()) {
+                // Refresh token rejected - the session is over
+                store.clear();
+                return null;
+            }
+
+            String newRefreshToken = tokens.refreshToken != null && !tokens.refreshToken.isEmpty()
+                    ? tokens.refreshToken : refreshToken;
+            store.updateTokens(tokens.accessToken, newRefreshToken);
+            return tokens.accessToken;
+        }
+    }
+
+    /**
+     * exp claim of a JWT in milliseconds, or 0 if it cannot be read. The signature is not checked;
+     * this is only used to decide when to refresh.
+     */
+    public static long getExpiryMillis(String jwt) {
+        if (jwt == null) {
+            return 0;
+        }
+        int firstDot = jwt.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : jwt.indexOf('.', firstDot + 1);
+        if (firstDot < 0 || secondDot < 0) {
+            return 0;
+        }
+
+        byte[] payload = decodeBase64Url(jwt.substring(firstDot + 1, secondDot));
+        if (payload == null) {
+            return 0;
+        }
+        Matcher matcher = EXP_PATTERN.matcher(new String(payload, StandardCharsets.UTF_8));
+        if (!matcher.find()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(matcher.group(1)) * 1000L;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // java.util.Base64 needs API 26 and android.util.Base64 is not available on the JVM
+    static byte[] decodeBase64Url(String input) {
+        int length = input.length();
+        while (length > 0 && input.charAt(length - 1) == '=') {
+            length--;
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = 0; i < length; i++) {
+            int value = base64Value(input.charAt(i));
+            if (value < 0) {
+                return null;
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[index++] = (byte) ((buffer >> bits) & 0xFF);
+            }
+        }
+        return index == out.length ? out : java.util.Arrays.copyOf(out, index);
+    }
+
+    private static int base64Value(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+        if (c >= '0' && c <= '9') return c - '0' + 52;
+        if (c == '-' || c == '+') return 62;
+        if (c == '_' || c == '/') return 63;
+        return -1;
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.core.SavedBillers;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the utility dialogs know before the user types anything.
+ *
+ * Holds the provider catalog (names and logos, kept for a day in SharedPreferences), the bills
+ * each user has paid before, and the amount due on those bills. {@link #prefetch()} brings the
+ * catalog and every saved bill's amount due up to date in one batch request, so a bill dialog
+ * opens pre-filled without a round trip.
+ */
+public class BillerDirectory {
+    private static final String TAG = "BillerDirectory";
+    private static final String PREF_NAME = "BillerDirectory";
+    private static final String KEY_PROVIDERS = "providers";
+    private static final String KEY_PROVIDERS_FETCHED_AT = "providers_fetched_at";
+    private static final String KEY_SAVED_PREFIX = "saved_";
+
+    // Matches the backend's Cache-Control on utilities/providers
+    private static final long PROVIDER_TTL_MS = 24 * 60 * 60 * 1000L;
+    private static final long BILL_INFO_TTL_MS = 10 * 60 * 1000L;
+
+    private static BillerDirectory instance;
+
+    private final ApiService apiService;
+    private final SessionManager sessionManager;
+    private final SharedPreferences pref;
+
+    private volatile Map<String, List<UtilityService.ServiceProvider>> providers = Collections.emptyMap();
+    private long providersFetchedAt;
+    private boolean fetchingProviders = false;
+    private final List<UtilityService.ProviderCallback> providerWaiters = new ArrayList<>();
+
+    // Saved billers and bill info of the signed-in user; reloaded when the user changes
+    private String userId;
+    private SavedBillers saved = new SavedBillers();
+    private final Map<String, BillInfo> billInfo = new HashMap<>();
+    private long billInfoFetchedAt;
+    private boolean fetchingBillInfo = false;
+
+    /** Amount due on a saved bill, as of the last prefetch. */
+    public static final class BillInfo {
+        private final Money amountDue;
+        private final boolean paidThisMonth;
+        private final String customerName;
+
+        BillInfo(Money amountDue, boolean paidThisMonth, String customerName) {
+            this.amountDue = amountDue;
+            this.paidThisMonth = paidThisMonth;
+            this.customerName = customerName;
+        }
+
+        // Null if the backend has no payment history for this bill
+        public Money getAmountDue() {
+            return amountDue;
+        }
+
+        public boolean isPaidThisMonth() {
+            return paidThisMonth;
+        }
+
+        public String getCustomerName() {
+            return customerName;
+        }
+    }
+
+    private BillerDirectory(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.apiService = ApiService.getInstance(appContext);
+        this.sessionManager = SessionManager.getInstance(appContext);
+        this.pref = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+
+        String stored = pref.getString(KEY_PROVIDERS, null);
+        if (stored != null) {
+            try {
+                providers = parseCatalog(new JSONObject(stored));
+                providersFetchedAt = pref.getLong(KEY_PROVIDERS_FETCHED_AT, 0);
+            } catch (JSONException e) {
+                Log.w(TAG, "Discarding corrupt provider catalog", e);
+                pref.edit().remove(KEY_PROVIDERS).remove(KEY_PROVIDERS_FETCHED_AT).apply();
+            }
+        }
+    }
+
+    public static synchronized BillerDirectory getInstance(Context context) {
+        if (instance == null) {
+            instance = new BillerDirectory(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Refresh whatever is stale: the provider catalog after a day, and the amount due on saved
+     * bills after ten minutes. Cheap to call every time the Utilities tab is shown.
+     */
+    public void prefetch() {
+        if (isProvidersStale()) {
+            fetchProviders(null);
+        }
+        fetchBillInfo();
+    }
+
+    // Cached providers for a service type; empty until the catalog has been fetched once
+    public List<UtilityService.ServiceProvider> getProviders(String serviceType) {
+        List<UtilityService.ServiceProvider> list = providers.get(serviceType);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    /**
+     * Providers for a service type, or every provider when serviceType is null. Served from the
+     * catalog while it is fresh, otherwise after fetching it.
+     */
+    public void getProviders(String serviceType, UtilityService.ProviderCallback callback) {
+        UtilityService.ProviderCallback filtered = new UtilityService.ProviderCallback() {
+            @Override
+            public void onSuccess(List<UtilityService.ServiceProvider> all) {
+                callback.onSuccess(serviceType != null ? getProviders(serviceType) : all);
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        };
+        if (!isProvidersStale()) {
+            filtered.onSuccess(allProviders());
+        } else {
+            fetchProviders(filtered);
+        }
+    }
+
+    // Bills of this service type the user has paid, most recent first
+    public synchronized List<SavedBillers.Entry> getSavedBillers(String serviceType) {
+        return savedForCurrentUser().forServiceType(serviceType);
+    }
+
+    // Null if the user has not paid this bill before
+    public synchronized SavedBillers.Entry findSavedBiller(String serviceType, String reference) {
+        return savedForCurrentUser().find(serviceType, reference);
+    }
+
+    // Null until a prefetch has covered this bill
+    public synchronized BillInfo getBillInfo(String serviceType, String reference) {
+        savedForCurrentUser();
+        return billInfo.get(key(serviceType, reference));
+    }
+
+    /** Save a completed payment's bill so the next payment of it starts pre-filled. */
+    public void remember(PaymentPipeline.Payment payment) {
+        UtilityService.UtilityPayment receipt = payment.getReceipt();
+        Money amount = receipt != null ? receipt.getAmount() : null;
+        String provider = payment.getDetail("provider");
+        if (provider == null && receipt != null && !receipt.getProvider().isEmpty()) {
+            provider = receipt.getProvider();
+        }
+        String serviceType = payment.getBiller().getServiceType();
+        String reference = payment.getReference();
+        if (reference == null || reference.isEmpty()) {
+            return;
+        }
+        SavedBillers.Entry entry = new SavedBillers.Entry(serviceType, reference,
+                payment.getDetail("customerName"), provider, amount, System.currentTimeMillis());
+
+        synchronized (this) {
+            SavedBillers current = savedForCurrentUser();
+            current.remember(entry);
+            // Just paid, so nothing is due until the next prefetch says otherwise
+            billInfo.put(key(serviceType, reference),
+                    new BillInfo(amount != null ? Money.zero(amount.getCurrency()) : null, true, entry.getCustomerName()));
+            if (userId != null) {
+                try {
+                    pref.edit().putString(KEY_SAVED_PREFIX + userId, current.toJson().toString()).apply();
+                } catch (JSONException e) {
+                    Log.w(TAG, "Could not save billers", e);
+                }
+            }
+        }
+    }
+
+    private boolean isProvidersStale() {
+        synchronized (this) {
+            return providers.isEmpty() || System.currentTimeMillis() - providersFetchedAt > PROVIDER_TTL_MS;
+        }
+    }
+
+    // Callers waiting on the same fetch share it; null just refreshes the catalog
+    private void fetchProviders(UtilityService.ProviderCallback callback) {
+        synchronized (this) {
+            if (callback != null) {
+                providerWaiters.add(callback);
+            }
+            if (fetchingProviders) {
+                return;
+            }
+            fetchingProviders = true;
+        }
+
+        apiService.get(ApiConfig.GET_PROVIDERS, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                JSONObject data = response.optJSONObject("data");
+                if (!response.optBoolean("success", false) || data == null) {
+                    finishProviders(response.optString("message", "Failed to get providers"));
+                    return;
+                }
+                try {
+                    Map<String, List<UtilityService.ServiceProvider>> catalog = parseCatalog(data);
+                    long now = System.currentTimeMillis();
+                    synchronized (BillerDirectory.this) {
+                        providers = catalog;
+                        providersFetchedAt = now;
+                    }
+                    pref.edit()
+                            .putString(KEY_PROVIDERS, data.toString())
+                            .putLong(KEY_PROVIDERS_FETCHED_AT, now)
+                            .apply();
+                    finishProviders(null);
+                } catch (JSONException e) {
+                    finishProviders("Error parsing response: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                finishProviders(error);
+            }
+        });
+    }
+
+    // A failed refresh still answers from an expired catalog if there is one
+    private void finishProviders(String error) {
+        List<UtilityService.ProviderCallback> waiters;
+        synchronized (this) {
+            fetchingProviders = false;
+            waiters = new ArrayList<>(providerWaiters);
+            providerWaiters.clear();
+        }
+        if (error != null) {
+            Log.w(TAG, "Provider catalog refresh failed: " + error);
+        }
+        List<UtilityService.ServiceProvider> all = allProviders();
+        for (UtilityService.ProviderCallback waiter : waiters) {
+            if (error == null || !all.isEmpty()) {
+                waiter.onSuccess(all);
+            } else {
+                waiter.onError(error);
+            }
+        }
+    }
+
+    private void fetchBillInfo() {
+        JSONObject body = new JSONObject();
+        synchronized (this) {
+            SavedBillers current = savedForCurrentUser();
+            if (fetchingBillInfo || current.isEmpty()
+                    || System.currentTimeMillis() - billInfoFetchedAt <= BILL_INFO_TTL_MS) {
+                return;
+            }
+            try {
+                JSONArray bills = new JSONArray();
+                for (SavedBillers.Entry entry : current.getAll()) {
+                    bills.put(new JSONObject()
+                            .put("service_type", entry.getServiceType())
+                            .put("customer_number", entry.getReference()));
+                }
+                body.put("bills", bills);
+            } catch (JSONException e) {
+                return;
+            }
+            fetchingBillInfo = true;
+        }
+
+        String requestedFor = userId;
+        apiService.post(ApiConfig.GET_BILL_INFO_BATCH, body, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                JSONArray data = response.optJSONArray("data");
+                synchronized (BillerDirectory.this) {
+                    fetchingBillInfo = false;
+                    if (data == null || !requestedFor.equals(userId)) {
+                        return;
+                    }
+                    for (int i = 0; i < data.length(); i++) {
+                        JSONObject item = data.optJSONObject(i);
+                        if (item == null) {
+                            continue;
+                        }
+                        try {
+                            String currency = item.optString("currency", Money.VND);
+                            billInfo.put(key(item.getString("service_type"), item.getString("customer_number")),
+                                    new BillInfo(Money.fromJson(item, "amount_due", currency),
+                                            item.optBoolean("paid_this_month", false),
+                                            item.optString("customer_name", "")));
+                        } catch (JSONException e) {
+                            Log.w(TAG, "Skipping unreadable bill info", e);
+                        }
+                    }
+                    billInfoFetchedAt = System.currentTimeMillis();
+                }
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                Log.w(TAG, "Bill info prefetch failed: " + error);
+                synchronized (BillerDirectory.this) {
+                    fetchingBillInfo = false;
+                }
+            }
+        });
+    }
+
+    // Caller holds the lock
+    private SavedBillers savedForCurrentUser() {
+        String current = sessionManager.getUserId();
+        if (current == null ? userId != null : !current.equals(userId)) {
+            userId = current;
+            billInfo.clear();
+            billInfoFetchedAt = 0;
+            saved = new SavedBillers();
+            String stored = current != null ? pref.getString(KEY_SAVED_PREFIX + current, null) : null;
+            if (stored != null) {
+                try {
+                    saved = SavedBillers.fromJson(new JSONArray(stored));
+                } catch (JSONException e) {
+                    Log.w(TAG, "Discarding corrupt saved billers", e);
+                }
+            }
+        }
+        return saved;
+    }
+
+    private List<UtilityService.ServiceProvider> allProviders() {
+        List<UtilityService.ServiceProvider> all = new ArrayList<>();
+        for (List<UtilityService.ServiceProvider> list : providers.values()) {
+            all.addAll(list);
+        }
+        return all;
+    }
+
+    private static Map<String, List<UtilityService.ServiceProvider>> parseCatalog(JSONObject data) throws JSONException {
+        Map<String, List<UtilityService.ServiceProvider>> catalog = new HashMap<>();
+        Iterator<String> serviceTypes = data.keys();
+        while (serviceTypes.hasNext()) {
+            String serviceType = serviceTypes.next();
+            JSONArray array = data.getJSONArray(serviceType);
+            List<UtilityService.ServiceProvider> list = new ArrayList<>();
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject providerJson = array.getJSONObject(i);
+                UtilityService.ServiceProvider provider = new UtilityService.ServiceProvider();
+                provider.setCode(providerJson.getString("code"));
+                provider.setName(providerJson.getString("name"));
+                provider.setLogo(providerJson.optString("logo", ""));
+                list.add(provider);
+            }
+            catalog.put(serviceType, Collections.unmodifiableList(list));
+        }
+        return catalog;
+    }
+
+    private static String key(String serviceType, String reference) {
+        return serviceType + ":" + reference;
+    }
+}
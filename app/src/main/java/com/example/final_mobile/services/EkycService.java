@@ -12,11 +12,13 @@ public class EkycService {
     private static final String TAG = "EkycService";
     private ApiService apiService;
     private SessionManager sessionManager;
+    private ResumableUploader resumableUploader;
     private Context context;
 
     public EkycService(Context context) {
         this.context = context;
         this.apiService = ApiService.getInstance(context);
+        this.resumableUploader = new ResumableUploader(context);
         this.sessionManager = SessionManager.getInstance(context);
     }
 
@@ -33,7 +35,52 @@ public class EkycService {
             return;
         }
 
-        apiService.postMultipart(ApiConfig.UPLOAD_FACE_IMAGE, imageFile, "faceImage", new ApiService.ApiCallback() {
+        apiService.postMultipart(ApiConfig.UPLOAD_FACE_IMAGE, imageFile, "faceImage", createUploadCallback(callback));
+    }
+
+    // Upload face image straight from an encoded JPEG buffer (no temp file)
+    public void uploadFaceImage(byte[] jpegData, int length, EkycCallback callback) {
+        uploadFaceImage(jpegData, length, null, callback);
+    }
+
+    // Resumable chunked upload; falls back to a single multipart POST only on servers without ekyc/uploads
+    public void uploadFaceImage(byte[] jpegData, int length, ApiService.ProgressListener progressListener, EkycCallback callback) {
+        if (jpegData == null || length <= 0) {
+            callback.onError("Image data is empty");
+            return;
+        }
+
+        String fileName = "face_capture_" + System.currentTimeMillis() + ".jpg";
+        ApiService.ApiCallback uploadCallback = createUploadCallback(callback);
+
+        resumableUploader.upload(jpegData, length, fileName, new ResumableUploader.UploadCallback() {
+            @Override
+            public void onProgress(long bytesSent, long totalBytes) {
+                if (progressListener != null) {
+                    progressListener.onProgress(bytesSent, totalBytes);
+                }
+            }
+
+            @Override
+            public void onComplete(JSONObject response) {
+                uploadCallback.onSuccess(response);
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                if (statusCode == ApiConfig.NOT_FOUND) {
+                    Log.w(TAG, "Resumable upload not supported by server, using multipart upload");
+                    apiService.postMultipart(ApiConfig.UPLOAD_FACE_IMAGE, jpegData, length, fileName, "faceImage",
+                            progressListener, uploadCallback);
+                    return;
+                }
+                uploadCallback.onError(error, statusCode);
+            }
+        });
+    }
+
+    private ApiService.ApiCallback createUploadCallback(EkycCallback callback) {
+        return new ApiService.ApiCallback() {
             @Override
             public void onSuccess(JSONObject response) {
                 try {
@@ -56,7 +103,7 @@ public class EkycService {
                 Log.e(TAG, "Upload face image error: " + error);
                 callback.onError(getErrorMessage(error, statusCode));
             }
-        });
+        };
     }
 
     // Verify identity for high-value transaction
@@ -129,6 +176,14 @@ public class EkycService {
         });
     }
 
+    // Long-poll until the status differs from knownStatusKey (or the server-side wait times out)
+    public ApiService.LongPoll watchVerificationStatus(String knownStatusKey, int timeoutSeconds, ApiService.ApiCallback callback) {
+        String endpoint = ApiConfig.WATCH_VERIFICATION_STATUS
+                + "?known=" + android.net.Uri.encode(knownStatusKey != null ? knownStatusKey : "")
+                + "&timeout=" + timeoutSeconds;
+        return apiService.longPoll(endpoint, callback);
+    }
+
     // Check if transaction requires biometric verification
     public static boolean requiresBiometricVerification(double amount) {
         // High-value threshold: 10,000,000 VND
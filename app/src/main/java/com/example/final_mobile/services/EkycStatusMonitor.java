@@ -0,0 +1,229 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cached eKYC verification status with change notifications.
+ *
+ * The last known status is kept in memory and in SharedPreferences (per user), so screens can
+ * render it immediately. While someone is subscribed and verification is PENDING, the monitor
+ * long-polls ekyc/verification-status/watch and notifies listeners once per status change.
+ * Servers without the watch endpoint are polled with a plain GET instead.
+ */
+public class EkycStatusMonitor {
+    private static final String TAG = "EkycStatusMonitor";
+    private static final String PREF_NAME = "EkycStatusCache";
+    private static final String KEY_STATUS_PREFIX = "status_";
+
+    private static final int LONG_POLL_TIMEOUT_SECONDS = 25;
+    private static final long FALLBACK_POLL_INTERVAL_MS = 10000;
+    private static final long MIN_RETRY_DELAY_MS = 2000;
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+
+    private static EkycStatusMonitor instance;
+
+    private final EkycService ekycService;
+    private final SessionManager sessionManager;
+    private final SharedPreferences pref;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<StatusListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile JSONObject cachedStatus;
+    private String cachedUserId;
+    private boolean watching = false;
+    private boolean longPollSupported = true;
+    private long retryDelayMs = MIN_RETRY_DELAY_MS;
+
+    public interface StatusListener {
+        // Called on the main thread, once per status change
+        void onStatusChanged(JSONObject status);
+    }
+
+    private EkycStatusMonitor(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.ekycService = new EkycService(appContext);
+        this.sessionManager = SessionManager.getInstance(appContext);
+        this.pref = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized EkycStatusMonitor getInstance(Context context) {
+        if (instance == null) {
+            instance = new EkycStatusMonitor(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Last known status for the current user, or null if it was never fetched.
+     */
+    public synchronized JSONObject getCachedStatus() {
+        String userId = sessionManager.getUserId();
+        if (cachedStatus == null || !userId.equals(cachedUserId)) {
+            cachedUserId = userId;
+            cachedStatus = null;
+            String stored = pref.getString(KEY_STATUS_PREFIX + userId, null);
+            if (stored != null) {
+                try {
+                    cachedStatus = new JSONObject(stored);
+                } catch (JSONException e) {
+                    Log.w(TAG, "Discarding corrupt cached status", e);
+                }
+            }
+        }
+        return cachedStatus;
+    }
+
+    public void subscribe(StatusListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        // A settled status (verified/rejected) only changes through the user's own actions,
+        // which call refresh() explicitly, so there is nothing to re-query on every screen open
+        JSONObject cached = getCachedStatus();
+        if (cached == null || isPending(cached)) {
+            refresh();
+        }
+    }
+
+    public void unsubscribe(StatusListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Fetch the current status once, then keep watching while it is pending.
+     */
+    public void refresh() {
+        ekycService.getVerificationStatus(new EkycService.EkycCallback() {
+            @Override
+            public void onSuccess(JSONObject data) {
+                updateStatus(data);
+                startWatchingIfPending();
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.w(TAG, "Status refresh failed: " + error);
+            }
+        });
+    }
+
+    /**
+     * Feed a status obtained elsewhere (e.g. an upload response or an explicit check).
+     * Listeners are notified only if the status actually changed.
+     */
+    public void updateStatus(JSONObject status) {
+        if (status == null) {
+            return;
+        }
+
+        boolean changed;
+        synchronized (this) {
+            JSONObject previous = getCachedStatus();
+            changed = previous == null || !statusKey(previous).equals(statusKey(status));
+            if (changed) {
+                cachedStatus = status;
+                pref.edit().putString(KEY_STATUS_PREFIX + cachedUserId, status.toString()).apply();
+            }
+        }
+
+        if (changed) {
+            Log.d(TAG, "eKYC status changed: " + statusKey(status));
+            mainHandler.post(() -> {
+                for (StatusListener listener : listeners) {
+                    listener.onStatusChanged(status);
+                }
+            });
+        }
+    }
+
+    private synchronized void startWatchingIfPending() {
+        if (watching || listeners.isEmpty() || !isPending(getCachedStatus())) {
+            return;
+        }
+        watching = true;
+        retryDelayMs = MIN_RETRY_DELAY_MS;
+        watchOnce();
+    }
+
+    private void watchOnce() {
+        synchronized (this) {
+            if (listeners.isEmpty() || !isPending(getCachedStatus())) {
+                watching = false;
+                return;
+            }
+        }
+
+        if (!longPollSupported) {
+            mainHandler.postDelayed(this::pollOnce, FALLBACK_POLL_INTERVAL_MS);
+            return;
+        }
+
+        ekycService.watchVerificationStatus(statusKey(getCachedStatus()), LONG_POLL_TIMEOUT_SECONDS, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                retryDelayMs = MIN_RETRY_DELAY_MS;
+                JSONObject data = response.optJSONObject("data");
+                if (data != null) {
+                    data.remove("changed");
+                    updateStatus(data);
+                }
+                watchOnce();
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                if (statusCode == ApiConfig.NOT_FOUND) {
+                    Log.d(TAG, "Long-poll not supported by server, falling back to periodic polling");
+                    longPollSupported = false;
+                    watchOnce();
+                    return;
+                }
+                Log.w(TAG, "Watch failed (" + statusCode + "): " + error + ", retrying in " + retryDelayMs + " ms");
+                mainHandler.postDelayed(EkycStatusMonitor.this::watchOnce, retryDelayMs);
+                retryDelayMs = Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+            }
+        });
+    }
+
+    // Fallback for servers without the watch endpoint
+    private void pollOnce() {
+        ekycService.getVerificationStatus(new EkycService.EkycCallback() {
+            @Override
+            public void onSuccess(JSONObject data) {
+                updateStatus(data);
+                watchOnce();
+            }
+
+            @Override
+            public void onError(String error) {
+                watchOnce();
+            }
+        });
+    }
+
+    private static boolean isPending(JSONObject status) {
+        return status != null && "PENDING".equals(status.optString("verification_status"));
+    }
+
+    // Older servers do not send status_key; derive an equivalent from the fields we display
+    private static String statusKey(JSONObject status) {
+        if (status == null) {
+            return "";
+        }
+        String key = status.optString("status_key", "");
+        if (!key.isEmpty()) {
+            return key;
+        }
+        return status.optString("verification_status", "NOT_STARTED") + ":" + status.optString("processing_status", "DONE");
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.final_mobile.core.FeeSchedule;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The fee schedule screens quote from.
+ *
+ * Starts from the last schedule saved in SharedPreferences (or the built-in rules), and is
+ * checked against the backend once per process: a client that already has the current version
+ * gets a tiny "unchanged" reply. Transfers and payments are stamped with the version they were
+ * quoted against; if the backend has moved on it answers 409 and the schedule is fetched again,
+ * so the user sees the new fee before retrying.
+ */
+public class FeeScheduleStore {
+    private static final String TAG = "FeeScheduleStore";
+    private static final String PREF_NAME = "FeeScheduleCache";
+    private static final String KEY_SCHEDULE = "schedule";
+
+    private static FeeScheduleStore instance;
+
+    private final ApiService apiService;
+    private final SharedPreferences pref;
+
+    private volatile FeeSchedule current = FeeSchedule.DEFAULT;
+    private boolean checked = false;
+    private boolean refreshing = false;
+
+    private FeeScheduleStore(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.apiService = ApiService.getInstance(appContext);
+        this.pref = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+
+        String stored = pref.getString(KEY_SCHEDULE, null);
+        if (stored != null) {
+            try {
+                current = FeeSchedule.fromJson(new JSONObject(stored));
+            } catch (JSONException e) {
+                Log.w(TAG, "Discarding corrupt cached fee schedule", e);
+                pref.edit().remove(KEY_SCHEDULE).apply();
+            }
+        }
+    }
+
+    public static synchronized FeeScheduleStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new FeeScheduleStore(context);
+        }
+        return instance;
+    }
+
+    public FeeSchedule current() {
+        return current;
+    }
+
+    /**
+     * Check the schedule against the backend, at most once per process until a request is
+     * rejected as stale. Failures keep the current schedule and allow the next call to retry.
+     */
+    public void refresh() {
+        synchronized (this) {
+            if (checked || refreshing) {
+                return;
+            }
+            refreshing = true;
+        }
+
+        String version = current.getVersion();
+        String endpoint = version != null ? ApiConfig.FEE_SCHEDULE + "?version=" + version : ApiConfig.FEE_SCHEDULE;
+        apiService.get(endpoint, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                JSONObject data = response.optJSONObject("data");
+                boolean ok = true;
+                if (data != null && !data.optBoolean("unchanged", false)) {
+                    ok = accept(data);
+                }
+                synchronized (FeeScheduleStore.this) {
+                    refreshing = false;
+                    checked = ok;
+                }
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                Log.w(TAG, "Fee schedule refresh failed: " + error);
+                synchronized (FeeScheduleStore.this) {
+                    refreshing = false;
+                }
+            }
+        });
+    }
+
+    // Add the version the amounts were quoted against; the built-in rules have none
+    public void stamp(JSONObject requestBody) throws JSONException {
+        String version = current.getVersion();
+        if (version != null) {
+            requestBody.put("fee_schedule_version", version);
+        }
+    }
+
+    /**
+     * True if {@code statusCode} means the request was quoted against an old schedule. The new
+     * schedule is fetched in the background; the request is not retried, since its fee changed.
+     */
+    public boolean handleStaleRejection(int statusCode) {
+        if (statusCode != ApiConfig.CONFLICT) {
+            return false;
+        }
+        synchronized (this) {
+            checked = false;
+        }
+        refresh();
+        return true;
+    }
+
+    private boolean accept(JSONObject data) {
+        try {
+            FeeSchedule schedule = FeeSchedule.fromJson(data);
+            current = schedule;
+            pref.edit().putString(KEY_SCHEDULE, data.toString()).apply();
+            Log.d(TAG, "Fee schedule updated to " + schedule.getVersion());
+            return true;
+        } catch (JSONException e) {
+            Log.w(TAG, "Ignoring unreadable fee schedule", e);
+            return false;
+        }
+    }
+}
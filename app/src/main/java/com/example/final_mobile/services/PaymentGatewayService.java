@@ -3,6 +3,8 @@ package com.example.final_mobile.services;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.final_mobile.core.Money;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -33,7 +35,7 @@ public class PaymentGatewayService {
         private String paymentIntentId; // For Stripe
         private String clientSecret; // For Stripe
         private String publishableKey; // For Stripe
-        private BigDecimal amount;
+        private Money amount;
         private String currency;
         private String paymentMethod;
         private String status;
@@ -57,8 +59,8 @@ public class PaymentGatewayService {
         public String getPublishableKey() { return publishableKey; }
         public void setPublishableKey(String publishableKey) { this.publishableKey = publishableKey; }
 
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
 
         public String getCurrency() { return currency; }
         public void setCurrency(String currency) { this.currency = currency; }
@@ -98,7 +100,7 @@ public class PaymentGatewayService {
                 requestBody.put("cancelUrl", cancelUrl);
             }
 
-            apiService.post(ApiConfig.VNPAY_CREATE_PAYMENT, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.VNPAY_CREATE_PAYMENT, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
@@ -109,8 +111,9 @@ public class PaymentGatewayService {
                             result.setPaymentId(data.getString("paymentId"));
                             result.setPaymentUrl(data.getString("paymentUrl"));
                             result.setOrderId(data.optString("orderId"));
-                            result.setAmount(new BigDecimal(data.getString("amount")));
-                            result.setCurrency(data.optString("currency", "VND"));
+                            String currency = data.optString("currency", Money.VND);
+                            result.setAmount(Money.fromJson(data, "amount", currency, Money.zero(currency)));
+                            result.setCurrency(currency);
                             result.setPaymentMethod("VNPAY");
                             result.setStatus("PENDING");
                             callback.onSuccess(result);
@@ -156,7 +159,7 @@ public class PaymentGatewayService {
                 requestBody.put("description", description);
             }
 
-            apiService.post(ApiConfig.BANK_TRANSFER, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.BANK_TRANSFER, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
@@ -167,8 +170,9 @@ public class PaymentGatewayService {
                             result.setPaymentId(data.getString("paymentId"));
                             result.setTransactionId(data.optString("transactionId"));
                             result.setTransferReference(data.optString("transferReference"));
-                            result.setAmount(new BigDecimal(data.getString("amount")));
-                            result.setCurrency(data.optString("currency", "VND"));
+                            String currency = data.optString("currency", Money.VND);
+                            result.setAmount(Money.fromJson(data, "amount", currency, Money.zero(currency)));
+                            result.setCurrency(currency);
                             result.setPaymentMethod("BANK_TRANSFER");
                             result.setStatus(data.optString("status", "COMPLETED"));
                             callback.onSuccess(result);
@@ -206,18 +210,7 @@ public class PaymentGatewayService {
                 try {
                     boolean success = response.getBoolean("success");
                     if (success) {
-                        JSONObject data = response.getJSONObject("data");
-                        PaymentResult result = new PaymentResult();
-                        result.setPaymentId(data.getString("paymentId"));
-                        result.setAmount(new BigDecimal(data.getString("amount")));
-                        result.setCurrency(data.optString("currency", "VND"));
-                        result.setPaymentMethod(data.getString("paymentMethod"));
-                        result.setStatus(data.getString("status"));
-                        if (data.has("transaction")) {
-                            JSONObject transaction = data.getJSONObject("transaction");
-                            result.setTransactionId(transaction.optString("transactionId"));
-                        }
-                        callback.onSuccess(result);
+                        callback.onSuccess(parsePaymentStatus(response.getJSONObject("data")));
                     } else {
                         String message = response.optString("message", "Failed to get payment status");
                         callback.onError(message);
@@ -236,6 +229,34 @@ public class PaymentGatewayService {
         });
     }
 
+    /**
+     * Long-poll for status changes of several payments. knownStatuses is
+     * "paymentId:status,..." as the app last saw them; the response carries data.payments.
+     * Cancel the returned poll to stop waiting.
+     */
+    public ApiService.LongPoll watchPaymentStatus(String knownStatuses, int timeoutSeconds, ApiService.ApiCallback callback) {
+        String endpoint = ApiConfig.WATCH_PAYMENT_STATUS
+                + "?known=" + android.net.Uri.encode(knownStatuses)
+                + "&timeout=" + timeoutSeconds;
+        return apiService.longPoll(endpoint, callback);
+    }
+
+    // One payment from the status and watch endpoints
+    static PaymentResult parsePaymentStatus(JSONObject data) throws JSONException {
+        PaymentResult result = new PaymentResult();
+        result.setPaymentId(data.getString("paymentId"));
+        String currency = data.optString("currency", Money.VND);
+        result.setAmount(Money.fromJson(data, "amount", currency, Money.zero(currency)));
+        result.setCurrency(currency);
+        result.setPaymentMethod(data.optString("paymentMethod", null));
+        result.setStatus(data.getString("status"));
+        JSONObject transaction = data.optJSONObject("transaction");
+        if (transaction != null) {
+            result.setTransactionId(transaction.optString("transactionId"));
+        }
+        return result;
+    }
+
     /**
      * Get payment history
      */
@@ -0,0 +1,289 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.final_mobile.core.Biller;
+import com.example.final_mobile.core.PaymentStageMetrics;
+import com.example.final_mobile.core.PaymentStageMetrics.Stage;
+import com.example.final_mobile.core.RetryPolicy;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every utility payment as one flow: initiate → OTP → verify → receipt.
+ *
+ * A {@link Biller} only describes its request; posting, decoding, retries and fee-schedule
+ * checks happen here, so a new biller needs no network code. Each stage is sent with its own
+ * Idempotency-Key, kept across its retries, so the backend runs it at most once. While API
+ * metrics are on, each stage is timed into {@link #getStageMetrics()}; every finished payment is
+ * also logged under the "PaymentPipeline" tag. Completed payments of recurring billers are saved
+ * to the {@link BillerDirectory} so the next one starts pre-filled.
+ */
+public class PaymentPipeline {
+    private static final String TAG = "PaymentPipeline";
+
+    // Initiating only creates a pending payment that expires unless verified, so a repeat is harmless
+    private static final RetryPolicy INITIATE_RETRY = RetryPolicy.transientErrors(2, 1000);
+    // Verifying moves the money; a repeat with the same key gets the first attempt's answer
+    private static final RetryPolicy VERIFY_RETRY = RetryPolicy.transientErrors(2, 1000);
+
+    private static final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final Random jitter = new Random();
+
+    private static PaymentPipeline instance;
+
+    private final ApiService apiService;
+    private final FeeScheduleStore feeSchedules;
+    private final BillerDirectory billerDirectory;
+    private final PaymentStageMetrics stageMetrics = new PaymentStageMetrics();
+
+    public interface Listener {
+        // All three are called on a background thread, like ApiService callbacks
+        void onOtpRequired(Payment payment);
+        void onCompleted(Payment payment, String message);
+        void onError(Payment payment, Stage stage, String error);
+    }
+
+    public final class Payment {
+        private final Biller biller;
+        private final Listener listener;
+        private final long startedAt = System.nanoTime();
+        private JSONObject request;
+        private String idempotencyKey;
+        private long stageStartedAt = startedAt;
+        // Retries of the whole payment, and of the current stage (each stage has its own budget)
+        private int retries;
+        private int stageRetries;
+        private String transactionId;
+        private String developmentOtp;
+        private UtilityService.UtilityPayment quote;
+        private UtilityService.UtilityPayment receipt;
+        private boolean finished;
+
+        Payment(Biller biller, Listener listener) {
+            this.biller = biller;
+            this.listener = listener;
+        }
+
+        public Biller getBiller() {
+            return biller;
+        }
+
+        // Customer number, phone number or order the payment is for
+        public String getReference() {
+            return request != null ? request.optString(biller.getReferenceField(), null) : null;
+        }
+
+        // An optional field as sent, null if it was not
+        public String getDetail(String name) {
+            if (request == null || !request.has(name)) {
+                return null;
+            }
+            String value = request.optString(name, "");
+            return value.isEmpty() ? null : value;
+        }
+
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        // Only sent by development backends
+        public String getDevelopmentOtp() {
+            return developmentOtp;
+        }
+
+        // Amount, fee and total as the backend priced them when the OTP was issued
+        public UtilityService.UtilityPayment getQuote() {
+            return quote;
+        }
+
+        // The completed payment, null until verified
+        public UtilityService.UtilityPayment getReceipt() {
+            return receipt;
+        }
+
+        // Submit the OTP the user entered
+        public void verify(String otpCode) {
+            if (transactionId == null || finished) {
+                throw new IllegalStateException("No OTP pending for this payment");
+            }
+            endStage(Stage.OTP_ENTRY);
+            idempotencyKey = apiService.getIdempotencyKeys().newKey();
+            stageRetries = 0;
+            try {
+                sendVerify(this, Biller.buildVerifyRequest(transactionId, otpCode));
+            } catch (JSONException e) {
+                fail(this, Stage.VERIFY, "Error: " + e.getMessage());
+            }
+        }
+
+        // The user closed the OTP dialog; the pending payment expires on the backend
+        public void cancel() {
+            if (!finished) {
+                fail(this, Stage.OTP_ENTRY, null);
+            }
+        }
+
+        private void endStage(Stage stage) {
+            long now = System.nanoTime();
+            if (isRecording()) {
+                stageMetrics.record(biller.getServiceType(), stage, (now - stageStartedAt) / 1000);
+            }
+            stageStartedAt = now;
+        }
+    }
+
+    private PaymentPipeline(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.apiService = ApiService.getInstance(appContext);
+        this.feeSchedules = FeeScheduleStore.getInstance(appContext);
+        this.billerDirectory = BillerDirectory.getInstance(appContext);
+    }
+
+    public static synchronized PaymentPipeline getInstance(Context context) {
+        if (instance == null) {
+            instance = new PaymentPipeline(context);
+        }
+        return instance;
+    }
+
+    public PaymentStageMetrics getStageMetrics() {
+        return stageMetrics;
+    }
+
+    /**
+     * Initiate a payment. The listener gets {@link Listener#onOtpRequired} once the backend has
+     * issued the OTP; pass the code to {@link Payment#verify}.
+     */
+    public Payment start(Biller biller, String accountId, String reference, BigDecimal amount,
+                         Map<String, ?> details, Listener listener) {
+        Payment payment = new Payment(biller, listener);
+        try {
+            payment.request = biller.buildRequest(accountId, reference, amount, details);
+            feeSchedules.stamp(payment.request);
+        } catch (JSONException e) {
+            fail(payment, Stage.INITIATE, "Error: " + e.getMessage());
+            return payment;
+        }
+        payment.idempotencyKey = apiService.getIdempotencyKeys().newKey();
+        sendInitiate(payment);
+        return payment;
+    }
+
+    private void sendInitiate(Payment payment) {
+        apiService.post(payment.biller.getEndpoint(), payment.request, payment.idempotencyKey, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                try {
+                    if (!response.getBoolean("success")) {
+                        fail(payment, Stage.INITIATE, response.optString("message", "Payment initiation failed"));
+                        return;
+                    }
+                    JSONObject data = response.getJSONObject("data");
+                    payment.transactionId = data.getString("transaction_id");
+                    payment.developmentOtp = data.optString("developmentOTP", data.optString("development_otp", ""));
+                    payment.quote = UtilityService.parseUtilityPayment(data);
+                } catch (JSONException e) {
+                    fail(payment, Stage.INITIATE, "Error parsing response: " + e.getMessage());
+                    return;
+                }
+                payment.endStage(Stage.INITIATE);
+                payment.listener.onOtpRequired(payment);
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                if (feeSchedules.handleStaleRejection(statusCode)) {
+                    fail(payment, Stage.INITIATE, TransactionService.FEE_CHANGED_MESSAGE);
+                } else if (INITIATE_RETRY.shouldRetry(payment.stageRetries, statusCode)) {
+                    retry(payment, statusCode, () -> sendInitiate(payment));
+                } else {
+                    fail(payment, Stage.INITIATE, error);
+                }
+            }
+        });
+    }
+
+    private void sendVerify(Payment payment, JSONObject request) {
+        apiService.post(Biller.VERIFY_ENDPOINT, request, payment.idempotencyKey, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                String message;
+                try {
+                    if (!response.getBoolean("success")) {
+                        fail(payment, Stage.VERIFY, response.optString("message", "OTP verification failed"));
+                        return;
+                    }
+                    JSONObject data = response.optJSONObject("data");
+                    payment.receipt = data != null ? UtilityService.parseUtilityPayment(data) : payment.quote;
+                    message = response.optString("message", "Payment completed successfully");
+                } catch (JSONException e) {
+                    fail(payment, Stage.VERIFY, "Error parsing response: " + e.getMessage());
+                    return;
+                }
+                payment.endStage(Stage.VERIFY);
+                finish(payment, null);
+                if (payment.biller.isRecurring()) {
+                    billerDirectory.remember(payment);
+                }
+                payment.listener.onCompleted(payment, message);
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                if (VERIFY_RETRY.shouldRetry(payment.stageRetries, statusCode)) {
+                    retry(payment, statusCode, () -> sendVerify(payment, request));
+                } else {
+                    fail(payment, Stage.VERIFY, error);
+                }
+            }
+        });
+    }
+
+    private void retry(Payment payment, int statusCode, Runnable send) {
+        RetryPolicy policy = payment.transactionId == null ? INITIATE_RETRY : VERIFY_RETRY;
+        long delay = policy.backoffMillis(payment.stageRetries, jitter);
+        payment.stageRetries++;
+        payment.retries++;
+        if (isRecording()) {
+            stageMetrics.recordRetry(payment.biller.getServiceType());
+        }
+        Log.w(TAG, payment.biller + " failed with " + statusCode + ", retry " + payment.stageRetries + " in " + delay + " ms");
+        retryScheduler.schedule(send, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // A null error means the user gave up; nothing is reported to the listener
+    private void fail(Payment payment, Stage stage, String error) {
+        if (isRecording()) {
+            stageMetrics.recordFailure(payment.biller.getServiceType(), stage);
+        }
+        finish(payment, stage);
+        if (error != null) {
+            payment.listener.onError(payment, stage, error);
+        }
+    }
+
+    private void finish(Payment payment, Stage failedStage) {
+        payment.finished = true;
+        long totalMicros = (System.nanoTime() - payment.startedAt) / 1000;
+        if (failedStage == null && isRecording()) {
+            stageMetrics.record(payment.biller.getServiceType(), Stage.TOTAL, totalMicros);
+        }
+        Log.i(TAG, payment.biller + " " + (payment.transactionId != null ? payment.transactionId : "-")
+                + (failedStage == null ? " completed" : " failed at " + failedStage.label)
+                + " in " + totalMicros / 1000 + " ms, " + payment.retries + " retries");
+    }
+
+    private boolean isRecording() {
+        return apiService.getMetrics().isEnabled();
+    }
+}
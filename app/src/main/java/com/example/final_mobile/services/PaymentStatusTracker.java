@@ -0,0 +1,304 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.final_mobile.core.PendingPayments;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Follows VNPay and bank-transfer payments until the gateway settles them.
+ *
+ * All pending payments of the current user share one long-poll on payments/status/watch, which
+ * the backend answers as soon as its VNPay callback changes any of them. Servers without the
+ * watch endpoint are polled instead, often right after a payment starts and less often as it
+ * ages. The pending set is kept in SharedPreferences (per user), so tracking resumes after the
+ * process is killed while the user is paying in the browser.
+ */
+public class PaymentStatusTracker {
+    private static final String TAG = "PaymentStatusTracker";
+    private static final String PREF_NAME = "PaymentStatusTracker";
+    private static final String KEY_PENDING_PREFIX = "pending_";
+
+    private static final int LONG_POLL_TIMEOUT_SECONDS = 25;
+    private static final long MIN_RETRY_DELAY_MS = 2000;
+    private static final long MAX_RETRY_DELAY_MS = 60000;
+
+    private static PaymentStatusTracker instance;
+
+    private final PaymentGatewayService paymentGatewayService;
+    private final SessionManager sessionManager;
+    private final SharedPreferences pref;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<StatusListener> listeners = new CopyOnWriteArrayList<>();
+    // Settled while nobody was listening; handed to the next subscriber
+    private final List<PaymentGatewayService.PaymentResult> undelivered = new ArrayList<>();
+
+    private PendingPayments pending;
+    private String pendingUserId;
+    private boolean watching = false;
+    // Bumped when the pending set grows, so the running long-poll is replaced by one covering it
+    private int generation;
+    // The long-poll of the current generation, aborted when a newer one replaces it
+    private ApiService.LongPoll currentPoll;
+    private boolean longPollSupported = true;
+    private long retryDelayMs = MIN_RETRY_DELAY_MS;
+
+    public interface StatusListener {
+        // Called on the main thread, once per status change; final ones end the tracking
+        void onPaymentStatusChanged(PaymentGatewayService.PaymentResult payment, boolean isFinal);
+    }
+
+    private PaymentStatusTracker(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.paymentGatewayService = new PaymentGatewayService(appContext);
+        this.sessionManager = SessionManager.getInstance(appContext);
+        this.pref = appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized PaymentStatusTracker getInstance(Context context) {
+        if (instance == null) {
+            instance = new PaymentStatusTracker(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Start following a payment the gateway has not settled yet. Settled ones are ignored.
+     */
+    public void track(PaymentGatewayService.PaymentResult payment) {
+        if (payment.getPaymentId() == null || PendingPayments.isFinal(payment.getStatus())) {
+            return;
+        }
+        synchronized (this) {
+            pending().track(new PendingPayments.Entry(payment.getPaymentId(), payment.getPaymentMethod(),
+                    payment.getStatus(), System.currentTimeMillis()));
+            save();
+            // The running long-poll would not end when this payment settles
+            generation++;
+            watching = false;
+            if (currentPoll != null) {
+                currentPoll.cancel();
+                currentPoll = null;
+            }
+        }
+        startWatching();
+    }
+
+    /**
+     * Pick up the payments left pending by an earlier process; call when a logged-in screen shows.
+     */
+    public void resume() {
+        startWatching();
+    }
+
+    public void subscribe(StatusListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        List<PaymentGatewayService.PaymentResult> missed;
+        synchronized (this) {
+            missed = new ArrayList<>(undelivered);
+            undelivered.clear();
+        }
+        for (PaymentGatewayService.PaymentResult payment : missed) {
+            mainHandler.post(() -> listener.onPaymentStatusChanged(payment, true));
+        }
+        startWatching();
+    }
+
+    public void unsubscribe(StatusListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending().isEmpty();
+    }
+
+    // Pending payments of the current user, read from SharedPreferences when the user changes
+    private synchronized PendingPayments pending() {
+        String userId = sessionManager.getUserId();
+        if (pending == null || !userId.equals(pendingUserId)) {
+            pendingUserId = userId;
+            pending = new PendingPayments();
+            undelivered.clear();
+            String stored = pref.getString(KEY_PENDING_PREFIX + userId, null);
+            if (stored != null) {
+                try {
+                    pending = PendingPayments.fromJson(new JSONArray(stored));
+                } catch (JSONException e) {
+                    Log.w(TAG, "Discarding corrupt pending payments", e);
+                }
+            }
+        }
+        return pending;
+    }
+
+    private synchronized void save() {
+        try {
+            pref.edit().putString(KEY_PENDING_PREFIX + pendingUserId, pending.toJson().toString()).apply();
+        } catch (JSONException e) {
+            Log.w(TAG, "Could not save pending payments", e);
+        }
+    }
+
+    private synchronized void startWatching() {
+        if (watching || !sessionManager.isLoggedIn() || pending().isEmpty()) {
+            return;
+        }
+        watching = true;
+        retryDelayMs = MIN_RETRY_DELAY_MS;
+        watchOnce(generation);
+    }
+
+    private void watchOnce(int watchGeneration) {
+        String known;
+        synchronized (this) {
+            if (watchGeneration != generation) {
+                // Replaced by a newer loop
+                return;
+            }
+            List<PendingPayments.Entry> expired = pending().expire(System.currentTimeMillis());
+            if (!expired.isEmpty()) {
+                Log.d(TAG, "Stopped tracking " + expired.size() + " abandoned payment(s)");
+                save();
+            }
+            if (!sessionManager.isLoggedIn() || pending().isEmpty()) {
+                watching = false;
+                return;
+            }
+            known = pending().knownKey();
+        }
+
+        if (!longPollSupported) {
+            mainHandler.postDelayed(() -> pollOnce(watchGeneration), pending().pollDelayMillis(System.currentTimeMillis()));
+            return;
+        }
+
+        ApiService.LongPoll poll = paymentGatewayService.watchPaymentStatus(known, LONG_POLL_TIMEOUT_SECONDS, new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(JSONObject response) {
+                retryDelayMs = MIN_RETRY_DELAY_MS;
+                JSONObject data = response.optJSONObject("data");
+                JSONArray payments = data != null ? data.optJSONArray("payments") : null;
+                if (payments != null) {
+                    for (int i = 0; i < payments.length(); i++) {
+                        JSONObject payment = payments.optJSONObject(i);
+                        if (payment != null) {
+                            apply(payment);
+                        }
+                    }
+                }
+                watchOnce(watchGeneration);
+            }
+
+            @Override
+            public void onError(String error, int statusCode) {
+                if (statusCode == ApiConfig.NOT_FOUND) {
+                    Log.d(TAG, "Long-poll not supported by server, falling back to adaptive polling");
+                    longPollSupported = false;
+                    watchOnce(watchGeneration);
+                    return;
+                }
+                Log.w(TAG, "Watch failed (" + statusCode + "): " + error + ", retrying in " + retryDelayMs + " ms");
+                mainHandler.postDelayed(() -> watchOnce(watchGeneration), retryDelayMs);
+                retryDelayMs = Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+            }
+        });
+        synchronized (this) {
+            if (watchGeneration == generation) {
+                currentPoll = poll;
+            } else {
+                // track() replaced this loop while the request was being started
+                poll.cancel();
+            }
+        }
+    }
+
+    // Fallback for servers without the watch endpoint: one status GET per pending payment
+    private void pollOnce(int watchGeneration) {
+        List<PendingPayments.Entry> entries = pending().getAll();
+        if (entries.isEmpty()) {
+            watchOnce(watchGeneration);
+            return;
+        }
+        int[] remaining = {entries.size()};
+        for (PendingPayments.Entry entry : entries) {
+            paymentGatewayService.getPaymentStatus(entry.getPaymentId(), new PaymentGatewayService.PaymentCallback() {
+                @Override
+                public void onSuccess(PaymentGatewayService.PaymentResult result) {
+                    apply(result);
+                    next();
+                }
+
+                @Override
+                public void onError(String error) {
+                    Log.w(TAG, "Status of " + entry.getPaymentId() + " failed: " + error);
+                    next();
+                }
+
+                private void next() {
+                    synchronized (remaining) {
+                        if (--remaining[0] > 0) {
+                            return;
+                        }
+                    }
+                    watchOnce(watchGeneration);
+                }
+            });
+        }
+    }
+
+    // Short message for a settled payment, for a toast or dialog
+    public static String describe(PaymentGatewayService.PaymentResult payment) {
+        String amount = payment.getAmount() != null && payment.getAmount().signum() > 0
+                ? " " + payment.getAmount().format() : "";
+        String method = "VNPAY".equals(payment.getPaymentMethod()) ? "VNPay" : "chuyển khoản";
+        switch (payment.getStatus()) {
+            case "COMPLETED":
+                return "Thanh toán " + method + amount + " thành công";
+            case "FAILED":
+                return "Thanh toán " + method + amount + " thất bại";
+            default:
+                return "Thanh toán " + method + amount + " đã bị hủy";
+        }
+    }
+
+    private void apply(JSONObject payment) {
+        try {
+            apply(PaymentGatewayService.parsePaymentStatus(payment));
+        } catch (JSONException e) {
+            Log.w(TAG, "Skipping unreadable payment status", e);
+        }
+    }
+
+    private void apply(PaymentGatewayService.PaymentResult payment) {
+        boolean isFinal = PendingPayments.isFinal(payment.getStatus());
+        synchronized (this) {
+            if (!pending().update(payment.getPaymentId(), payment.getStatus())) {
+                return;
+            }
+            save();
+            if (isFinal && listeners.isEmpty()) {
+                undelivered.add(payment);
+                return;
+            }
+        }
+        Log.d(TAG, "Payment " + payment.getPaymentId() + " is now " + payment.getStatus());
+        mainHandler.post(() -> {
+            for (StatusListener listener : listeners) {
+                listener.onPaymentStatusChanged(payment, isFinal);
+            }
+        });
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyPermanentlyInvalidatedException;
+import android.security.keystore.KeyProperties;
+import android.util.Base64;
+import android.util.Log;
+
+import com.example.final_mobile.models.User;
+import com.example.final_mobile.utils.BiometricHelper;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Biometric quick unlock.
+ *
+ * The session (tokens and user) and the last-known accounts are kept encrypted with a random
+ * AES key, which is itself wrapped with an RSA key pair in the Android Keystore. The private key
+ * can only be used after a strong biometric authentication (BiometricHelper crypto prompt), so
+ * unlocking needs the user's fingerprint/face but no network. Re-encrypting after a token
+ * rotation or an account refresh only uses the public key and never prompts.
+ *
+ * After an unlock the cached data is shown immediately and {@link #validateSession} performs a
+ * single token refresh in the background to confirm the session is still valid.
+ */
+public class QuickUnlockManager {
+    private static final String TAG = "QuickUnlockManager";
+    static final String PREF_NAME = "QuickUnlock";
+    private static final String KEY_WRAPPED_KEY = "wrapped_key";
+    private static final String KEY_IV = "iv";
+    static final String KEY_PAYLOAD = "payload";
+
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String KEY_ALIAS = "quick_unlock_key";
+    private static final String RSA_TRANSFORMATION = "RSA/ECB/OAEPWithSHA-256AndMGF1Padding";
+    private static final String AES_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_BITS = 128;
+
+    private static QuickUnlockManager instance;
+
+    private final Context context;
+    private final SharedPreferences pref;
+    private final SessionManager sessionManager;
+    private final KeyPairStore keyPairStore;
+    // Every write, and the clear in disable(), runs here so a clear cannot be overtaken by a write
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Last-known accounts (raw API JSON), kept in memory so they can be re-encrypted with the session
+    private volatile JSONArray cachedAccounts;
+    // Access token restored by the last unlock, used to make the validation refresh single-flight
+    private volatile String unlockedToken;
+    // disable() calls whose clear has not run yet; quick unlock already counts as off meanwhile
+    private final AtomicInteger pendingDisables = new AtomicInteger();
+
+    public interface ValidationCallback {
+        void onValid();
+        // The refresh token was rejected; quick unlock has been disabled and the session cleared
+        void onInvalid();
+        // The server could not be reached; the cached session is kept
+        void onOffline();
+    }
+
+    // The RSA key pair; the Keystore in the app, a software key pair in the JVM tests
+    interface KeyPairStore {
+        void ensureKeyPair() throws GeneralSecurityException;
+        // Usable without authentication
+        PublicKey getPublicKey() throws GeneralSecurityException;
+        void deleteKeyPair() throws GeneralSecurityException;
+    }
+
+    private QuickUnlockManager(Context context) {
+        this(context, new AndroidKeyPairStore());
+    }
+
+    QuickUnlockManager(Context context, KeyPairStore keyPairStore) {
+        this.context = context.getApplicationContext();
+        this.pref = this.context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.sessionManager = SessionManager.getInstance(this.context);
+        this.keyPairStore = keyPairStore;
+    }
+
+    public static synchronized QuickUnlockManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new QuickUnlockManager(context);
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return pendingDisables.get() == 0 && pref.contains(KEY_PAYLOAD);
+    }
+
+    // Enabled and the device can still perform a strong biometric authentication
+    public boolean isAvailable() {
+        return isEnabled() && BiometricHelper.isStrongBiometricAvailable(context);
+    }
+
+    /**
+     * Turn quick unlock on for the current session (call after a full login).
+     */
+    public void enable() {
+        executor.execute(() -> {
+            try {
+                keyPairStore.ensureKeyPair();
+                writePayload();
+                Log.d(TAG, "Quick unlock enabled");
+            } catch (GeneralSecurityException | JSONException e) {
+                Log.e(TAG, "Unable to enable quick unlock", e);
+                clear();
+            }
+        });
+    }
+
+    /**
+     * Forget the cached session and delete the key (logout, rejected refresh token). The clear is
+     * queued behind any enable() or re-encryption already submitted, so none of them can write
+     * the session back afterwards; isEnabled() returns false from this call on.
+     */
+    public void disable() {
+        pendingDisables.incrementAndGet();
+        cachedAccounts = null;
+        unlockedToken = null;
+        executor.execute(() -> {
+            try {
+                clear();
+            } finally {
+                pendingDisables.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Re-encrypt the cached session after it changed (token rotation, profile update).
+     */
+    public void onSessionUpdated() {
+        // Checked on the executor so a change right after enable() is not lost
+        executor.execute(() -> {
+            if (!isEnabled()) {
+                return;
+            }
+            try {
+                writePayload();
+            } catch (GeneralSecurityException | JSONException e) {
+                Log.e(TAG, "Unable to update quick unlock cache", e);
+            }
+        });
+    }
+
+    // Latest accounts from the API; cached so the next unlock can show balances right away
+    public void onAccountsLoaded(JSONArray accounts) {
+        cachedAccounts = accounts;
+        onSessionUpdated();
+    }
+
+    // Accounts restored by the last unlock (or loaded since), or null
+    public JSONArray getCachedAccounts() {
+        return cachedAccounts;
+    }
+
+    /**
+     * Cipher to hand to the biometric prompt. Returns null (and disables quick unlock) if the key
+     * is gone or was invalidated by a biometric enrollment change.
+     */
+    public Cipher createUnlockCipher() {
+        try {
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+            keyStore.load(null);
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(KEY_ALIAS, null);
+            if (privateKey == null) {
+                disable();
+                return null;
+            }
+            Cipher cipher = Cipher.getInstance(RSA_TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, privateKey, oaepSpec());
+            return cipher;
+        } catch (KeyPermanentlyInvalidatedException e) {
+            Log.w(TAG, "Biometric enrollment changed, quick unlock disabled");
+            disable();
+            return null;
+        } catch (Exception e) {
+            Log.e(TAG, "Unable to create unlock cipher", e);
+            return null;
+        }
+    }
+
+    /**
+     * Decrypt the cached session with a cipher authorized by the biometric prompt and restore it
+     * into SessionManager. Returns false if the cache cannot be decrypted.
+     */
+    public boolean unlock(Cipher authorizedCipher) {
+        try {
+            byte[] wrappedKey = Base64.decode(pref.getString(KEY_WRAPPED_KEY, ""), Base64.NO_WRAP);
+            byte[] iv = Base64.decode(pref.getString(KEY_IV, ""), Base64.NO_WRAP);
+            byte[] payload = Base64.decode(pref.getString(KEY_PAYLOAD, ""), Base64.NO_WRAP);
+
+            SecretKey dataKey = new SecretKeySpec(authorizedCipher.doFinal(wrappedKey), "AES");
+            Cipher aes = Cipher.getInstance(AES_TRANSFORMATION);
+            aes.init(Cipher.DECRYPT_MODE, dataKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            JSONObject json = new JSONObject(new String(aes.doFinal(payload), StandardCharsets.UTF_8));
+
+            JSONObject userJson = json.getJSONObject("user");
+            User user = new User();
+            user.setId(userJson.optString("id"));
+            user.setEmail(userJson.optString("email"));
+            user.setFullName(userJson.optString("full_name"));
+            user.setPhone(userJson.optString("phone"));
+            user.setCustomerType(userJson.optString("customer_type", "CUSTOMER"));
+            user.setAccountNumber(userJson.optString("account_number"));
+
+            String token = json.optString("token", "");
+            sessionManager.createLoginSession(token, json.optString("refresh_token", ""), user);
+            cachedAccounts = json.optJSONArray("accounts");
+            unlockedToken = token;
+
+            Log.d(TAG, "Quick unlock succeeded for " + user.getEmail());
+            return true;
+        } catch (GeneralSecurityException | JSONException | IllegalArgumentException e) {
+            Log.e(TAG, "Quick unlock failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * One background refresh to confirm the unlocked session. If other requests already
+     * refreshed the token after the unlock, no additional refresh is made.
+     */
+    public void validateSession(ValidationCallback callback) {
+        String token = unlockedToken;
+        ApiService apiService = ApiService.getInstance(context);
+        executor.execute(() -> {
+            String refreshed = apiService.getTokenManager().onUnauthorized(token);
+            // A rejected refresh token clears the session (and quick unlock) in the token store
+            boolean rejected = refreshed == null && sessionManager.getToken() == null;
+            mainHandler.post(() -> {
+                if (refreshed != null) {
+                    callback.onValid();
+                } else if (rejected) {
+                    callback.onInvalid();
+                } else {
+                    callback.onOffline();
+                }
+            });
+        });
+    }
+
+    // Runs on the executor
+    private void clear() {
+        pref.edit().clear().apply();
+        cachedAccounts = null;
+        unlockedToken = null;
+        try {
+            keyPairStore.deleteKeyPair();
+        } catch (GeneralSecurityException e) {
+            Log.w(TAG, "Unable to delete quick unlock key", e);
+        }
+        Log.d(TAG, "Quick unlock disabled");
+    }
+
+    // Runs on the executor
+    private void writePayload() throws GeneralSecurityException, JSONException {
+        SessionSnapshot session = sessionManager.getSnapshot();
+        if (!session.isLoggedIn() || session.getRefreshToken() == null) {
+            return;
+        }
+
+        JSONObject user = new JSONObject();
+        user.put("id", session.getUserId());
+        user.put("email", session.getEmail());
+        user.put("full_name", session.getFullName());
+        user.put("phone", session.getPhone());
+        user.put("customer_type", session.getUserType());
+        user.put("account_number", session.getAccountNumber());
+
+        JSONObject json = new JSONObject();
+        json.put("token", session.getToken());
+        json.put("refresh_token", session.getRefreshToken());
+        json.put("user", user);
+        if (cachedAccounts != null) {
+            json.put("accounts", cachedAccounts);
+        }
+        json.put("saved_at", System.currentTimeMillis());
+
+        // Fresh data key per write, wrapped with the public key (no authentication needed)
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256);
+        SecretKey dataKey = keyGenerator.generateKey();
+
+        byte[] iv = new byte[12];
+        new SecureRandom().nextBytes(iv);
+        Cipher aes = Cipher.getInstance(AES_TRANSFORMATION);
+        aes.init(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+        byte[] payload = aes.doFinal(json.toString().getBytes(StandardCharsets.UTF_8));
+
+        Cipher rsa = Cipher.getInstance(RSA_TRANSFORMATION);
+        rsa.init(Cipher.ENCRYPT_MODE, keyPairStore.getPublicKey(), oaepSpec());
+        byte[] wrappedKey = rsa.doFinal(dataKey.getEncoded());
+
+        pref.edit()
+                .putString(KEY_WRAPPED_KEY, Base64.encodeToString(wrappedKey, Base64.NO_WRAP))
+                .putString(KEY_IV, Base64.encodeToString(iv, Base64.NO_WRAP))
+                .putString(KEY_PAYLOAD, Base64.encodeToString(payload, Base64.NO_WRAP))
+                .apply();
+    }
+
+    private static class AndroidKeyPairStore implements KeyPairStore {
+        @Override
+        public void ensureKeyPair() throws GeneralSecurityException {
+            KeyStore keyStore = loadKeyStore();
+            if (keyStore.containsAlias(KEY_ALIAS)) {
+                return;
+            }
+
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(KeyProperties.KEY_ALGORITHM_RSA, KEYSTORE);
+            generator.initialize(new KeyGenParameterSpec.Builder(KEY_ALIAS,
+                    KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                    .setKeySize(2048)
+                    .setDigests(KeyProperties.DIGEST_SHA256)
+                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_RSA_OAEP)
+                    // Every use of the private key needs a biometric authentication
+                    .setUserAuthenticationRequired(true)
+                    .setInvalidatedByBiometricEnrollment(true)
+                    .build());
+            generator.generateKeyPair();
+        }
+
+        // Software copy of the public key: encrypting with it must not require authentication
+        @Override
+        public PublicKey getPublicKey() throws GeneralSecurityException {
+            PublicKey keystoreKey = loadKeyStore().getCertificate(KEY_ALIAS).getPublicKey();
+            return KeyFactory.getInstance(keystoreKey.getAlgorithm())
+                    .generatePublic(new X509EncodedKeySpec(keystoreKey.getEncoded()));
+        }
+
+        @Override
+        public void deleteKeyPair() throws GeneralSecurityException {
+            loadKeyStore().deleteEntry(KEY_ALIAS);
+        }
+    }
+
+    private static KeyStore loadKeyStore() throws GeneralSecurityException {
+        try {
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+            keyStore.load(null);
+            return keyStore;
+        } catch (java.io.IOException e) {
+            throw new GeneralSecurityException(e);
+        }
+    }
+
+    // The keystore only supports SHA-1 for MGF1, so both sides must spell it out
+    private static OAEPParameterSpec oaepSpec() {
+        return new OAEPParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA1, PSource.PSpecified.DEFAULT);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunked, resumable upload against the ekyc/uploads endpoints.
+ *
+ * Flow: POST ekyc/uploads (create session) -> PUT chunks at ?offset=N -> POST .../complete.
+ * The server only acknowledges a chunk that continues the file, so after a failure the
+ * uploader asks the server for the acknowledged offset and continues from there instead of
+ * starting again from zero. Completion is idempotent on the server: repeating it replays the
+ * stored result, so it is retried like the chunks. A session the server no longer knows (410) is
+ * started over once, unless completion was already sent.
+ */
+public class ResumableUploader {
+    private static final String TAG = "ResumableUploader";
+    private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    private static final int MAX_RETRIES = 5;
+    private static final long INITIAL_BACKOFF_MS = 1000;
+
+    // Shared scheduler for retry backoff; the actual network calls run on ApiService's executor
+    private static final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final ApiService apiService;
+
+    public ResumableUploader(Context context) {
+        this.apiService = ApiService.getInstance(context);
+    }
+
+    public interface UploadCallback {
+        void onProgress(long bytesSent, long totalBytes);
+        void onComplete(JSONObject response);
+        // NOT_FOUND is only reported when the server has no ekyc/uploads route at all
+        void onError(String error, int statusCode);
+    }
+
+    /**
+     * Upload {@code length} bytes of {@code data}. The array must not be modified until the
+     * callback reports completion or error.
+     */
+    public void upload(byte[] data, int length, String fileName, UploadCallback callback) {
+        start(data, length, fileName, callback, false);
+    }
+
+    private void start(byte[] data, int length, String fileName, UploadCallback callback, boolean restarted) {
+        try {
+            JSONObject requestBody = new JSONObject();
+            requestBody.put("file_name", fileName);
+            requestBody.put("total_size", length);
+
+            apiService.post(ApiConfig.EKYC_UPLOADS, requestBody, new ApiService.ApiCallback() {
+                @Override
+                public void onSuccess(JSONObject response) {
+                    JSONObject session = response.optJSONObject("data");
+                    if (session == null || session.optString("upload_id", "").isEmpty()) {
+                        callback.onError("Invalid response format", -1);
+                        return;
+                    }
+                    Upload upload = new Upload(session.optString("upload_id"), data, length, fileName,
+                            session.optInt("chunk_size", DEFAULT_CHUNK_SIZE), callback, restarted);
+                    upload.sendChunk(session.optLong("received", 0));
+                }
+
+                @Override
+                public void onError(String error, int statusCode) {
+                    Log.e(TAG, "Failed to create upload session: " + error);
+                    callback.onError(error, statusCode);
+                }
+            });
+        } catch (JSONException e) {
+            Log.e(TAG, "Error creating upload session request", e);
+            callback.onError("Failed to create upload request", -1);
+        }
+    }
+
+    // State of one upload session
+    private class Upload {
+        private final String uploadId;
+        private final byte[] data;
+        private final int length;
+        private final String fileName;
+        private final int chunkSize;
+        private final UploadCallback callback;
+        // Already a second session for this file
+        private final boolean restarted;
+        private int retries = 0;
+        private boolean completing = false;
+
+        Upload(String uploadId, byte[] data, int length, String fileName, int chunkSize,
+               UploadCallback callback, boolean restarted) {
+            this.uploadId = uploadId;
+            this.data = data;
+            this.length = length;
+            this.fileName = fileName;
+            this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+            this.callback = callback;
+            this.restarted = restarted;
+        }
+
+        void sendChunk(long offset) {
+            if (offset >= length) {
+                complete();
+                return;
+            }
+
+            int chunkLength = (int) Math.min(chunkSize, length - offset);
+            String endpoint = ApiConfig.EKYC_UPLOAD_STATUS.replace("{uploadId}", uploadId) + "?offset=" + offset;
+
+            apiService.putBinary(endpoint, data, (int) offset, chunkLength, new ApiService.ApiCallback() {
+                @Override
+                public void onSuccess(JSONObject response) {
+                    retries = 0;
+                    JSONObject progress = response.optJSONObject("data");
+                    long received = progress != null ? progress.optLong("received", offset + chunkLength) : offset + chunkLength;
+                    callback.onProgress(received, length);
+                    sendChunk(received);
+                }
+
+                @Override
+                public void onError(String error, int statusCode) {
+                    Log.w(TAG, "Chunk at " + offset + " failed: " + error + " (Status: " + statusCode + ")");
+                    retryFromServerOffset(error, statusCode);
+                }
+            });
+        }
+
+        void complete() {
+            completing = true;
+            String endpoint = ApiConfig.EKYC_UPLOAD_COMPLETE.replace("{uploadId}", uploadId);
+            apiService.post(endpoint, null, new ApiService.ApiCallback() {
+                @Override
+                public void onSuccess(JSONObject response) {
+                    callback.onComplete(response);
+                }
+
+                @Override
+                public void onError(String error, int statusCode) {
+                    // -1 also covers a read timeout after the server finished; a repeat gets the stored result
+                    if (statusCode == -1 || statusCode == ApiConfig.CONFLICT || isSessionLost(statusCode)) {
+                        retryFromServerOffset(error, statusCode);
+                    } else {
+                        callback.onError(error, statusCode);
+                    }
+                }
+            });
+        }
+
+        // Ask the server how much it has and resume from there after a backoff
+        void retryFromServerOffset(String error, int statusCode) {
+            if (isSessionLost(statusCode)) {
+                onSessionLost(error);
+                return;
+            }
+            if (!isRetryable(statusCode) || retries >= MAX_RETRIES) {
+                callback.onError(error, statusCode);
+                return;
+            }
+
+            long delay = INITIAL_BACKOFF_MS << retries;
+            retries++;
+            retryScheduler.schedule(() -> {
+                String endpoint = ApiConfig.EKYC_UPLOAD_STATUS.replace("{uploadId}", uploadId);
+                apiService.get(endpoint, new ApiService.ApiCallback() {
+                    @Override
+                    public void onSuccess(JSONObject response) {
+                        JSONObject status = response.optJSONObject("data");
+                        long received = status != null ? status.optLong("received", 0) : 0;
+                        Log.d(TAG, "Resuming upload " + uploadId + " at offset " + received);
+                        sendChunk(received);
+                    }
+
+                    @Override
+                    public void onError(String statusError, int code) {
+                        retryFromServerOffset(statusError, code);
+                    }
+                });
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        // The server dropped the session (expired or restarted); start over unless the image may
+        // already be registered. Never reported as NOT_FOUND, which would trigger a second upload
+        void onSessionLost(String error) {
+            if (completing || restarted) {
+                callback.onError(error, ApiConfig.GONE);
+                return;
+            }
+            Log.w(TAG, "Upload session " + uploadId + " expired, starting a new one");
+            start(data, length, fileName, callback, true);
+        }
+    }
+
+    // Servers from before 410 answered 404 for an unknown session
+    private static boolean isSessionLost(int statusCode) {
+        return statusCode == ApiConfig.GONE || statusCode == ApiConfig.NOT_FOUND;
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == -1 || statusCode == ApiConfig.CONFLICT || statusCode >= ApiConfig.INTERNAL_SERVER_ERROR;
+    }
+}
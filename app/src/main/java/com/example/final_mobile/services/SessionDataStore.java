@@ -0,0 +1,177 @@
+package com.example.final_mobile.services;
+
+import com.example.final_mobile.models.Account;
+import com.example.final_mobile.models.Transaction;
+import com.example.final_mobile.models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * In-memory data for the current session, filled by the post-login prefetch in AuthService.
+ *
+ * Each item is a {@link Slot}: screens ask for it with {@link Slot#whenAvailable}, which answers
+ * immediately from memory, or once the in-flight prefetch finishes, or returns false so the
+ * screen loads it itself. Plain Java so it can be unit-tested on the JVM.
+ */
+public class SessionDataStore {
+
+    // Prefetched data older than this is not used for a first render
+    public static final long FRESH_FOR_MS = 60_000;
+
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static class Slot<T> {
+        private final Clock clock;
+        private final List<Consumer<T>> waiters = new ArrayList<>();
+        private T value;
+        private long loadedAt;
+        private boolean loading;
+        private long generation;
+
+        Slot(Clock clock) {
+            this.clock = clock;
+        }
+
+        /**
+         * Mark a load as started. Pass the returned ticket to {@link #complete} or {@link #fail};
+         * results for a ticket issued before the last {@link #clear} are dropped.
+         */
+        public synchronized long begin() {
+            loading = true;
+            return generation;
+        }
+
+        public void complete(long ticket, T result) {
+            List<Consumer<T>> ready;
+            synchronized (this) {
+                if (ticket != generation) {
+                    return;
+                }
+                value = result;
+                loadedAt = clock.currentTimeMillis();
+                loading = false;
+                ready = drainWaiters();
+            }
+            for (Consumer<T> waiter : ready) {
+                waiter.accept(result);
+            }
+        }
+
+        // Waiters get null and are expected to load the data themselves
+        public void fail(long ticket) {
+            List<Consumer<T>> ready;
+            synchronized (this) {
+                if (ticket != generation) {
+                    return;
+                }
+                loading = false;
+                ready = drainWaiters();
+            }
+            for (Consumer<T> waiter : ready) {
+                waiter.accept(null);
+            }
+        }
+
+        /**
+         * Deliver the value to {@code consumer} now if it is fresh, or when the load in flight
+         * finishes (null on failure). Returns false if there is nothing to wait for.
+         */
+        public boolean whenAvailable(Consumer<T> consumer) {
+            T fresh;
+            synchronized (this) {
+                fresh = getFreshLocked();
+                if (fresh == null) {
+                    if (!loading) {
+                        return false;
+                    }
+                    waiters.add(consumer);
+                    return true;
+                }
+            }
+            consumer.accept(fresh);
+            return true;
+        }
+
+        public synchronized T getFresh() {
+            return getFreshLocked();
+        }
+
+        public void clear() {
+            List<Consumer<T>> dropped;
+            synchronized (this) {
+                generation++;
+                value = null;
+                loadedAt = 0;
+                loading = false;
+                dropped = drainWaiters();
+            }
+            // Anyone still waiting falls back to loading on their own
+            for (Consumer<T> waiter : dropped) {
+                waiter.accept(null);
+            }
+        }
+
+        private T getFreshLocked() {
+            if (value != null && clock.currentTimeMillis() - loadedAt <= FRESH_FOR_MS) {
+                return value;
+            }
+            return null;
+        }
+
+        private List<Consumer<T>> drainWaiters() {
+            List<Consumer<T>> ready = new ArrayList<>(waiters);
+            waiters.clear();
+            return ready;
+        }
+    }
+
+    private static SessionDataStore instance;
+
+    public final Slot<User> profile;
+    public final Slot<List<Account>> accounts;
+    public final Slot<Account> primaryAccount;
+    public final Slot<List<Transaction>> recentTransactions;
+
+    private boolean firstRenderClaimed = false;
+
+    public SessionDataStore(Clock clock) {
+        profile = new Slot<>(clock);
+        accounts = new Slot<>(clock);
+        primaryAccount = new Slot<>(clock);
+        recentTransactions = new Slot<>(clock);
+    }
+
+    public static synchronized SessionDataStore getInstance() {
+        if (instance == null) {
+            instance = new SessionDataStore(System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * True only for the first caller after a login: the home screen renders from memory once,
+     * later visits load live data (balances may have changed since the prefetch).
+     */
+    public synchronized boolean claimFirstRender() {
+        if (firstRenderClaimed) {
+            return false;
+        }
+        firstRenderClaimed = true;
+        return true;
+    }
+
+    // On login/logout, so one user's data is never shown to the next
+    public void clear() {
+        synchronized (this) {
+            firstRenderClaimed = false;
+        }
+        profile.clear();
+        accounts.clear();
+        primaryAccount.clear();
+        recentTransactions.clear();
+    }
+}
@@ -9,6 +9,19 @@ import com.example.final_mobile.models.User;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session state for the logged-in user.
+ *
+ * Reads come from an immutable in-memory {@link SessionSnapshot} that is swapped atomically on
+ * every change. Changes are written behind to SharedPreferences on a background thread: token and
+ * profile changes are flushed right away, activity timestamps at most every
+ * {@link #ACTIVITY_FLUSH_INTERVAL_MS}, and several changes in between are coalesced into one write.
+ */
 public class SessionManager {
     private static final String TAG = "SessionManager";
     private static final String PREF_NAME = "BankingAppSession";
@@ -24,15 +37,36 @@ public class SessionManager {
     private static final String KEY_LOGIN_TIME = "loginTime";
     private static final String KEY_LAST_ACTIVITY = "lastActivity";
 
+    // Session expires after 7 days without activity
+    private static final long MAX_INACTIVE_TIME_MS = 7L * 24 * 60 * 60 * 1000;
+    // Activity-only changes are persisted at most this often
+    static final long ACTIVITY_FLUSH_INTERVAL_MS = 30 * 1000;
+
     private static SessionManager instance;
     private SharedPreferences pref;
     private SharedPreferences.Editor editor;
     private Context context;
 
+    private volatile SessionSnapshot snapshot;
+    private final ScheduledExecutorService writer;
+    private final Object writeLock = new Object();
+    private ScheduledFuture<?> pendingFlush;
+    private boolean flushScheduled;
+    private boolean pendingUrgent;
+    private SessionSnapshot lastWritten;
+    private long lastFlushTime;
+
     private SessionManager(Context context) {
         this.context = context.getApplicationContext();
         pref = this.context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         editor = pref.edit();
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshot = loadSnapshot();
+        lastWritten = snapshot;
     }
 
     public static synchronized SessionManager getInstance(Context context) {
@@ -42,149 +76,222 @@ public class SessionManager {
         return instance;
     }
 
+    // The only place session fields are read from disk
+    private SessionSnapshot loadSnapshot() {
+        return new SessionSnapshot(
+                pref.getBoolean(KEY_IS_LOGGED_IN, false),
+                pref.getString(KEY_TOKEN, null),
+                pref.getString(KEY_REFRESH_TOKEN, null),
+                pref.getString(KEY_USER_ID, ""),
+                pref.getString(KEY_USER_EMAIL, ""),
+                pref.getString(KEY_USER_NAME, ""),
+                pref.getString(KEY_USER_PHONE, ""),
+                pref.getString(KEY_USER_TYPE, "CUSTOMER"),
+                pref.getString(KEY_ACCOUNT_NUMBER, ""),
+                pref.getLong(KEY_LOGIN_TIME, 0),
+                pref.getLong(KEY_LAST_ACTIVITY, 0));
+    }
+
+    // Current session state (never null)
+    public SessionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     // Create login session
     public void createLoginSession(String token, String refreshToken, User user) {
-        editor.putBoolean(KEY_IS_LOGGED_IN, true);
-        editor.putString(KEY_TOKEN, token);
-        editor.putString(KEY_REFRESH_TOKEN, refreshToken);
-        editor.putString(KEY_USER_ID, user.getId());
-        editor.putString(KEY_USER_EMAIL, user.getEmail());
-        editor.putString(KEY_USER_NAME, user.getFullName());
-        editor.putString(KEY_USER_PHONE, user.getPhone());
-        editor.putString(KEY_USER_TYPE, user.getCustomerType());
-        editor.putString(KEY_ACCOUNT_NUMBER, user.getAccountNumber());
-        editor.putLong(KEY_LOGIN_TIME, System.currentTimeMillis());
-        editor.putLong(KEY_LAST_ACTIVITY, System.currentTimeMillis());
-        editor.apply();
+        synchronized (this) {
+            snapshot = SessionSnapshot.forLogin(token, refreshToken, user, System.currentTimeMillis());
+        }
+        scheduleFlush(true);
 
         Log.d(TAG, "Login session created for user: " + user.getEmail());
     }
 
     // Update last activity timestamp
     public void updateLastActivity() {
-        editor.putLong(KEY_LAST_ACTIVITY, System.currentTimeMillis());
-        editor.apply();
+        synchronized (this) {
+            snapshot = snapshot.withLastActivity(System.currentTimeMillis());
+        }
+        scheduleFlush(false);
     }
 
     // Check if user is logged in
     public boolean isLoggedIn() {
-        boolean isLoggedIn = pref.getBoolean(KEY_IS_LOGGED_IN, false);
-        
-        Log.d(TAG, "Checking login status: " + isLoggedIn);
-        
-        // Check if session is expired (7 days for development)
-        if (isLoggedIn) {
-            long lastActivity = pref.getLong(KEY_LAST_ACTIVITY, 0);
-            long currentTime = System.currentTimeMillis();
-            long timeDiff = currentTime - lastActivity;
-            long maxInactiveTime = 7 * 24 * 60 * 60 * 1000; // 7 days in milliseconds (was 24 hours)
-
-            Log.d(TAG, "Last activity: " + lastActivity);
-            Log.d(TAG, "Current time: " + currentTime);
-            Log.d(TAG, "Time diff: " + timeDiff + " ms (" + (timeDiff / 1000 / 60) + " minutes)");
-            Log.d(TAG, "Max inactive time: " + maxInactiveTime + " ms");
-
-            if (timeDiff > maxInactiveTime) {
-                Log.w(TAG, "Session expired due to inactivity");
-                logoutUser();
-                return false;
-            }
-            
-            Log.d(TAG, "Session is valid");
+        SessionSnapshot current = snapshot;
+        if (!current.isLoggedIn()) {
+            return false;
         }
 
-        return isLoggedIn;
+        // Check if session is expired (7 days for development)
+        if (System.currentTimeMillis() - current.getLastActivity() > MAX_INACTIVE_TIME_MS) {
+            Log.w(TAG, "Session expired due to inactivity (last activity: " + current.getLastActivity() + ")");
+            logoutUser();
+            return false;
+        }
+        return true;
     }
 
     // Get stored token
     public String getToken() {
-        return pref.getString(KEY_TOKEN, null);
+        return snapshot.getToken();
     }
 
     // Get refresh token
     public String getRefreshToken() {
-        return pref.getString(KEY_REFRESH_TOKEN, null);
+        return snapshot.getRefreshToken();
     }
 
     // Update token (for refresh token scenario)
     public void updateToken(String newToken) {
-        editor.putString(KEY_TOKEN, newToken);
-        editor.putLong(KEY_LAST_ACTIVITY, System.currentTimeMillis());
-        editor.apply();
+        synchronized (this) {
+            snapshot = snapshot.withTokens(newToken, snapshot.getRefreshToken(), System.currentTimeMillis());
+        }
+        scheduleFlush(true);
+    }
+
+    // Update both tokens after a refresh (the server rotates the refresh token)
+    public void updateTokens(String newToken, String newRefreshToken) {
+        synchronized (this) {
+            String refreshToken = newRefreshToken != null && !newRefreshToken.isEmpty()
+                    ? newRefreshToken : snapshot.getRefreshToken();
+            snapshot = snapshot.withTokens(newToken, refreshToken, System.currentTimeMillis());
+        }
+        scheduleFlush(true);
     }
 
     // Get current user information
     public User getCurrentUser() {
+        SessionSnapshot current = snapshot;
         if (!isLoggedIn()) {
             return null;
         }
-
-        User user = new User();
-        user.setId(pref.getString(KEY_USER_ID, ""));
-        user.setEmail(pref.getString(KEY_USER_EMAIL, ""));
-        user.setFullName(pref.getString(KEY_USER_NAME, ""));
-        user.setPhone(pref.getString(KEY_USER_PHONE, ""));
-        user.setCustomerType(pref.getString(KEY_USER_TYPE, "CUSTOMER"));
-        user.setAccountNumber(pref.getString(KEY_ACCOUNT_NUMBER, ""));
-
-        return user;
+        return current.toUser();
     }
 
     // Get user ID
     public String getUserId() {
-        return pref.getString(KEY_USER_ID, "");
+        return snapshot.getUserId();
     }
 
     // Get user email
     public String getUserEmail() {
-        return pref.getString(KEY_USER_EMAIL, "");
+        return snapshot.getEmail();
     }
 
     // Get user name
     public String getUserName() {
-        return pref.getString(KEY_USER_NAME, "");
+        return snapshot.getFullName();
     }
 
     // Get account number
     public String getAccountNumber() {
-        return pref.getString(KEY_ACCOUNT_NUMBER, "");
+        return snapshot.getAccountNumber();
     }
 
     // Check if user is bank officer
     public boolean isBankOfficer() {
-        String userType = pref.getString(KEY_USER_TYPE, "CUSTOMER");
-        return "BANK_OFFICER".equals(userType);
+        return "BANK_OFFICER".equals(snapshot.getUserType());
     }
 
     // Get session duration
     public long getSessionDuration() {
-        long loginTime = pref.getLong(KEY_LOGIN_TIME, 0);
-        return System.currentTimeMillis() - loginTime;
+        return System.currentTimeMillis() - snapshot.getLoginTime();
     }
 
     // Update user profile
     public void updateUserProfile(User user) {
-        editor.putString(KEY_USER_NAME, user.getFullName());
-        editor.putString(KEY_USER_PHONE, user.getPhone());
-        editor.putLong(KEY_LAST_ACTIVITY, System.currentTimeMillis());
-        editor.apply();
+        synchronized (this) {
+            snapshot = snapshot.withProfile(user.getFullName(), user.getPhone(), System.currentTimeMillis());
+        }
+        scheduleFlush(true);
     }
 
     // Logout user
     public void logoutUser() {
         Log.d(TAG, "Logging out user");
-        
-        // Clear all session data
-        editor.clear();
-        editor.apply();
+
+        synchronized (this) {
+            snapshot = SessionSnapshot.EMPTY;
+            if (flushScheduled && pendingFlush.cancel(false)) {
+                flushScheduled = false;
+            }
+        }
+
+        // Clear all session data (including temporary data). Holding writeLock makes sure a
+        // flush of the old snapshot cannot land after the clear.
+        synchronized (writeLock) {
+            editor.clear();
+            editor.apply();
+            lastWritten = SessionSnapshot.EMPTY;
+        }
     }
 
     // Clear specific session data
     public void clearSession() {
-        editor.remove(KEY_TOKEN);
-        editor.remove(KEY_REFRESH_TOKEN);
-        editor.putBoolean(KEY_IS_LOGGED_IN, false);
-        editor.apply();
+        synchronized (this) {
+            snapshot = snapshot.withoutTokens();
+        }
+        scheduleFlush(true);
+    }
+
+    // Write any pending change now, e.g. when the app goes to the background
+    public void flushPendingWrites() {
+        synchronized (this) {
+            // Nothing queued, or the queued flush is already running
+            if (!flushScheduled || !pendingFlush.cancel(false)) {
+                return;
+            }
+        }
+        writer.execute(this::flush);
+    }
+
+    // Coalesce writes: at most one flush is queued, and an urgent change pulls it forward
+    private synchronized void scheduleFlush(boolean urgent) {
+        if (flushScheduled) {
+            // A queued flush reads the snapshot when it runs, so it will include this change.
+            // If it has already started, it has not read the snapshot yet either.
+            if (!urgent || pendingUrgent || !pendingFlush.cancel(false)) {
+                return;
+            }
+        }
+
+        long delay = urgent ? 0
+                : Math.max(0, lastFlushTime + ACTIVITY_FLUSH_INTERVAL_MS - System.currentTimeMillis());
+        flushScheduled = true;
+        pendingUrgent = urgent;
+        pendingFlush = writer.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs on the writer thread; always persists the latest snapshot
+    private void flush() {
+        // Changes made after this point schedule a new flush
+        synchronized (this) {
+            flushScheduled = false;
+        }
+
+        synchronized (writeLock) {
+            SessionSnapshot current = snapshot;
+            if (current == lastWritten) {
+                return;
+            }
+
+            SharedPreferences.Editor batch = pref.edit();
+            batch.putBoolean(KEY_IS_LOGGED_IN, current.isLoggedIn());
+            batch.putString(KEY_TOKEN, current.getToken());
+            batch.putString(KEY_REFRESH_TOKEN, current.getRefreshToken());
+            batch.putString(KEY_USER_ID, current.getUserId());
+            batch.putString(KEY_USER_EMAIL, current.getEmail());
+            batch.putString(KEY_USER_NAME, current.getFullName());
+            batch.putString(KEY_USER_PHONE, current.getPhone());
+            batch.putString(KEY_USER_TYPE, current.getUserType());
+            batch.putString(KEY_ACCOUNT_NUMBER, current.getAccountNumber());
+            batch.putLong(KEY_LOGIN_TIME, current.getLoginTime());
+            batch.putLong(KEY_LAST_ACTIVITY, current.getLastActivity());
+            batch.apply();
+
+            lastWritten = current;
+            lastFlushTime = System.currentTimeMillis();
+        }
     }
 
     // Save temporary data (for OTP verification, etc.)
@@ -0,0 +1,123 @@
+package com.example.final_mobile.services;
+
+import com.example.final_mobile.models.User;
+
+/**
+ * Immutable copy of the persisted session. SessionManager keeps the current snapshot in memory
+ * and replaces it as a whole on every change, so readers never see half-updated state and
+ * never touch SharedPreferences.
+ */
+public final class SessionSnapshot {
+
+    public static final SessionSnapshot EMPTY = new SessionSnapshot(false, null, null,
+            "", "", "", "", "CUSTOMER", "", 0, 0);
+
+    private final boolean loggedIn;
+    private final String token;
+    private final String refreshToken;
+    private final String userId;
+    private final String email;
+    private final String fullName;
+    private final String phone;
+    private final String userType;
+    private final String accountNumber;
+    private final long loginTime;
+    private final long lastActivity;
+
+    public SessionSnapshot(boolean loggedIn, String token, String refreshToken, String userId, String email,
+                           String fullName, String phone, String userType, String accountNumber,
+                           long loginTime, long lastActivity) {
+        this.loggedIn = loggedIn;
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.userId = userId != null ? userId : "";
+        this.email = email != null ? email : "";
+        this.fullName = fullName != null ? fullName : "";
+        this.phone = phone != null ? phone : "";
+        this.userType = userType != null ? userType : "CUSTOMER";
+        this.accountNumber = accountNumber != null ? accountNumber : "";
+        this.loginTime = loginTime;
+        this.lastActivity = lastActivity;
+    }
+
+    public static SessionSnapshot forLogin(String token, String refreshToken, User user, long now) {
+        return new SessionSnapshot(true, token, refreshToken, user.getId(), user.getEmail(), user.getFullName(),
+                user.getPhone(), user.getCustomerType(), user.getAccountNumber(), now, now);
+    }
+
+    public SessionSnapshot withTokens(String newToken, String newRefreshToken, long now) {
+        return new SessionSnapshot(loggedIn, newToken, newRefreshToken, userId, email, fullName, phone,
+                userType, accountNumber, loginTime, now);
+    }
+
+    public SessionSnapshot withProfile(String newFullName, String newPhone, long now) {
+        return new SessionSnapshot(loggedIn, token, refreshToken, userId, email, newFullName, newPhone,
+                userType, accountNumber, loginTime, now);
+    }
+
+    public SessionSnapshot withLastActivity(long now) {
+        return new SessionSnapshot(loggedIn, token, refreshToken, userId, email, fullName, phone,
+                userType, accountNumber, loginTime, now);
+    }
+
+    public SessionSnapshot withoutTokens() {
+        return new SessionSnapshot(false, null, null, userId, email, fullName, phone,
+                userType, accountNumber, loginTime, lastActivity);
+    }
+
+    // A new User each time: callers are free to modify what they get back
+    public User toUser() {
+        User user = new User();
+        user.setId(userId);
+        user.setEmail(email);
+        user.setFullName(fullName);
+        user.setPhone(phone);
+        user.setCustomerType(userType);
+        user.setAccountNumber(accountNumber);
+        return user;
+    }
+
+    public boolean isLoggedIn() {
+        return loggedIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public long getLoginTime() {
+        return loginTime;
+    }
+
+    public long getLastActivity() {
+        return lastActivity;
+    }
+}
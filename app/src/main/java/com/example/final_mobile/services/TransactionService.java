@@ -3,13 +3,14 @@ package com.example.final_mobile.services;
 import android.content.Context;
 import android.util.Log;
 
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.core.TransactionJsonParser;
 import com.example.final_mobile.models.Transaction;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -17,14 +18,17 @@ import java.util.List;
 
 public class TransactionService {
     private static final String TAG = "TransactionService";
+    static final String FEE_CHANGED_MESSAGE = "Biểu phí đã thay đổi. Vui lòng kiểm tra lại phí và thử lại";
     private ApiService apiService;
     private SessionManager sessionManager;
+    private FeeScheduleStore feeSchedules;
     private Context context;
 
     public TransactionService(Context context) {
         this.context = context;
         this.apiService = ApiService.getInstance(context);
         this.sessionManager = SessionManager.getInstance(context);
+        this.feeSchedules = FeeScheduleStore.getInstance(context);
     }
 
     // Callback interface for transaction operations
@@ -74,7 +78,7 @@ public class TransactionService {
     }
 
     // Transfer money
-    public void transferMoney(String fromAccountId, String toAccountNumber, BigDecimal amount, String description, TransactionCallback callback) {
+    public void transferMoney(String fromAccountId, String toAccountNumber, Money amount, String description, TransactionCallback callback) {
         try {
             Log.d(TAG, "Transfer - Sending request:");
             Log.d(TAG, "  from_account_id: " + fromAccountId);
@@ -89,8 +93,9 @@ public class TransactionService {
             requestBody.put("amount", amount.toString());
             requestBody.put("description", description);
             requestBody.put("transaction_type", Transaction.TYPE_TRANSFER);
+            feeSchedules.stamp(requestBody);
 
-            apiService.post(ApiConfig.TRANSFER_MONEY, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.TRANSFER_MONEY, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
@@ -123,6 +128,10 @@ public class TransactionService {
                 @Override
                 public void onError(String error, int statusCode) {
                     Log.e(TAG, "Transfer money error: " + error);
+                    if (feeSchedules.handleStaleRejection(statusCode)) {
+                        callback.onError(FEE_CHANGED_MESSAGE);
+                        return;
+                    }
                     callback.onError(getErrorMessage(error, statusCode));
                 }
             });
@@ -142,7 +151,7 @@ public class TransactionService {
             requestBody.put("otp_code", otpCode);
             requestBody.put("otpCode", otpCode);
 
-            apiService.post(ApiConfig.VERIFY_TRANSFER_OTP, requestBody, new ApiService.ApiCallback() {
+            apiService.postIdempotent(ApiConfig.VERIFY_TRANSFER_OTP, requestBody, ApiService.MONEY_RETRY, new ApiService.ApiCallback() {
                 @Override
                 public void onSuccess(JSONObject response) {
                     try {
@@ -208,108 +217,12 @@ public class TransactionService {
 
     // Parse transactions from JSON array
     private List<Transaction> parseTransactionsFromJson(JSONArray transactionsArray) throws JSONException {
-        List<Transaction> transactions = new ArrayList<>();
-        for (int i = 0; i < transactionsArray.length(); i++) {
-            JSONObject transactionJson = transactionsArray.getJSONObject(i);
-            Transaction transaction = parseTransactionFromJson(transactionJson);
-            transactions.add(transaction);
-        }
-        return transactions;
+        return TransactionJsonParser.parseTransactions(transactionsArray);
     }
 
     // Parse single transaction from JSON
     private Transaction parseTransactionFromJson(JSONObject transactionJson) throws JSONException {
-        Transaction transaction = new Transaction();
-        
-        // Parse ID - store both transaction_id (String) and MongoDB _id
-        // Backend getTransaction API uses transaction_id field to find transaction
-        String transactionIdStr = transactionJson.optString("transaction_id", "");
-        String mongoIdStr = transactionJson.optString("id", "");
-        
-        // Store both IDs
-        transaction.setTransactionId(transactionIdStr);
-        transaction.setMongoId(mongoIdStr);
-        
-        // Use transaction_id as primary ID for API calls (backend expects this)
-        // Fallback to MongoDB _id if transaction_id is not available
-        if (!transactionIdStr.isEmpty()) {
-            transaction.setId(transactionIdStr);
-            Log.d(TAG, "Using transaction_id: " + transactionIdStr + ", mongoId: " + mongoIdStr);
-        } else if (!mongoIdStr.isEmpty()) {
-            transaction.setId(mongoIdStr);
-            Log.d(TAG, "Using MongoDB _id (fallback): " + mongoIdStr);
-        } else {
-            Log.w(TAG, "No transaction ID found in response");
-        }
-        
-        transaction.setFromAccountId(transactionJson.optString("from_account_id", ""));
-        transaction.setToAccountId(transactionJson.optString("to_account_id", ""));
-        transaction.setFromAccountNumber(transactionJson.optString("from_account_number", ""));
-        transaction.setToAccountNumber(transactionJson.optString("to_account_number", ""));
-        
-        // Parse amount - support both string and number
-        Object amountObj = transactionJson.opt("amount");
-        if (amountObj != null) {
-            if (amountObj instanceof Number) {
-                transaction.setAmount(new BigDecimal(amountObj.toString()));
-            } else {
-                transaction.setAmount(new BigDecimal(amountObj.toString()));
-            }
-        } else {
-            transaction.setAmount(BigDecimal.ZERO);
-        }
-        
-        transaction.setCurrency(transactionJson.optString("currency", "VND"));
-        transaction.setTransactionType(transactionJson.optString("transaction_type", "TRANSFER"));
-        transaction.setStatus(transactionJson.optString("status", "PENDING"));
-        transaction.setDescription(transactionJson.optString("description", ""));
-        // Use transaction_id as reference number if available, otherwise use MongoDB _id
-        String refNumber = transactionJson.optString("reference_number", "");
-        if (refNumber.isEmpty()) {
-            refNumber = !transactionIdStr.isEmpty() ? transactionIdStr : mongoIdStr;
-        }
-        transaction.setReferenceNumber(refNumber);
-        
-        // Parse dates from ISO format
-        try {
-            // Handle both string and object (empty object {}) cases
-            Object createdAtObj = transactionJson.opt("created_at");
-            String createdAtStr = null;
-            
-            if (createdAtObj instanceof String) {
-                createdAtStr = (String) createdAtObj;
-            } else if (createdAtObj instanceof org.json.JSONObject) {
-                // If it's an object (even empty), try to get ISO string from it
-                org.json.JSONObject dateObj = (org.json.JSONObject) createdAtObj;
-                createdAtStr = dateObj.optString("$date", "");
-                if (createdAtStr.isEmpty()) {
-                    createdAtStr = dateObj.optString("iso", "");
-                }
-            } else {
-                createdAtStr = transactionJson.optString("created_at", "");
-            }
-            
-            if (createdAtStr != null && !createdAtStr.isEmpty() && !createdAtStr.equals("{}")) {
-                // Parse ISO 8601 format: "2025-11-17T23:20:47.532Z" or "2025-11-17T23:20:47Z"
-                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", java.util.Locale.getDefault());
-                if (createdAtStr.contains(".")) {
-                    sdf = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", java.util.Locale.getDefault());
-                }
-                if (createdAtStr.endsWith("Z")) {
-                    sdf.setTimeZone(java.util.TimeZone.getTimeZone("UTC"));
-                    createdAtStr = createdAtStr.replace("Z", "");
-                }
-                transaction.setCreatedAt(sdf.parse(createdAtStr));
-            } else {
-                // If date is empty or invalid, use current date
-                transaction.setCreatedAt(new Date());
-            }
-        } catch (Exception e) {
-            Log.w(TAG, "Error parsing created_at date, using current date", e);
-            transaction.setCreatedAt(new Date());
-        }
-        
-        return transaction;
+        return TransactionJsonParser.parseTransaction(transactionJson);
     }
 
     // Create dummy transactions for demo
@@ -322,7 +235,7 @@ public class TransactionService {
         tx1.setId("tx_001");
         tx1.setFromAccountId("acc_001");
         tx1.setToAccountNumber("9876543210123456");
-        tx1.setAmount(new BigDecimal("1500000"));
+        tx1.setAmount(Money.vnd(1_500_000));
         tx1.setTransactionType(Transaction.TYPE_TRANSFER);
         tx1.setStatus(Transaction.STATUS_COMPLETED);
         tx1.setDescription("Chuyển tiền đến Nguyễn Văn B");
@@ -334,7 +247,7 @@ public class TransactionService {
         Transaction tx2 = new Transaction();
         tx2.setId("tx_002");
         tx2.setFromAccountId("acc_001");
-        tx2.setAmount(new BigDecimal("850000"));
+        tx2.setAmount(Money.vnd(850_000));
         tx2.setTransactionType(Transaction.TYPE_PAYMENT);
         tx2.setStatus(Transaction.STATUS_COMPLETED);
         tx2.setDescription("Thanh toán hóa đơn điện EVN");
@@ -351,7 +264,7 @@ public class TransactionService {
         tx3.setId("tx_003");
         tx3.setToAccountId("acc_001");
         tx3.setFromAccountNumber("VCB****1234");
-        tx3.setAmount(new BigDecimal("5000000"));
+        tx3.setAmount(Money.vnd(5_000_000));
         tx3.setTransactionType(Transaction.TYPE_DEPOSIT);
         tx3.setStatus(Transaction.STATUS_COMPLETED);
         tx3.setDescription("Nạp tiền từ ngân hàng VCB");
@@ -365,7 +278,7 @@ public class TransactionService {
         Transaction tx4 = new Transaction();
         tx4.setId("tx_004");
         tx4.setFromAccountId("acc_001");
-        tx4.setAmount(new BigDecimal("200000"));
+        tx4.setAmount(Money.vnd(200_000));
         tx4.setTransactionType(Transaction.TYPE_TOPUP);
         tx4.setStatus(Transaction.STATUS_COMPLETED);
         tx4.setDescription("Nạp tiền điện thoại Viettel");
@@ -382,7 +295,7 @@ public class TransactionService {
         tx5.setId("tx_005");
         tx5.setFromAccountId("acc_001");
         tx5.setToAccountNumber("5555666777888999");
-        tx5.setAmount(new BigDecimal("3200000"));
+        tx5.setAmount(Money.vnd(3_200_000));
         tx5.setTransactionType(Transaction.TYPE_TRANSFER);
         tx5.setStatus(Transaction.STATUS_COMPLETED);
         tx5.setDescription("Chuyển tiền đến Trần Thị C");
@@ -398,7 +311,7 @@ public class TransactionService {
         tx6.setId("tx_006");
         tx6.setToAccountId("acc_001");
         tx6.setFromAccountNumber("5555666777999888");
-        tx6.setAmount(new BigDecimal("800000"));
+        tx6.setAmount(Money.vnd(800_000));
         tx6.setTransactionType(Transaction.TYPE_TRANSFER);
         tx6.setStatus(Transaction.STATUS_COMPLETED);
         tx6.setDescription("Nhận tiền từ Lê Văn D");
@@ -426,52 +339,18 @@ public class TransactionService {
         return cleanAccountNumber.matches("\\d{10,16}"); // 10-16 digits
     }
 
-    // Calculate transaction fee (matches backend logic)
-    public BigDecimal calculateFee(BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal fee = BigDecimal.ZERO;
-        BigDecimal oneHundredThousand = new BigDecimal("100000");
-        BigDecimal oneMillion = new BigDecimal("1000000");
-        BigDecimal tenMillion = new BigDecimal("10000000");
-        
-        if (amount.compareTo(oneHundredThousand) <= 0) {
-            // <= 100K VND: Free
-            fee = BigDecimal.ZERO;
-        } else if (amount.compareTo(oneMillion) <= 0) {
-            // <= 1M VND: 5,000 VND
-            fee = new BigDecimal("5000");
-        } else if (amount.compareTo(tenMillion) <= 0) {
-            // <= 10M VND: 10,000 VND
-            fee = new BigDecimal("10000");
-        } else {
-            // > 10M VND: 20,000 VND
-            fee = new BigDecimal("20000");
-        }
-        
-        return fee;
+    // Transfer fee from the backend's current fee schedule
+    public Money calculateFee(Money amount) {
+        return feeSchedules.current().transferFee(amount);
+    }
+
+    public Money getMinTransferAmount() {
+        return feeSchedules.current().getMinTransferAmount();
     }
 
     // Validate transfer amount (including fee)
-    public boolean isValidTransferAmount(BigDecimal amount, BigDecimal availableBalance) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            return false;
-        }
-        
-        // Minimum transfer amount: 10,000 VND
-        BigDecimal minAmount = new BigDecimal("10000");
-        if (amount.compareTo(minAmount) < 0) {
-            return false;
-        }
-        
-        // Calculate fee and total amount (matches backend logic)
-        BigDecimal fee = calculateFee(amount);
-        BigDecimal totalAmount = amount.add(fee);
-        
-        // Check if sufficient balance (must cover amount + fee)
-        return availableBalance != null && availableBalance.compareTo(totalAmount) >= 0;
+    public boolean isValidTransferAmount(Money amount, Money availableBalance) {
+        return feeSchedules.current().isValidTransferAmount(amount, availableBalance);
     }
 
     // Get error message - prioritize backend message if available
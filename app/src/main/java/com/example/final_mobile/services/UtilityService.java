@@ -2,29 +2,32 @@ package com.example.final_mobile.services;
 
 import android.content.Context;
 
-import org.json.JSONArray;
+import com.example.final_mobile.core.Biller;
+import com.example.final_mobile.core.Money;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class UtilityService {
     private ApiService apiService;
     private SessionManager sessionManager;
+    private FeeScheduleStore feeSchedules;
     private Context context;
 
     public UtilityService(Context context) {
         this.context = context;
         this.apiService = ApiService.getInstance(context);
         this.sessionManager = SessionManager.getInstance(context);
+        this.feeSchedules = FeeScheduleStore.getInstance(context);
     }
 
-    public interface UtilityCallback {
-        void onInitiateSuccess(String transactionId, String otp, UtilityPayment payment);
-        void onVerifySuccess(String message);
-        void onError(String error);
+    // Fee the backend will charge for this service type, from the current fee schedule
+    public Money calculateFee(String serviceType, Money amount) {
+        return feeSchedules.current().utilityFee(serviceType, amount);
     }
 
     public interface ProviderCallback {
@@ -32,435 +35,34 @@ public class UtilityService {
         void onError(String error);
     }
 
-    // Pay electricity bill
-    public void payElectricityBill(String accountId, String customerNumber, BigDecimal amount, 
-                                   String customerName, String period, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("customerNumber", customerNumber);
-            requestBody.put("amount", amount.doubleValue());
-            if (customerName != null) requestBody.put("customerName", customerName);
-            if (period != null) requestBody.put("period", period);
-
-            apiService.post("utilities/pay-electricity", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Payment initiation failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Pay water bill
-    public void payWaterBill(String accountId, String customerNumber, BigDecimal amount,
-                            String customerName, String period, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("customerNumber", customerNumber);
-            requestBody.put("amount", amount.doubleValue());
-            if (customerName != null) requestBody.put("customerName", customerName);
-            if (period != null) requestBody.put("period", period);
-
-            apiService.post("utilities/pay-water", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Payment initiation failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Pay internet bill
-    public void payInternetBill(String accountId, String customerNumber, BigDecimal amount,
-                               String provider, String customerName, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("customerNumber", customerNumber);
-            requestBody.put("amount", amount.doubleValue());
-            if (provider != null) requestBody.put("provider", provider);
-            if (customerName != null) requestBody.put("customerName", customerName);
-
-            apiService.post("utilities/pay-internet", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Payment initiation failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Mobile topup
-    public void mobileTopup(String accountId, String phoneNumber, BigDecimal amount,
-                           String provider, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("phoneNumber", phoneNumber);
-            requestBody.put("amount", amount.doubleValue());
-            if (provider != null) requestBody.put("provider", provider);
-
-            apiService.post("utilities/mobile-topup", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Payment initiation failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
+    /**
+     * Start paying {@code biller} through the shared payment pipeline. {@code details} may only
+     * name the biller's optional fields; see {@link Biller#details}.
+     */
+    public PaymentPipeline.Payment pay(Biller biller, String accountId, String reference, BigDecimal amount,
+                                       Map<String, ?> details, PaymentPipeline.Listener listener) {
+        return PaymentPipeline.getInstance(context).start(biller, accountId, reference, amount, details, listener);
     }
 
-    // Book flight
-    public void bookFlight(String accountId, String flightNumber, BigDecimal amount, String airline,
-                          String departureDate, String arrivalDate, String passengerName, String route,
-                          UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("flightNumber", flightNumber);
-            requestBody.put("amount", amount.doubleValue());
-            if (airline != null) requestBody.put("airline", airline);
-            if (departureDate != null) requestBody.put("departureDate", departureDate);
-            if (arrivalDate != null) requestBody.put("arrivalDate", arrivalDate);
-            if (passengerName != null) requestBody.put("passengerName", passengerName);
-            if (route != null) requestBody.put("route", route);
-
-            apiService.post("utilities/book-flight", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Flight booking failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Buy movie ticket
-    public void buyMovieTicket(String accountId, String movieName, BigDecimal amount, String cinema,
-                               String showTime, String seatNumber, Integer quantity, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("movieName", movieName);
-            requestBody.put("amount", amount.doubleValue());
-            if (cinema != null) requestBody.put("cinema", cinema);
-            if (showTime != null) requestBody.put("showTime", showTime);
-            if (seatNumber != null) requestBody.put("seatNumber", seatNumber);
-            if (quantity != null) requestBody.put("quantity", quantity);
-
-            apiService.post("utilities/buy-movie-ticket", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Movie ticket purchase failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Book hotel
-    public void bookHotel(String accountId, String hotelName, BigDecimal amount, String checkInDate,
-                         String checkOutDate, String guestName, String roomType, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("hotelName", hotelName);
-            requestBody.put("amount", amount.doubleValue());
-            if (checkInDate != null) requestBody.put("checkInDate", checkInDate);
-            if (checkOutDate != null) requestBody.put("checkOutDate", checkOutDate);
-            if (guestName != null) requestBody.put("guestName", guestName);
-            if (roomType != null) requestBody.put("roomType", roomType);
-
-            apiService.post("utilities/book-hotel", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "Hotel booking failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // E-commerce payment
-    public void payEcommerce(String accountId, String orderId, BigDecimal amount, String platform,
-                             String productName, String merchantName, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            if (accountId != null && !accountId.isEmpty()) {
-                requestBody.put("accountId", accountId);
-            }
-            requestBody.put("orderId", orderId);
-            requestBody.put("amount", amount.doubleValue());
-            if (platform != null) requestBody.put("platform", platform);
-            if (productName != null) requestBody.put("productName", productName);
-            if (merchantName != null) requestBody.put("merchantName", merchantName);
-
-            apiService.post("utilities/pay-ecommerce", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            JSONObject data = response.getJSONObject("data");
-                            String transactionId = data.getString("transaction_id");
-                            String otp = data.optString("developmentOTP", data.optString("development_otp", ""));
-                            
-                            UtilityPayment payment = parseUtilityPayment(data);
-                            callback.onInitiateSuccess(transactionId, otp, payment);
-                        } else {
-                            callback.onError(response.optString("message", "E-commerce payment failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Verify utility OTP
-    public void verifyUtilityOTP(String transactionId, String otpCode, UtilityCallback callback) {
-        try {
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("transactionId", transactionId);
-            requestBody.put("otpCode", otpCode);
-
-            apiService.post("utilities/verify-otp", requestBody, new ApiService.ApiCallback() {
-                @Override
-                public void onSuccess(JSONObject response) {
-                    try {
-                        if (response.getBoolean("success")) {
-                            String message = response.optString("message", "Payment completed successfully");
-                            callback.onVerifySuccess(message);
-                        } else {
-                            callback.onError(response.optString("message", "OTP verification failed"));
-                        }
-                    } catch (JSONException e) {
-                        callback.onError("Error parsing response: " + e.getMessage());
-                    }
-                }
-
-                @Override
-                public void onError(String error, int statusCode) {
-                    callback.onError(error);
-                }
-            });
-        } catch (JSONException e) {
-            callback.onError("Error: " + e.getMessage());
-        }
-    }
-
-    // Get service providers
+    // Get service providers, from the cached catalog while it is fresh
     public void getServiceProviders(String serviceType, ProviderCallback callback) {
-        String endpoint = "utilities/providers";
-        if (serviceType != null && !serviceType.isEmpty()) {
-            endpoint += "?serviceType=" + serviceType;
-        }
-
-        apiService.get(endpoint, new ApiService.ApiCallback() {
-            @Override
-            public void onSuccess(JSONObject response) {
-                try {
-                    if (response.getBoolean("success")) {
-                        JSONArray providersArray = response.optJSONArray("data");
-                        if (providersArray != null) {
-                            List<ServiceProvider> providers = new ArrayList<>();
-                            for (int i = 0; i < providersArray.length(); i++) {
-                                JSONObject providerJson = providersArray.getJSONObject(i);
-                                ServiceProvider provider = new ServiceProvider();
-                                provider.setCode(providerJson.getString("code"));
-                                provider.setName(providerJson.getString("name"));
-                                provider.setLogo(providerJson.optString("logo", ""));
-                                providers.add(provider);
-                            }
-                            callback.onSuccess(providers);
-                        } else {
-                            callback.onError("No providers data");
-                        }
-                    } else {
-                        callback.onError(response.optString("message", "Failed to get providers"));
-                    }
-                } catch (JSONException e) {
-                    callback.onError("Error parsing response: " + e.getMessage());
-                }
-            }
-
-            @Override
-            public void onError(String error, int statusCode) {
-                callback.onError(error);
-            }
-        });
+        BillerDirectory.getInstance(context).getProviders(serviceType, callback);
     }
 
-    private UtilityPayment parseUtilityPayment(JSONObject data) throws JSONException {
+    static UtilityPayment parseUtilityPayment(JSONObject data) throws JSONException {
         UtilityPayment payment = new UtilityPayment();
         payment.setTransactionId(data.optString("transaction_id", ""));
         payment.setServiceType(data.optString("service_type", ""));
         payment.setProvider(data.optString("provider", ""));
         payment.setServiceNumber(data.optString("service_number", ""));
-        payment.setAmount(BigDecimal.valueOf(data.optDouble("amount", 0)));
-        payment.setFee(BigDecimal.valueOf(data.optDouble("fee", 0)));
-        payment.setTotalAmount(BigDecimal.valueOf(data.optDouble("total_amount", 0)));
-        payment.setCurrency(data.optString("currency", "VND"));
+        String currency = data.optString("currency", Money.VND);
+        payment.setCurrency(currency);
+        Money zero = Money.zero(currency);
+        payment.setAmount(Money.fromJson(data, "amount", currency, zero));
+        payment.setFee(Money.fromJson(data, "fee", currency, zero));
+        payment.setTotalAmount(Money.fromJson(data, "total_amount", currency, zero));
         payment.setDescription(data.optString("description", ""));
+        payment.setReferenceNumber(data.optString("reference_number", ""));
         return payment;
     }
 
@@ -470,11 +72,12 @@ public class UtilityService {
         private String serviceType;
         private String provider;
         private String serviceNumber;
-        private BigDecimal amount;
-        private BigDecimal fee;
-        private BigDecimal totalAmount;
+        private Money amount;
+        private Money fee;
+        private Money totalAmount;
         private String currency;
         private String description;
+        private String referenceNumber;
 
         public String getTransactionId() { return transactionId; }
         public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
@@ -488,14 +91,14 @@ public class UtilityService {
         public String getServiceNumber() { return serviceNumber; }
         public void setServiceNumber(String serviceNumber) { this.serviceNumber = serviceNumber; }
 
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public Money getAmount() { return amount; }
+        public void setAmount(Money amount) { this.amount = amount; }
 
-        public BigDecimal getFee() { return fee; }
-        public void setFee(BigDecimal fee) { this.fee = fee; }
+        public Money getFee() { return fee; }
+        public void setFee(Money fee) { this.fee = fee; }
 
-        public BigDecimal getTotalAmount() { return totalAmount; }
-        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+        public Money getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
 
         public String getCurrency() { return currency; }
         public void setCurrency(String currency) { this.currency = currency; }
@@ -503,12 +106,20 @@ public class UtilityService {
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
 
+        // Set once the payment has been verified
+        public String getReferenceNumber() { return referenceNumber; }
+        public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+
         public String getFormattedAmount() {
-            return String.format("%,.0f %s", amount.doubleValue(), currency);
+            return amount.format();
+        }
+
+        public String getFormattedFee() {
+            return fee.format();
         }
 
         public String getFormattedTotalAmount() {
-            return String.format("%,.0f %s", totalAmount.doubleValue(), currency);
+            return totalAmount.format();
         }
     }
 
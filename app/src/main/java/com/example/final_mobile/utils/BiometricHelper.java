@@ -9,8 +9,13 @@ import androidx.biometric.BiometricPrompt;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.FragmentActivity;
 
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.Money;
+
 import java.util.concurrent.Executor;
 
+import javax.crypto.Cipher;
+
 public class BiometricHelper {
     private static final String TAG = "BiometricHelper";
 
@@ -20,6 +25,13 @@ public class BiometricHelper {
         void onCancel();
     }
 
+    public interface CryptoCallback {
+        // Cipher unlocked by the authentication, ready to use
+        void onSuccess(Cipher cipher);
+        void onError(String error);
+        void onCancel();
+    }
+
     /**
      * Check if biometric authentication is available
      */
@@ -34,6 +46,19 @@ public class BiometricHelper {
         return canAuthenticate == BiometricManager.BIOMETRIC_SUCCESS;
     }
 
+    /**
+     * Check if a strong (Class 3) biometric is available; required to use keystore keys
+     */
+    public static boolean isStrongBiometricAvailable(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return false;
+        }
+
+        BiometricManager biometricManager = BiometricManager.from(context);
+        return biometricManager.canAuthenticate(BiometricManager.Authenticators.BIOMETRIC_STRONG)
+                == BiometricManager.BIOMETRIC_SUCCESS;
+    }
+
     /**
      * Show biometric authentication prompt
      */
@@ -83,12 +108,66 @@ public class BiometricHelper {
         biometricPrompt.authenticate(promptInfo);
     }
 
+    /**
+     * Show biometric prompt that authorizes a keystore-bound cipher
+     */
+    public static void showCryptoPrompt(FragmentActivity activity, String title, String subtitle, Cipher cipher, CryptoCallback callback) {
+        if (!isStrongBiometricAvailable(activity)) {
+            callback.onError("Biometric authentication không khả dụng trên thiết bị này");
+            return;
+        }
+
+        Executor executor = ContextCompat.getMainExecutor(activity);
+        BiometricPrompt biometricPrompt = new BiometricPrompt(activity, executor, new BiometricPrompt.AuthenticationCallback() {
+            @Override
+            public void onAuthenticationSucceeded(BiometricPrompt.AuthenticationResult result) {
+                super.onAuthenticationSucceeded(result);
+                Log.d(TAG, "Biometric crypto authentication succeeded");
+                BiometricPrompt.CryptoObject cryptoObject = result.getCryptoObject();
+                if (cryptoObject == null || cryptoObject.getCipher() == null) {
+                    callback.onError("Xác thực sinh trắc học thất bại");
+                    return;
+                }
+                callback.onSuccess(cryptoObject.getCipher());
+            }
+
+            @Override
+            public void onAuthenticationError(int errorCode, CharSequence errString) {
+                super.onAuthenticationError(errorCode, errString);
+                Log.e(TAG, "Biometric crypto authentication error: " + errString);
+
+                if (errorCode == BiometricPrompt.ERROR_USER_CANCELED ||
+                    errorCode == BiometricPrompt.ERROR_NEGATIVE_BUTTON) {
+                    callback.onCancel();
+                } else {
+                    callback.onError("Xác thực sinh trắc học thất bại: " + errString);
+                }
+            }
+
+            @Override
+            public void onAuthenticationFailed() {
+                super.onAuthenticationFailed();
+                // The prompt stays open and lets the user retry
+                Log.w(TAG, "Biometric crypto authentication failed");
+            }
+        });
+
+        BiometricPrompt.PromptInfo promptInfo = new BiometricPrompt.PromptInfo.Builder()
+                .setTitle(title)
+                .setSubtitle(subtitle)
+                .setNegativeButtonText("Dùng mật khẩu")
+                .setAllowedAuthenticators(BiometricManager.Authenticators.BIOMETRIC_STRONG)
+                .build();
+
+        biometricPrompt.authenticate(promptInfo, new BiometricPrompt.CryptoObject(cipher));
+    }
+
     /**
      * Show biometric prompt for high-value transaction
      */
-    public static void showTransactionBiometricPrompt(FragmentActivity activity, double amount, BiometricCallback callback) {
+    public static void showTransactionBiometricPrompt(FragmentActivity activity, Money amount, BiometricCallback callback) {
         String title = "Xác thực giao dịch";
-        String subtitle = String.format("Giao dịch trị giá %,.0f VND yêu cầu xác thực sinh trắc học", amount);
+        String subtitle = "Giao dịch trị giá " + CurrencyFormatter.format(amount) + " yêu cầu xác thực sinh trắc học";
         showBiometricPrompt(activity, title, subtitle, callback);
     }
 }
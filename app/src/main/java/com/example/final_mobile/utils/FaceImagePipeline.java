@@ -0,0 +1,276 @@
+package com.example.final_mobile.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PointF;
+import android.media.FaceDetector;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Turns a camera JPEG into an upload-ready JPEG without full-resolution allocations.
+ *
+ * The source is decoded straight at the target size (inSampleSize), drawn rotated into
+ * a bitmap that is kept between retakes, checked by {@link FaceQualityAnalyzer} on a small
+ * luminance copy, and only then compressed into a growable buffer that is also kept between
+ * retakes. Nothing here touches the UI, so call it off the main thread.
+ */
+public class FaceImagePipeline {
+    private static final String TAG = "FaceImagePipeline";
+
+    // Longest edge of the uploaded image. Enough for face matching, far below the 5MB server limit.
+    public static final int TARGET_MAX_EDGE = 1280;
+    public static final int JPEG_QUALITY = 85;
+
+    private final int targetMaxEdge;
+    private final BitmapFactory.Options decodeOptions = new BitmapFactory.Options();
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Matrix matrix = new Matrix();
+    private final EncodeBuffer encodeBuffer = new EncodeBuffer(256 * 1024);
+
+    private Bitmap decodeBitmap;  // downsampled, unrotated decode target (reused via inBitmap)
+    private Bitmap outputBitmap;  // rotated result (reused when dimensions match)
+
+    // Quality gate state, all reused between retakes
+    private final FaceQualityAnalyzer qualityAnalyzer = new FaceQualityAnalyzer();
+    private final FaceDetector.Face[] faces = new FaceDetector.Face[1];
+    private final PointF faceMidPoint = new PointF();
+    private FaceDetector faceDetector;
+    private Bitmap analysisBitmap;  // RGB_565, as required by FaceDetector
+    private int[] analysisPixels;
+    private byte[] analysisLuma;
+
+    public FaceImagePipeline() {
+        this(TARGET_MAX_EDGE);
+    }
+
+    public FaceImagePipeline(int targetMaxEdge) {
+        this.targetMaxEdge = targetMaxEdge;
+    }
+
+    /**
+     * Result of one capture. The bitmap and the JPEG bytes belong to the pipeline and are
+     * overwritten by the next call to {@link #process}. When the quality gate rejects the
+     * capture, nothing is encoded and {@code jpeg} is null.
+     */
+    public static class Result {
+        public final Bitmap bitmap;
+        public final byte[] jpeg;
+        public final int jpegLength;
+        public final long processingMs;
+        public final FaceQualityAnalyzer.Report quality;
+
+        Result(Bitmap bitmap, byte[] jpeg, int jpegLength, long processingMs, FaceQualityAnalyzer.Report quality) {
+            this.bitmap = bitmap;
+            this.jpeg = jpeg;
+            this.jpegLength = jpegLength;
+            this.processingMs = processingMs;
+            this.quality = quality;
+        }
+
+        public boolean isAcceptable() {
+            return quality == null || quality.isAcceptable();
+        }
+    }
+
+    /**
+     * Decode, rotate and re-encode a camera JPEG. Returns null if the data cannot be decoded.
+     */
+    public synchronized Result process(byte[] data, int rotationDegrees) {
+        long start = SystemClock.elapsedRealtime();
+
+        // 1. Read bounds only and pick the power-of-two sample size for the target edge
+        decodeOptions.inJustDecodeBounds = true;
+        decodeOptions.inBitmap = null;
+        BitmapFactory.decodeByteArray(data, 0, data.length, decodeOptions);
+        if (decodeOptions.outWidth <= 0 || decodeOptions.outHeight <= 0) {
+            Log.e(TAG, "Unable to read JPEG bounds");
+            return null;
+        }
+        int sampleSize = calculateInSampleSize(decodeOptions.outWidth, decodeOptions.outHeight, targetMaxEdge);
+
+        // 2. Decode at reduced size, reusing the previous decode bitmap when possible
+        decodeOptions.inJustDecodeBounds = false;
+        decodeOptions.inSampleSize = sampleSize;
+        decodeOptions.inMutable = true;
+        decodeOptions.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        decodeOptions.inBitmap = canReuse(decodeBitmap, decodeOptions.outWidth, decodeOptions.outHeight, sampleSize)
+                ? decodeBitmap : null;
+
+        Bitmap decoded;
+        try {
+            decoded = BitmapFactory.decodeByteArray(data, 0, data.length, decodeOptions);
+        } catch (IllegalArgumentException e) {
+            // inBitmap could not be reused for this image - decode into a fresh bitmap
+            Log.w(TAG, "Decode bitmap reuse failed, allocating a new one", e);
+            decodeOptions.inBitmap = null;
+            decoded = BitmapFactory.decodeByteArray(data, 0, data.length, decodeOptions);
+        }
+        if (decoded == null) {
+            Log.e(TAG, "Failed to decode JPEG");
+            return null;
+        }
+        if (decodeBitmap != null && decodeBitmap != decoded && !decodeBitmap.isRecycled()) {
+            decodeBitmap.recycle();
+        }
+        decodeBitmap = decoded;
+
+        // 3. Rotate by drawing into a kept output bitmap instead of Bitmap.createBitmap
+        Bitmap rotated = rotateInto(decoded, rotationDegrees);
+
+        // 4. Reject obviously bad shots before spending time on encoding and upload
+        long analysisStart = SystemClock.elapsedRealtime();
+        FaceQualityAnalyzer.Report quality = analyzeQuality(rotated);
+        Log.d(TAG, "Quality check in " + (SystemClock.elapsedRealtime() - analysisStart) + " ms: " + quality);
+        if (!quality.isAcceptable()) {
+            return new Result(rotated, null, 0, SystemClock.elapsedRealtime() - start, quality);
+        }
+
+        // 5. Encode into the reusable buffer
+        encodeBuffer.reset();
+        rotated.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, encodeBuffer);
+
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.d(TAG, "Processed " + decodeOptions.outWidth + "x" + decodeOptions.outHeight
+                + " (sample " + sampleSize + ") -> " + rotated.getWidth() + "x" + rotated.getHeight()
+                + ", " + encodeBuffer.size() + " bytes in " + elapsed + " ms");
+        return new Result(rotated, encodeBuffer.buffer(), encodeBuffer.size(), elapsed, quality);
+    }
+
+    /**
+     * Release the kept bitmaps, e.g. when the capture screen is destroyed.
+     */
+    public synchronized void release() {
+        if (outputBitmap != null && outputBitmap != decodeBitmap && !outputBitmap.isRecycled()) {
+            outputBitmap.recycle();
+        }
+        if (decodeBitmap != null && !decodeBitmap.isRecycled()) {
+            decodeBitmap.recycle();
+        }
+        if (analysisBitmap != null && !analysisBitmap.isRecycled()) {
+            analysisBitmap.recycle();
+        }
+        outputBitmap = null;
+        decodeBitmap = null;
+        analysisBitmap = null;
+        faceDetector = null;
+    }
+
+    // Downscale to ANALYSIS_MAX_EDGE, find the face and run the luminance checks
+    private FaceQualityAnalyzer.Report analyzeQuality(Bitmap image) {
+        float scale = Math.min(1f, (float) FaceQualityAnalyzer.ANALYSIS_MAX_EDGE
+                / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(4, Math.round(image.getWidth() * scale)) & ~1; // FaceDetector needs an even width
+        int height = Math.max(4, Math.round(image.getHeight() * scale));
+
+        if (analysisBitmap == null || analysisBitmap.isRecycled()
+                || analysisBitmap.getWidth() != width || analysisBitmap.getHeight() != height) {
+            if (analysisBitmap != null && !analysisBitmap.isRecycled()) {
+                analysisBitmap.recycle();
+            }
+            analysisBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+            analysisPixels = new int[width * height];
+            analysisLuma = new byte[width * height];
+            faceDetector = new FaceDetector(width, height, faces.length);
+        }
+
+        matrix.reset();
+        matrix.postScale((float) width / image.getWidth(), (float) height / image.getHeight());
+        new Canvas(analysisBitmap).drawBitmap(image, matrix, paint);
+
+        analysisBitmap.getPixels(analysisPixels, 0, width, 0, 0, width, height);
+        FaceQualityAnalyzer.toLuminance(analysisPixels, width * height, analysisLuma);
+
+        FaceQualityAnalyzer.FaceRegion face = null;
+        faces[0] = null;
+        if (faceDetector.findFaces(analysisBitmap, faces) > 0 && faces[0] != null) {
+            // FaceDetector reports eye midpoint and eye distance; a face is roughly 2 x 2.5 eye distances
+            faces[0].getMidPoint(faceMidPoint);
+            float eyes = faces[0].eyesDistance();
+            face = new FaceQualityAnalyzer.FaceRegion(
+                    Math.round(faceMidPoint.x - eyes),
+                    Math.round(faceMidPoint.y - eyes),
+                    Math.round(faceMidPoint.x + eyes),
+                    Math.round(faceMidPoint.y + eyes * 1.5f));
+        }
+
+        return qualityAnalyzer.analyze(analysisLuma, width, height, face);
+    }
+
+    private Bitmap rotateInto(Bitmap source, int rotationDegrees) {
+        int degrees = ((rotationDegrees % 360) + 360) % 360;
+        if (degrees == 0) {
+            return source;
+        }
+
+        boolean swap = degrees == 90 || degrees == 270;
+        int width = swap ? source.getHeight() : source.getWidth();
+        int height = swap ? source.getWidth() : source.getHeight();
+
+        if (outputBitmap == null || outputBitmap.isRecycled()
+                || outputBitmap.getWidth() != width || outputBitmap.getHeight() != height) {
+            if (outputBitmap != null && !outputBitmap.isRecycled()) {
+                outputBitmap.recycle();
+            }
+            outputBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+
+        matrix.reset();
+        matrix.postRotate(degrees);
+        switch (degrees) {
+            case 90:
+                matrix.postTranslate(source.getHeight(), 0);
+                break;
+            case 180:
+                matrix.postTranslate(source.getWidth(), source.getHeight());
+                break;
+            case 270:
+                matrix.postTranslate(0, source.getWidth());
+                break;
+            default:
+                break;
+        }
+
+        Canvas canvas = new Canvas(outputBitmap);
+        canvas.drawBitmap(source, matrix, paint);
+        return outputBitmap;
+    }
+
+    // inBitmap reuse with inSampleSize requires the decoded byte count to fit (API 19+)
+    private static boolean canReuse(Bitmap candidate, int srcWidth, int srcHeight, int sampleSize) {
+        if (candidate == null || candidate.isRecycled() || !candidate.isMutable()) {
+            return false;
+        }
+        int width = (srcWidth + sampleSize - 1) / sampleSize;
+        int height = (srcHeight + sampleSize - 1) / sampleSize;
+        return width * height * 4 <= candidate.getAllocationByteCount();
+    }
+
+    /**
+     * Largest power-of-two sample size that keeps the longest edge at or above the target.
+     */
+    public static int calculateInSampleSize(int width, int height, int targetMaxEdge) {
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= targetMaxEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // ByteArrayOutputStream that exposes its backing array so the JPEG is never copied
+    private static class EncodeBuffer extends ByteArrayOutputStream {
+        EncodeBuffer(int initialSize) {
+            super(initialSize);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
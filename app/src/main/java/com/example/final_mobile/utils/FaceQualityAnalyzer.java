@@ -0,0 +1,281 @@
+package com.example.final_mobile.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fast local quality gate for eKYC face captures.
+ *
+ * Works on a small 8-bit luminance buffer (a few hundred pixels on the long edge) so it runs in
+ * a few milliseconds and has no Android dependencies; callers downscale the capture and find the
+ * face first. Checks blur (variance of the Laplacian), exposure (mean and clipped pixels) and the
+ * size/position of the face region.
+ */
+public class FaceQualityAnalyzer {
+
+    // Long edge of the buffer callers are expected to pass in
+    public static final int ANALYSIS_MAX_EDGE = 256;
+
+    public enum Issue {
+        TOO_BLURRY("Ảnh bị mờ. Vui lòng giữ máy ổn định và chụp lại."),
+        TOO_DARK("Ảnh quá tối. Vui lòng chụp ở nơi đủ sáng."),
+        TOO_BRIGHT("Ảnh quá sáng. Vui lòng tránh nguồn sáng chiếu trực tiếp."),
+        NO_FACE("Không phát hiện khuôn mặt. Vui lòng nhìn thẳng vào camera."),
+        FACE_TOO_SMALL("Khuôn mặt quá nhỏ. Vui lòng đưa camera lại gần hơn."),
+        FACE_NOT_CENTERED("Khuôn mặt chưa nằm giữa khung hình.");
+
+        private final String message;
+
+        Issue(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Face bounds in the coordinates of the analysed buffer.
+     */
+    public static class FaceRegion {
+        public final int left;
+        public final int top;
+        public final int right;
+        public final int bottom;
+
+        public FaceRegion(int left, int top, int right, int bottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        public int width() {
+            return right - left;
+        }
+
+        public int height() {
+            return bottom - top;
+        }
+    }
+
+    public static class Report {
+        private final double sharpness;
+        private final double meanLuma;
+        private final double darkFraction;
+        private final double brightFraction;
+        private final double faceAreaRatio;
+        private final double faceCenterOffset;
+        private final List<Issue> issues;
+
+        Report(double sharpness, double meanLuma, double darkFraction, double brightFraction,
+               double faceAreaRatio, double faceCenterOffset, List<Issue> issues) {
+            this.sharpness = sharpness;
+            this.meanLuma = meanLuma;
+            this.darkFraction = darkFraction;
+            this.brightFraction = brightFraction;
+            this.faceAreaRatio = faceAreaRatio;
+            this.faceCenterOffset = faceCenterOffset;
+            this.issues = Collections.unmodifiableList(issues);
+        }
+
+        public boolean isAcceptable() {
+            return issues.isEmpty();
+        }
+
+        // First (most important) issue, or null when the image is acceptable
+        public Issue getPrimaryIssue() {
+            return issues.isEmpty() ? null : issues.get(0);
+        }
+
+        public List<Issue> getIssues() {
+            return issues;
+        }
+
+        public double getSharpness() {
+            return sharpness;
+        }
+
+        public double getMeanLuma() {
+            return meanLuma;
+        }
+
+        public double getDarkFraction() {
+            return darkFraction;
+        }
+
+        public double getBrightFraction() {
+            return brightFraction;
+        }
+
+        public double getFaceAreaRatio() {
+            return faceAreaRatio;
+        }
+
+        public double getFaceCenterOffset() {
+            return faceCenterOffset;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.US,
+                    "sharpness=%.1f mean=%.1f dark=%.2f bright=%.2f face=%.2f offset=%.2f issues=%s",
+                    sharpness, meanLuma, darkFraction, brightFraction, faceAreaRatio, faceCenterOffset, issues);
+        }
+    }
+
+    // Default thresholds, tuned for a ~256px luminance buffer
+    public static final double DEFAULT_MIN_SHARPNESS = 40.0;
+    public static final double DEFAULT_MIN_MEAN_LUMA = 60.0;
+    public static final double DEFAULT_MAX_MEAN_LUMA = 200.0;
+    public static final double DEFAULT_MAX_CLIPPED_FRACTION = 0.35;
+    public static final double DEFAULT_MIN_FACE_AREA_RATIO = 0.06;
+    public static final double DEFAULT_MAX_CENTER_OFFSET = 0.25;
+
+    private static final int DARK_LEVEL = 16;
+    private static final int BRIGHT_LEVEL = 240;
+
+    private final double minSharpness;
+    private final double minMeanLuma;
+    private final double maxMeanLuma;
+    private final double maxClippedFraction;
+    private final double minFaceAreaRatio;
+    private final double maxCenterOffset;
+    private final boolean requireFace;
+
+    public FaceQualityAnalyzer() {
+        this(DEFAULT_MIN_SHARPNESS, DEFAULT_MIN_MEAN_LUMA, DEFAULT_MAX_MEAN_LUMA, DEFAULT_MAX_CLIPPED_FRACTION,
+                DEFAULT_MIN_FACE_AREA_RATIO, DEFAULT_MAX_CENTER_OFFSET, true);
+    }
+
+    public FaceQualityAnalyzer(double minSharpness, double minMeanLuma, double maxMeanLuma, double maxClippedFraction,
+                               double minFaceAreaRatio, double maxCenterOffset, boolean requireFace) {
+        this.minSharpness = minSharpness;
+        this.minMeanLuma = minMeanLuma;
+        this.maxMeanLuma = maxMeanLuma;
+        this.maxClippedFraction = maxClippedFraction;
+        this.minFaceAreaRatio = minFaceAreaRatio;
+        this.maxCenterOffset = maxCenterOffset;
+        this.requireFace = requireFace;
+    }
+
+    /**
+     * Analyse a row-major 8-bit luminance buffer. {@code face} may be null when no face was found;
+     * sharpness is then measured over the whole frame instead of the face region.
+     */
+    public Report analyze(byte[] luma, int width, int height, FaceRegion face) {
+        if (luma == null || width < 3 || height < 3 || luma.length < width * height) {
+            throw new IllegalArgumentException("Invalid luminance buffer");
+        }
+
+        // Exposure over the whole frame
+        long sum = 0;
+        int dark = 0;
+        int bright = 0;
+        int pixels = width * height;
+        for (int i = 0; i < pixels; i++) {
+            int value = luma[i] & 0xFF;
+            sum += value;
+            if (value <= DARK_LEVEL) {
+                dark++;
+            } else if (value >= BRIGHT_LEVEL) {
+                bright++;
+            }
+        }
+        double mean = (double) sum / pixels;
+        double darkFraction = (double) dark / pixels;
+        double brightFraction = (double) bright / pixels;
+
+        // Sharpness over the face if we have one (background blur is fine)
+        int left = 1;
+        int top = 1;
+        int right = width - 1;
+        int bottom = height - 1;
+        if (face != null) {
+            left = clamp(face.left, 1, width - 2);
+            top = clamp(face.top, 1, height - 2);
+            right = clamp(face.right, left + 1, width - 1);
+            bottom = clamp(face.bottom, top + 1, height - 1);
+        }
+        double sharpness = laplacianVariance(luma, width, left, top, right, bottom);
+
+        double faceAreaRatio = 0;
+        double centerOffset = 0;
+        if (face != null) {
+            faceAreaRatio = (double) face.width() * face.height() / pixels;
+            double dx = ((face.left + face.right) / 2.0 - width / 2.0) / width;
+            double dy = ((face.top + face.bottom) / 2.0 - height / 2.0) / height;
+            centerOffset = Math.sqrt(dx * dx + dy * dy);
+        }
+
+        // Ordered by what the user should fix first
+        List<Issue> issues = new ArrayList<>();
+        if (mean < minMeanLuma || darkFraction > maxClippedFraction) {
+            issues.add(Issue.TOO_DARK);
+        } else if (mean > maxMeanLuma || brightFraction > maxClippedFraction) {
+            issues.add(Issue.TOO_BRIGHT);
+        }
+        if (face == null) {
+            if (requireFace) {
+                issues.add(Issue.NO_FACE);
+            }
+        } else {
+            if (faceAreaRatio < minFaceAreaRatio) {
+                issues.add(Issue.FACE_TOO_SMALL);
+            }
+            if (centerOffset > maxCenterOffset) {
+                issues.add(Issue.FACE_NOT_CENTERED);
+            }
+        }
+        if (sharpness < minSharpness) {
+            issues.add(Issue.TOO_BLURRY);
+        }
+
+        return new Report(sharpness, mean, darkFraction, brightFraction, faceAreaRatio, centerOffset, issues);
+    }
+
+    /**
+     * Variance of the 4-neighbour Laplacian over [left, right) x [top, bottom). Border pixels are excluded.
+     */
+    static double laplacianVariance(byte[] luma, int width, int left, int top, int right, int bottom) {
+        long sum = 0;
+        long sumSquares = 0;
+        int count = 0;
+        for (int y = top; y < bottom; y++) {
+            int row = y * width;
+            for (int x = left; x < right; x++) {
+                int i = row + x;
+                int laplacian = (luma[i - 1] & 0xFF) + (luma[i + 1] & 0xFF)
+                        + (luma[i - width] & 0xFF) + (luma[i + width] & 0xFF)
+                        - 4 * (luma[i] & 0xFF);
+                sum += laplacian;
+                sumSquares += (long) laplacian * laplacian;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        double mean = (double) sum / count;
+        return (double) sumSquares / count - mean * mean;
+    }
+
+    /**
+     * Convert ARGB pixels (as returned by Bitmap.getPixels) to 8-bit luminance (BT.601 integer weights).
+     */
+    public static void toLuminance(int[] argb, int count, byte[] out) {
+        for (int i = 0; i < count; i++) {
+            int pixel = argb[i];
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            out[i] = (byte) ((77 * r + 150 * g + 29 * b) >> 8);
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.final_mobile.utils;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.ViewParent;
+import android.widget.EditText;
+
+import com.example.final_mobile.core.Money;
+import com.google.android.material.textfield.TextInputLayout;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Shows "Phí: … · Tổng: …" under an amount field while the user types, quoted locally from the
+ * fee schedule so the fee is known before the request is sent.
+ */
+public class FeeQuoteWatcher implements TextWatcher {
+
+    private final TextInputLayout layout;
+    private final UnaryOperator<Money> feeForAmount;
+
+    private FeeQuoteWatcher(TextInputLayout layout, UnaryOperator<Money> feeForAmount) {
+        this.layout = layout;
+        this.feeForAmount = feeForAmount;
+    }
+
+    // Does nothing if the field is not inside a TextInputLayout
+    public static void attach(EditText amountField, UnaryOperator<Money> feeForAmount) {
+        TextInputLayout layout = findLayout(amountField);
+        if (layout == null) {
+            return;
+        }
+        FeeQuoteWatcher watcher = new FeeQuoteWatcher(layout, feeForAmount);
+        amountField.addTextChangedListener(watcher);
+        watcher.afterTextChanged(amountField.getText());
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {
+    }
+
+    @Override
+    public void afterTextChanged(Editable s) {
+        String text = s != null ? s.toString().trim() : "";
+        if (text.isEmpty()) {
+            layout.setHelperText(null);
+            return;
+        }
+        try {
+            Money amount = Money.parse(text, Money.VND);
+            Money fee = feeForAmount.apply(amount);
+            layout.setHelperText("Phí: " + fee.format() + " · Tổng: " + amount.plus(fee).format());
+        } catch (NumberFormatException | ArithmeticException e) {
+            layout.setHelperText(null);
+        }
+    }
+
+    // TextInputEditText sits in a FrameLayout inside the TextInputLayout
+    private static TextInputLayout findLayout(EditText field) {
+        ViewParent parent = field.getParent();
+        while (parent != null) {
+            if (parent instanceof TextInputLayout) {
+                return (TextInputLayout) parent;
+            }
+            parent = parent.getParent();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.final_mobile.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.example.final_mobile.services.ApiService;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads backend images into ImageViews.
+ *
+ * Images are downloaded once into a size-bounded disk cache, decoded at the size of the view
+ * they are shown in (inSampleSize) into a bitmap taken from a small pool, and kept in a memory
+ * LRU sized by bytes. Views asking for the same image at the same size share one request. A view
+ * shows only the last image it asked for, so a recycled RecyclerView row never gets a stale one;
+ * adapters call {@link #cancel} from onViewRecycled so the bitmap can go back to the pool.
+ *
+ * Everything except decoding and downloading happens on the main thread.
+ */
+public class ImageLoader {
+    private static final String TAG = "ImageLoader";
+    private static final String DISK_CACHE_DIR = "images";
+    private static final long DISK_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final int WORKER_THREADS = 2;
+
+    private static ImageLoader instance;
+
+    private final ApiService apiService;
+    private final File diskDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newFixedThreadPool(WORKER_THREADS);
+    private final BitmapPool pool;
+    private final LruCache<String, Bitmap> memory;
+
+    // Main thread only
+    private final Map<String, Request> inFlight = new HashMap<>();
+    private final Map<ImageView, String> boundKeys = new WeakHashMap<>();
+    private final Map<ImageView, Bitmap> boundBitmaps = new WeakHashMap<>();
+    private final Map<Bitmap, Integer> displayCounts = new IdentityHashMap<>();
+    // Evicted from memory while still on screen; pooled once the last view lets go
+    private final Map<Bitmap, Boolean> evictedWhileShown = new IdentityHashMap<>();
+
+    private final class Request implements Runnable {
+        final String key;
+        final String endpoint;
+        final int width;
+        final int height;
+        final List<WeakReference<ImageView>> views = new ArrayList<>();
+        Future<?> future;
+
+        Request(String key, String endpoint, int width, int height) {
+            this.key = key;
+            this.endpoint = endpoint;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public void run() {
+            Bitmap bitmap = null;
+            try {
+                File file = fetch(endpoint);
+                if (file != null) {
+                    bitmap = decode(file, width, height);
+                }
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Loading " + endpoint + " failed: " + e.getMessage());
+            }
+            Bitmap result = bitmap;
+            mainHandler.post(() -> deliver(this, result));
+        }
+    }
+
+    private ImageLoader(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.apiService = ApiService.getInstance(appContext);
+        this.diskDir = new File(appContext.getCacheDir(), DISK_CACHE_DIR);
+
+        // An eighth of the heap for decoded images, and a quarter of that for reusable bitmaps
+        int memoryBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+        this.pool = new BitmapPool(memoryBytes / 4);
+        this.memory = new LruCache<String, Bitmap>(memoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue == newValue) {
+                    return;
+                }
+                if (displayCounts.containsKey(oldValue)) {
+                    evictedWhileShown.put(oldValue, Boolean.TRUE);
+                } else {
+                    pool.put(oldValue);
+                }
+            }
+        };
+    }
+
+    public static synchronized ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Show the image at {@code endpoint} (relative to the API base URL) in {@code view},
+     * with {@code placeholderRes} (0 for none) until it is loaded or if it fails to load.
+     */
+    public void load(String endpoint, ImageView view, int placeholderRes) {
+        int[] size = targetSize(view);
+        String key = endpoint + "@" + size[0] + "x" + size[1];
+        if (key.equals(boundKeys.get(view))) {
+            // Already shown or on its way
+            return;
+        }
+        cancel(view);
+        boundKeys.put(view, key);
+
+        Bitmap cached = memory.get(key);
+        if (cached != null) {
+            bind(view, cached);
+            return;
+        }
+        if (placeholderRes != 0) {
+            view.setImageResource(placeholderRes);
+        }
+
+        Request request = inFlight.get(key);
+        if (request == null) {
+            request = new Request(key, endpoint, size[0], size[1]);
+            inFlight.put(key, request);
+            request.future = executor.submit(request);
+        }
+        request.views.add(new WeakReference<>(view));
+    }
+
+    /**
+     * Stop showing a loaded image in {@code view}, e.g. from RecyclerView.Adapter#onViewRecycled.
+     * A request no other view is waiting for is cancelled.
+     */
+    public void cancel(ImageView view) {
+        String key = boundKeys.remove(view);
+        Bitmap bitmap = boundBitmaps.remove(view);
+        if (bitmap != null) {
+            view.setImageDrawable(null);
+            release(bitmap);
+        }
+        Request request = key != null ? inFlight.get(key) : null;
+        if (request == null) {
+            return;
+        }
+        for (Iterator<WeakReference<ImageView>> it = request.views.iterator(); it.hasNext(); ) {
+            ImageView waiting = it.next().get();
+            if (waiting == null || waiting == view) {
+                it.remove();
+            }
+        }
+        if (request.views.isEmpty()) {
+            inFlight.remove(key);
+            request.future.cancel(false);
+        }
+    }
+
+    // Drop every cached copy of an image whose content changed under the same endpoint
+    public void invalidate(String endpoint) {
+        String prefix = endpoint + "@";
+        for (String key : new ArrayList<>(memory.snapshot().keySet())) {
+            if (key.startsWith(prefix)) {
+                memory.remove(key);
+            }
+        }
+        File file = diskFile(endpoint);
+        executor.execute(() -> {
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file);
+            }
+        });
+    }
+
+    // From Application#onTrimMemory; does nothing if no image has been loaded yet
+    public static void onTrimMemory(int level) {
+        ImageLoader loader;
+        synchronized (ImageLoader.class) {
+            loader = instance;
+        }
+        if (loader != null) {
+            loader.trimMemory(level);
+        }
+    }
+
+    private void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            memory.evictAll();
+            pool.clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            memory.trimToSize(memory.maxSize() / 2);
+            pool.clear();
+        }
+    }
+
+    private void deliver(Request request, Bitmap bitmap) {
+        if (inFlight.get(request.key) != request) {
+            // Cancelled while running
+            if (bitmap != null) {
+                pool.put(bitmap);
+            }
+            return;
+        }
+        inFlight.remove(request.key);
+        if (bitmap == null) {
+            // Leave the placeholder, but let the next load() try again
+            for (WeakReference<ImageView> ref : request.views) {
+                ImageView view = ref.get();
+                if (view != null && request.key.equals(boundKeys.get(view))) {
+                    boundKeys.remove(view);
+                }
+            }
+            return;
+        }
+        memory.put(request.key, bitmap);
+        for (WeakReference<ImageView> ref : request.views) {
+            ImageView view = ref.get();
+            if (view != null && request.key.equals(boundKeys.get(view))) {
+                bind(view, bitmap);
+            }
+        }
+    }
+
+    private void bind(ImageView view, Bitmap bitmap) {
+        Bitmap previous = boundBitmaps.put(view, bitmap);
+        Integer count = displayCounts.get(bitmap);
+        displayCounts.put(bitmap, count == null ? 1 : count + 1);
+        view.setImageBitmap(bitmap);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private void release(Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            displayCounts.put(bitmap, count - 1);
+            return;
+        }
+        displayCounts.remove(bitmap);
+        if (evictedWhileShown.remove(bitmap) != null) {
+            pool.put(bitmap);
+        }
+    }
+
+    // The laid-out size, else the layout params, else the screen
+    private static int[] targetSize(ImageView view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (width <= 0 && params != null && params.width > 0) {
+            width = params.width;
+        }
+        if (height <= 0 && params != null && params.height > 0) {
+            height = params.height;
+        }
+        if (width <= 0) {
+            width = view.getResources().getDisplayMetrics().widthPixels;
+        }
+        if (height <= 0) {
+            height = view.getResources().getDisplayMetrics().heightPixels;
+        }
+        return new int[]{width, height};
+    }
+
+    // Worker thread: the cached file, downloading it first if needed; null if the backend has none
+    private File fetch(String endpoint) throws IOException {
+        File file = diskFile(endpoint);
+        if (file.exists()) {
+            // Last-modified doubles as last-used for trimming
+            file.setLastModified(System.currentTimeMillis());
+            return file;
+        }
+        if (!diskDir.exists() && !diskDir.mkdirs()) {
+            throw new IOException("Cannot create " + diskDir);
+        }
+        File temp = new File(diskDir, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        int status = apiService.downloadToFile(endpoint, temp);
+        if (status < 200 || status >= 300) {
+            temp.delete();
+            return null;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot move download into " + file);
+        }
+        trimDisk();
+        return file;
+    }
+
+    // Worker thread: decode at the smallest power-of-two downsample that still covers the view
+    private Bitmap decode(File file, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            Log.w(TAG, "Not an image: " + file);
+            file.delete();
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        options.inBitmap = pool.get(ceilDiv(options.outWidth, sampleSize), ceilDiv(options.outHeight, sampleSize));
+        try {
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap did not fit after all
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        }
+    }
+
+    // Worker thread: delete least recently used files past the size limit
+    private synchronized void trimDisk() {
+        File[] files = diskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= DISK_CACHE_BYTES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (total <= DISK_CACHE_BYTES) {
+                break;
+            }
+            if (!file.getName().endsWith(".tmp")) {
+                long length = file.length();
+                if (file.delete()) {
+                    total -= length;
+                }
+            }
+        }
+    }
+
+    private File diskFile(String endpoint) {
+        return new File(diskDir, sha1(endpoint));
+    }
+
+    private static String sha1(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            return String.format("%040x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Mutable bitmaps no longer shown anywhere, handed back to BitmapFactory through inBitmap
+     * so decoding does not allocate. Any pooled bitmap with enough bytes fits (API 19+).
+     */
+    private static final class BitmapPool {
+        private final long maxBytes;
+        private final List<Bitmap> bitmaps = new ArrayList<>();
+        private long bytes;
+
+        BitmapPool(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized void put(Bitmap bitmap) {
+            if (!bitmap.isMutable() || bitmap.isRecycled() || bitmap.getAllocationByteCount() > maxBytes) {
+                return;
+            }
+            bitmaps.add(bitmap);
+            bytes += bitmap.getAllocationByteCount();
+            while (bytes > maxBytes) {
+                Bitmap oldest = bitmaps.remove(0);
+                bytes -= oldest.getAllocationByteCount();
+            }
+        }
+
+        // The smallest pooled bitmap that holds width x height ARGB_8888 pixels, or null
+        synchronized Bitmap get(int width, int height) {
+            long needed = (long) width * height * 4;
+            Bitmap best = null;
+            for (Bitmap bitmap : bitmaps) {
+                int size = bitmap.getAllocationByteCount();
+                if (size >= needed && (best == null || size < best.getAllocationByteCount())) {
+                    best = bitmap;
+                }
+            }
+            if (best != null) {
+                bitmaps.remove(best);
+                bytes -= best.getAllocationByteCount();
+            }
+            return best;
+        }
+
+        synchronized void clear() {
+            bitmaps.clear();
+            bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.final_mobile.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Login-to-home milestones, logged under the "LoginTimeline" tag.
+ *
+ * {@link #begin} starts a new timeline when the user submits the login; milestones are measured
+ * from there and the whole timeline is logged once the home screen has drawn its first frame.
+ * Filter with {@code adb logcat -s LoginTimeline}.
+ */
+public final class LoginTimeline {
+    private static final String TAG = "LoginTimeline";
+
+    private static final List<String> milestones = new ArrayList<>();
+    private static long start = -1;
+
+    private LoginTimeline() {
+    }
+
+    public static synchronized void begin() {
+        milestones.clear();
+        start = SystemClock.elapsedRealtime();
+        mark("login_submitted");
+    }
+
+    // Ignored outside of a login (e.g. screens opened later in the session)
+    public static synchronized void mark(String milestone) {
+        if (start < 0) {
+            return;
+        }
+        long sinceStart = SystemClock.elapsedRealtime() - start;
+        milestones.add(milestone + " +" + sinceStart + "ms");
+        Log.d(TAG, milestone + " at +" + sinceStart + "ms");
+    }
+
+    /**
+     * Record the home screen's first frame and log the full timeline (only once per login).
+     */
+    public static synchronized void reportHomeFrame(String screen) {
+        if (start < 0) {
+            return;
+        }
+        mark("home_first_frame:" + screen);
+
+        StringBuilder report = new StringBuilder("Login timeline");
+        for (String milestone : milestones) {
+            report.append("\n  ").append(milestone);
+        }
+        Log.i(TAG, report.toString());
+
+        milestones.clear();
+        start = -1;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.final_mobile.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dependency-ordered startup initializers.
+ *
+ * Each task runs on the given executor as soon as all of its dependencies have finished, so
+ * independent work runs in parallel and nothing waits longer than it has to. Callers that need
+ * a task's result (e.g. the first screen needing the session) block on {@link #await}. Plain
+ * Java so the ordering can be unit-tested on the JVM.
+ */
+public class StartupGraph {
+
+    public interface Clock {
+        long nanoTime();
+    }
+
+    public static class Timing {
+        public final String name;
+        public final String thread;
+        public final long startOffsetMs;
+        public final long durationMs;
+        public final Throwable error;
+
+        Timing(String name, String thread, long startOffsetMs, long durationMs, Throwable error) {
+            this.name = name;
+            this.thread = thread;
+            this.startOffsetMs = startOffsetMs;
+            this.durationMs = durationMs;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return name + " +" + startOffsetMs + "ms " + durationMs + "ms [" + thread + "]"
+                    + (error != null ? " FAILED: " + error : "");
+        }
+    }
+
+    private static class Task {
+        final String name;
+        final List<String> dependencies;
+        final Runnable work;
+        final List<Task> dependents = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        int remaining;
+
+        Task(String name, List<String> dependencies, Runnable work) {
+            this.name = name;
+            this.dependencies = dependencies;
+            this.work = work;
+        }
+    }
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final Map<String, Timing> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Clock clock;
+    private Executor executor;
+    private long startNanos;
+    private boolean started = false;
+
+    public StartupGraph() {
+        this(System::nanoTime);
+    }
+
+    public StartupGraph(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Register a task. Dependencies may be added later but must all exist by {@link #start}.
+     */
+    public synchronized StartupGraph add(String name, Runnable work, String... dependsOn) {
+        if (started) {
+            throw new IllegalStateException("Startup graph already started");
+        }
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup task: " + name);
+        }
+        List<String> dependencies = new ArrayList<>();
+        Collections.addAll(dependencies, dependsOn);
+        tasks.put(name, new Task(name, dependencies, work));
+        return this;
+    }
+
+    /**
+     * Validate the graph and launch every task without dependencies.
+     */
+    public void start(Executor executor) {
+        List<Task> roots = new ArrayList<>();
+        synchronized (this) {
+            if (started) {
+                throw new IllegalStateException("Startup graph already started");
+            }
+            for (Task task : tasks.values()) {
+                task.remaining = task.dependencies.size();
+                for (String dependency : task.dependencies) {
+                    Task parent = tasks.get(dependency);
+                    if (parent == null) {
+                        throw new IllegalStateException("Startup task " + task.name + " depends on unknown task " + dependency);
+                    }
+                    parent.dependents.add(task);
+                }
+                if (task.remaining == 0) {
+                    roots.add(task);
+                }
+            }
+            checkForCycles();
+
+            this.executor = executor;
+            this.startNanos = clock.nanoTime();
+            this.started = true;
+        }
+
+        for (Task root : roots) {
+            schedule(root);
+        }
+    }
+
+    /**
+     * Block until the named task finished (successfully or not). Returns false on timeout.
+     */
+    public boolean await(String name, long timeout, TimeUnit unit) throws InterruptedException {
+        Task task;
+        synchronized (this) {
+            task = tasks.get(name);
+        }
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown startup task: " + name);
+        }
+        return task.done.await(timeout, unit);
+    }
+
+    public boolean isDone(String name) {
+        Task task;
+        synchronized (this) {
+            task = tasks.get(name);
+        }
+        return task != null && task.done.getCount() == 0;
+    }
+
+    // Completed tasks in completion order
+    public List<Timing> getTimings() {
+        synchronized (timings) {
+            return new ArrayList<>(timings.values());
+        }
+    }
+
+    private void schedule(Task task) {
+        executor.execute(() -> run(task));
+    }
+
+    private void run(Task task) {
+        long begin = clock.nanoTime();
+        Throwable error = null;
+        try {
+            task.work.run();
+        } catch (RuntimeException | Error e) {
+            // A failed initializer must not block the rest of startup; the component
+            // will be initialized lazily on first use instead
+            error = e;
+        }
+        long end = clock.nanoTime();
+        timings.put(task.name, new Timing(task.name, Thread.currentThread().getName(),
+                TimeUnit.NANOSECONDS.toMillis(begin - startNanos),
+                TimeUnit.NANOSECONDS.toMillis(end - begin), error));
+        task.done.countDown();
+
+        List<Task> ready = new ArrayList<>();
+        synchronized (this) {
+            for (Task dependent : task.dependents) {
+                if (--dependent.remaining == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        for (Task dependent : ready) {
+            schedule(dependent);
+        }
+    }
+
+    // Kahn's algorithm over a copy of the in-degrees
+    private void checkForCycles() {
+        Map<Task, Integer> inDegree = new HashMap<>();
+        List<Task> queue = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            inDegree.put(task, task.dependencies.size());
+            if (task.dependencies.isEmpty()) {
+                queue.add(task);
+            }
+        }
+        Set<Task> visited = new HashSet<>();
+        while (!queue.isEmpty()) {
+            Task task = queue.remove(queue.size() - 1);
+            visited.add(task);
+            for (Task dependent : task.dependents) {
+                int degree = inDegree.get(dependent) - 1;
+                inDegree.put(dependent, degree);
+                if (degree == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (visited.size() != tasks.size()) {
+            List<String> stuck = new ArrayList<>();
+            for (Task task : tasks.values()) {
+                if (!visited.contains(task)) {
+                    stuck.add(task.name);
+                }
+            }
+            throw new IllegalStateException("Startup tasks form a cycle: " + stuck);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.final_mobile.utils;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup milestones measured from process start, logged under the "StartupTrace" tag.
+ *
+ * Milestones are recorded once per process; the summary (milestones plus the initializer timings
+ * from {@link StartupGraph}) is logged when the first screen has drawn its first frame.
+ * Filter with {@code adb logcat -s StartupTrace}.
+ */
+public final class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    private static final List<String> milestones = new ArrayList<>();
+    private static long processStart = -1;
+    private static boolean reported = false;
+
+    private StartupTrace() {
+    }
+
+    // Elapsed-realtime of process start (fork), or of the first call on older devices
+    private static long processStart() {
+        if (processStart < 0) {
+            processStart = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                    ? Process.getStartElapsedRealtime() : SystemClock.elapsedRealtime();
+        }
+        return processStart;
+    }
+
+    public static synchronized void mark(String milestone) {
+        long sinceStart = SystemClock.elapsedRealtime() - processStart();
+        milestones.add(milestone + " +" + sinceStart + "ms");
+        Log.d(TAG, milestone + " at +" + sinceStart + "ms");
+    }
+
+    /**
+     * Record the first frame and log the full startup report (only the first call does anything).
+     */
+    public static synchronized void reportFirstFrame(String screen, StartupGraph graph) {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        mark("first_frame:" + screen);
+
+        StringBuilder report = new StringBuilder("Startup report");
+        for (String milestone : milestones) {
+            report.append("\n  ").append(milestone);
+        }
+        if (graph != null) {
+            for (StartupGraph.Timing timing : graph.getTimings()) {
+                report.append("\n  init ").append(timing);
+            }
+        }
+        Log.i(TAG, report.toString());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.final_mobile.utils;
+
+import android.widget.TextView;
+
+import androidx.annotation.ColorRes;
+
+import com.example.final_mobile.core.DisplayFormatter;
+
+/**
+ * Colours for transaction statuses, shared by every list and detail screen.
+ */
+public final class StatusColors {
+
+    private StatusColors() {
+    }
+
+    @ColorRes
+    public static int forStatus(String status) {
+        switch (DisplayFormatter.statusTone(status)) {
+            case SUCCESS:
+                return android.R.color.holo_green_dark;
+            case IN_PROGRESS:
+                return android.R.color.holo_orange_dark;
+            case FAILURE:
+                return android.R.color.holo_red_dark;
+            default:
+                return android.R.color.darker_gray;
+        }
+    }
+
+    // Label and colour in one go
+    public static void bind(TextView view, String status) {
+        view.setText(DisplayFormatter.statusLabel(status));
+        view.setTextColor(view.getResources().getColor(forStatus(status), null));
+    }
+}
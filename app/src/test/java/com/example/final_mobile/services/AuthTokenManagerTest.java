@@ -0,0 +1,274 @@
+package com.example.final_mobile.services;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AuthTokenManagerTest {
+
+    private static final int CONCURRENT_REQUESTS = 50;
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private FakeServer server;
+    private MemoryStore store;
+
+    @Before
+    public void setUp() {
+        server = new FakeServer();
+        store = new MemoryStore();
+        String token = server.issue(NOW + 10 * 60 * 1000);
+        store.updateTokens(token, server.refreshToken);
+    }
+
+    @Test
+    public void concurrent401sShareOneRefreshAndAllReplay() throws Exception {
+        // The token still looks valid locally but the server has already expired it
+        // (device clock behind), so all 50 requests hit a 401 together
+        server.revokeAccessToken();
+        AuthTokenManager manager = new AuthTokenManager(store, server::refresh, clock::get);
+
+        List<Outcome> outcomes = runConcurrently(manager);
+
+        assertEquals(1, server.refreshCalls.get());
+        assertEquals(1, manager.getRefreshCount());
+        for (Outcome outcome : outcomes) {
+            assertEquals(200, outcome.status);
+            assertEquals(server.accessToken, outcome.finalToken);
+        }
+        assertTrue(server.unauthorized.get() > 0);
+        assertEquals(server.refreshToken, store.getRefreshToken());
+    }
+
+    @Test
+    public void tokenCloseToExpiryIsRefreshedOnceBeforeSending() throws Exception {
+        // 30s before exp, inside the refresh window
+        clock.set(NOW + 10 * 60 * 1000 - 30 * 1000);
+        AuthTokenManager manager = new AuthTokenManager(store, server::refresh, clock::get);
+
+        List<Outcome> outcomes = runConcurrently(manager);
+
+        assertEquals(1, server.refreshCalls.get());
+        assertEquals(0, server.unauthorized.get());
+        for (Outcome outcome : outcomes) {
+            assertEquals(200, outcome.status);
+        }
+    }
+
+    @Test
+    public void requestsAcrossExpiryNeverFailAndRefreshOnce() throws Exception {
+        // The clock advances while the requests start: early ones succeed with the old token,
+        // some hit the server-side expiry (401), the rest fall into the local refresh window
+        long refreshWindowStart = NOW + 10 * 60 * 1000 - AuthTokenManager.EXPIRY_SKEW_MS;
+        clock.set(refreshWindowStart - 50);
+        server.expireAt(refreshWindowStart - 25);
+        AuthTokenManager manager = new AuthTokenManager(store, server::refresh, clock::get);
+
+        List<Outcome> outcomes = runConcurrently(manager, () -> clock.addAndGet(2));
+
+        assertEquals(1, server.refreshCalls.get());
+        for (Outcome outcome : outcomes) {
+            assertEquals(200, outcome.status);
+        }
+    }
+
+    @Test
+    public void validTokenIsNotRefreshed() throws Exception {
+        AuthTokenManager manager = new AuthTokenManager(store, server::refresh, clock::get);
+
+        List<Outcome> outcomes = runConcurrently(manager);
+
+        assertEquals(0, server.refreshCalls.get());
+        for (Outcome outcome : outcomes) {
+            assertEquals(200, outcome.status);
+        }
+    }
+
+    @Test
+    public void rejectedRefreshEndsSession() {
+        server.revokeAccessToken();
+        server.revokeRefreshToken();
+        AuthTokenManager manager = new AuthTokenManager(store, server::refresh, clock::get);
+
+        assertNull(manager.onUnauthorized(store.getToken()));
+        assertNull(store.getToken());
+        assertNull(store.getRefreshToken());
+    }
+
+    @Test
+    public void networkFailureKeepsSession() {
+        String token = store.getToken();
+        AuthTokenManager manager = new AuthTokenManager(store, refreshToken -> {
+            throw new IOException("offline");
+        }, clock::get);
+
+        assertNull(manager.onUnauthorized(token));
+        assertEquals(token, store.getToken());
+    }
+
+    @Test
+    public void staleTokenGetsCurrentTokenWithoutRefreshing() {
+        AuthTokenManager manager = new AuthTokenManager(store, server::refresh, clock::get);
+        String current = store.getToken();
+
+        assertEquals(current, manager.onUnauthorized("some-older-token"));
+        assertEquals(0, server.refreshCalls.get());
+    }
+
+    @Test
+    public void readsExpiryFromJwtPayload() {
+        assertEquals(1_700_000_600_000L, AuthTokenManager.getExpiryMillis(jwt(1_700_000_600L)));
+        assertEquals(0, AuthTokenManager.getExpiryMillis("not-a-jwt"));
+        assertEquals(0, AuthTokenManager.getExpiryMillis(null));
+    }
+
+    private List<Outcome> runConcurrently(AuthTokenManager manager) throws Exception {
+        return runConcurrently(manager, () -> { });
+    }
+
+    // Fire CONCURRENT_REQUESTS "API calls" at once, each following the ApiService flow:
+    // pick a token, send, and on 401 ask the manager for a replay token
+    private List<Outcome> runConcurrently(AuthTokenManager manager, Runnable beforeEach) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Outcome>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            futures.add(pool.submit((Callable<Outcome>) () -> {
+                start.await();
+                beforeEach.run();
+                String token = manager.getValidToken();
+                int status = server.call(token, clock.get());
+                if (status == 401) {
+                    token = manager.onUnauthorized(token);
+                    status = token != null ? server.call(token, clock.get()) : 401;
+                }
+                return new Outcome(status, token);
+            }));
+        }
+        start.countDown();
+
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Future<Outcome> future : futures) {
+            outcomes.add(future.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdownNow();
+        return outcomes;
+    }
+
+    private static String jwt(long expSeconds) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"userId\":\"u1\",\"iat\":1699999000,\"exp\":" + expSeconds + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".signature";
+    }
+
+    private static class Outcome {
+        final int status;
+        final String finalToken;
+
+        Outcome(int status, String finalToken) {
+            this.status = status;
+            this.finalToken = finalToken;
+        }
+    }
+
+    // Issues JWT-shaped tokens and rotates the refresh token on every refresh, like AuthController
+    private class FakeServer {
+        final AtomicInteger refreshCalls = new AtomicInteger();
+        final AtomicInteger unauthorized = new AtomicInteger();
+        volatile String accessToken;
+        volatile String refreshToken = "refresh-0";
+        volatile long accessExpiresAt;
+        private int generation = 0;
+
+        synchronized String issue(long expiresAt) {
+            generation++;
+            accessExpiresAt = expiresAt;
+            accessToken = jwt(expiresAt / 1000) + generation;
+            return accessToken;
+        }
+
+        void revokeAccessToken() {
+            accessExpiresAt = 0;
+        }
+
+        void revokeRefreshToken() {
+            refreshToken = "revoked";
+        }
+
+        void expireAt(long time) {
+            accessExpiresAt = time;
+        }
+
+        int call(String token, long now) {
+            if (token != null && token.equals(accessToken) && now < accessExpiresAt) {
+                return 200;
+            }
+            unauthorized.incrementAndGet();
+            return 401;
+        }
+
+        AuthTokenManager.Tokens refresh(String presented) throws IOException {
+            refreshCalls.incrementAndGet();
+            try {
+                // Widen the race window
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            synchronized (this) {
+                if (!presented.equals(refreshToken)) {
+                    return null;
+                }
+                String access = issue(clock.get() + 24 * 60 * 60 * 1000L);
+                refreshToken = "refresh-" + generation;
+                return new AuthTokenManager.Tokens(access, refreshToken);
+            }
+        }
+    }
+
+    private static class MemoryStore implements AuthTokenManager.TokenStore {
+        private String token;
+        private String refreshToken;
+
+        @Override
+        public synchronized String getToken() {
+            return token;
+        }
+
+        @Override
+        public synchronized String getRefreshToken() {
+            return refreshToken;
+        }
+
+        @Override
+        public synchronized void updateTokens(String token, String refreshToken) {
+            this.token = token;
+            this.refreshToken = refreshToken;
+        }
+
+        @Override
+        public synchronized void clear() {
+            token = null;
+            refreshToken = null;
+        }
+    }
+}
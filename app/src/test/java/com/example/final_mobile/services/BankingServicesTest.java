@@ -0,0 +1,211 @@
+package com.example.final_mobile.services;
+
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.mockserver.MockBankingServer;
+import com.example.final_mobile.mockserver.MockServerConfig;
+import com.example.final_mobile.models.Account;
+import com.example.final_mobile.models.Transaction;
+import com.example.final_mobile.models.User;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ApiService, AccountService and TransactionService against MockBankingServer on a loopback port.
+ * Runs on the JVM (unitTests.isReturnDefaultValues makes android.util.Log a no-op); the
+ * services only need SharedPreferences from their Context, which MemoryContext keeps in memory.
+ */
+public class BankingServicesTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    // The services are singletons and keep the first Context they are given
+    private static final MemoryContext CONTEXT = new MemoryContext();
+
+    private MockBankingServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+        ApiService.setBaseUrl(null);
+    }
+
+    @Test
+    public void loadsAccountsAndDepositsOnce() throws Exception {
+        start(MockServerConfig.defaults());
+        login(MockBankingServer.CUSTOMER_EMAIL);
+        AccountService accountService = new AccountService(CONTEXT);
+
+        List<Account> accounts = await(result -> accountService.getUserAccounts(new AccountResult(result)));
+        assertEquals(3, accounts.size());
+        Account checking = accounts.get(0);
+        assertEquals("CHECKING", checking.getAccountType());
+
+        List<Account> deposited = await(result -> accountService.depositMoney(checking.getId(),
+                new BigDecimal("100000"), "Test", new AccountResult(result)));
+        assertEquals(checking.getBalance().getMinorUnits() + 100000, deposited.get(0).getBalance().getMinorUnits());
+        assertEquals(1, server.getRequestCount("POST", "accounts/deposit"));
+    }
+
+    @Test
+    public void transferWaitsForOtpAndRejectsAWrongOne() throws Exception {
+        start(MockServerConfig.builder().users(1).build());
+        login("user1@example.com");
+        AccountService accountService = new AccountService(CONTEXT);
+        String recipient = await((CompletableFuture<List<Account>> result) ->
+                accountService.getUserAccounts(new AccountResult(result))).get(0).getAccountNumber();
+
+        login(MockBankingServer.CUSTOMER_EMAIL);
+        Account from = await((CompletableFuture<List<Account>> result) ->
+                accountService.getUserAccounts(new AccountResult(result))).get(0);
+        TransactionService transactionService = new TransactionService(CONTEXT);
+
+        String initiated = await(result -> transactionService.transferMoney(from.getId(), recipient,
+                Money.vnd(500000), "Test", new TransactionResult(result)));
+        assertTrue(initiated, initiated.startsWith("otp:"));
+
+        String verified = await(result -> transactionService.verifyTransactionOtp(initiated.substring("otp:".length()),
+                "wrong", new TransactionResult(result)));
+        assertTrue(verified, verified.startsWith("error:"));
+        // A rejected OTP is a definite answer, so it is not retried
+        assertEquals(1, server.getRequestCount("POST", "transactions/verify-otp"));
+
+        List<Account> after = await(result -> accountService.getUserAccounts(new AccountResult(result)));
+        assertEquals(from.getBalance(), after.get(0).getBalance());
+    }
+
+    @Test
+    public void expiredTokenIsRefreshedAndTheRequestReplayed() throws Exception {
+        start(MockServerConfig.builder().accessTokenTtlMillis(60_000).build());
+        login(MockBankingServer.CUSTOMER_EMAIL);
+        String expiredToken = SessionManager.getInstance(CONTEXT).getToken();
+        server.advanceClock(61_000);
+
+        AccountService accountService = new AccountService(CONTEXT);
+        List<Account> accounts = await(result -> accountService.getUserAccounts(new AccountResult(result)));
+
+        assertEquals(3, accounts.size());
+        assertEquals(1, server.getRequestCount("POST", "auth/refresh-token"));
+        assertEquals(2, server.getRequestCount("GET", "accounts"));
+        assertNotEquals(expiredToken, SessionManager.getInstance(CONTEXT).getToken());
+    }
+
+    private void start(MockServerConfig config) throws Exception {
+        server = MockBankingServer.start(config);
+        ApiService.setBaseUrl(server.getBaseUrl());
+    }
+
+    // Log in with the development OTP the server returns and store the session like AuthService does
+    private void login(String email) throws Exception {
+        ApiService apiService = ApiService.getInstance(CONTEXT);
+        JSONObject credentials = new JSONObject().put("email", email).put("password", MockBankingServer.DEFAULT_PASSWORD);
+        JSONObject pending = await((CompletableFuture<JSONObject> result) ->
+                apiService.post(ApiConfig.LOGIN, credentials, new JsonResult(result))).getJSONObject("data");
+
+        JSONObject otp = new JSONObject()
+                .put("otp_code", pending.getString("development_otp"))
+                .put("token", pending.getString("token"));
+        JSONObject session = await((CompletableFuture<JSONObject> result) ->
+                apiService.post(ApiConfig.VERIFY_OTP, otp, new JsonResult(result))).getJSONObject("data");
+
+        JSONObject userJson = session.getJSONObject("user");
+        User user = new User(userJson.getString("id"), userJson.getString("email"),
+                userJson.optString("full_name", ""), userJson.optString("phone", ""));
+        user.setCustomerType(userJson.optString("customer_type", "CUSTOMER"));
+        SessionManager.getInstance(CONTEXT).createLoginSession(session.getString("access_token"),
+                session.getString("refresh_token"), user);
+    }
+
+    private static <T> T await(Consumer<CompletableFuture<T>> call) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        call.accept(result);
+        return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static class JsonResult implements ApiService.ApiCallback {
+        private final CompletableFuture<JSONObject> result;
+
+        JsonResult(CompletableFuture<JSONObject> result) {
+            this.result = result;
+        }
+
+        @Override
+        public void onSuccess(JSONObject response) {
+            result.complete(response);
+        }
+
+        @Override
+        public void onError(String error, int statusCode) {
+            result.completeExceptionally(new AssertionError(statusCode + ": " + error));
+        }
+    }
+
+    private static class AccountResult implements AccountService.AccountCallback {
+        private final CompletableFuture<List<Account>> result;
+
+        AccountResult(CompletableFuture<List<Account>> result) {
+            this.result = result;
+        }
+
+        @Override
+        public void onSuccess(List<Account> accounts) {
+            result.complete(accounts);
+        }
+
+        @Override
+        public void onSingleAccountSuccess(Account account) {
+            result.completeExceptionally(new AssertionError("Unexpected single account"));
+        }
+
+        @Override
+        public void onBalanceSuccess(Money balance) {
+            result.completeExceptionally(new AssertionError("Unexpected balance"));
+        }
+
+        @Override
+        public void onError(String error) {
+            result.completeExceptionally(new AssertionError(error));
+        }
+    }
+
+    // Completes with "otp:<transactionId>", "done:<status>" or "error:<message>"
+    private static class TransactionResult implements TransactionService.TransactionCallback {
+        private final CompletableFuture<String> result;
+
+        TransactionResult(CompletableFuture<String> result) {
+            this.result = result;
+        }
+
+        @Override
+        public void onSuccess(List<Transaction> transactions) {
+            result.complete("done:" + transactions.size());
+        }
+
+        @Override
+        public void onSingleTransactionSuccess(Transaction transaction) {
+            result.complete("done:" + transaction.getStatus());
+        }
+
+        @Override
+        public void onError(String error) {
+            result.complete("error:" + error);
+        }
+
+        @Override
+        public void onOtpRequired(String message, String transactionId) {
+            result.complete("otp:" + transactionId);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Context whose SharedPreferences live in memory, for the service tests that run on the JVM.
+ * Everything else is android.jar's no-op stub.
+ */
+class MemoryContext extends ContextWrapper {
+    private final Map<String, MemoryPreferences> preferences = new HashMap<>();
+
+    MemoryContext() {
+        super(null);
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        MemoryPreferences prefs = preferences.get(name);
+        if (prefs == null) {
+            prefs = new MemoryPreferences();
+            preferences.put(name, prefs);
+        }
+        return prefs;
+    }
+
+    private static class MemoryPreferences implements SharedPreferences {
+        private final Map<String, Object> values = new HashMap<>();
+
+        @Override
+        public synchronized Map<String, ?> getAll() {
+            return new HashMap<>(values);
+        }
+
+        @Override
+        public String getString(String key, String defValue) {
+            return (String) get(key, defValue);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<String> getStringSet(String key, Set<String> defValues) {
+            return (Set<String>) get(key, defValues);
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            return (Integer) get(key, defValue);
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            return (Long) get(key, defValue);
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            return (Float) get(key, defValue);
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return (Boolean) get(key, defValue);
+        }
+
+        @Override
+        public synchronized boolean contains(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public Editor edit() {
+            return new MemoryEditor();
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+
+        private synchronized Object get(String key, Object defValue) {
+            return values.containsKey(key) ? values.get(key) : defValue;
+        }
+
+        private class MemoryEditor implements Editor {
+            private final Map<String, Object> changes = new HashMap<>();
+            private final Set<String> removed = new HashSet<>();
+            private boolean clear;
+
+            @Override
+            public Editor putString(String key, String value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putStringSet(String key, Set<String> values) {
+                return put(key, values != null ? new HashSet<>(values) : null);
+            }
+
+            @Override
+            public Editor putInt(String key, int value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putLong(String key, long value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putFloat(String key, float value) {
+                return put(key, value);
+            }
+
+            @Override
+            public Editor putBoolean(String key, boolean value) {
+                return put(key, value);
+            }
+
+            @Override
+            public synchronized Editor remove(String key) {
+                changes.remove(key);
+                removed.add(key);
+                return this;
+            }
+
+            @Override
+            public synchronized Editor clear() {
+                clear = true;
+                return this;
+            }
+
+            @Override
+            public boolean commit() {
+                synchronized (MemoryPreferences.this) {
+                    synchronized (this) {
+                        if (clear) {
+                            values.clear();
+                        }
+                        for (String key : removed) {
+                            values.remove(key);
+                        }
+                        for (Map.Entry<String, Object> change : changes.entrySet()) {
+                            if (change.getValue() == null) {
+                                values.remove(change.getKey());
+                            } else {
+                                values.put(change.getKey(), change.getValue());
+                            }
+                        }
+                        changes.clear();
+                        removed.clear();
+                        clear = false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void apply() {
+                commit();
+            }
+
+            private synchronized Editor put(String key, Object value) {
+                removed.remove(key);
+                changes.put(key, value);
+                return this;
+            }
+        }
+    }
+}
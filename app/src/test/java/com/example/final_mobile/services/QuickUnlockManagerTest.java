@@ -0,0 +1,132 @@
+package com.example.final_mobile.services;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.final_mobile.models.User;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Logout racing the background re-encryption: whatever was already queued must not write the
+ * session back or re-create the key after disable(). The Keystore is replaced by a software key
+ * pair whose public key can be held, which keeps a write in flight while the test logs out.
+ */
+public class QuickUnlockManagerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final MemoryContext context = new MemoryContext();
+    private final HeldKeyPairStore keyPairStore = new HeldKeyPairStore();
+    private QuickUnlockManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        User user = new User("u1", "customer@example.com", "Nguyen Van A", "0900000000");
+        SessionManager.getInstance(context).createLoginSession("access", "refresh", user);
+        manager = new QuickUnlockManager(context, keyPairStore);
+    }
+
+    @Test
+    public void logoutDuringAnAccountRefreshLeavesNothingBehind() throws Exception {
+        // Stands in for the payload enable() wrote (android.util.Base64 is a stub on the JVM)
+        preferences().edit().putString(QuickUnlockManager.KEY_PAYLOAD, "sealed").apply();
+
+        manager.onAccountsLoaded(new JSONArray().put(new JSONObject().put("id", "a1")));
+        assertTrue(keyPairStore.sealing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        manager.disable();
+        assertFalse(manager.isEnabled());
+        assertNull(manager.getCachedAccounts());
+
+        keyPairStore.hold.countDown();
+        assertTrue(keyPairStore.deleted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("seal", "delete"), keyPairStore.events());
+        assertTrue(preferences().getAll().isEmpty());
+        assertFalse(manager.isEnabled());
+    }
+
+    @Test
+    public void enableQueuedBeforeLogoutDoesNotKeepTheKey() throws Exception {
+        manager.enable();
+        assertTrue(keyPairStore.sealing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        manager.enable();
+
+        manager.disable();
+        keyPairStore.hold.countDown();
+        assertTrue(keyPairStore.deleted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("create", "seal", "create", "seal", "delete"), keyPairStore.events());
+    }
+
+    private SharedPreferences preferences() {
+        return context.getSharedPreferences(QuickUnlockManager.PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Software key pair that records each use; getPublicKey() waits for hold to be released
+    private static class HeldKeyPairStore implements QuickUnlockManager.KeyPairStore {
+        final CountDownLatch sealing = new CountDownLatch(1);
+        final CountDownLatch hold = new CountDownLatch(1);
+        final CountDownLatch deleted = new CountDownLatch(1);
+        private final List<String> events = new ArrayList<>();
+        private final KeyPair keyPair;
+
+        HeldKeyPairStore() {
+            try {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                keyPair = generator.generateKeyPair();
+            } catch (GeneralSecurityException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public void ensureKeyPair() {
+            record("create");
+        }
+
+        @Override
+        public PublicKey getPublicKey() throws GeneralSecurityException {
+            sealing.countDown();
+            try {
+                hold.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new GeneralSecurityException(e);
+            }
+            record("seal");
+            return keyPair.getPublic();
+        }
+
+        @Override
+        public void deleteKeyPair() {
+            record("delete");
+            deleted.countDown();
+        }
+
+        synchronized List<String> events() {
+            return new ArrayList<>(events);
+        }
+
+        private synchronized void record(String event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.final_mobile.services;
+
+import com.example.final_mobile.models.User;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SessionDataStoreTest {
+
+    private long now = 1_000_000;
+    private final SessionDataStore store = new SessionDataStore(() -> now);
+
+    @Test
+    public void deliversFreshValueImmediately() {
+        User user = new User();
+        store.profile.complete(store.profile.begin(), user);
+
+        List<User> received = new ArrayList<>();
+        assertTrue(store.profile.whenAvailable(received::add));
+        assertEquals(1, received.size());
+        assertSame(user, received.get(0));
+    }
+
+    @Test
+    public void waitsForLoadInFlight() {
+        long ticket = store.profile.begin();
+        List<User> received = new ArrayList<>();
+        assertTrue(store.profile.whenAvailable(received::add));
+        assertTrue(received.isEmpty());
+
+        User user = new User();
+        store.profile.complete(ticket, user);
+        assertEquals(1, received.size());
+        assertSame(user, received.get(0));
+    }
+
+    @Test
+    public void failedLoadDeliversNull() {
+        long ticket = store.profile.begin();
+        List<User> received = new ArrayList<>();
+        store.profile.whenAvailable(received::add);
+
+        store.profile.fail(ticket);
+        assertEquals(1, received.size());
+        assertNull(received.get(0));
+        // Nothing in flight any more, the caller loads it itself
+        assertFalse(store.profile.whenAvailable(received::add));
+    }
+
+    @Test
+    public void returnsFalseWhenNothingLoaded() {
+        assertFalse(store.profile.whenAvailable(user -> { }));
+    }
+
+    @Test
+    public void staleValueIsNotServed() {
+        store.profile.complete(store.profile.begin(), new User());
+        now += SessionDataStore.FRESH_FOR_MS + 1;
+
+        assertNull(store.profile.getFresh());
+        assertFalse(store.profile.whenAvailable(user -> { }));
+    }
+
+    @Test
+    public void resultsFromBeforeClearAreDropped() {
+        long ticket = store.profile.begin();
+        List<User> received = new ArrayList<>();
+        store.profile.whenAvailable(received::add);
+
+        store.clear();
+        // The waiter was released with null when the session was cleared
+        assertEquals(1, received.size());
+        assertNull(received.get(0));
+
+        store.profile.complete(ticket, new User());
+        assertNull(store.profile.getFresh());
+    }
+
+    @Test
+    public void firstRenderIsClaimedOncePerSession() {
+        assertTrue(store.claimFirstRender());
+        assertFalse(store.claimFirstRender());
+
+        store.clear();
+        assertTrue(store.claimFirstRender());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.final_mobile.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the face quality gate on synthetic 192x256 luminance images.
+ */
+public class FaceQualityAnalyzerTest {
+    private static final int WIDTH = 192;
+    private static final int HEIGHT = 256;
+    private static final FaceQualityAnalyzer.FaceRegion CENTERED_FACE =
+            new FaceQualityAnalyzer.FaceRegion(56, 72, 136, 184);
+
+    private final FaceQualityAnalyzer analyzer = new FaceQualityAnalyzer();
+
+    @Test
+    public void sharpWellExposedCenteredFace_isAccepted() {
+        FaceQualityAnalyzer.Report report = analyzer.analyze(sampleImage(), WIDTH, HEIGHT, CENTERED_FACE);
+        assertTrue(report.toString(), report.isAcceptable());
+        assertNull(report.getPrimaryIssue());
+    }
+
+    @Test
+    public void blurredImage_isRejectedAsBlurry() {
+        byte[] blurred = boxBlur(boxBlur(boxBlur(sampleImage())));
+        FaceQualityAnalyzer.Report report = analyzer.analyze(blurred, WIDTH, HEIGHT, CENTERED_FACE);
+        assertTrue(report.getIssues().contains(FaceQualityAnalyzer.Issue.TOO_BLURRY));
+        assertTrue(report.getSharpness() < analyzer.analyze(sampleImage(), WIDTH, HEIGHT, CENTERED_FACE).getSharpness());
+    }
+
+    @Test
+    public void underexposedImage_isRejectedAsDark() {
+        byte[] dark = scale(sampleImage(), 0.2);
+        FaceQualityAnalyzer.Report report = analyzer.analyze(dark, WIDTH, HEIGHT, CENTERED_FACE);
+        assertEquals(FaceQualityAnalyzer.Issue.TOO_DARK, report.getPrimaryIssue());
+    }
+
+    @Test
+    public void overexposedImage_isRejectedAsBright() {
+        byte[] bright = offset(sampleImage(), 120);
+        FaceQualityAnalyzer.Report report = analyzer.analyze(bright, WIDTH, HEIGHT, CENTERED_FACE);
+        assertEquals(FaceQualityAnalyzer.Issue.TOO_BRIGHT, report.getPrimaryIssue());
+    }
+
+    @Test
+    public void missingFace_isRejected() {
+        FaceQualityAnalyzer.Report report = analyzer.analyze(sampleImage(), WIDTH, HEIGHT, null);
+        assertEquals(FaceQualityAnalyzer.Issue.NO_FACE, report.getPrimaryIssue());
+    }
+
+    @Test
+    public void smallFace_isRejected() {
+        FaceQualityAnalyzer.FaceRegion small = new FaceQualityAnalyzer.FaceRegion(86, 116, 106, 140);
+        FaceQualityAnalyzer.Report report = analyzer.analyze(sampleImage(), WIDTH, HEIGHT, small);
+        assertTrue(report.getIssues().contains(FaceQualityAnalyzer.Issue.FACE_TOO_SMALL));
+    }
+
+    @Test
+    public void offCenterFace_isRejected() {
+        FaceQualityAnalyzer.FaceRegion corner = new FaceQualityAnalyzer.FaceRegion(0, 0, 80, 112);
+        FaceQualityAnalyzer.Report report = analyzer.analyze(sampleImage(), WIDTH, HEIGHT, corner);
+        assertTrue(report.getIssues().contains(FaceQualityAnalyzer.Issue.FACE_NOT_CENTERED));
+    }
+
+    @Test
+    public void toLuminance_usesBt601Weights() {
+        byte[] out = new byte[3];
+        FaceQualityAnalyzer.toLuminance(new int[]{0xFFFFFFFF, 0xFF000000, 0xFF808080}, 3, out);
+        assertEquals(255, out[0] & 0xFF);
+        assertEquals(0, out[1] & 0xFF);
+        assertEquals(128, out[2] & 0xFF);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortBuffer_isRejected() {
+        analyzer.analyze(new byte[10], WIDTH, HEIGHT, null);
+    }
+
+    // Mid-grey background with a textured, face-sized ellipse in the middle
+    private static byte[] sampleImage() {
+        Random random = new Random(42);
+        byte[] luma = new byte[WIDTH * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                double dx = (x - WIDTH / 2.0) / 40.0;
+                double dy = (y - HEIGHT / 2.0) / 56.0;
+                int value;
+                if (dx * dx + dy * dy <= 1.0) {
+                    value = 100 + random.nextInt(80);
+                } else {
+                    value = 110 + random.nextInt(20);
+                }
+                luma[y * WIDTH + x] = (byte) value;
+            }
+        }
+        return luma;
+    }
+
+    private static byte[] boxBlur(byte[] src) {
+        byte[] out = src.clone();
+        for (int y = 1; y < HEIGHT - 1; y++) {
+            for (int x = 1; x < WIDTH - 1; x++) {
+                int sum = 0;
+                for (int ky = -1; ky <= 1; ky++) {
+                    for (int kx = -1; kx <= 1; kx++) {
+                        sum += src[(y + ky) * WIDTH + x + kx] & 0xFF;
+                    }
+                }
+                out[y * WIDTH + x] = (byte) (sum / 9);
+            }
+        }
+        return out;
+    }
+
+    private static byte[] scale(byte[] src, double factor) {
+        byte[] out = new byte[src.length];
+        for (int i = 0; i < src.length; i++) {
+            out[i] = (byte) Math.min(255, (int) ((src[i] & 0xFF) * factor));
+        }
+        return out;
+    }
+
+    private static byte[] offset(byte[] src, int delta) {
+        byte[] out = new byte[src.length];
+        for (int i = 0; i < src.length; i++) {
+            out[i] = (byte) Math.max(0, Math.min(255, (src[i] & 0xFF) + delta));
+        }
+        return out;
+    }
+}
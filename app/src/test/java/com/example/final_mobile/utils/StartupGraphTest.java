@@ -0,0 +1,125 @@
+package com.example.final_mobile.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StartupGraphTest {
+
+    @Test
+    public void runsTasksAfterTheirDependencies() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        StartupGraph graph = new StartupGraph()
+                .add("preconnect", () -> order.add("preconnect"), "api")
+                .add("api", () -> order.add("api"), "session")
+                .add("session", () -> order.add("session"))
+                .add("maps", () -> order.add("maps"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        graph.start(executor);
+        assertTrue(graph.await("preconnect", 5, TimeUnit.SECONDS));
+        assertTrue(graph.await("maps", 5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertTrue(order.indexOf("session") < order.indexOf("api"));
+        assertTrue(order.indexOf("api") < order.indexOf("preconnect"));
+        assertEquals(4, graph.getTimings().size());
+    }
+
+    @Test
+    public void independentTasksRunInParallel() throws Exception {
+        // Both tasks wait for each other, which only works if they run at the same time
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable rendezvous = () -> {
+            bothRunning.countDown();
+            try {
+                assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        StartupGraph graph = new StartupGraph()
+                .add("a", rendezvous)
+                .add("b", rendezvous);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        graph.start(executor);
+        assertTrue(graph.await("a", 5, TimeUnit.SECONDS));
+        assertTrue(graph.await("b", 5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        for (StartupGraph.Timing timing : graph.getTimings()) {
+            assertEquals(null, timing.error);
+        }
+    }
+
+    @Test
+    public void failedTaskDoesNotBlockDependents() throws Exception {
+        StartupGraph graph = new StartupGraph()
+                .add("broken", () -> {
+                    throw new IllegalStateException("boom");
+                })
+                .add("after", () -> { }, "broken");
+
+        graph.start(Runnable::run);
+
+        assertTrue(graph.isDone("after"));
+        StartupGraph.Timing broken = graph.getTimings().get(0);
+        assertEquals("broken", broken.name);
+        assertNotNull(broken.error);
+    }
+
+    @Test
+    public void rejectsCycles() {
+        StartupGraph graph = new StartupGraph()
+                .add("a", () -> { }, "b")
+                .add("b", () -> { }, "a")
+                .add("c", () -> { });
+        try {
+            graph.start(Runnable::run);
+            fail("Expected cycle to be rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("cycle"));
+        }
+    }
+
+    @Test
+    public void rejectsUnknownDependency() {
+        StartupGraph graph = new StartupGraph().add("a", () -> { }, "missing");
+        try {
+            graph.start(Runnable::run);
+            fail("Expected unknown dependency to be rejected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("missing"));
+        }
+    }
+
+    @Test
+    public void recordsTimingsRelativeToStart() {
+        long[] now = {1_000_000_000L};
+        StartupGraph graph = new StartupGraph(() -> now[0])
+                .add("slow", () -> now[0] += TimeUnit.MILLISECONDS.toNanos(40))
+                .add("next", () -> now[0] += TimeUnit.MILLISECONDS.toNanos(5), "slow");
+
+        graph.start(Runnable::run);
+
+        List<StartupGraph.Timing> timings = graph.getTimings();
+        assertEquals("slow", timings.get(0).name);
+        assertEquals(0, timings.get(0).startOffsetMs);
+        assertEquals(40, timings.get(0).durationMs);
+        assertEquals("next", timings.get(1).name);
+        assertEquals(40, timings.get(1).startOffsetMs);
+        assertEquals(5, timings.get(1).durationMs);
+    }
+}
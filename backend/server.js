@@ -12,7 +12,8 @@ const HOST = process.env.HOST || '0.0.0.0';
 app.use(cors({
   origin: '*',
   methods: ['GET', 'POST', 'PUT', 'DELETE', 'OPTIONS'],
-  allowedHeaders: ['Content-Type', 'Authorization'],
+  allowedHeaders: ['Content-Type', 'Authorization', 'Idempotency-Key'],
+  exposedHeaders: ['Idempotent-Replayed'],
   credentials: true
 }));
 
@@ -168,6 +169,9 @@ const connectDB = async () => {
 
 connectDB();
 
+// Pick up eKYC post-processing left unfinished by a previous run (mongoose buffers until connected)
+require('./src/utils/ekycWorker').resumePending();
+
 // Import routes
 const authRoutes = require('./src/routes/auth');
 const userRoutes = require('./src/routes/user');
@@ -177,6 +181,7 @@ const utilityRoutes = require('./src/routes/utilities');
 const adminRoutes = require('./src/routes/admin');
 const ekycRoutes = require('./src/routes/ekyc');
 const paymentRoutes = require('./src/routes/payments');
+const feeRoutes = require('./src/routes/fees');
 
 // Routes
 app.get('/health', (req, res) => {
@@ -205,6 +210,7 @@ app.use('/api/utilities', utilityRoutes);
 app.use('/api/admin', adminRoutes);
 app.use('/api/ekyc', ekycRoutes);
 app.use('/api/payments', paymentRoutes);
+app.use('/api/fees', feeRoutes);
 
 // Final catch-all 404 handler - must be after all routes
 // This will catch any route that doesn't match above
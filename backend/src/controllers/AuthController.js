@@ -290,7 +290,8 @@ class AuthController {
   // Refresh access token
   static async refreshToken(req, res) {
     try {
-      const { refreshToken } = req.body;
+      // Accept both naming styles (the Android client sends snake_case)
+      const refreshToken = req.body.refreshToken || req.body.refresh_token;
 
       if (!refreshToken) {
         return res.status(400).json({
@@ -1,21 +1,48 @@
 const EkycVerification = require('../models/EkycVerification');
 const User = require('../models/User');
+const BlobStore = require('../utils/blobStore');
+const EkycWorker = require('../utils/ekycWorker');
+const ImageBlob = require('../models/ImageBlob');
+const ekycEvents = require('../utils/ekycEvents');
 const fs = require('fs');
 const path = require('path');
 const crypto = require('crypto');
 
+const UPLOADS_DIR = path.join(__dirname, '../../uploads/ekyc');
+const CHUNK_DIR = path.join(UPLOADS_DIR, 'chunks');
+const CHUNK_SIZE = 256 * 1024; // 256KB per chunk
+const MAX_UPLOAD_SIZE = 5 * 1024 * 1024; // 5MB
+const UPLOAD_SESSION_TTL = 60 * 60 * 1000; // 1 hour
+const COMPLETED_UPLOAD_TTL = 10 * 60 * 1000; // 10 minutes
+const FACE_IMAGE_VERSION_LENGTH = 12;
+
+// Resumable upload sessions: uploadId -> { userId, totalSize, fileName, createdAt }
+// The number of bytes received is always taken from the .part file on disk
+const uploadSessions = new Map();
+// Finished uploads: uploadId -> { userId, totalSize, result, completedAt }
+// A repeated /complete (e.g. after a client timeout) gets the stored result instead of a second registration
+const completedUploads = new Map();
+
 class EkycController {
   // Upload face image for eKYC
   static async uploadFace(req, res) {
+    if (!req.file) {
+      return res.status(400).json({
+        success: false,
+        message: 'Face image is required'
+      });
+    }
+
+    return EkycController.registerFaceImage(req, res, req.file);
+  }
+
+  // Validate a stored face image and attach it to the user's eKYC verification
+  static async registerFaceImage(req, res, file) {
+    // Keep the multer-style shape so the rest of this method reads the same for both upload paths
+    req.file = file;
+
     try {
       const userId = req.userId;
-      
-      if (!req.file) {
-        return res.status(400).json({
-          success: false,
-          message: 'Face image is required'
-        });
-      }
 
       // Validate file type
       const allowedMimeTypes = ['image/jpeg', 'image/jpg', 'image/png'];
@@ -43,6 +70,9 @@ class EkycController {
         });
       }
 
+      // Move the upload into the content-addressed store (a retake of the same image reuses the blob)
+      const { blob, deduplicated } = await BlobStore.put(req.file.path, req.file.mimetype);
+
       // Find or create eKYC verification record
       let ekycVerification = await EkycVerification.findOne({ userId });
       
@@ -53,8 +83,10 @@ class EkycController {
         });
       }
 
-      // Delete old image if exists
-      if (ekycVerification.faceImageUrl && fs.existsSync(ekycVerification.faceImageUrl)) {
+      // Release the previous image (deleted once nothing references it)
+      const previousHash = ekycVerification.faceImageHash;
+      if (!previousHash && ekycVerification.faceImageUrl && fs.existsSync(ekycVerification.faceImageUrl)) {
+        // Legacy per-upload file from before the blob store
         try {
           fs.unlinkSync(ekycVerification.faceImageUrl);
         } catch (err) {
@@ -62,46 +94,35 @@ class EkycController {
         }
       }
 
-      // Store image path
-      ekycVerification.faceImageUrl = req.file.path;
+      // Store image reference
+      ekycVerification.faceImageHash = blob.hash;
+      ekycVerification.faceImageUrl = blob.path;
       ekycVerification.verificationStatus = 'PENDING';
-      
-      // Basic image quality check (simplified - in production use proper ML)
-      const imageQuality = EkycController.assessImageQuality(req.file);
+      ekycVerification.verifiedAt = undefined;
       ekycVerification.metadata = {
         ...ekycVerification.metadata,
         deviceInfo: req.headers['user-agent'] || '',
         ipAddress: req.ip,
         userAgent: req.headers['user-agent'] || '',
-        imageQuality: imageQuality.quality,
-        faceDetected: imageQuality.faceDetected,
-        verificationScore: imageQuality.score
+        imageQuality: undefined,
+        faceDetected: undefined,
+        verificationScore: undefined
+      };
+      ekycVerification.processing = {
+        status: 'QUEUED',
+        queuedAt: new Date(),
+        attempts: 0
       };
 
       await ekycVerification.save();
 
-      // In production, here you would:
-      // 1. Send image to face recognition service (AWS Rekognition, Google Cloud Vision, etc.)
-      // 2. Compare with ID document photo
-      // 3. Perform liveness detection
-      // 4. Update verification status based on results
+      if (previousHash) {
+        await BlobStore.release(previousHash);
+      }
+      ekycEvents.notifyStatusChanged(userId);
 
-      // For now, simulate verification (auto-approve for demo)
-      // In production, this should be async and handled by a background job
-      setTimeout(async () => {
-        try {
-          const verification = await EkycVerification.findById(ekycVerification._id);
-          if (verification && verification.verificationStatus === 'PENDING') {
-            // Simulate verification process
-            const score = Math.floor(Math.random() * 20) + 80; // 80-100 score
-            await verification.markAsVerified({
-              verificationScore: score
-            });
-          }
-        } catch (err) {
-          console.error('Error in async verification:', err);
-        }
-      }, 2000);
+      // Quality assessment, variants and verification run on the worker, off the request path
+      EkycWorker.enqueue(ekycVerification._id);
 
       res.status(200).json({
         success: true,
@@ -109,8 +130,9 @@ class EkycController {
         data: {
           verification_id: ekycVerification._id,
           verification_status: ekycVerification.verificationStatus,
-          image_quality: imageQuality.quality,
-          face_detected: imageQuality.faceDetected,
+          processing_status: ekycVerification.processing.status,
+          image_hash: blob.hash,
+          deduplicated,
           message: 'Your face image has been uploaded. Verification will be completed shortly.'
         }
       });
@@ -135,6 +157,282 @@ class EkycController {
     }
   }
 
+  // Start a resumable face image upload
+  static async initUpload(req, res) {
+    try {
+      const userId = req.userId.toString();
+      const totalSize = Number(req.body.total_size);
+      const fileName = req.body.file_name || 'face.jpg';
+
+      if (!Number.isInteger(totalSize) || totalSize <= 0) {
+        return res.status(400).json({
+          success: false,
+          message: 'total_size is required'
+        });
+      }
+
+      if (totalSize > MAX_UPLOAD_SIZE) {
+        return res.status(400).json({
+          success: false,
+          message: 'File size too large. Maximum size is 5MB'
+        });
+      }
+
+      EkycController.cleanupExpiredUploads();
+
+      if (!fs.existsSync(CHUNK_DIR)) {
+        fs.mkdirSync(CHUNK_DIR, { recursive: true });
+      }
+
+      const uploadId = crypto.randomBytes(16).toString('hex');
+      fs.writeFileSync(EkycController.partPath(uploadId), Buffer.alloc(0));
+      uploadSessions.set(uploadId, {
+        userId,
+        totalSize,
+        fileName: path.basename(fileName),
+        createdAt: Date.now()
+      });
+
+      res.status(201).json({
+        success: true,
+        message: 'Upload session created',
+        data: {
+          upload_id: uploadId,
+          chunk_size: CHUNK_SIZE,
+          received: 0,
+          total_size: totalSize
+        }
+      });
+    } catch (error) {
+      console.error('Init upload error:', error);
+      res.status(500).json({
+        success: false,
+        message: error.message || 'Failed to start upload'
+      });
+    }
+  }
+
+  // Get the acknowledged offset of a resumable upload
+  static async getUploadStatus(req, res) {
+    const completed = EkycController.findCompletedUpload(req);
+    if (completed) {
+      return res.status(200).json({
+        success: true,
+        message: 'Upload status retrieved successfully',
+        data: {
+          upload_id: req.params.uploadId,
+          received: completed.totalSize,
+          total_size: completed.totalSize,
+          completed: true
+        }
+      });
+    }
+
+    const session = EkycController.findUploadSession(req, res);
+    if (!session) {
+      return;
+    }
+
+    res.status(200).json({
+      success: true,
+      message: 'Upload status retrieved successfully',
+      data: {
+        upload_id: req.params.uploadId,
+        received: EkycController.receivedBytes(req.params.uploadId),
+        total_size: session.totalSize
+      }
+    });
+  }
+
+  // Append one chunk at the given offset (raw application/octet-stream body)
+  static async uploadChunk(req, res) {
+    try {
+      const uploadId = req.params.uploadId;
+      const session = EkycController.findUploadSession(req, res);
+      if (!session) {
+        return;
+      }
+
+      const offset = Number(req.query.offset);
+      const received = EkycController.receivedBytes(uploadId);
+      const chunk = Buffer.isBuffer(req.body) ? req.body : Buffer.alloc(0);
+
+      // Only accept the chunk that continues the file; the client resumes from `received`
+      if (offset !== received) {
+        return res.status(409).json({
+          success: false,
+          message: 'Offset mismatch',
+          data: { upload_id: uploadId, received, total_size: session.totalSize }
+        });
+      }
+
+      if (chunk.length === 0 || received + chunk.length > session.totalSize) {
+        return res.status(400).json({
+          success: false,
+          message: 'Invalid chunk size'
+        });
+      }
+
+      fs.appendFileSync(EkycController.partPath(uploadId), chunk);
+
+      res.status(200).json({
+        success: true,
+        message: 'Chunk received',
+        data: {
+          upload_id: uploadId,
+          received: received + chunk.length,
+          total_size: session.totalSize
+        }
+      });
+    } catch (error) {
+      console.error('Upload chunk error:', error);
+      res.status(500).json({
+        success: false,
+        message: error.message || 'Failed to store chunk'
+      });
+    }
+  }
+
+  // Reassemble a finished resumable upload and run the normal face image flow
+  static async completeUpload(req, res) {
+    const uploadId = req.params.uploadId;
+    const completed = EkycController.findCompletedUpload(req);
+    if (completed) {
+      const { statusCode, body } = await completed.result;
+      return res.status(statusCode).json(body);
+    }
+
+    const session = EkycController.findUploadSession(req, res);
+    if (!session) {
+      return;
+    }
+
+    const received = EkycController.receivedBytes(uploadId);
+    if (received !== session.totalSize) {
+      return res.status(409).json({
+        success: false,
+        message: 'Upload is incomplete',
+        data: { upload_id: uploadId, received, total_size: session.totalSize }
+      });
+    }
+
+    const partFile = EkycController.partPath(uploadId);
+    const mimetype = EkycController.detectImageType(partFile);
+    uploadSessions.delete(uploadId);
+
+    // registerFaceImage moves the file into the blob store (or deletes it if rejected);
+    // its response is recorded so a repeated /complete replays it
+    const recorder = EkycController.responseRecorder();
+    const result = EkycController.registerFaceImage(req, recorder, {
+      path: partFile,
+      size: received,
+      mimetype: mimetype || 'application/octet-stream',
+      originalname: session.fileName
+    }).then(() => recorder);
+    completedUploads.set(uploadId, {
+      userId: session.userId,
+      totalSize: session.totalSize,
+      result,
+      completedAt: Date.now()
+    });
+
+    const { statusCode, body } = await result;
+    res.status(statusCode).json(body);
+  }
+
+  // Helper: Look up an upload session owned by the current user (sends 410 otherwise).
+  // 410 rather than 404 so clients can tell an expired or unknown session from a server
+  // without the resumable upload routes
+  static findUploadSession(req, res) {
+    const session = uploadSessions.get(req.params.uploadId);
+    if (!session || session.userId !== req.userId.toString()
+        || !fs.existsSync(EkycController.partPath(req.params.uploadId))) {
+      res.status(410).json({
+        success: false,
+        message: 'Upload session not found',
+        code: 'UPLOAD_SESSION_NOT_FOUND'
+      });
+      return null;
+    }
+    return session;
+  }
+
+  // Helper: A finished upload of the current user that is still kept for replay
+  static findCompletedUpload(req) {
+    const completed = completedUploads.get(req.params.uploadId);
+    if (!completed || completed.userId !== req.userId.toString()
+        || Date.now() - completed.completedAt > COMPLETED_UPLOAD_TTL) {
+      return null;
+    }
+    return completed;
+  }
+
+  // Helper: Stand-in for res that keeps the status and JSON body
+  static responseRecorder() {
+    return {
+      statusCode: 200,
+      body: undefined,
+      status(code) {
+        this.statusCode = code;
+        return this;
+      },
+      json(body) {
+        this.body = body;
+        return this;
+      }
+    };
+  }
+
+  static partPath(uploadId) {
+    return path.join(CHUNK_DIR, `${uploadId}.part`);
+  }
+
+  static receivedBytes(uploadId) {
+    try {
+      return fs.statSync(EkycController.partPath(uploadId)).size;
+    } catch (err) {
+      return 0;
+    }
+  }
+
+  // Helper: Detect JPEG/PNG from magic bytes (chunked uploads carry no multipart mimetype)
+  static detectImageType(filePath) {
+    const header = Buffer.alloc(8);
+    const fd = fs.openSync(filePath, 'r');
+    try {
+      fs.readSync(fd, header, 0, 8, 0);
+    } finally {
+      fs.closeSync(fd);
+    }
+    if (header[0] === 0xFF && header[1] === 0xD8 && header[2] === 0xFF) {
+      return 'image/jpeg';
+    }
+    if (header.toString('hex', 0, 8) === '89504e470d0a1a0a') {
+      return 'image/png';
+    }
+    return null;
+  }
+
+  // Helper: Drop abandoned upload sessions and their partial files
+  static cleanupExpiredUploads() {
+    const now = Date.now();
+    for (const [uploadId, session] of uploadSessions) {
+      if (now - session.createdAt > UPLOAD_SESSION_TTL) {
+        uploadSessions.delete(uploadId);
+        try {
+          fs.unlinkSync(EkycController.partPath(uploadId));
+        } catch (err) {
+          // Already gone
+        }
+      }
+    }
+    for (const [uploadId, completed] of completedUploads) {
+      if (now - completed.completedAt > COMPLETED_UPLOAD_TTL) {
+        completedUploads.delete(uploadId);
+      }
+    }
+  }
+
   // Verify identity for high-value transaction
   static async verifyIdentity(req, res) {
     try {
@@ -232,32 +530,10 @@ class EkycController {
       const ekycVerification = await EkycVerification.findOne({ userId })
         .select('-faceImage -faceImageUrl'); // Don't send image data
 
-      if (!ekycVerification) {
-        return res.status(200).json({
-          success: true,
-          message: 'No eKYC verification found',
-          data: {
-            verification_status: 'NOT_STARTED',
-            has_face_image: false,
-            is_valid: false
-          }
-        });
-      }
-
       res.status(200).json({
         success: true,
-        message: 'Verification status retrieved successfully',
-        data: {
-          verification_id: ekycVerification._id,
-          verification_status: ekycVerification.verificationStatus,
-          has_face_image: !!ekycVerification.faceImageUrl,
-          is_valid: ekycVerification.isValid(),
-          verified_at: ekycVerification.verifiedAt,
-          expires_at: ekycVerification.expiresAt,
-          image_quality: ekycVerification.metadata?.imageQuality,
-          verification_score: ekycVerification.metadata?.verificationScore,
-          last_transaction_verification: ekycVerification.lastVerifiedForTransaction
-        }
+        message: ekycVerification ? 'Verification status retrieved successfully' : 'No eKYC verification found',
+        data: EkycController.formatStatus(ekycVerification)
       });
 
     } catch (error) {
@@ -270,28 +546,149 @@ class EkycController {
     }
   }
 
-  // Helper: Assess image quality (simplified)
-  static assessImageQuality(file) {
-    // In production, use proper image analysis library
-    // For now, simulate quality assessment
-    const size = file.size;
-    const minSize = 100 * 1024; // 100KB minimum
-    const maxSize = 5 * 1024 * 1024; // 5MB maximum
-
-    let quality = 'MEDIUM';
-    let score = 70;
-    let faceDetected = false;
-
-    if (size >= minSize && size <= maxSize) {
-      quality = 'HIGH';
-      score = 85;
-      faceDetected = true; // Simulate face detection
-    } else if (size < minSize) {
-      quality = 'LOW';
-      score = 50;
+  // Face image of the current user: GET /ekyc/face-image?variant=thumbnail&v=<face_image_version>
+  // A request naming the current version can be cached for good: a new upload changes the version.
+  static async getFaceImage(req, res) {
+    try {
+      const ekycVerification = await EkycVerification.findOne({ userId: req.userId }).select('faceImageHash');
+      const hash = ekycVerification && ekycVerification.faceImageHash;
+      const blob = hash ? await ImageBlob.findOne({ hash }) : null;
+      if (!blob) {
+        return res.status(404).json({
+          success: false,
+          message: 'No face image found'
+        });
+      }
+
+      // The thumbnail only exists when an image resizer is installed; clients downsample anyway
+      const variants = blob.variants || {};
+      const candidates = req.query.variant === 'thumbnail'
+        ? [variants.thumbnail, variants.normalized, blob.path]
+        : [variants.normalized, blob.path];
+      const filePath = candidates.find(candidate => candidate && fs.existsSync(candidate));
+      if (!filePath) {
+        return res.status(404).json({
+          success: false,
+          message: 'No face image found'
+        });
+      }
+
+      const version = hash.substring(0, FACE_IMAGE_VERSION_LENGTH);
+      res.set('Cache-Control', req.query.v === version ? 'private, max-age=31536000, immutable' : 'private, no-cache');
+      res.sendFile(path.resolve(filePath));
+
+    } catch (error) {
+      console.error('Get face image error:', error);
+      res.status(500).json({
+        success: false,
+        message: 'Failed to get face image'
+      });
     }
+  }
+
+  // Long-poll for a status change: answers as soon as the status differs from `known`,
+  // otherwise waits up to `timeout` seconds (max 25) and returns the unchanged status
+  static async watchVerificationStatus(req, res) {
+    const userId = req.userId.toString();
+    const known = req.query.known || '';
+    const timeoutSeconds = Math.min(Math.max(Number(req.query.timeout) || 25, 1), 25);
+    const eventName = `status:${userId}`;
 
-    return { quality, score, faceDetected };
+    let finished = false;
+    let timer = null;
+
+    const respond = async (changed) => {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      clearTimeout(timer);
+      ekycEvents.removeListener(eventName, onChange);
+
+      try {
+        const ekycVerification = await EkycVerification.findOne({ userId: req.userId })
+          .select('-faceImage -faceImageUrl');
+        const data = EkycController.formatStatus(ekycVerification);
+        res.status(200).json({
+          success: true,
+          message: changed ? 'Verification status changed' : 'Verification status unchanged',
+          data: { ...data, changed: data.status_key !== known }
+        });
+      } catch (error) {
+        console.error('Watch verification status error:', error);
+        res.status(500).json({
+          success: false,
+          message: error.message || 'Failed to get verification status'
+        });
+      }
+    };
+
+    const onChange = () => respond(true);
+
+    try {
+      // Subscribe before reading so a change between the read and the wait is not missed
+      ekycEvents.on(eventName, onChange);
+      timer = setTimeout(() => respond(false), timeoutSeconds * 1000);
+      req.on('close', () => {
+        if (!finished) {
+          finished = true;
+          clearTimeout(timer);
+          ekycEvents.removeListener(eventName, onChange);
+        }
+      });
+
+      const current = await EkycVerification.findOne({ userId: req.userId }).select('verificationStatus processing faceImageHash');
+      if (EkycController.statusKey(current) !== known) {
+        return respond(true);
+      }
+    } catch (error) {
+      console.error('Watch verification status error:', error);
+      respond(false);
+    }
+  }
+
+  // Helper: Status payload shared by the status and watch endpoints
+  static formatStatus(ekycVerification) {
+    if (!ekycVerification) {
+      return {
+        verification_status: 'NOT_STARTED',
+        status_key: EkycController.statusKey(null),
+        has_face_image: false,
+        is_valid: false
+      };
+    }
+
+    return {
+      verification_id: ekycVerification._id,
+      verification_status: ekycVerification.verificationStatus,
+      status_key: EkycController.statusKey(ekycVerification),
+      processing_status: ekycVerification.processing?.status || 'DONE',
+      processing_queued_at: ekycVerification.processing?.queuedAt,
+      processing_completed_at: ekycVerification.processing?.completedAt,
+      processing_error: ekycVerification.processing?.error,
+      has_face_image: !!ekycVerification.faceImageHash,
+      face_image_version: ekycVerification.faceImageHash
+        ? ekycVerification.faceImageHash.substring(0, FACE_IMAGE_VERSION_LENGTH)
+        : undefined,
+      is_valid: ekycVerification.isValid(),
+      verified_at: ekycVerification.verifiedAt,
+      expires_at: ekycVerification.expiresAt,
+      image_quality: ekycVerification.metadata?.imageQuality,
+      verification_score: ekycVerification.metadata?.verificationScore,
+      last_transaction_verification: ekycVerification.lastVerifiedForTransaction
+    };
+  }
+
+  // Helper: Compact key that changes whenever anything a client displays changes
+  static statusKey(ekycVerification) {
+    if (!ekycVerification) {
+      return 'NOT_STARTED';
+    }
+    return [
+      ekycVerification.verificationStatus,
+      ekycVerification.processing?.status || 'DONE',
+      (ekycVerification.faceImageHash || '').substring(0, FACE_IMAGE_VERSION_LENGTH)
+    ].join(':');
   }
 
   // Helper: Compare face images (simplified - in production use ML service)
@@ -1,9 +1,15 @@
 const Payment = require('../models/Payment');
 const Account = require('../models/Account');
 const Transaction = require('../models/Transaction');
+const FeeSchedule = require('../utils/feeSchedule');
+const paymentEvents = require('../utils/paymentEvents');
 const crypto = require('crypto');
 const axios = require('axios');
 
+// Statuses a payment never leaves; the watch endpoint also reports NOT_FOUND for unknown ids
+const FINAL_STATUSES = ['COMPLETED', 'FAILED', 'CANCELLED'];
+const MAX_WATCHED_PAYMENTS = 20;
+
 class PaymentController {
   /**
    * Create VNPay payment
@@ -243,6 +249,7 @@ class PaymentController {
           payment.status = 'COMPLETED';
           payment.completedAt = new Date();
           await payment.save();
+          paymentEvents.notifyStatusChanged(payment.userId);
 
           // Return success response
           return res.redirect(`${payment.metadata.returnUrl}?paymentId=${payment.paymentId}&status=success`);
@@ -253,6 +260,7 @@ class PaymentController {
         payment.failureReason = `VNPay response code: ${responseCode}, status: ${transactionStatus}`;
         payment.completedAt = new Date();
         await payment.save();
+        paymentEvents.notifyStatusChanged(payment.userId);
 
         return res.redirect(`${payment.metadata.cancelUrl}?paymentId=${payment.paymentId}&status=failed&reason=${payment.failureReason}`);
       }
@@ -311,6 +319,10 @@ class PaymentController {
         });
       }
 
+      if (FeeSchedule.rejectIfStale(req, res)) {
+        return;
+      }
+
       // Find account
       const account = await Account.findOne({
         _id: accountId,
@@ -446,17 +458,7 @@ class PaymentController {
 
       res.json({
         success: true,
-        data: {
-          paymentId: payment.paymentId,
-          amount: payment.amount,
-          currency: payment.currency,
-          paymentMethod: payment.paymentMethod,
-          status: payment.status,
-          description: payment.description,
-          createdAt: payment.createdAt,
-          completedAt: payment.completedAt,
-          transaction: payment.transactionId
-        }
+        data: PaymentController.formatStatus(payment)
       });
     } catch (error) {
       console.error('Get payment status error:', error);
@@ -467,6 +469,120 @@ class PaymentController {
     }
   }
 
+  /**
+   * Long-poll for status changes of several payments at once
+   * GET /api/payments/status/watch?known=<paymentId>:<status>,...&timeout=25
+   * Answers as soon as any payment's status differs from the one the client sent, otherwise
+   * waits up to `timeout` seconds (max 25) and returns the unchanged statuses.
+   */
+  static async watchPaymentStatus(req, res) {
+    const userId = req.userId.toString();
+    const known = new Map(String(req.query.known || '')
+      .split(',')
+      .filter(Boolean)
+      .slice(0, MAX_WATCHED_PAYMENTS)
+      .map(entry => {
+        const separator = entry.lastIndexOf(':');
+        return separator > 0 ? [entry.substring(0, separator), entry.substring(separator + 1)] : [entry, ''];
+      }));
+    if (known.size === 0) {
+      return res.status(400).json({
+        success: false,
+        message: 'known must list at least one paymentId:status'
+      });
+    }
+    const timeoutSeconds = Math.min(Math.max(Number(req.query.timeout) || 25, 1), 25);
+    const eventName = `payment:${userId}`;
+
+    let finished = false;
+    let timer = null;
+
+    const load = async () => {
+      const payments = await Payment.find({ userId: req.userId, paymentId: { $in: [...known.keys()] } })
+        .populate('transactionId', 'transactionId status amount');
+      const byId = new Map(payments.map(payment => [payment.paymentId, payment]));
+      return [...known.keys()].map(paymentId => byId.has(paymentId)
+        ? PaymentController.formatStatus(byId.get(paymentId))
+        : { paymentId, status: 'NOT_FOUND' });
+    };
+    const changedFrom = (statuses) => statuses.some(status => status.status !== known.get(status.paymentId));
+
+    const respond = async (statuses) => {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      clearTimeout(timer);
+      paymentEvents.removeListener(eventName, onChange);
+
+      try {
+        const payments = statuses || await load();
+        const changed = changedFrom(payments);
+        res.status(200).json({
+          success: true,
+          message: changed ? 'Payment status changed' : 'Payment status unchanged',
+          data: { payments, changed }
+        });
+      } catch (error) {
+        console.error('Watch payment status error:', error);
+        res.status(500).json({
+          success: false,
+          message: 'Lỗi lấy trạng thái thanh toán: ' + error.message
+        });
+      }
+    };
+
+    // Another of the user's payments may have changed; keep waiting unless one of these did
+    const onChange = async () => {
+      try {
+        const statuses = await load();
+        if (changedFrom(statuses)) {
+          respond(statuses);
+        }
+      } catch (error) {
+        console.error('Watch payment status error:', error);
+      }
+    };
+
+    try {
+      // Subscribe before reading so a change between the read and the wait is not missed
+      paymentEvents.on(eventName, onChange);
+      timer = setTimeout(() => respond(), timeoutSeconds * 1000);
+      req.on('close', () => {
+        if (!finished) {
+          finished = true;
+          clearTimeout(timer);
+          paymentEvents.removeListener(eventName, onChange);
+        }
+      });
+
+      const current = await load();
+      if (changedFrom(current)) {
+        return respond(current);
+      }
+    } catch (error) {
+      console.error('Watch payment status error:', error);
+      respond();
+    }
+  }
+
+  // Helper: Status payload shared by the status and watch endpoints
+  static formatStatus(payment) {
+    return {
+      paymentId: payment.paymentId,
+      amount: payment.amount,
+      currency: payment.currency,
+      paymentMethod: payment.paymentMethod,
+      status: payment.status,
+      final: FINAL_STATUSES.includes(payment.status),
+      description: payment.description,
+      failureReason: payment.failureReason,
+      createdAt: payment.createdAt,
+      completedAt: payment.completedAt,
+      transaction: payment.transactionId
+    };
+  }
+
   /**
    * Get user payment history
    * GET /api/payments/history
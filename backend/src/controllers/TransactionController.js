@@ -3,6 +3,7 @@ const Account = require('../models/Account');
 const OtpCode = require('../models/OtpCode');
 const EkycVerification = require('../models/EkycVerification');
 const OTPUtils = require('../utils/otp');
+const FeeSchedule = require('../utils/feeSchedule');
 const { formatAccount, formatTransaction } = require('../utils/responseFormatter');
 
 class TransactionController {
@@ -47,6 +48,11 @@ class TransactionController {
         });
       }
 
+      // The fee shown to the user was quoted from the client's cached schedule
+      if (FeeSchedule.rejectIfStale(req, res)) {
+        return;
+      }
+
       // Find from account (use provided ID or fallback to primary checking)
       let fromAccount = null;
       if (actualFromAccountId) {
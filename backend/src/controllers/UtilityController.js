@@ -5,8 +5,60 @@ const Transaction = require('../models/Transaction');
 const User = require('../models/User');
 const Branch = require('../models/Branch');
 const OTPUtils = require('../utils/otp');
+const FeeSchedule = require('../utils/feeSchedule');
 const { formatUtility } = require('../utils/responseFormatter');
 
+// Provider catalog. Clients cache it for a day, so changes take up to that long to show up
+const PROVIDERS = {
+  ELECTRICITY: [
+    { code: 'EVN', name: 'Điện Lực Việt Nam', logo: 'evn_logo.png' }
+  ],
+  WATER: [
+    { code: 'SAWACO', name: 'Công ty nước Sài Gòn', logo: 'sawaco_logo.png' },
+    { code: 'HAWACO', name: 'Công ty nước Hà Nội', logo: 'hawaco_logo.png' }
+  ],
+  INTERNET: [
+    { code: 'VNPT', name: 'VNPT', logo: 'vnpt_logo.png' },
+    { code: 'VIETTEL', name: 'Viettel', logo: 'viettel_logo.png' },
+    { code: 'FPT', name: 'FPT Telecom', logo: 'fpt_logo.png' }
+  ],
+  PHONE_TOPUP: [
+    { code: 'VIETTEL', name: 'Viettel', logo: 'viettel_logo.png' },
+    { code: 'VINAPHONE', name: 'Vinaphone', logo: 'vinaphone_logo.png' },
+    { code: 'MOBIFONE', name: 'Mobifone', logo: 'mobifone_logo.png' },
+    { code: 'VIETNAMOBILE', name: 'Vietnamobile', logo: 'vietnamobile_logo.png' }
+  ],
+  FLIGHT: [
+    { code: 'VIETJET', name: 'VietJet Air', logo: 'vietjet_logo.png' },
+    { code: 'VIETNAM_AIRLINES', name: 'Vietnam Airlines', logo: 'vietnam_airlines_logo.png' },
+    { code: 'BAMBOO', name: 'Bamboo Airways', logo: 'bamboo_logo.png' },
+    { code: 'JETSTAR', name: 'Jetstar Pacific', logo: 'jetstar_logo.png' }
+  ],
+  MOVIE: [
+    { code: 'CGV', name: 'CGV Cinemas', logo: 'cgv_logo.png' },
+    { code: 'LOTTE', name: 'Lotte Cinemas', logo: 'lotte_logo.png' },
+    { code: 'GALAXY', name: 'Galaxy Cinemas', logo: 'galaxy_logo.png' },
+    { code: 'BHD', name: 'BHD Star Cinemas', logo: 'bhd_logo.png' }
+  ],
+  HOTEL: [
+    { code: 'AGODA', name: 'Agoda', logo: 'agoda_logo.png' },
+    { code: 'BOOKING', name: 'Booking.com', logo: 'booking_logo.png' },
+    { code: 'TRAVELOKA', name: 'Traveloka', logo: 'traveloka_logo.png' },
+    { code: 'EXPEDIA', name: 'Expedia', logo: 'expedia_logo.png' }
+  ],
+  ECOMMERCE: [
+    { code: 'SHOPEE', name: 'Shopee', logo: 'shopee_logo.png' },
+    { code: 'LAZADA', name: 'Lazada', logo: 'lazada_logo.png' },
+    { code: 'TIKI', name: 'Tiki', logo: 'tiki_logo.png' },
+    { code: 'SENDO', name: 'Sendo', logo: 'sendo_logo.png' }
+  ]
+};
+
+const PROVIDER_CACHE_SECONDS = 24 * 60 * 60;
+
+// Bills looked up per bill-info batch request
+const MAX_BILL_INFO_BATCH = 20;
+
 class UtilityController {
   // Pay electricity bill
   static async payElectricityBill(req, res) {
@@ -381,6 +433,10 @@ class UtilityController {
         });
       }
 
+      if (FeeSchedule.rejectIfStale(req, res)) {
+        return;
+      }
+
       // Find account
       let account = null;
       if (accountId) {
@@ -774,60 +830,16 @@ class UtilityController {
     try {
       const { serviceType } = req.query;
 
-      const providers = {
-        ELECTRICITY: [
-          { code: 'EVN', name: 'Điện Lực Việt Nam', logo: 'evn_logo.png' }
-        ],
-        WATER: [
-          { code: 'SAWACO', name: 'Công ty nước Sài Gòn', logo: 'sawaco_logo.png' },
-          { code: 'HAWACO', name: 'Công ty nước Hà Nội', logo: 'hawaco_logo.png' }
-        ],
-        INTERNET: [
-          { code: 'VNPT', name: 'VNPT', logo: 'vnpt_logo.png' },
-          { code: 'VIETTEL', name: 'Viettel', logo: 'viettel_logo.png' },
-          { code: 'FPT', name: 'FPT Telecom', logo: 'fpt_logo.png' }
-        ],
-        PHONE_TOPUP: [
-          { code: 'VIETTEL', name: 'Viettel', logo: 'viettel_logo.png' },
-          { code: 'VINAPHONE', name: 'Vinaphone', logo: 'vinaphone_logo.png' },
-          { code: 'MOBIFONE', name: 'Mobifone', logo: 'mobifone_logo.png' },
-          { code: 'VIETNAMOBILE', name: 'Vietnamobile', logo: 'vietnamobile_logo.png' }
-        ],
-        FLIGHT: [
-          { code: 'VIETJET', name: 'VietJet Air', logo: 'vietjet_logo.png' },
-          { code: 'VIETNAM_AIRLINES', name: 'Vietnam Airlines', logo: 'vietnam_airlines_logo.png' },
-          { code: 'BAMBOO', name: 'Bamboo Airways', logo: 'bamboo_logo.png' },
-          { code: 'JETSTAR', name: 'Jetstar Pacific', logo: 'jetstar_logo.png' }
-        ],
-        MOVIE: [
-          { code: 'CGV', name: 'CGV Cinemas', logo: 'cgv_logo.png' },
-          { code: 'LOTTE', name: 'Lotte Cinemas', logo: 'lotte_logo.png' },
-          { code: 'GALAXY', name: 'Galaxy Cinemas', logo: 'galaxy_logo.png' },
-          { code: 'BHD', name: 'BHD Star Cinemas', logo: 'bhd_logo.png' }
-        ],
-        HOTEL: [
-          { code: 'AGODA', name: 'Agoda', logo: 'agoda_logo.png' },
-          { code: 'BOOKING', name: 'Booking.com', logo: 'booking_logo.png' },
-          { code: 'TRAVELOKA', name: 'Traveloka', logo: 'traveloka_logo.png' },
-          { code: 'EXPEDIA', name: 'Expedia', logo: 'expedia_logo.png' }
-        ],
-        ECOMMERCE: [
-          { code: 'SHOPEE', name: 'Shopee', logo: 'shopee_logo.png' },
-          { code: 'LAZADA', name: 'Lazada', logo: 'lazada_logo.png' },
-          { code: 'TIKI', name: 'Tiki', logo: 'tiki_logo.png' },
-          { code: 'SENDO', name: 'Sendo', logo: 'sendo_logo.png' }
-        ]
-      };
-
-      if (serviceType && providers[serviceType]) {
+      res.set('Cache-Control', `private, max-age=${PROVIDER_CACHE_SECONDS}`);
+      if (serviceType && PROVIDERS[serviceType]) {
         res.status(200).json({
           success: true,
-          data: providers[serviceType]
+          data: PROVIDERS[serviceType]
         });
       } else {
         res.status(200).json({
           success: true,
-          data: providers
+          data: PROVIDERS
         });
       }
 
@@ -840,6 +852,110 @@ class UtilityController {
     }
   }
 
+  // Amount due for one bill: GET /utilities/bill-info?serviceType=&customerNumber=
+  static async getBillInfo(req, res) {
+    try {
+      const { serviceType, customerNumber } = req.query;
+      if (!serviceType || !customerNumber) {
+        return res.status(400).json({
+          success: false,
+          message: 'Service type and customer number are required'
+        });
+      }
+
+      const [info] = await UtilityController.lookupBills(req.userId, [
+        { service_type: serviceType, customer_number: customerNumber }
+      ]);
+      res.status(200).json({
+        success: true,
+        data: info
+      });
+
+    } catch (error) {
+      console.error('Get bill info error:', error);
+      res.status(500).json({
+        success: false,
+        message: 'Failed to retrieve bill info'
+      });
+    }
+  }
+
+  // Amounts due for a list of saved bills in one request: { bills: [{ service_type, customer_number }] }
+  static async getBillInfoBatch(req, res) {
+    try {
+      const { bills } = req.body;
+      if (!Array.isArray(bills) || bills.length === 0) {
+        return res.status(400).json({
+          success: false,
+          message: 'bills must be a non-empty array'
+        });
+      }
+      if (bills.length > MAX_BILL_INFO_BATCH) {
+        return res.status(400).json({
+          success: false,
+          message: `At most ${MAX_BILL_INFO_BATCH} bills per request`
+        });
+      }
+      if (bills.some(bill => !bill || !bill.service_type || !bill.customer_number)) {
+        return res.status(400).json({
+          success: false,
+          message: 'Each bill needs service_type and customer_number'
+        });
+      }
+
+      res.status(200).json({
+        success: true,
+        data: await UtilityController.lookupBills(req.userId, bills)
+      });
+
+    } catch (error) {
+      console.error('Get bill info batch error:', error);
+      res.status(500).json({
+        success: false,
+        message: 'Failed to retrieve bill info'
+      });
+    }
+  }
+
+  // The simulated billers keep no ledger, so a bill's amount due is what the user paid for it last
+  // time, or 0 once it has been paid this month. amount_due is null for bills never paid here.
+  static async lookupBills(userId, bills) {
+    const requested = bills.map(bill => ({
+      serviceType: String(bill.service_type),
+      serviceNumber: String(bill.customer_number)
+    }));
+    const payments = await Utility.lastCompletedFor(userId, requested);
+    const byKey = new Map(payments.map(payment => [`${payment.serviceType}:${payment.serviceNumber}`, payment]));
+
+    const now = new Date();
+    const monthStart = new Date(now.getFullYear(), now.getMonth(), 1);
+    return requested.map(({ serviceType, serviceNumber }) => {
+      const last = byKey.get(`${serviceType}:${serviceNumber}`);
+      if (!last) {
+        return {
+          service_type: serviceType,
+          customer_number: serviceNumber,
+          found: false,
+          amount_due: null
+        };
+      }
+      const paidThisMonth = last.processedAt >= monthStart;
+      return {
+        service_type: serviceType,
+        customer_number: serviceNumber,
+        found: true,
+        provider: last.provider,
+        customer_name: (last.metadata && last.metadata.customerName) || '',
+        last_amount: last.amount,
+        last_period: (last.metadata && last.metadata.period) || '',
+        last_paid_at: last.processedAt,
+        paid_this_month: paidThisMonth,
+        amount_due: paidThisMonth ? 0 : last.amount,
+        currency: last.currency || 'VND'
+      };
+    });
+  }
+
   // Get all bank branches
   static async getBranches(req, res) {
     try {
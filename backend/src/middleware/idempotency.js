@@ -0,0 +1,94 @@
+const crypto = require('crypto');
+const IdempotencyKey = require('../models/IdempotencyKey');
+
+const MAX_KEY_LENGTH = 128;
+// How long a request may run before a retry with its key is allowed to run it again;
+// only reached when the server died mid-request, since every finished request is stored
+const LOCK_MS = 2 * 60 * 1000;
+
+const requestHash = (req) => crypto.createHash('sha256')
+  .update(`${req.method} ${req.baseUrl}${req.path}\n${JSON.stringify(req.body || {})}`)
+  .digest('hex');
+
+// Runs a money-moving request at most once per Idempotency-Key (per user, for 24 hours).
+// A repeat of a finished request gets the first response again, with Idempotent-Replayed: true;
+// a repeat of one still running gets 503 IDEMPOTENCY_IN_PROGRESS and should retry later.
+// Every response is stored, errors included, so a key never runs its request twice.
+// Requests without the header are handled as before. Must come after authentication.
+const idempotency = async (req, res, next) => {
+  const key = req.get('Idempotency-Key');
+  if (!key) {
+    return next();
+  }
+  if (key.length > MAX_KEY_LENGTH) {
+    return res.status(400).json({
+      success: false,
+      message: `Idempotency-Key must be at most ${MAX_KEY_LENGTH} characters`
+    });
+  }
+
+  try {
+    const hash = requestHash(req);
+    let record;
+    try {
+      record = await IdempotencyKey.create({
+        userId: req.userId,
+        key,
+        requestHash: hash,
+        lockedUntil: new Date(Date.now() + LOCK_MS)
+      });
+    } catch (error) {
+      if (error.code !== 11000) {
+        throw error;
+      }
+      const existing = await IdempotencyKey.findOne({ userId: req.userId, key });
+      if (existing && existing.requestHash !== hash) {
+        return res.status(422).json({
+          success: false,
+          code: 'IDEMPOTENCY_KEY_REUSED',
+          message: 'Idempotency-Key was already used for a different request'
+        });
+      }
+      if (existing && existing.status === 'COMPLETED') {
+        res.set('Idempotent-Replayed', 'true');
+        return res.status(existing.responseStatus).json(existing.responseBody);
+      }
+      // Take over a request whose server died before answering
+      record = existing && await IdempotencyKey.findOneAndUpdate(
+        { _id: existing._id, status: 'IN_PROGRESS', lockedUntil: { $lt: new Date() } },
+        { lockedUntil: new Date(Date.now() + LOCK_MS) },
+        { new: true }
+      );
+      if (!record) {
+        // 503 rather than 409: clients already retry it, and 409 stays a definite rejection
+        res.set('Retry-After', '1');
+        return res.status(503).json({
+          success: false,
+          code: 'IDEMPOTENCY_IN_PROGRESS',
+          message: 'A request with this Idempotency-Key is still being processed'
+        });
+      }
+    }
+
+    // Store the outcome before answering, so a retry after a lost response finds it
+    const json = res.json.bind(res);
+    res.json = (body) => {
+      IdempotencyKey.updateOne(
+        { _id: record._id },
+        { status: 'COMPLETED', responseStatus: res.statusCode, responseBody: body, $unset: { lockedUntil: 1 } }
+      )
+        .catch(error => console.error('Idempotency store error:', error))
+        .then(() => json(body));
+      return res;
+    };
+    next();
+  } catch (error) {
+    console.error('Idempotency error:', error);
+    res.status(500).json({
+      success: false,
+      message: 'Failed to process request'
+    });
+  }
+};
+
+module.exports = { idempotency };
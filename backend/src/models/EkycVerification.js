@@ -15,6 +15,10 @@ const ekycVerificationSchema = new mongoose.Schema({
     type: String, // URL to stored image file
     required: false
   },
+  faceImageHash: {
+    type: String, // sha256 of the image in the content-addressed blob store
+    required: false
+  },
   verificationStatus: {
     type: String,
     enum: ['PENDING', 'VERIFIED', 'REJECTED', 'EXPIRED'],
@@ -43,6 +47,20 @@ const ekycVerificationSchema = new mongoose.Schema({
     faceDetected: Boolean,
     verificationScore: Number // 0-100, confidence score
   },
+  processing: {
+    status: {
+      type: String,
+      enum: ['QUEUED', 'PROCESSING', 'DONE', 'FAILED']
+    },
+    queuedAt: Date,
+    startedAt: Date,
+    completedAt: Date,
+    attempts: {
+      type: Number,
+      default: 0
+    },
+    error: String
+  },
   lastVerifiedForTransaction: {
     transactionId: String,
     verifiedAt: Date,
@@ -56,6 +74,7 @@ const ekycVerificationSchema = new mongoose.Schema({
 ekycVerificationSchema.index({ userId: 1 }, { unique: true });
 ekycVerificationSchema.index({ verificationStatus: 1 });
 ekycVerificationSchema.index({ expiresAt: 1 });
+ekycVerificationSchema.index({ 'processing.status': 1 });
 
 // Check if verification is valid
 ekycVerificationSchema.methods.isValid = function() {
@@ -0,0 +1,43 @@
+const mongoose = require('mongoose');
+
+// Outcome of one client request, keyed by the Idempotency-Key the client sent with it.
+// A retry with the same key gets the stored response instead of running the request again.
+const idempotencyKeySchema = new mongoose.Schema({
+  userId: {
+    type: mongoose.Schema.Types.ObjectId,
+    ref: 'User',
+    required: true
+  },
+  key: {
+    type: String,
+    required: true
+  },
+  // sha256 of method, path and body: the same key may not be reused for a different request
+  requestHash: {
+    type: String,
+    required: true
+  },
+  status: {
+    type: String,
+    enum: ['IN_PROGRESS', 'COMPLETED'],
+    default: 'IN_PROGRESS'
+  },
+  responseStatus: Number,
+  responseBody: mongoose.Schema.Types.Mixed,
+  // Set while IN_PROGRESS; a request that crashed its server is taken over after this
+  lockedUntil: Date,
+  expiresAt: {
+    type: Date,
+    required: true,
+    default: () => new Date(Date.now() + 24 * 60 * 60 * 1000) // 24 hours
+  }
+}, {
+  timestamps: true
+});
+
+idempotencyKeySchema.index({ userId: 1, key: 1 }, { unique: true });
+
+// Index for automatic cleanup
+idempotencyKeySchema.index({ expiresAt: 1 }, { expireAfterSeconds: 0 });
+
+module.exports = mongoose.model('IdempotencyKey', idempotencyKeySchema);
@@ -0,0 +1,37 @@
+const mongoose = require('mongoose');
+
+// Content-addressed image blob: one row (and one file) per distinct image content
+const imageBlobSchema = new mongoose.Schema({
+  hash: {
+    type: String, // sha256 of the original bytes
+    required: true,
+    unique: true
+  },
+  path: {
+    type: String,
+    required: true
+  },
+  size: {
+    type: Number,
+    required: true
+  },
+  mimetype: {
+    type: String,
+    required: true
+  },
+  refCount: {
+    type: Number,
+    default: 0,
+    min: 0
+  },
+  variants: {
+    normalized: String, // metadata-stripped copy used for verification
+    thumbnail: String   // small preview (only when an image resizer is installed)
+  }
+}, {
+  timestamps: true
+});
+
+imageBlobSchema.index({ refCount: 1 });
+
+module.exports = mongoose.model('ImageBlob', imageBlobSchema);
@@ -1,4 +1,5 @@
 const mongoose = require('mongoose');
+const FeeSchedule = require('../utils/feeSchedule');
 
 const transactionSchema = new mongoose.Schema({
   transactionId: {
@@ -128,24 +129,9 @@ transactionSchema.statics.generateTransactionId = function() {
   return `TXN${timestamp}${random}`;
 };
 
-// Static method to calculate transaction fee
+// Static method to calculate transaction fee (see utils/feeSchedule)
 transactionSchema.statics.calculateFee = function(amount, transactionType = 'TRANSFER') {
-  // Simple fee calculation - in real app this would be more complex
-  let fee = 0;
-  
-  if (transactionType === 'TRANSFER') {
-    if (amount <= 100000) { // <= 100K VND
-      fee = 0;
-    } else if (amount <= 1000000) { // <= 1M VND
-      fee = 5000;
-    } else if (amount <= 10000000) { // <= 10M VND
-      fee = 10000;
-    } else {
-      fee = 20000;
-    }
-  }
-  
-  return fee;
+  return transactionType === 'TRANSFER' ? FeeSchedule.transferFee(amount) : 0;
 };
 
 module.exports = mongoose.model('Transaction', transactionSchema);
@@ -1,4 +1,5 @@
 const mongoose = require('mongoose');
+const FeeSchedule = require('../utils/feeSchedule');
 
 const utilitySchema = new mongoose.Schema({
   transactionId: {
@@ -82,6 +83,7 @@ utilitySchema.index({ transactionId: 1 }, { unique: true });
 utilitySchema.index({ userId: 1, createdAt: -1 });
 utilitySchema.index({ accountId: 1, createdAt: -1 });
 utilitySchema.index({ serviceType: 1, createdAt: -1 });
+utilitySchema.index({ userId: 1, serviceType: 1, serviceNumber: 1, processedAt: -1 });
 
 // Virtual for formatted amount
 utilitySchema.virtual('formattedAmount').get(function() {
@@ -118,33 +120,32 @@ utilitySchema.statics.generateTransactionId = function() {
   return `UTL${timestamp}${random}`;
 };
 
-// Static method to calculate utility fee
+// Static method to calculate utility fee (see utils/feeSchedule)
 utilitySchema.statics.calculateFee = function(amount, serviceType) {
-  let fee = 0;
-  
-  switch(serviceType) {
-    case 'ELECTRICITY':
-    case 'WATER':
-    case 'INTERNET':
-      fee = amount * 0.01; // 1% fee
-      if (fee > 20000) fee = 20000; // Max 20k VND
-      break;
-    case 'PHONE_TOPUP':
-    case 'DATA_PACKAGE':
-    case 'SCRATCH_CARD':
-      fee = 0; // No fee for mobile services
-      break;
-    case 'FLIGHT':
-    case 'HOTEL':
-    case 'MOVIE':
-    case 'ECOMMERCE':
-      fee = 5000; // Flat fee 5k VND
-      break;
-    default:
-      fee = 0;
+  return FeeSchedule.utilityFee(amount, serviceType);
+};
+
+// Latest completed payment of each { serviceType, serviceNumber } for a user, in one query
+utilitySchema.statics.lastCompletedFor = function(userId, bills) {
+  if (bills.length === 0) {
+    return Promise.resolve([]);
   }
-  
-  return Math.round(fee);
+  return this.aggregate([
+    {
+      $match: {
+        userId: new mongoose.Types.ObjectId(userId),
+        status: 'COMPLETED',
+        $or: bills.map(bill => ({ serviceType: bill.serviceType, serviceNumber: bill.serviceNumber }))
+      }
+    },
+    { $sort: { processedAt: -1 } },
+    {
+      $group: {
+        _id: { serviceType: '$serviceType', serviceNumber: '$serviceNumber' },
+        last: { $first: '$$ROOT' }
+      }
+    }
+  ]).then(groups => groups.map(group => group.last));
 };
 
 module.exports = mongoose.model('Utility', utilitySchema);
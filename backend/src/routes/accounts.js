@@ -1,6 +1,7 @@
 const express = require('express');
 const AccountController = require('../controllers/AccountController');
 const { authMiddleware } = require('../middleware/auth');
+const { idempotency } = require('../middleware/idempotency');
 
 const router = express.Router();
 
@@ -29,8 +30,8 @@ router.get('/:accountId/balance', AccountController.getAccountBalance);
 router.get('/number/:accountNumber', AccountController.getAccountByNumber);
 
 // Deposit and withdrawal
-router.post('/deposit', AccountController.depositMoney);
-router.post('/withdraw', AccountController.withdrawMoney);
+router.post('/deposit', idempotency, AccountController.depositMoney);
+router.post('/withdraw', idempotency, AccountController.withdrawMoney);
 
 // Create default accounts for user
 router.post('/create-defaults', AccountController.createDefaultAccounts);
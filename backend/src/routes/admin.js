@@ -1,6 +1,7 @@
 const express = require('express');
 const AdminController = require('../controllers/AdminController');
 const { authMiddleware, bankOfficerOnly } = require('../middleware/auth');
+const { idempotency } = require('../middleware/idempotency');
 
 const router = express.Router();
 
@@ -26,8 +27,8 @@ router.delete('/accounts/:accountId', AdminController.deactivateAccount);
 
 // Transaction management
 router.get('/transactions', AdminController.getAllTransactions);
-router.post('/transactions/transfer', AdminController.transferMoney);
-router.post('/transactions/deposit', AdminController.depositMoney);
+router.post('/transactions/transfer', idempotency, AdminController.transferMoney);
+router.post('/transactions/deposit', idempotency, AdminController.depositMoney);
 
 // Interest rate management
 router.put('/interest-rates', AdminController.updateInterestRate);
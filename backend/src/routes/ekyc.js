@@ -53,11 +53,24 @@ router.use(authMiddleware);
 // POST /api/ekyc/upload-face - Upload face image
 router.post('/upload-face', upload.single('faceImage'), EkycController.uploadFace);
 
+// Resumable chunked upload: init -> PUT chunks at the acknowledged offset -> complete
+// GET returns the acknowledged offset so an interrupted client can resume instead of restarting
+router.post('/uploads', EkycController.initUpload);
+router.get('/uploads/:uploadId', EkycController.getUploadStatus);
+router.put('/uploads/:uploadId', express.raw({ type: 'application/octet-stream', limit: '1mb' }), EkycController.uploadChunk);
+router.post('/uploads/:uploadId/complete', EkycController.completeUpload);
+
+// GET /api/ekyc/face-image?variant=thumbnail&v=<face_image_version> - Current face image
+router.get('/face-image', EkycController.getFaceImage);
+
 // POST /api/ekyc/verify-identity - Verify face for high-value transaction
 router.post('/verify-identity', EkycController.verifyIdentity);
 
 // GET /api/ekyc/verification-status - Get verification status
 router.get('/verification-status', EkycController.getVerificationStatus);
 
+// GET /api/ekyc/verification-status/watch?known=<status_key>&timeout=25 - Long-poll for the next status change
+router.get('/verification-status/watch', EkycController.watchVerificationStatus);
+
 module.exports = router;
 
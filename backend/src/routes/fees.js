@@ -0,0 +1,16 @@
+const express = require('express');
+const FeeSchedule = require('../utils/feeSchedule');
+
+const router = express.Router();
+
+// Current fee schedule. Public (fees are shown before login) and small; a client that already has
+// ?version=<current> gets only { version, unchanged: true }.
+router.get('/schedule', (req, res) => {
+  res.set('Cache-Control', 'no-cache');
+  if (req.query.version === FeeSchedule.version) {
+    return res.json({ success: true, data: { version: FeeSchedule.version, unchanged: true } });
+  }
+  res.json({ success: true, data: FeeSchedule.published() });
+});
+
+module.exports = router;
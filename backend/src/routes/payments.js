@@ -2,17 +2,19 @@ const express = require('express');
 const router = express.Router();
 const PaymentController = require('../controllers/PaymentController');
 const { authenticate } = require('../middleware/auth');
+const { idempotency } = require('../middleware/idempotency');
 
 // VNPay routes
-router.post('/vnpay/create-payment', authenticate, PaymentController.createVnpayPayment);
+router.post('/vnpay/create-payment', authenticate, idempotency, PaymentController.createVnpayPayment);
 router.get('/vnpay/callback', PaymentController.vnpayCallback);
 router.post('/vnpay/callback', PaymentController.vnpayCallback);
 
 // Bank transfer routes
-router.post('/bank-transfer', authenticate, PaymentController.createBankTransfer);
+router.post('/bank-transfer', authenticate, idempotency, PaymentController.createBankTransfer);
 
 // Payment status and history (specific routes before parameterized routes)
 router.get('/history/list', authenticate, PaymentController.getPaymentHistory);
+router.get('/status/watch', authenticate, PaymentController.watchPaymentStatus);
 router.get('/:paymentId', authenticate, PaymentController.getPaymentStatus);
 
 module.exports = router;
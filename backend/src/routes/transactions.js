@@ -1,6 +1,7 @@
 const express = require('express');
 const TransactionController = require('../controllers/TransactionController');
 const { authMiddleware } = require('../middleware/auth');
+const { idempotency } = require('../middleware/idempotency');
 
 const router = express.Router();
 
@@ -8,10 +9,10 @@ const router = express.Router();
 router.use(authMiddleware);
 
 // Initiate money transfer
-router.post('/transfer', TransactionController.initiateTransfer);
+router.post('/transfer', idempotency, TransactionController.initiateTransfer);
 
 // Verify OTP and complete transfer
-router.post('/verify-otp', TransactionController.verifyTransferOTP);
+router.post('/verify-otp', idempotency, TransactionController.verifyTransferOTP);
 
 // Get transaction history
 router.get('/history', TransactionController.getTransactionHistory);
@@ -2,27 +2,28 @@ const express = require('express');
 const router = express.Router();
 const UtilityController = require('../controllers/UtilityController');
 const { authenticate } = require('../middleware/auth');
+const { idempotency } = require('../middleware/idempotency');
 
 // Bill payments
-router.post('/pay-electricity', authenticate, UtilityController.payElectricityBill);
-router.post('/pay-water', authenticate, UtilityController.payWaterBill);
-router.post('/pay-internet', authenticate, UtilityController.payInternetBill);
+router.post('/pay-electricity', authenticate, idempotency, UtilityController.payElectricityBill);
+router.post('/pay-water', authenticate, idempotency, UtilityController.payWaterBill);
+router.post('/pay-internet', authenticate, idempotency, UtilityController.payInternetBill);
 
 // Mobile services
-router.post('/mobile-topup', authenticate, UtilityController.mobileTopup);
-router.post('/buy-data-package', authenticate, UtilityController.buyDataPackage);
-router.post('/buy-scratch-card', authenticate, UtilityController.buyScratchCard);
+router.post('/mobile-topup', authenticate, idempotency, UtilityController.mobileTopup);
+router.post('/buy-data-package', authenticate, idempotency, UtilityController.buyDataPackage);
+router.post('/buy-scratch-card', authenticate, idempotency, UtilityController.buyScratchCard);
 
 // Travel & Entertainment services
-router.post('/book-flight', authenticate, UtilityController.bookFlight);
-router.post('/buy-movie-ticket', authenticate, UtilityController.buyMovieTicket);
-router.post('/book-hotel', authenticate, UtilityController.bookHotel);
+router.post('/book-flight', authenticate, idempotency, UtilityController.bookFlight);
+router.post('/buy-movie-ticket', authenticate, idempotency, UtilityController.buyMovieTicket);
+router.post('/book-hotel', authenticate, idempotency, UtilityController.bookHotel);
 
 // E-commerce payment
-router.post('/pay-ecommerce', authenticate, UtilityController.payEcommerce);
+router.post('/pay-ecommerce', authenticate, idempotency, UtilityController.payEcommerce);
 
 // OTP verification
-router.post('/verify-otp', authenticate, UtilityController.verifyUtilityOTP);
+router.post('/verify-otp', authenticate, idempotency, UtilityController.verifyUtilityOTP);
 
 // History
 router.get('/history', authenticate, UtilityController.getUtilityHistory);
@@ -30,6 +31,10 @@ router.get('/history', authenticate, UtilityController.getUtilityHistory);
 // Service providers
 router.get('/providers', authenticate, UtilityController.getServiceProviders);
 
+// Amounts due for saved bills
+router.get('/bill-info', authenticate, UtilityController.getBillInfo);
+router.post('/bill-info/batch', authenticate, UtilityController.getBillInfoBatch);
+
 // Branch locations
 router.get('/branches', authenticate, UtilityController.getBranches);
 router.get('/branches/nearest', authenticate, UtilityController.getNearestBranch);
@@ -0,0 +1,108 @@
+const fs = require('fs');
+const path = require('path');
+const crypto = require('crypto');
+const ImageBlob = require('../models/ImageBlob');
+
+const BLOB_DIR = path.join(__dirname, '../../uploads/ekyc/blobs');
+
+// Tail of the pending put/release chain per hash
+const hashLocks = new Map();
+
+class BlobStore {
+  // sha256 of a file, streamed so large uploads are not read into memory at once
+  static hashFile(filePath) {
+    return new Promise((resolve, reject) => {
+      const hash = crypto.createHash('sha256');
+      fs.createReadStream(filePath)
+        .on('error', reject)
+        .on('data', chunk => hash.update(chunk))
+        .on('end', () => resolve(hash.digest('hex')));
+    });
+  }
+
+  // blobs/ab/abcdef....jpg - two-level fan-out keeps directories small
+  static blobPath(hash, ext) {
+    return path.join(BLOB_DIR, hash.substring(0, 2), `${hash}${ext}`);
+  }
+
+  static variantPath(hash, variant, ext) {
+    return path.join(BLOB_DIR, hash.substring(0, 2), `${hash}.${variant}${ext}`);
+  }
+
+  // Run put/release of one hash one at a time, so a release dropping the last reference cannot
+  // delete the file under a put that is reusing it
+  static withHashLock(hash, task) {
+    const run = (hashLocks.get(hash) || Promise.resolve()).then(task);
+    const tail = run.catch(() => {});
+    hashLocks.set(hash, tail);
+    tail.then(() => {
+      if (hashLocks.get(hash) === tail) {
+        hashLocks.delete(hash);
+      }
+    });
+    return run;
+  }
+
+  // Move a temp upload into the store and take one reference to it.
+  // An identical image that is already stored is reused and the temp file is dropped.
+  static async put(tempPath, mimetype) {
+    const hash = await BlobStore.hashFile(tempPath);
+    const ext = mimetype === 'image/png' ? '.png' : '.jpg';
+    const { size } = await fs.promises.stat(tempPath);
+
+    return BlobStore.withHashLock(hash, async () => {
+      const blob = await ImageBlob.findOneAndUpdate(
+        { hash },
+        {
+          $inc: { refCount: 1 },
+          $setOnInsert: { path: BlobStore.blobPath(hash, ext), size, mimetype }
+        },
+        { upsert: true, new: true }
+      );
+
+      // A record can outlive its file (a release interrupted between the unlink and the delete);
+      // the upload has the same bytes, so it takes the missing file's place. Missing variants
+      // are rebuilt by the worker.
+      const reused = fs.existsSync(blob.path);
+      if (reused) {
+        fs.unlinkSync(tempPath);
+      } else {
+        fs.mkdirSync(path.dirname(blob.path), { recursive: true });
+        fs.renameSync(tempPath, blob.path);
+      }
+
+      return { blob, deduplicated: reused && blob.refCount > 1 };
+    });
+  }
+
+  // Drop one reference; the blob and its variants are deleted with the last one
+  static async release(hash) {
+    if (!hash) {
+      return;
+    }
+
+    return BlobStore.withHashLock(hash, () => BlobStore.releaseLocked(hash));
+  }
+
+  static async releaseLocked(hash) {
+    const blob = await ImageBlob.findOneAndUpdate(
+      { hash, refCount: { $gt: 0 } },
+      { $inc: { refCount: -1 } },
+      { new: true }
+    );
+
+    if (blob && blob.refCount === 0) {
+      const files = [blob.path, blob.variants?.normalized, blob.variants?.thumbnail].filter(Boolean);
+      for (const file of files) {
+        try {
+          fs.unlinkSync(file);
+        } catch (err) {
+          // Already gone
+        }
+      }
+      await ImageBlob.deleteOne({ _id: blob._id, refCount: 0 });
+    }
+  }
+}
+
+module.exports = BlobStore;
@@ -0,0 +1,13 @@
+const EventEmitter = require('events');
+
+// In-process notifications of eKYC status changes, keyed by user: emit(`status:${userId}`)
+const ekycEvents = new EventEmitter();
+
+// One listener per waiting long-poll request
+ekycEvents.setMaxListeners(0);
+
+ekycEvents.notifyStatusChanged = (userId) => {
+  ekycEvents.emit(`status:${userId.toString()}`);
+};
+
+module.exports = ekycEvents;
@@ -0,0 +1,217 @@
+const fs = require('fs');
+const path = require('path');
+const EkycVerification = require('../models/EkycVerification');
+const ImageBlob = require('../models/ImageBlob');
+const BlobStore = require('./blobStore');
+const ekycEvents = require('./ekycEvents');
+
+const CONCURRENCY = 2;
+const MAX_ATTEMPTS = 3;
+const THUMBNAIL_SIZE = 160;
+
+// Optional resizer - thumbnails are only produced when sharp is installed
+let sharp = null;
+try {
+  sharp = require('sharp');
+} catch (err) {
+  sharp = null;
+}
+
+// In-process queue for eKYC post-processing, so uploads return before verification runs.
+// Job state lives on EkycVerification.processing, which also lets pending work resume after a restart.
+class EkycWorker {
+  static queue = [];
+  static queued = new Set();
+  static running = 0;
+
+  static enqueue(verificationId) {
+    const id = verificationId.toString();
+    if (EkycWorker.queued.has(id)) {
+      return;
+    }
+    EkycWorker.queued.add(id);
+    EkycWorker.queue.push(id);
+    setImmediate(EkycWorker.drain);
+  }
+
+  static drain() {
+    while (EkycWorker.running < CONCURRENCY && EkycWorker.queue.length > 0) {
+      const id = EkycWorker.queue.shift();
+      EkycWorker.running++;
+      EkycWorker.process(id)
+        .catch(err => console.error('eKYC worker error:', err))
+        .finally(() => {
+          EkycWorker.queued.delete(id);
+          EkycWorker.running--;
+          EkycWorker.drain();
+        });
+    }
+  }
+
+  // Re-queue anything left QUEUED/PROCESSING by a previous server process
+  static async resumePending() {
+    try {
+      const pending = await EkycVerification.find({
+        'processing.status': { $in: ['QUEUED', 'PROCESSING'] }
+      }).select('_id');
+      pending.forEach(v => EkycWorker.enqueue(v._id));
+      if (pending.length > 0) {
+        console.log(`🔄 Resumed ${pending.length} pending eKYC job(s)`);
+      }
+    } catch (err) {
+      console.error('Error resuming eKYC jobs:', err);
+    }
+  }
+
+  static async process(verificationId) {
+    const verification = await EkycVerification.findById(verificationId);
+    if (!verification || !verification.faceImageHash) {
+      return;
+    }
+
+    const hash = verification.faceImageHash;
+
+    verification.processing.status = 'PROCESSING';
+    verification.processing.startedAt = new Date();
+    verification.processing.attempts = (verification.processing.attempts || 0) + 1;
+    await verification.save();
+    ekycEvents.notifyStatusChanged(verification.userId);
+
+    try {
+      const blob = await ImageBlob.findOne({ hash });
+      if (!blob) {
+        throw new Error('Image blob not found');
+      }
+
+      await EkycWorker.createVariants(blob);
+
+      // In production, send the normalized image to a face recognition service
+      // (AWS Rekognition, Google Cloud Vision, etc.), compare with the ID document photo
+      // and run liveness detection. For now, simulate the result.
+      const imageQuality = EkycWorker.assessImageQuality(blob);
+      const score = Math.floor(Math.random() * 20) + 80; // 80-100 score
+
+      // A newer upload replaced the image while this job ran - that upload has its own job
+      const current = await EkycVerification.findById(verificationId);
+      if (!current || current.faceImageHash !== hash) {
+        return;
+      }
+
+      current.metadata.imageQuality = imageQuality.quality;
+      current.metadata.faceDetected = imageQuality.faceDetected;
+      current.processing.status = 'DONE';
+      current.processing.completedAt = new Date();
+      current.processing.error = undefined;
+      if (current.verificationStatus === 'PENDING') {
+        await current.markAsVerified({ verificationScore: score });
+      } else {
+        await current.save();
+      }
+      ekycEvents.notifyStatusChanged(current.userId);
+    } catch (err) {
+      console.error('eKYC processing failed:', err);
+      const current = await EkycVerification.findById(verificationId);
+      if (!current || current.faceImageHash !== hash) {
+        return;
+      }
+      current.processing.error = err.message;
+      if (current.processing.attempts < MAX_ATTEMPTS) {
+        current.processing.status = 'QUEUED';
+        await current.save();
+        setTimeout(() => EkycWorker.enqueue(verificationId), 1000 * current.processing.attempts);
+      } else {
+        current.processing.status = 'FAILED';
+        current.processing.completedAt = new Date();
+        await current.save();
+      }
+      ekycEvents.notifyStatusChanged(current.userId);
+    }
+  }
+
+  // Variants are derived from content, so they are built once per blob no matter how many users reference it
+  static async createVariants(blob) {
+    const variants = {
+      normalized: blob.variants?.normalized,
+      thumbnail: blob.variants?.thumbnail
+    };
+    const ext = path.extname(blob.path);
+    let changed = false;
+
+    if (!variants.normalized || !fs.existsSync(variants.normalized)) {
+      const normalizedPath = BlobStore.variantPath(blob.hash, 'normalized', ext);
+      const source = fs.readFileSync(blob.path);
+      const normalized = blob.mimetype === 'image/png' ? source : EkycWorker.stripJpegMetadata(source);
+      fs.writeFileSync(normalizedPath, normalized);
+      variants.normalized = normalizedPath;
+      changed = true;
+    }
+
+    if (sharp && (!variants.thumbnail || !fs.existsSync(variants.thumbnail))) {
+      const thumbnailPath = BlobStore.variantPath(blob.hash, 'thumb', '.jpg');
+      await sharp(blob.path)
+        .rotate()
+        .resize(THUMBNAIL_SIZE, THUMBNAIL_SIZE, { fit: 'cover' })
+        .jpeg({ quality: 80 })
+        .toFile(thumbnailPath);
+      variants.thumbnail = thumbnailPath;
+      changed = true;
+    }
+
+    if (changed) {
+      await ImageBlob.updateOne({ _id: blob._id }, { $set: { variants } });
+    }
+  }
+
+  // Drop APP1-APP15 and COM segments (EXIF, GPS, maker notes) but keep the image data untouched
+  static stripJpegMetadata(buffer) {
+    if (buffer.length < 4 || buffer[0] !== 0xFF || buffer[1] !== 0xD8) {
+      return buffer;
+    }
+
+    const parts = [buffer.subarray(0, 2)];
+    let offset = 2;
+    while (offset + 4 <= buffer.length) {
+      if (buffer[offset] !== 0xFF) {
+        break;
+      }
+      const marker = buffer[offset + 1];
+      // Start of scan: everything after this is entropy-coded image data
+      if (marker === 0xDA) {
+        break;
+      }
+      const length = buffer.readUInt16BE(offset + 2);
+      const end = offset + 2 + length;
+      const isMetadata = (marker >= 0xE1 && marker <= 0xEF) || marker === 0xFE;
+      if (!isMetadata) {
+        parts.push(buffer.subarray(offset, end));
+      }
+      offset = end;
+    }
+    parts.push(buffer.subarray(offset));
+    return Buffer.concat(parts);
+  }
+
+  // Simplified image quality assessment - in production use proper image analysis
+  static assessImageQuality(blob) {
+    const size = blob.size;
+    const minSize = 100 * 1024; // 100KB minimum
+    const maxSize = 5 * 1024 * 1024; // 5MB maximum
+
+    let quality = 'MEDIUM';
+    let score = 70;
+    let faceDetected = false;
+
+    if (size >= minSize && size <= maxSize) {
+      quality = 'HIGH';
+      score = 85;
+      faceDetected = true; // Simulate face detection
+    } else if (size < minSize) {
+      quality = 'LOW';
+      score = 50;
+    }
+
+    return { quality, score, faceDetected };
+  }
+}
+
+module.exports = EkycWorker;
@@ -0,0 +1,92 @@
+const crypto = require('crypto');
+
+// The one place fees are defined. Clients fetch this schedule (GET /api/fees/schedule), quote fees
+// locally and send its version back with every transfer/payment; a request quoted against an older
+// version is rejected with 409 FEE_SCHEDULE_STALE instead of being charged a different fee.
+//
+// Amounts are whole VND; percentages are in basis points so clients never need floating point.
+const SCHEDULE = {
+  currency: 'VND',
+  transfer: {
+    min_amount: 10000,
+    // up_to is inclusive; null means no upper bound
+    tiers: [
+      { up_to: 100000, fee: 0 },
+      { up_to: 1000000, fee: 5000 },
+      { up_to: 10000000, fee: 10000 },
+      { up_to: null, fee: 20000 }
+    ]
+  },
+  utilities: {
+    ELECTRICITY: { percent_bps: 100, max_fee: 20000 },
+    WATER: { percent_bps: 100, max_fee: 20000 },
+    INTERNET: { percent_bps: 100, max_fee: 20000 },
+    PHONE_TOPUP: { flat_fee: 0 },
+    DATA_PACKAGE: { flat_fee: 0 },
+    SCRATCH_CARD: { flat_fee: 0 },
+    FLIGHT: { flat_fee: 5000 },
+    HOTEL: { flat_fee: 5000 },
+    MOVIE: { flat_fee: 5000 },
+    ECOMMERCE: { flat_fee: 5000 }
+  }
+};
+
+// Derived from the content, so any change to the rules above is a new version
+const VERSION = crypto.createHash('sha256').update(JSON.stringify(SCHEDULE)).digest('hex').substring(0, 12);
+
+const PUBLISHED = Object.freeze({ version: VERSION, ...SCHEDULE });
+
+const STALE_CODE = 'FEE_SCHEDULE_STALE';
+
+class FeeSchedule {
+  static get version() {
+    return VERSION;
+  }
+
+  static published() {
+    return PUBLISHED;
+  }
+
+  static transferFee(amount) {
+    const tier = SCHEDULE.transfer.tiers.find(t => t.up_to === null || amount <= t.up_to);
+    return tier ? tier.fee : 0;
+  }
+
+  static utilityFee(amount, serviceType) {
+    const rule = SCHEDULE.utilities[serviceType];
+    if (!rule) {
+      return 0;
+    }
+    if (rule.percent_bps !== undefined) {
+      // Half-up to a whole đồng, then capped
+      return Math.min(Math.round(amount * rule.percent_bps / 10000), rule.max_fee);
+    }
+    return rule.flat_fee;
+  }
+
+  // Version the client quoted against; requests from clients that never fetched the schedule carry none
+  static requestedVersion(req) {
+    return (req.body && (req.body.fee_schedule_version || req.body.feeScheduleVersion))
+      || req.get('X-Fee-Schedule-Version')
+      || null;
+  }
+
+  // Sends 409 and returns true when the request was quoted against another version
+  static rejectIfStale(req, res) {
+    const version = FeeSchedule.requestedVersion(req);
+    if (!version || version === VERSION) {
+      return false;
+    }
+    res.status(409).json({
+      success: false,
+      code: STALE_CODE,
+      message: 'Biểu phí đã thay đổi. Vui lòng kiểm tra lại phí và thử lại.',
+      data: { fee_schedule: PUBLISHED }
+    });
+    return true;
+  }
+}
+
+FeeSchedule.STALE_CODE = STALE_CODE;
+
+module.exports = FeeSchedule;
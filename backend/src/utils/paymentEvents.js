@@ -0,0 +1,13 @@
+const EventEmitter = require('events');
+
+// In-process notifications of payment status changes, keyed by user: emit(`payment:${userId}`)
+const paymentEvents = new EventEmitter();
+
+// One listener per waiting long-poll request
+paymentEvents.setMaxListeners(0);
+
+paymentEvents.notifyStatusChanged = (userId) => {
+  paymentEvents.emit(`payment:${userId.toString()}`);
+};
+
+module.exports = paymentEvents;
@@ -0,0 +1,51 @@
+import com.android.build.api.dsl.ManagedVirtualDevice
+
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.final_mobile.baselineprofile"
+    compileSdk = 33
+
+    defaultConfig {
+        minSdk = 28
+        targetSdk = 33
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Account used by the journeys (see backend/seed.js)
+        testInstrumentationRunnerArguments["journeyEmail"] = "customer@example.com"
+        testInstrumentationRunnerArguments["journeyPassword"] = "123456"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+
+    // Emulator managed by Gradle, so profiles can be generated without a connected device.
+    // The backend must be reachable from the emulator at ApiConfig.BASE_URL (10.0.2.2:8000).
+    testOptions.managedDevices.devices {
+        create<ManagedVirtualDevice>("pixel6Api31") {
+            device = "Pixel 6"
+            apiLevel = 31
+            systemImageSource = "aosp"
+        }
+    }
+}
+
+baselineProfile {
+    managedDevices += "pixel6Api31"
+    // Set to true to use a connected device/emulator instead of the managed one
+    useConnectedDevices = false
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.espresso.core)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
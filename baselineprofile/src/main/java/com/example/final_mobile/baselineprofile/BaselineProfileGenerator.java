@@ -0,0 +1,48 @@
+package com.example.final_mobile.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import kotlin.Unit;
+
+/**
+ * Generates the baseline profile for :app.
+ *
+ * Run with {@code ./gradlew :app:generateBaselineProfile}; the result is written to
+ * app/src/release/generated/baselineProfiles/ and merged with app/src/main/baseline-prof.txt.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                /* packageName = */ Journeys.PACKAGE_NAME,
+                /* profileBlock = */ scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+
+                    try {
+                        Journeys.login(scope);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    Journeys.browseHome(scope);
+                    Journeys.openTransactions(scope);
+                    Journeys.scrollTransactions(scope);
+                    Journeys.openTransfer(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.final_mobile.baselineprofile;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The critical user journeys shared by the profile generator and the benchmarks:
+ * login (with OTP) -> home -> transaction history -> transfer dialog.
+ *
+ * Needs the backend running with seed data. The OTP is read from the app's own ApiService
+ * debug log (the development backend returns it in the login response).
+ */
+final class Journeys {
+    static final String PACKAGE_NAME = "com.example.final_mobile";
+
+    private static final long TIMEOUT_MS = 15_000;
+    private static final Pattern OTP_PATTERN = Pattern.compile("\"development_otp\"\\s*:\\s*\"(\\d{6})\"");
+
+    private Journeys() {
+    }
+
+    static String argument(String name, String defaultValue) {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String value = arguments.getString(name);
+        return value != null ? value : defaultValue;
+    }
+
+    // LoginActivity -> OTP dialog -> MainActivity with balances loaded
+    static void login(MacrobenchmarkScope scope) throws IOException {
+        UiDevice device = scope.getDevice();
+        device.executeShellCommand("logcat -c");
+
+        waitFor(device, "et_email").setText(argument("journeyEmail", "customer@example.com"));
+        waitFor(device, "et_password").setText(argument("journeyPassword", "123456"));
+        waitFor(device, "btn_login").click();
+
+        waitFor(device, "et_otp").setText(readOtp(device));
+        waitFor(device, "btn_confirm").click();
+
+        waitFor(device, "tv_account_balance");
+        device.waitForIdle();
+    }
+
+    // Home screen: scroll the dashboard once (recent transactions, shortcuts)
+    static void browseHome(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 balance = waitFor(device, "tv_account_balance");
+        UiObject2 scrollable = device.findObject(By.scrollable(true));
+        if (scrollable != null) {
+            scrollable.setGestureMargin(device.getDisplayWidth() / 5);
+            scrollable.fling(Direction.DOWN);
+            scrollable.fling(Direction.UP);
+        }
+        balance.getText();
+        device.waitForIdle();
+    }
+
+    static void openTransactions(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        waitFor(device, "nav_transactions").click();
+        waitFor(device, "rv_transactions");
+        device.waitForIdle();
+    }
+
+    // Fling the transaction list down and back up (TransactionAdapter bind/recycle path)
+    static void scrollTransactions(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = waitFor(device, "rv_transactions");
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < 3; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    // Open the transfer dialog and close it again without submitting anything
+    static void openTransfer(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        waitFor(device, "btn_transfer").click();
+        device.waitForIdle();
+        device.pressBack();
+        device.waitForIdle();
+    }
+
+    private static UiObject2 waitFor(UiDevice device, String resourceId) {
+        UiObject2 object = device.wait(Until.findObject(By.res(PACKAGE_NAME, resourceId)), TIMEOUT_MS);
+        if (object == null) {
+            throw new IllegalStateException("View " + resourceId + " not found within " + TIMEOUT_MS + " ms");
+        }
+        return object;
+    }
+
+    private static String readOtp(UiDevice device) throws IOException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            String log = device.executeShellCommand("logcat -d -s ApiService:D");
+            Matcher matcher = OTP_PATTERN.matcher(log);
+            String otp = null;
+            while (matcher.find()) {
+                otp = matcher.group(1);
+            }
+            if (otp != null) {
+                return otp;
+            }
+            device.waitForIdle(500);
+        }
+        throw new IllegalStateException("Login OTP not found in logcat - is the development backend running?");
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.final_mobile.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Frame timings of the home -> transaction history journey, without AOT compilation vs with
+ * the baseline profile. Login happens in the setup block and is not measured.
+ */
+@RunWith(Parameterized.class)
+@LargeTest
+public class ScrollBenchmarks {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public ScrollBenchmarks(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> modes() {
+        return Arrays.asList(new Object[][]{
+                {"none", new CompilationMode.None()},
+                {"baselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require, 0)},
+        });
+    }
+
+    @Test
+    public void transactionHistory() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    try {
+                        Journeys.login(scope);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.browseHome(scope);
+                    Journeys.openTransactions(scope);
+                    Journeys.scrollTransactions(scope);
+                    Journeys.openTransfer(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.final_mobile.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold start of LoginActivity without AOT compilation vs with the baseline profile.
+ * Run with {@code ./gradlew :baselineprofile:pixel6Api31BenchmarkReleaseAndroidTest} (or
+ * connectedBenchmarkReleaseAndroidTest on a device) and compare timeToInitialDisplayMs.
+ */
+@RunWith(Parameterized.class)
+@LargeTest
+public class StartupBenchmarks {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmarks(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> modes() {
+        return Arrays.asList(new Object[][]{
+                {"none", new CompilationMode.None()},
+                {"baselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require, 0)},
+        });
+    }
+
+    @Test
+    public void coldStartup() {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,79 @@
+import groovy.json.JsonSlurper
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+// JMH benchmarks for :core on a plain JVM.
+//   ./gradlew :benchmarks:jmh                          run the suite
+//   ./gradlew :benchmarks:check                        run it and compare with baseline.json
+//   ./gradlew :benchmarks:check -PrecordBaseline       accept the current results as the baseline
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmh(project(":core"))
+    jmh(libs.json)
+    jmh(project(":mockserver"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // Short enough to run on every build; use -Pjmh.includes=... and more iterations when investigating
+    fork.set(1)
+    warmupIterations.set(2)
+    warmup.set("1s")
+    iterations.set(3)
+    timeOnIteration.set("1s")
+    resultFormat.set("JSON")
+    (findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+    // e.g. -Pjmh.profilers=gc for allocation rates
+    (findProperty("jmh.profilers") as String?)?.let { profilers.set(it.split(",")) }
+}
+
+// Fails when a benchmark got slower than the recorded baseline by more than the tolerance
+val checkBenchmarkRegressions by tasks.registering {
+    dependsOn("jmh")
+    val results = layout.buildDirectory.file("results/jmh/results.json")
+    val baseline = layout.projectDirectory.file("baseline.json")
+    val tolerance = (findProperty("benchmarkTolerance") as String?)?.toDouble() ?: 0.25
+    val record = hasProperty("recordBaseline")
+    doLast {
+        val resultFile = results.get().asFile
+        val baselineFile = baseline.asFile
+        if (record) {
+            resultFile.copyTo(baselineFile, overwrite = true)
+            logger.lifecycle("Recorded benchmark baseline in $baselineFile")
+            return@doLast
+        }
+        if (!baselineFile.exists()) {
+            logger.lifecycle("No benchmark baseline yet; record one with -PrecordBaseline")
+            return@doLast
+        }
+
+        // All benchmarks use average time (lower is better)
+        fun scores(file: File): Map<String, Double> =
+            (JsonSlurper().parse(file) as List<*>).associate { entry ->
+                val run = entry as Map<*, *>
+                val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",") { "${it.key}=${it.value}" }
+                val name = run["benchmark"] as String + (params?.let { "[$it]" } ?: "")
+                name to ((run["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+            }
+
+        val current = scores(resultFile)
+        val regressions = scores(baselineFile).mapNotNull { (name, before) ->
+            val after = current[name] ?: return@mapNotNull null
+            if (after > before * (1 + tolerance)) "$name: %.3f -> %.3f".format(before, after) else null
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmark regressions (> ${(tolerance * 100).toInt()}%):\n" + regressions.joinToString("\n"))
+        }
+    }
+}
+
+tasks.named("check") {
+    dependsOn(checkBenchmarkRegressions)
+}
@@ -0,0 +1,59 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.models.Transaction;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Payloads shaped like the backend's responses
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static JSONObject transactionJson(int i) throws JSONException {
+        return new JSONObject()
+                .put("id", String.format("65f1c0de%016x", i))
+                .put("transaction_id", "TXN" + (1700000000000L + i))
+                .put("from_account_id", "acc_001")
+                .put("to_account_id", "acc_" + (i % 7))
+                .put("from_account_number", "1234567890123456")
+                .put("to_account_number", "98765432101234" + (i % 10) + (i % 3))
+                .put("amount", i % 2 == 0 ? (Object) (150000 + i * 1000) : String.valueOf(99000 + i))
+                .put("currency", "VND")
+                .put("transaction_type", i % 5 == 0 ? "DEPOSIT" : "TRANSFER")
+                .put("status", i % 11 == 0 ? "PENDING" : "COMPLETED")
+                .put("description", "Chuyển tiền " + i)
+                .put("created_at", String.format("2025-11-%02dT%02d:20:47.532Z", 1 + i % 28, i % 24));
+    }
+
+    static JSONObject accountJson(int i) throws JSONException {
+        String[] types = {"CHECKING", "SAVING", "MORTGAGE"};
+        return new JSONObject()
+                .put("id", "acc_00" + i)
+                .put("user_id", "user_001")
+                .put("account_number", "123456789012345" + i)
+                .put("account_type", types[i % types.length])
+                .put("balance", i == 2 ? -500000000 : 250000000.5 + i)
+                .put("currency", "VND")
+                .put("is_active", true)
+                .put("interest_rate", i == 0 ? JSONObject.NULL : (Object) "6.5");
+    }
+
+    static List<Transaction> transactions(int count, int firstId) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setId("TXN" + (firstId + i));
+            transaction.setAmount(Money.vnd(150000 + i * 1000));
+            transaction.setStatus("COMPLETED");
+            transaction.setTransactionType("TRANSFER");
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
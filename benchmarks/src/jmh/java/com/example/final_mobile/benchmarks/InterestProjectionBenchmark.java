@@ -0,0 +1,43 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.BankingMath;
+import com.example.final_mobile.core.InterestProjector;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Savings projection over the month ranges offered by the interest calculator (1-360): the
+ * backend's double formula against the on-device InterestProjector, all rows materialized.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class InterestProjectionBenchmark {
+
+    @Param({"12", "60", "360"})
+    public int months;
+
+    public double balance = 150000000;
+    public double annualRatePercent = 6.5;
+
+    @Benchmark
+    public List<BankingMath.ProjectedMonth> project() {
+        return BankingMath.projectInterest(balance, annualRatePercent, months);
+    }
+
+    @Benchmark
+    public long projectMinorUnits() {
+        InterestProjector.Schedule schedule = InterestProjector.project(15_000_000_000L, 65_000, months,
+                InterestProjector.Compounding.MONTHLY);
+        return schedule.getFinalBalance();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.AccountJsonParser;
+import com.example.final_mobile.core.TransactionJsonParser;
+import com.example.final_mobile.models.Account;
+import com.example.final_mobile.models.Transaction;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a transactions page / accounts list from the raw response body, as ApiService
+ * and the services do on every load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JsonDecodingBenchmark {
+
+    @Param({"20", "200"})
+    public int size;
+
+    private String transactionsBody;
+    private String accountsBody;
+    private JSONArray transactionsArray;
+
+    @Setup
+    public void setUp() throws JSONException {
+        transactionsArray = new JSONArray();
+        for (int i = 0; i < size; i++) {
+            transactionsArray.put(Fixtures.transactionJson(i));
+        }
+        transactionsBody = new JSONObject().put("success", true).put("data", transactionsArray).toString();
+
+        JSONArray accounts = new JSONArray();
+        for (int i = 0; i < 3; i++) {
+            accounts.put(Fixtures.accountJson(i));
+        }
+        accountsBody = new JSONObject().put("success", true).put("data", accounts).toString();
+    }
+
+    @Benchmark
+    public List<Transaction> transactionsFromBody() throws JSONException {
+        return TransactionJsonParser.parseTransactions(new JSONObject(transactionsBody).getJSONArray("data"));
+    }
+
+    // Model mapping only, without tokenizing the body
+    @Benchmark
+    public List<Transaction> transactionsFromTree() throws JSONException {
+        return TransactionJsonParser.parseTransactions(transactionsArray);
+    }
+
+    @Benchmark
+    public List<Account> accountsFromBody() throws JSONException {
+        return AccountJsonParser.parseAccounts(new JSONObject(accountsBody).getJSONArray("data"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.ListDiff;
+import com.example.final_mobile.models.Transaction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diffing the transaction list on refresh: the common case (a few new transactions on top,
+ * one status change) and the worst case (unrelated order).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ListDiffBenchmark {
+
+    private static final ListDiff.ItemCallback<Transaction> CALLBACK = new ListDiff.ItemCallback<Transaction>() {
+        @Override
+        public boolean areItemsTheSame(Transaction oldItem, Transaction newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(Transaction oldItem, Transaction newItem) {
+            return Objects.equals(oldItem.getAmount(), newItem.getAmount())
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus());
+        }
+    };
+
+    @Param({"20", "200"})
+    public int size;
+
+    private List<Transaction> current;
+    private List<Transaction> refreshed;
+    private List<Transaction> shuffled;
+
+    @Setup
+    public void setUp() {
+        current = Fixtures.transactions(size, 100);
+
+        refreshed = new ArrayList<>(Fixtures.transactions(3, 100 + size));
+        refreshed.addAll(Fixtures.transactions(size, 100));
+        refreshed.get(5).setStatus("PENDING");
+
+        shuffled = new ArrayList<>(current);
+        Collections.shuffle(shuffled, new Random(7));
+    }
+
+    @Benchmark
+    public List<ListDiff.Update> refreshWithNewTransactions() {
+        return ListDiff.calculate(current, refreshed, CALLBACK);
+    }
+
+    @Benchmark
+    public List<ListDiff.Update> reordered() {
+        return ListDiff.calculate(current, shuffled, CALLBACK);
+    }
+}
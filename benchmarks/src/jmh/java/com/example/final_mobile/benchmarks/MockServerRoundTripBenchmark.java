@@ -0,0 +1,94 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.TransactionJsonParser;
+import com.example.final_mobile.mockserver.MockBankingServer;
+import com.example.final_mobile.mockserver.MockServerConfig;
+import com.example.final_mobile.models.Transaction;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A transaction history page fetched over loopback HTTP from MockBankingServer and decoded,
+ * i.e. the client-side cost of one history load without network or backend variance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MockServerRoundTripBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private MockBankingServer server;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JSONException {
+        server = MockBankingServer.start(MockServerConfig.builder().users(20).transactionsPerAccount(200).build());
+
+        JSONObject credentials = new JSONObject()
+                .put("email", MockBankingServer.CUSTOMER_EMAIL)
+                .put("password", MockBankingServer.DEFAULT_PASSWORD);
+        JSONObject login = new JSONObject(request("POST", "auth/login", credentials)).getJSONObject("data");
+        JSONObject otp = new JSONObject()
+                .put("otp_code", login.getString("development_otp"))
+                .put("token", login.getString("token"));
+        token = new JSONObject(request("POST", "auth/verify-otp", otp)).getJSONObject("data").getString("token");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<Transaction> historyPage() throws IOException, JSONException {
+        String body = request("GET", "transactions/history?page=1&limit=" + pageSize, null);
+        return TransactionJsonParser.parseTransactions(new JSONObject(body).getJSONArray("data"));
+    }
+
+    private String request(String method, String endpoint, JSONObject body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getBaseUrl() + endpoint).openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toString("UTF-8");
+        }
+    }
+}
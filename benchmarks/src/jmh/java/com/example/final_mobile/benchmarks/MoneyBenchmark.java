@@ -0,0 +1,92 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.Money;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amounts of a transactions page as BigDecimal (as the parsers and adapters used to handle them)
+ * against Money: reading them from the JSON tree, formatting every row once, and rebinding rows
+ * that were already formatted. Run with -Pjmh.profilers=gc to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    @Param({"20", "200"})
+    public int size;
+
+    private JSONArray transactions;
+    private BigDecimal[] decimals;
+    private Money[] amounts;
+
+    @Setup
+    public void setUp() throws JSONException {
+        transactions = new JSONArray();
+        for (int i = 0; i < size; i++) {
+            transactions.put(Fixtures.transactionJson(i));
+        }
+        decimals = bigDecimalAmounts();
+        amounts = moneyAmounts();
+        for (Money amount : amounts) {
+            amount.format();
+        }
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalAmounts() throws JSONException {
+        BigDecimal[] result = new BigDecimal[transactions.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new BigDecimal(transactions.getJSONObject(i).get("amount").toString());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Money[] moneyAmounts() throws JSONException {
+        Money[] result = new Money[transactions.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Money.fromJson(transactions.getJSONObject(i), "amount", Money.VND);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void bigDecimalRender(Blackhole blackhole) {
+        for (BigDecimal amount : decimals) {
+            blackhole.consume(String.format(Locale.getDefault(), "%,.0f VNĐ", amount.doubleValue()));
+        }
+    }
+
+    // First bind of freshly parsed rows
+    @Benchmark
+    public void moneyRender(Blackhole blackhole) {
+        for (Money amount : amounts) {
+            blackhole.consume(Money.vnd(amount.getMinorUnits()).format());
+        }
+    }
+
+    // Rebinding rows while scrolling back
+    @Benchmark
+    public void moneyRenderCached(Blackhole blackhole) {
+        for (Money amount : amounts) {
+            blackhole.consume(amount.format());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.BankingMath;
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.models.Account;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fee, interest, mortgage and formatting math as run while typing an amount or binding rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MoneyMathBenchmark {
+
+    private static final Money AVAILABLE = Money.vnd(1_000_000_000);
+
+    private Money[] amounts;
+    private Account savings;
+    private Account mortgage;
+
+    @Setup
+    public void setUp() {
+        amounts = new Money[64];
+        for (int i = 0; i < amounts.length; i++) {
+            // Spread across all fee tiers
+            amounts[i] = Money.vnd(50000L + i * 350000L);
+        }
+
+        savings = new Account();
+        savings.setAccountType(Account.TYPE_SAVING);
+        savings.setBalance(Money.vnd(150_000_000));
+        savings.setInterestRate(new BigDecimal("6.5"));
+
+        mortgage = new Account();
+        mortgage.setAccountType(Account.TYPE_MORTGAGE);
+        mortgage.setBalance(Money.vnd(-500_000_000));
+        mortgage.setInterestRate(new BigDecimal("8.2"));
+    }
+
+    @Benchmark
+    public void transferFee(Blackhole blackhole) {
+        for (Money amount : amounts) {
+            blackhole.consume(BankingMath.isValidTransferAmount(amount, AVAILABLE));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal monthlyInterest() {
+        return BankingMath.monthlyInterest(savings);
+    }
+
+    @Benchmark
+    public Money monthlyMortgagePayment() {
+        return BankingMath.monthlyMortgagePayment(mortgage);
+    }
+
+    @Benchmark
+    public void formatCurrency(Blackhole blackhole) {
+        for (Money amount : amounts) {
+            blackhole.consume(CurrencyFormatter.format(amount));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.MortgageEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A what-if grid of 1,000 mortgage scenarios (100 rates x 10 terms from 5 to 50 years), each
+ * evaluated to its payment and total interest: the unbounded BigDecimal.pow that
+ * BankingMath.monthlyMortgagePayment used to run, against MortgageEngine on one thread and split
+ * across all cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class MortgageScenarioBenchmark {
+
+    private static final BigDecimal PRINCIPAL = new BigDecimal("500000000");
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final BigDecimal TWELVE = new BigDecimal("12");
+
+    private final List<BigDecimal> rates = new ArrayList<>();
+    private final List<Integer> terms = new ArrayList<>();
+    private final List<MortgageEngine.Scenario> scenarios = new ArrayList<>();
+    private ExecutorService executor;
+    private int parallelism;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < 100; i++) {
+            BigDecimal rate = new BigDecimal("6.00").add(new BigDecimal("0.05").multiply(BigDecimal.valueOf(i)));
+            for (int years = 5; years <= 50; years += 5) {
+                rates.add(rate);
+                terms.add(years * 12);
+                scenarios.add(MortgageEngine.Scenario.of(PRINCIPAL, rate, years * 12));
+            }
+        }
+        parallelism = Runtime.getRuntime().availableProcessors();
+        executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public BigDecimal unboundedBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < rates.size(); i++) {
+            sum = sum.add(unboundedTotalInterest(rates.get(i), terms.get(i)));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<MortgageEngine.Summary> engineSequential() throws InterruptedException {
+        return MortgageEngine.summarizeAll(scenarios, null, 1);
+    }
+
+    @Benchmark
+    public List<MortgageEngine.Summary> engineParallel() throws InterruptedException {
+        return MortgageEngine.summarizeAll(scenarios, executor, parallelism);
+    }
+
+    // The previous payment formula, followed by the month-by-month schedule written the same way
+    private static BigDecimal unboundedTotalInterest(BigDecimal annualRatePercent, int termMonths) {
+        BigDecimal monthlyRate = annualRatePercent.divide(HUNDRED).divide(TWELVE, 6, RoundingMode.HALF_UP);
+        BigDecimal onePlusRPowerN = BigDecimal.ONE.add(monthlyRate).pow(termMonths);
+        BigDecimal payment = PRINCIPAL.multiply(monthlyRate).multiply(onePlusRPowerN)
+                .divide(onePlusRPowerN.subtract(BigDecimal.ONE), 0, RoundingMode.HALF_UP);
+
+        BigDecimal balance = PRINCIPAL;
+        BigDecimal totalInterest = BigDecimal.ZERO;
+        for (int month = 1; month <= termMonths && balance.signum() > 0; month++) {
+            BigDecimal interest = balance.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
+            totalInterest = totalInterest.add(interest);
+            balance = balance.add(interest).subtract(payment.min(balance.add(interest)));
+        }
+        return totalInterest;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.final_mobile.benchmarks;
+
+import com.example.final_mobile.core.CurrencyFormatter;
+import com.example.final_mobile.core.DisplayFormatter;
+import com.example.final_mobile.core.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The text of one transaction row: amount, type, status, full timestamp and the home screen's
+ * relative time. "legacy" is what the adapters did per bind (String.format, label switches, a new
+ * SimpleDateFormat each time); "formatters" goes through CurrencyFormatter and DisplayFormatter.
+ * Scores are per row, so with -Pjmh.profilers=gc gc.alloc.rate.norm is bytes allocated per bind.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RowBindingBenchmark {
+
+    private static final int ROWS = 50;
+    private static final String[] TYPES = {"TRANSFER", "DEPOSIT", "WITHDRAWAL", "PAYMENT", "TOPUP"};
+    private static final String[] STATUSES = {"COMPLETED", "COMPLETED", "PENDING", "FAILED"};
+
+    private final Money[] amounts = new Money[ROWS];
+    private final String[] types = new String[ROWS];
+    private final String[] statuses = new String[ROWS];
+    private final Date[] createdAt = new Date[ROWS];
+    private long now;
+
+    @Setup
+    public void setUp() {
+        now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = Money.vnd(150_000 + i * 1_000L);
+            types[i] = TYPES[i % TYPES.length];
+            statuses[i] = STATUSES[i % STATUSES.length];
+            // From minutes to weeks ago, so every branch of the relative time is taken
+            createdAt[i] = new Date(now - (long) i * i * 7 * 60_000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacy(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(String.format(Locale.getDefault(), "%,.0f VNĐ",
+                    amounts[i].toBigDecimal().doubleValue()));
+            blackhole.consume(legacyTypeName(types[i]));
+            blackhole.consume(legacyStatusName(statuses[i]));
+            blackhole.consume(new SimpleDateFormat("dd/MM/yyyy HH:mm:ss", Locale.getDefault()).format(createdAt[i]));
+            blackhole.consume(legacyRelative(createdAt[i]));
+        }
+    }
+
+    // First bind: the amount is formatted, not served from the Money's cache
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void formatters(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(CurrencyFormatter.formatVnd(amounts[i].getMinorUnits()));
+            blackhole.consume(DisplayFormatter.transactionTypeLabel(types[i]));
+            blackhole.consume(DisplayFormatter.statusLabel(statuses[i]));
+            blackhole.consume(DisplayFormatter.formatDateTime(createdAt[i]));
+            blackhole.consume(DisplayFormatter.formatRelative(createdAt[i], now));
+        }
+    }
+
+    private static String legacyTypeName(String type) {
+        switch (type) {
+            case "TRANSFER": return "Chuyển tiền";
+            case "DEPOSIT": return "Nạp tiền";
+            case "WITHDRAWAL": return "Rút tiền";
+            case "PAYMENT": return "Thanh toán";
+            case "TOPUP": return "Nạp tiền điện thoại";
+            default: return type;
+        }
+    }
+
+    private static String legacyStatusName(String status) {
+        switch (status) {
+            case "COMPLETED": return "Hoàn thành";
+            case "PENDING": return "Chờ xử lý";
+            case "FAILED": return "Thất bại";
+            default: return status;
+        }
+    }
+
+    // HomeFragment.formatTransactionTime as it was
+    private String legacyRelative(Date date) {
+        long diff = now - date.getTime();
+        long diffMinutes = diff / (60 * 1000);
+        long diffHours = diff / (60 * 60 * 1000);
+        long diffDays = diff / (24 * 60 * 60 * 1000);
+        if (diffMinutes < 1) {
+            return "Vừa xong";
+        } else if (diffMinutes < 60) {
+            return diffMinutes + " phút trước";
+        } else if (diffHours < 24) {
+            return diffHours + " giờ trước";
+        } else if (diffDays == 1) {
+            return "Hôm qua, " + new SimpleDateFormat("HH:mm", Locale.getDefault()).format(date);
+        } else if (diffDays < 7) {
+            return new SimpleDateFormat("EEEE, HH:mm", Locale.getDefault()).format(date);
+        }
+        return new SimpleDateFormat("dd/MM/yyyy, HH:mm", Locale.getDefault()).format(date);
+    }
+}
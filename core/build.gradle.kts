@@ -0,0 +1,17 @@
+plugins {
+    `java-library`
+}
+
+// Android-free domain logic shared by :app and the JVM benchmarks in :benchmarks
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    // org.json is part of the Android platform; only the JVM builds need the artifact
+    compileOnly(libs.json)
+
+    testImplementation(libs.junit)
+    testImplementation(libs.json)
+}
@@ -0,0 +1,70 @@
+package com.example.final_mobile.core;
+
+import com.example.final_mobile.models.Account;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes accounts as returned by the accounts endpoints.
+ */
+public final class AccountJsonParser {
+
+    private AccountJsonParser() {
+    }
+
+    public static List<Account> parseAccounts(JSONArray accountsArray) throws JSONException {
+        List<Account> accounts = new ArrayList<>(accountsArray.length());
+        for (int i = 0; i < accountsArray.length(); i++) {
+            accounts.add(parseAccount(accountsArray.getJSONObject(i)));
+        }
+        return accounts;
+    }
+
+    public static Account parseAccount(JSONObject accountJson) throws JSONException {
+        Account account = new Account();
+
+        // Handle both id and _id fields
+        account.setId(accountJson.optString("id", accountJson.optString("_id", "")));
+
+        // user_id is optional (may not exist in some responses like interest projection)
+        if (accountJson.has("user_id") && !accountJson.isNull("user_id")) {
+            account.setUserId(accountJson.getString("user_id"));
+        }
+
+        account.setAccountNumber(accountJson.optString("account_number", ""));
+        account.setAccountType(accountJson.optString("account_type", ""));
+
+        String currency = accountJson.optString("currency", Money.VND);
+        account.setCurrency(currency);
+
+        // Some APIs use current_balance instead of balance
+        Money balance = Money.fromJson(accountJson, "balance", currency);
+        if (balance == null) {
+            balance = Money.fromJson(accountJson, "current_balance", currency, Money.zero(currency));
+        }
+        account.setBalance(balance);
+
+        account.setActive(accountJson.optBoolean("is_active", true));
+        account.setInterestRate(parseDecimal(accountJson, "interest_rate"));
+
+        return account;
+    }
+
+    // Number or numeric string; null if the field is missing or null
+    static BigDecimal parseDecimal(JSONObject json, String key) throws JSONException {
+        if (!json.has(key) || json.isNull(key)) {
+            return null;
+        }
+        Object value = json.get(key);
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        return new BigDecimal(value.toString());
+    }
+}
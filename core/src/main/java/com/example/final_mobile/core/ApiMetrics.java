@@ -0,0 +1,306 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint request metrics: a latency histogram for each phase of a request, byte counters
+ * and outcome counts (HTTP status, or the exception that ended the request).
+ *
+ * Off by default. While disabled {@link #begin} returns null and callers skip every timing call,
+ * so the cost is one volatile read per request. Histograms are allocated per endpoint on its
+ * first request after enabling. Endpoints are grouped by path with ids replaced by {id} and the
+ * query dropped, e.g. "GET accounts/65f1c0.../balance" is recorded as "GET accounts/{id}/balance".
+ * All times are in microseconds.
+ */
+public final class ApiMetrics {
+
+    public enum Phase {
+        // Waiting for a free executor thread
+        QUEUE_WAIT("queue"),
+        // DNS, TCP and TLS; close to zero when a keep-alive connection is reused
+        CONNECT("connect"),
+        // Sending the request until the status line arrives (upload plus server time)
+        TTFB("ttfb"),
+        // Reading the response body
+        DOWNLOAD("download"),
+        // Turning the body into a JSONObject
+        PARSE("parse"),
+        // The caller's synchronous work in onSuccess/onError
+        CALLBACK("callback"),
+        // Enqueue to the end of the callback
+        TOTAL("total");
+
+        public final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final class Endpoint {
+        private final String name;
+        private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        Endpoint(String name) {
+            this.name = name;
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram(Phase phase) {
+            return phases[phase.ordinal()];
+        }
+
+        public long getRequestCount() {
+            return requests.sum();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        // "200" -> 12, "401" -> 1, "SocketTimeoutException" -> 2
+        public Map<String, Long> getOutcomes() {
+            Map<String, Long> counts = new TreeMap<>();
+            for (Map.Entry<String, LongAdder> entry : outcomes.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().sum());
+            }
+            return counts;
+        }
+
+        // Requests that did not end with a 2xx status
+        public long getErrorCount() {
+            long errors = 0;
+            for (Map.Entry<String, LongAdder> entry : outcomes.entrySet()) {
+                if (!entry.getKey().startsWith("2") || entry.getKey().length() != 3) {
+                    errors += entry.getValue().sum();
+                }
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * Timing of one request. Each {@link #mark} records the time since the previous mark under
+     * the given phase. Used only by the thread running the request.
+     */
+    public static final class Sample {
+        private final Endpoint endpoint;
+        private final long startNanos;
+        private long lastNanos;
+        private boolean finished;
+
+        Sample(Endpoint endpoint, long startNanos, long now) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+            this.lastNanos = now;
+        }
+
+        public void mark(Phase phase) {
+            long now = System.nanoTime();
+            endpoint.getHistogram(phase).record((now - lastNanos) / 1000);
+            lastNanos = now;
+        }
+
+        // Starts the next phase now, leaving the time since the previous mark unattributed
+        public void restartPhase() {
+            lastNanos = System.nanoTime();
+        }
+
+        public void addBytesSent(long bytes) {
+            endpoint.bytesSent.add(bytes);
+        }
+
+        // Counts every byte read through the returned stream as received
+        public InputStream countReceived(InputStream in) {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        endpoint.bytesReceived.increment();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        endpoint.bytesReceived.add(read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        public void finish(int statusCode) {
+            end(String.valueOf(statusCode));
+        }
+
+        public void fail(Throwable error) {
+            end(error.getClass().getSimpleName());
+        }
+
+        private void end(String outcome) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            endpoint.getHistogram(Phase.TOTAL).record((System.nanoTime() - startNanos) / 1000);
+            endpoint.requests.increment();
+            endpoint.outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private volatile long enabledSinceMillis;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            enabledSinceMillis = System.currentTimeMillis();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts timing a request, or returns null when metrics are off. enqueuedNanos is the
+     * System.nanoTime() at which the request was queued, or 0 if it was not queued.
+     */
+    public Sample begin(String method, String path, long enqueuedNanos) {
+        if (!enabled) {
+            return null;
+        }
+        String name = method + " " + normalize(path);
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null) {
+            endpoint = endpoints.computeIfAbsent(name, Endpoint::new);
+        }
+        long now = System.nanoTime();
+        if (enqueuedNanos > 0) {
+            endpoint.getHistogram(Phase.QUEUE_WAIT).record((now - enqueuedNanos) / 1000);
+            return new Sample(endpoint, enqueuedNanos, now);
+        }
+        return new Sample(endpoint, now, now);
+    }
+
+    // Endpoints sorted by name
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> list = new ArrayList<>(endpoints.values());
+        Collections.sort(list, (a, b) -> a.name.compareTo(b.name));
+        return list;
+    }
+
+    public Endpoint getEndpoint(String name) {
+        return endpoints.get(name);
+    }
+
+    public void reset() {
+        endpoints.clear();
+        enabledSinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Everything recorded so far, with the non-empty histogram buckets as [upper bound, count]
+     * pairs so percentiles can be recomputed or histograms merged across devices offline.
+     */
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("unit", "us");
+        json.put("since", enabledSinceMillis);
+        json.put("exported_at", System.currentTimeMillis());
+
+        JSONArray list = new JSONArray();
+        for (Endpoint endpoint : getEndpoints()) {
+            JSONObject item = new JSONObject();
+            item.put("endpoint", endpoint.name);
+            item.put("requests", endpoint.getRequestCount());
+            item.put("bytes_sent", endpoint.getBytesSent());
+            item.put("bytes_received", endpoint.getBytesReceived());
+            item.put("outcomes", new JSONObject(endpoint.getOutcomes()));
+
+            JSONObject phases = new JSONObject();
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = endpoint.getHistogram(phase);
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                JSONObject stats = new JSONObject();
+                stats.put("count", histogram.getCount());
+                stats.put("mean", Math.round(histogram.getMean()));
+                stats.put("p50", histogram.getPercentile(50));
+                stats.put("p90", histogram.getPercentile(90));
+                stats.put("p99", histogram.getPercentile(99));
+                stats.put("max", histogram.getMax());
+                JSONArray buckets = new JSONArray();
+                for (long[] bucket : histogram.getBuckets()) {
+                    buckets.put(new JSONArray().put(bucket[0]).put(bucket[1]));
+                }
+                stats.put("buckets", buckets);
+                phases.put(phase.label, stats);
+            }
+            item.put("phases", phases);
+            list.put(item);
+        }
+        json.put("endpoints", list);
+        return json;
+    }
+
+    // "accounts/65f1c0a2/balance?x=1" -> "accounts/{id}/balance"
+    static String normalize(String path) {
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        StringBuilder out = new StringBuilder(path.length());
+        for (String segment : path.split("/", -1)) {
+            if (out.length() > 0) {
+                out.append('/');
+            }
+            out.append(isId(segment) ? "{id}" : segment);
+        }
+        return out.toString();
+    }
+
+    // Static segments in ApiConfig never contain digits or '@'
+    private static boolean isId(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '@') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
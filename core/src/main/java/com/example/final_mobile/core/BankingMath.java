@@ -0,0 +1,97 @@
+package com.example.final_mobile.core;
+
+import com.example.final_mobile.models.Account;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interest, mortgage and fee calculations shown in the app.
+ */
+public final class BankingMath {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    private static final BigDecimal TWELVE = new BigDecimal("12");
+
+    public static final Money MIN_TRANSFER_AMOUNT = FeeSchedule.DEFAULT.getMinTransferAmount();
+    public static final int MORTGAGE_TERM_MONTHS = 20 * 12;
+
+    public static class ProjectedMonth {
+        public final int month;
+        public final double balance;
+        public final double monthlyInterest;
+        public final double cumulativeInterest;
+
+        ProjectedMonth(int month, double balance, double monthlyInterest, double cumulativeInterest) {
+            this.month = month;
+            this.balance = balance;
+            this.monthlyInterest = monthlyInterest;
+            this.cumulativeInterest = cumulativeInterest;
+        }
+    }
+
+    private BankingMath() {
+    }
+
+    // Monthly interest for a savings account, zero for other account types
+    public static BigDecimal monthlyInterest(Account account) {
+        if (!account.isSavingAccount() || account.getInterestRate() == null) {
+            return BigDecimal.ZERO;
+        }
+        return account.getBalance().toBigDecimal().multiply(monthlyRate(account.getInterestRate()));
+    }
+
+    // Annuity payment P * r(1+r)^n / ((1+r)^n - 1) over a 20-year term, zero for non-mortgage accounts
+    public static Money monthlyMortgagePayment(Account account) {
+        return monthlyMortgagePayment(account, MORTGAGE_TERM_MONTHS);
+    }
+
+    // Same for any term, via MortgageEngine's cached bounded-precision annuity factor
+    public static Money monthlyMortgagePayment(Account account, int termMonths) {
+        if (!account.isMortgageAccount() || account.getInterestRate() == null) {
+            return Money.zero(account.getBalance().getCurrency());
+        }
+        long payment = MortgageEngine.monthlyPayment(
+                InterestProjector.toMinorUnits(account.getBalance().abs().toBigDecimal()),
+                InterestProjector.toRateUnits(account.getInterestRate()), termMonths);
+        return Money.of(InterestProjector.fromMinorUnits(payment), account.getBalance().getCurrency());
+    }
+
+    // Transfer fee under the built-in schedule; screens quote from FeeScheduleStore's current schedule
+    public static Money transferFee(Money amount) {
+        return FeeSchedule.DEFAULT.transferFee(amount);
+    }
+
+    // Amount is at least the minimum and the balance covers amount + fee
+    public static boolean isValidTransferAmount(Money amount, Money availableBalance) {
+        return FeeSchedule.DEFAULT.isValidTransferAmount(amount, availableBalance);
+    }
+
+    /**
+     * Month-by-month savings projection with monthly compounding, rounded like the backend's
+     * accounts/{id}/interest-projection response.
+     */
+    public static List<ProjectedMonth> projectInterest(double currentBalance, double annualRatePercent, int months) {
+        List<ProjectedMonth> projections = new ArrayList<>(months);
+        double balance = currentBalance;
+        double monthlyRate = annualRatePercent / 100 / 12;
+        for (int month = 1; month <= months; month++) {
+            double interest = balance * monthlyRate;
+            balance += interest;
+            projections.add(new ProjectedMonth(month, roundCents(balance), roundCents(interest),
+                    roundCents(balance - currentBalance)));
+        }
+        return projections;
+    }
+
+    private static BigDecimal monthlyRate(BigDecimal annualRatePercent) {
+        return annualRatePercent.divide(HUNDRED).divide(TWELVE, 6, RoundingMode.HALF_UP);
+    }
+
+    // Math.round(x * 100) / 100, as in the backend
+    private static double roundCents(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
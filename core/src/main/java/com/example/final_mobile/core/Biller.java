@@ -0,0 +1,143 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One kind of utility payment: the endpoint that initiates it, the body field carrying the
+ * customer/order reference and the optional fields it accepts. Every biller then goes through the
+ * same initiate → OTP → verify flow (utilities/verify-otp), so adding one is a constant here.
+ * Recurring billers are the monthly bills a customer pays for the same reference every time;
+ * those are the ones worth saving.
+ */
+public final class Biller {
+
+    public static final String VERIFY_ENDPOINT = "utilities/verify-otp";
+
+    public static final Biller ELECTRICITY = new Biller("ELECTRICITY", "utilities/pay-electricity", true,
+            "customerNumber", "customerName", "period");
+    public static final Biller WATER = new Biller("WATER", "utilities/pay-water", true,
+            "customerNumber", "customerName", "period");
+    public static final Biller INTERNET = new Biller("INTERNET", "utilities/pay-internet", true,
+            "customerNumber", "provider", "customerName");
+    public static final Biller PHONE_TOPUP = new Biller("PHONE_TOPUP", "utilities/mobile-topup", false,
+            "phoneNumber", "provider");
+    public static final Biller FLIGHT = new Biller("FLIGHT", "utilities/book-flight", false,
+            "flightNumber", "airline", "departureDate", "arrivalDate", "passengerName", "route");
+    public static final Biller MOVIE = new Biller("MOVIE", "utilities/buy-movie-ticket", false,
+            "movieName", "cinema", "showTime", "seatNumber", "quantity");
+    public static final Biller HOTEL = new Biller("HOTEL", "utilities/book-hotel", false,
+            "hotelName", "checkInDate", "checkOutDate", "guestName", "roomType");
+    public static final Biller ECOMMERCE = new Biller("ECOMMERCE", "utilities/pay-ecommerce", false,
+            "orderId", "platform", "productName", "merchantName");
+
+    private static final Map<String, Biller> BY_SERVICE_TYPE = new HashMap<>();
+
+    static {
+        for (Biller biller : new Biller[]{ELECTRICITY, WATER, INTERNET, PHONE_TOPUP, FLIGHT, MOVIE, HOTEL, ECOMMERCE}) {
+            BY_SERVICE_TYPE.put(biller.serviceType, biller);
+        }
+    }
+
+    private final String serviceType;
+    private final String endpoint;
+    private final boolean recurring;
+    private final String referenceField;
+    private final List<String> optionalFields;
+
+    private Biller(String serviceType, String endpoint, boolean recurring, String referenceField,
+                   String... optionalFields) {
+        this.serviceType = serviceType;
+        this.endpoint = endpoint;
+        this.recurring = recurring;
+        this.referenceField = referenceField;
+        this.optionalFields = Collections.unmodifiableList(Arrays.asList(optionalFields));
+    }
+
+    // Null for service types the app cannot pay
+    public static Biller forServiceType(String serviceType) {
+        return serviceType != null ? BY_SERVICE_TYPE.get(serviceType) : null;
+    }
+
+    /**
+     * Optional fields from alternating name/value pairs, skipping null values:
+     * {@code Biller.details("customerName", name, "period", period)}.
+     */
+    public static Map<String, Object> details(Object... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("details() takes name/value pairs");
+        }
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                details.put((String) namesAndValues[i], namesAndValues[i + 1]);
+            }
+        }
+        return details;
+    }
+
+    // Matches the fee schedule's utilities keys and the backend's serviceType
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public boolean isRecurring() {
+        return recurring;
+    }
+
+    public String getReferenceField() {
+        return referenceField;
+    }
+
+    public List<String> getOptionalFields() {
+        return optionalFields;
+    }
+
+    /**
+     * The initiate request body. accountId may be null for the primary account; details may only
+     * name this biller's optional fields.
+     */
+    public JSONObject buildRequest(String accountId, String reference, BigDecimal amount,
+                                   Map<String, ?> details) throws JSONException {
+        JSONObject body = new JSONObject();
+        if (accountId != null && !accountId.isEmpty()) {
+            body.put("accountId", accountId);
+        }
+        body.put(referenceField, reference);
+        body.put("amount", amount.doubleValue());
+        if (details != null) {
+            for (Map.Entry<String, ?> detail : details.entrySet()) {
+                if (!optionalFields.contains(detail.getKey())) {
+                    throw new IllegalArgumentException(serviceType + " does not take " + detail.getKey());
+                }
+                if (detail.getValue() != null) {
+                    body.put(detail.getKey(), detail.getValue());
+                }
+            }
+        }
+        return body;
+    }
+
+    public static JSONObject buildVerifyRequest(String transactionId, String otpCode) throws JSONException {
+        return new JSONObject()
+                .put("transactionId", transactionId)
+                .put("otpCode", otpCode);
+    }
+
+    @Override
+    public String toString() {
+        return serviceType;
+    }
+}
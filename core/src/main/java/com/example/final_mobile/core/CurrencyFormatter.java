@@ -0,0 +1,123 @@
+package com.example.final_mobile.core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Money as displayed in the app: grouped whole đồng, e.g. "1,500,000 VNĐ".
+ *
+ * Grouping is written by hand into a per-thread buffer with the default locale's separators,
+ * so formatting an amount allocates only the resulting String instead of a java.util.Formatter,
+ * its StringBuilder and a boxed double.
+ */
+public final class CurrencyFormatter {
+
+    public static final String VND_SYMBOL = "VNĐ";
+
+    // Enough for Long.MIN_VALUE with separators, a decimal point and a currency code
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    // Separators of the default locale, replaced when the locale changes
+    private static volatile Symbols symbols;
+
+    static final class Symbols {
+        final Locale locale;
+        final char grouping;
+        final char decimal;
+
+        Symbols(Locale locale) {
+            DecimalFormatSymbols formatSymbols = DecimalFormatSymbols.getInstance(locale);
+            this.locale = locale;
+            this.grouping = formatSymbols.getGroupingSeparator();
+            this.decimal = formatSymbols.getDecimalSeparator();
+        }
+    }
+
+    private CurrencyFormatter() {
+    }
+
+    public static String format(BigDecimal amount) {
+        if (amount == null) {
+            return formatVnd(0);
+        }
+        BigDecimal rounded = amount.setScale(0, RoundingMode.HALF_UP);
+        if (rounded.unscaledValue().bitLength() < 64) {
+            return formatVnd(rounded.longValue());
+        }
+        return String.format(Locale.getDefault(), "%,.0f " + VND_SYMBOL, amount.doubleValue());
+    }
+
+    // Cached on the Money instance, so rebinding a row does not format again
+    public static String format(Money amount) {
+        return amount == null ? Money.ZERO.format() : amount.format();
+    }
+
+    public static String formatVnd(long dong) {
+        return format(dong, 0, VND_SYMBOL, symbols());
+    }
+
+    // With an explicit sign, for credit/debit lists
+    public static String formatSigned(BigDecimal amount, boolean negative) {
+        return (negative ? "-" : "+") + format(amount);
+    }
+
+    // Grouped digits only ("1,500,000"), for callers building a longer line in one StringBuilder
+    public static StringBuilder appendGrouped(StringBuilder out, long value) {
+        char[] buffer = BUFFER.get();
+        int start = writeDigits(buffer, buffer.length, value, 0, symbols());
+        return out.append(buffer, start, buffer.length - start);
+    }
+
+    static Symbols symbols() {
+        Locale locale = Locale.getDefault();
+        Symbols current = symbols;
+        if (current == null || !current.locale.equals(locale)) {
+            current = new Symbols(locale);
+            symbols = current;
+        }
+        return current;
+    }
+
+    /**
+     * minorUnits / 10^scale grouped, with the fraction digits of the currency and a trailing
+     * " symbol". Works on the negative magnitude so Long.MIN_VALUE formats too.
+     */
+    static String format(long minorUnits, int scale, String symbol, Symbols symbols) {
+        char[] buffer = BUFFER.get();
+        int pos = buffer.length;
+        for (int i = symbol.length() - 1; i >= 0; i--) {
+            buffer[--pos] = symbol.charAt(i);
+        }
+        buffer[--pos] = ' ';
+        pos = writeDigits(buffer, pos, minorUnits, scale, symbols);
+        return new String(buffer, pos, buffer.length - pos);
+    }
+
+    // Writes backwards ending at end; returns the index of the first character
+    private static int writeDigits(char[] buffer, int end, long minorUnits, int scale, Symbols symbols) {
+        int pos = end;
+        long rest = minorUnits < 0 ? minorUnits : -minorUnits;
+        for (int i = 0; i < scale; i++) {
+            buffer[--pos] = (char) ('0' - rest % 10);
+            rest /= 10;
+        }
+        if (scale > 0) {
+            buffer[--pos] = symbols.decimal;
+        }
+        int digits = 0;
+        do {
+            if (digits > 0 && digits % 3 == 0) {
+                buffer[--pos] = symbols.grouping;
+            }
+            buffer[--pos] = (char) ('0' - rest % 10);
+            rest /= 10;
+            digits++;
+        } while (rest != 0);
+        if (minorUnits < 0) {
+            buffer[--pos] = '-';
+        }
+        return pos;
+    }
+}
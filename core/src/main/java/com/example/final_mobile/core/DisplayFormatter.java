@@ -0,0 +1,201 @@
+package com.example.final_mobile.core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.FieldPosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dates, relative times and transaction labels as the screens show them, in one place.
+ *
+ * SimpleDateFormat is not thread-safe and costs a few KB to build, so each thread keeps one set
+ * of formatters for the default locale and rebuilds it only when the locale changes. Labels and
+ * the "N phút trước" / "N giờ trước" strings are constants, so binding a row allocates nothing
+ * for them.
+ */
+public final class DisplayFormatter {
+
+    public static final String NOT_AVAILABLE = "N/A";
+    public static final String JUST_NOW = "Vừa xong";
+
+    private static final long MINUTE_MILLIS = 60 * 1000L;
+    private static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private static final Map<String, String> TYPE_LABELS = new HashMap<>();
+    private static final Map<String, String> STATUS_LABELS = new HashMap<>();
+    private static final Map<String, Tone> STATUS_TONES = new HashMap<>();
+    private static final String[] MINUTES_AGO = new String[60];
+    private static final String[] HOURS_AGO = new String[24];
+
+    static {
+        TYPE_LABELS.put("TRANSFER", "Chuyển tiền");
+        TYPE_LABELS.put("DEPOSIT", "Nạp tiền");
+        TYPE_LABELS.put("WITHDRAWAL", "Rút tiền");
+        TYPE_LABELS.put("PAYMENT", "Thanh toán");
+        TYPE_LABELS.put("TOPUP", "Nạp tiền điện thoại");
+        TYPE_LABELS.put("UTILITY", "Tiện ích");
+
+        STATUS_LABELS.put("COMPLETED", "Hoàn thành");
+        STATUS_LABELS.put("PENDING", "Chờ xử lý");
+        STATUS_LABELS.put("PROCESSING", "Đang xử lý");
+        STATUS_LABELS.put("FAILED", "Thất bại");
+        STATUS_LABELS.put("CANCELLED", "Đã hủy");
+
+        STATUS_TONES.put("COMPLETED", Tone.SUCCESS);
+        STATUS_TONES.put("PENDING", Tone.IN_PROGRESS);
+        STATUS_TONES.put("PROCESSING", Tone.IN_PROGRESS);
+        STATUS_TONES.put("FAILED", Tone.FAILURE);
+        STATUS_TONES.put("CANCELLED", Tone.NEUTRAL);
+
+        for (int i = 1; i < MINUTES_AGO.length; i++) {
+            MINUTES_AGO[i] = i + " phút trước";
+        }
+        for (int i = 1; i < HOURS_AGO.length; i++) {
+            HOURS_AGO[i] = i + " giờ trước";
+        }
+    }
+
+    // How a status is coloured; the app maps each tone to a colour resource
+    public enum Tone {
+        SUCCESS, IN_PROGRESS, FAILURE, NEUTRAL
+    }
+
+    private static final ThreadLocal<DateFormats> DATE_FORMATS = new ThreadLocal<>();
+
+    private static final class DateFormats {
+        final Locale locale;
+        final SimpleDateFormat date;
+        final SimpleDateFormat dateTime;
+        final SimpleDateFormat time;
+        final SimpleDateFormat weekdayTime;
+        final SimpleDateFormat dateShortTime;
+        // format(Date) would allocate both of these on every call
+        final StringBuffer buffer = new StringBuffer(32);
+        final FieldPosition position = new FieldPosition(0);
+
+        DateFormats(Locale locale) {
+            this.locale = locale;
+            this.date = new SimpleDateFormat("dd/MM/yyyy", locale);
+            this.dateTime = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss", locale);
+            this.time = new SimpleDateFormat("HH:mm", locale);
+            this.weekdayTime = new SimpleDateFormat("EEEE, HH:mm", locale);
+            this.dateShortTime = new SimpleDateFormat("dd/MM/yyyy, HH:mm", locale);
+        }
+
+        String format(SimpleDateFormat format, Date date) {
+            return format(format, date, "");
+        }
+
+        String format(SimpleDateFormat format, Date date, String prefix) {
+            buffer.setLength(0);
+            buffer.append(prefix);
+            return format.format(date, buffer, position).toString();
+        }
+    }
+
+    private DisplayFormatter() {
+    }
+
+    private static DateFormats dateFormats() {
+        Locale locale = Locale.getDefault();
+        DateFormats formats = DATE_FORMATS.get();
+        if (formats == null || !formats.locale.equals(locale)) {
+            formats = new DateFormats(locale);
+            DATE_FORMATS.set(formats);
+        }
+        return formats;
+    }
+
+    // "19/10/2026"
+    public static String formatDate(Date date) {
+        if (date == null) {
+            return NOT_AVAILABLE;
+        }
+        DateFormats formats = dateFormats();
+        return formats.format(formats.date, date);
+    }
+
+    // "19/10/2026 14:05:09"
+    public static String formatDateTime(Date date) {
+        if (date == null) {
+            return NOT_AVAILABLE;
+        }
+        DateFormats formats = dateFormats();
+        return formats.format(formats.dateTime, date);
+    }
+
+    public static String formatRelative(Date date) {
+        return formatRelative(date, System.currentTimeMillis());
+    }
+
+    /**
+     * "Vừa xong", "5 phút trước", "3 giờ trước", "Hôm qua, 14:05", the weekday within a week,
+     * otherwise the full date.
+     */
+    public static String formatRelative(Date date, long nowMillis) {
+        if (date == null) {
+            return JUST_NOW;
+        }
+        long diff = nowMillis - date.getTime();
+        if (diff < MINUTE_MILLIS) {
+            return JUST_NOW;
+        }
+        if (diff < HOUR_MILLIS) {
+            return MINUTES_AGO[(int) (diff / MINUTE_MILLIS)];
+        }
+        if (diff < DAY_MILLIS) {
+            return HOURS_AGO[(int) (diff / HOUR_MILLIS)];
+        }
+        long days = diff / DAY_MILLIS;
+        DateFormats formats = dateFormats();
+        if (days == 1) {
+            return formats.format(formats.time, date, "Hôm qua, ");
+        }
+        if (days < 7) {
+            return formats.format(formats.weekdayTime, date);
+        }
+        return formats.format(formats.dateShortTime, date);
+    }
+
+    // "6.50%/năm", as String.format("%.2f%%/năm") printed it
+    public static String formatAnnualRate(BigDecimal ratePercent) {
+        if (ratePercent == null) {
+            return NOT_AVAILABLE;
+        }
+        String digits = ratePercent.setScale(2, RoundingMode.HALF_UP).toPlainString();
+        char decimal = CurrencyFormatter.symbols().decimal;
+        return (decimal == '.' ? digits : digits.replace('.', decimal)) + "%/năm";
+    }
+
+    // Vietnamese name of a transaction type; unknown types are shown as they are
+    public static String transactionTypeLabel(String type) {
+        if (type == null) {
+            return NOT_AVAILABLE;
+        }
+        String label = TYPE_LABELS.get(type);
+        return label != null ? label : type;
+    }
+
+    public static String transactionTypeLabel(String type, String fallback) {
+        String label = type != null ? TYPE_LABELS.get(type) : null;
+        return label != null ? label : fallback;
+    }
+
+    public static String statusLabel(String status) {
+        if (status == null) {
+            return NOT_AVAILABLE;
+        }
+        String label = STATUS_LABELS.get(status);
+        return label != null ? label : status;
+    }
+
+    public static Tone statusTone(String status) {
+        Tone tone = status != null ? STATUS_TONES.get(status) : null;
+        return tone != null ? tone : Tone.NEUTRAL;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The backend's fee rules (GET fees/schedule), so transfer, bill and top-up screens can show the
+ * exact fee before anything is sent. Transfers and payments carry {@link #getVersion()}; the
+ * backend rejects a request quoted against an older version with 409 FEE_SCHEDULE_STALE rather
+ * than charging a different fee.
+ *
+ * Fees are whole đồng. Percentage fees are in basis points and round half-up like the backend's
+ * Math.round. Immutable, so one instance can be shared by every screen.
+ */
+public final class FeeSchedule {
+
+    public static final String STALE_CODE = "FEE_SCHEDULE_STALE";
+
+    /** The rules built into this app version, used until a schedule has been fetched. Has no version. */
+    public static final FeeSchedule DEFAULT;
+
+    static {
+        Map<String, Rule> utilities = new HashMap<>();
+        Rule billPercent = Rule.percent(100, Money.vnd(20_000));
+        utilities.put("ELECTRICITY", billPercent);
+        utilities.put("WATER", billPercent);
+        utilities.put("INTERNET", billPercent);
+        for (String free : new String[]{"PHONE_TOPUP", "DATA_PACKAGE", "SCRATCH_CARD"}) {
+            utilities.put(free, Rule.flat(Money.ZERO));
+        }
+        for (String flat : new String[]{"FLIGHT", "HOTEL", "MOVIE", "ECOMMERCE"}) {
+            utilities.put(flat, Rule.flat(Money.vnd(5_000)));
+        }
+        DEFAULT = new FeeSchedule(null, Money.VND, Money.vnd(10_000),
+                new long[]{100_000, 1_000_000, 10_000_000, Long.MAX_VALUE},
+                new Money[]{Money.ZERO, Money.vnd(5_000), Money.vnd(10_000), Money.vnd(20_000)},
+                utilities);
+    }
+
+    // A percentage of the amount with a cap, or a flat fee
+    static final class Rule {
+        final long basisPoints;
+        final Money fee;
+
+        private Rule(long basisPoints, Money fee) {
+            this.basisPoints = basisPoints;
+            this.fee = fee;
+        }
+
+        static Rule percent(long basisPoints, Money maxFee) {
+            return new Rule(basisPoints, maxFee);
+        }
+
+        static Rule flat(Money fee) {
+            return new Rule(-1, fee);
+        }
+
+        Money quote(Money amount) {
+            if (basisPoints < 0) {
+                return fee;
+            }
+            long minor = Math.max(0, amount.getMinorUnits());
+            // Half-up; amount * bps cannot overflow for any amount that fits in an account
+            long percentFee = (Math.multiplyExact(minor, basisPoints) + 5_000) / 10_000;
+            return percentFee >= fee.getMinorUnits() ? fee : Money.ofMinor(percentFee, fee.getCurrency());
+        }
+    }
+
+    private final String version;
+    private final String currency;
+    private final Money minTransferAmount;
+    // Inclusive upper bounds in minor units, ascending; the last one is Long.MAX_VALUE
+    private final long[] transferUpTo;
+    private final Money[] transferFees;
+    private final Map<String, Rule> utilityRules;
+
+    private FeeSchedule(String version, String currency, Money minTransferAmount, long[] transferUpTo,
+                        Money[] transferFees, Map<String, Rule> utilityRules) {
+        this.version = version;
+        this.currency = currency;
+        this.minTransferAmount = minTransferAmount;
+        this.transferUpTo = transferUpTo;
+        this.transferFees = transferFees;
+        this.utilityRules = Collections.unmodifiableMap(utilityRules);
+    }
+
+    /** The data object of a fees/schedule response. */
+    public static FeeSchedule fromJson(JSONObject json) throws JSONException {
+        String version = json.getString("version");
+        String currency = json.optString("currency", Money.VND);
+
+        JSONObject transfer = json.getJSONObject("transfer");
+        Money minTransfer = Money.fromJson(transfer, "min_amount", currency, Money.zero(currency));
+        JSONArray tiers = transfer.getJSONArray("tiers");
+        if (tiers.length() == 0) {
+            throw new JSONException("Fee schedule " + version + " has no transfer tiers");
+        }
+        long[] upTo = new long[tiers.length()];
+        Money[] fees = new Money[tiers.length()];
+        for (int i = 0; i < tiers.length(); i++) {
+            JSONObject tier = tiers.getJSONObject(i);
+            Money bound = Money.fromJson(tier, "up_to", currency);
+            upTo[i] = bound != null ? bound.getMinorUnits() : Long.MAX_VALUE;
+            if (i > 0 && upTo[i] <= upTo[i - 1]) {
+                throw new JSONException("Transfer tiers of fee schedule " + version + " are not ascending");
+            }
+            fees[i] = Money.fromJson(tier, "fee", currency, Money.zero(currency));
+        }
+        // Amounts above the last bound pay the last tier's fee
+        upTo[upTo.length - 1] = Long.MAX_VALUE;
+
+        Map<String, Rule> rules = new HashMap<>();
+        JSONObject utilities = json.optJSONObject("utilities");
+        if (utilities != null) {
+            Iterator<String> serviceTypes = utilities.keys();
+            while (serviceTypes.hasNext()) {
+                String serviceType = serviceTypes.next();
+                JSONObject rule = utilities.getJSONObject(serviceType);
+                if (rule.has("percent_bps")) {
+                    rules.put(serviceType, Rule.percent(rule.getLong("percent_bps"),
+                            Money.fromJson(rule, "max_fee", currency, Money.ofMinor(Long.MAX_VALUE, currency))));
+                } else {
+                    rules.put(serviceType, Rule.flat(Money.fromJson(rule, "flat_fee", currency, Money.zero(currency))));
+                }
+            }
+        }
+        return new FeeSchedule(version, currency, minTransfer, upTo, fees, rules);
+    }
+
+    // Null for DEFAULT, so requests quoted from it are never rejected as stale
+    public String getVersion() {
+        return version;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Money getMinTransferAmount() {
+        return minTransferAmount;
+    }
+
+    public Money transferFee(Money amount) {
+        if (amount == null) {
+            return Money.zero(currency);
+        }
+        long minor = amount.getMinorUnits();
+        for (int i = 0; i < transferUpTo.length; i++) {
+            if (minor <= transferUpTo[i]) {
+                return transferFees[i];
+            }
+        }
+        return transferFees[transferFees.length - 1];
+    }
+
+    // Unknown service types are free, as on the backend
+    public Money utilityFee(String serviceType, Money amount) {
+        Rule rule = serviceType != null ? utilityRules.get(serviceType) : null;
+        if (rule == null || amount == null) {
+            return Money.zero(currency);
+        }
+        return rule.quote(amount);
+    }
+
+    // At least the minimum, and the balance covers amount + fee
+    public boolean isValidTransferAmount(Money amount, Money availableBalance) {
+        if (amount == null || amount.isLessThan(minTransferAmount)) {
+            return false;
+        }
+        return availableBalance != null && !availableBalance.isLessThan(amount.plus(transferFee(amount)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.final_mobile.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key values for money-moving requests. The backend runs a request at most once per
+ * key and answers a repeat with the stored response, so a request whose outcome is unknown (no
+ * response, or a gateway error) can safely be sent again with the same key.
+ *
+ * A key stays pending for its endpoint and body until the request gets a definite answer, so a
+ * user who taps "transfer" again after a timeout reuses it instead of moving the money twice.
+ * At most {@link #MAX_PENDING} keys are kept; the least recently used is dropped first.
+ */
+public final class IdempotencyKeys {
+
+    public static final String HEADER = "Idempotency-Key";
+    // Set on a response the backend replayed from an earlier request with the same key
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    // Error codes the backend puts in the response body
+    public static final String IN_PROGRESS = "IDEMPOTENCY_IN_PROGRESS";
+    public static final String KEY_REUSED = "IDEMPOTENCY_KEY_REUSED";
+
+    public static final int MAX_PENDING = 32;
+
+    private final Supplier<String> generator;
+    private final Map<String, String> pending = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_PENDING;
+        }
+    };
+
+    public IdempotencyKeys() {
+        this(() -> UUID.randomUUID().toString());
+    }
+
+    IdempotencyKeys(Supplier<String> generator) {
+        this.generator = generator;
+    }
+
+    // A fresh key, for callers that hold on to it themselves
+    public String newKey() {
+        return generator.get();
+    }
+
+    // The pending key for this request, or a new one that stays pending until resolve()
+    public synchronized String keyFor(String endpoint, String body) {
+        String request = fingerprint(endpoint, body);
+        String key = pending.get(request);
+        if (key == null) {
+            key = generator.get();
+            pending.put(request, key);
+        }
+        return key;
+    }
+
+    // The request got a definite answer; sending it again is a new request with a new key
+    public synchronized void resolve(String endpoint, String body) {
+        pending.remove(fingerprint(endpoint, body));
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // Whether a response with this status settles the request; otherwise it may not have run yet
+    public static boolean isOutcomeKnown(int statusCode) {
+        return !RetryPolicy.isTransient(statusCode);
+    }
+
+    private static String fingerprint(String endpoint, String body) {
+        return endpoint + '\n' + (body != null ? body : "");
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.final_mobile.core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * On-device savings projection in integer minor units (1/100 of a đồng, the precision the backend
+ * rounds to), so the interest calculator does not need a server round trip per change.
+ *
+ * Interest is posted at the end of each compounding period, rounded half-up to a minor unit, as a
+ * bank would credit it; the backend compounds an unrounded double instead, so the two differ by at
+ * most a few minor units over a schedule (see InterestProjectorTest). Rates are kept in
+ * {@link #RATE_SCALE} units per percent, which is exact for any rate with up to four decimals.
+ */
+public final class InterestProjector {
+
+    public static final int MAX_MONTHS = 360;
+    // 6.5 %/year -> 65_000
+    public static final long RATE_SCALE = 10_000;
+
+    // balance * rate * months / RATE_DIVISOR is the interest for that many months
+    private static final long RATE_DIVISOR = 12 * 100 * RATE_SCALE;
+
+    public enum Compounding {
+        MONTHLY(1), QUARTERLY(3), AT_MATURITY(0);
+
+        // Months per compounding period; 0 means interest is paid once, at maturity
+        final int periodMonths;
+
+        Compounding(int periodMonths) {
+            this.periodMonths = periodMonths;
+        }
+    }
+
+    /**
+     * Month-by-month schedule. Rows are computed on first access and kept in primitive arrays,
+     * so a list can bind rows as they scroll into view. Not thread-safe.
+     */
+    public static final class Schedule {
+        private final long principal;
+        private final long rateUnits;
+        private final int months;
+        private final Compounding compounding;
+        // balances[m] is the balance after month m; balances[0] is the principal
+        private final long[] balances;
+        private int computedThrough;
+
+        Schedule(long principal, long rateUnits, int months, Compounding compounding) {
+            this.principal = principal;
+            this.rateUnits = rateUnits;
+            this.months = months;
+            this.compounding = compounding;
+            this.balances = new long[months + 1];
+            this.balances[0] = principal;
+        }
+
+        public int getMonths() {
+            return months;
+        }
+
+        public Compounding getCompounding() {
+            return compounding;
+        }
+
+        public long getPrincipal() {
+            return principal;
+        }
+
+        // Balance after the given month (1-based), in minor units
+        public long getBalance(int month) {
+            computeThrough(month);
+            return balances[month];
+        }
+
+        // Interest credited in the given month; zero between postings
+        public long getInterest(int month) {
+            computeThrough(month);
+            return balances[month] - balances[month - 1];
+        }
+
+        public long getCumulativeInterest(int month) {
+            return getBalance(month) - principal;
+        }
+
+        public long getFinalBalance() {
+            return getBalance(months);
+        }
+
+        public long getTotalInterest() {
+            return getFinalBalance() - principal;
+        }
+
+        private void computeThrough(int month) {
+            if (month < 1 || month > months) {
+                throw new IndexOutOfBoundsException("month " + month + " of " + months);
+            }
+            int period = compounding.periodMonths;
+            for (int m = computedThrough + 1; m <= month; m++) {
+                long balance = balances[m - 1];
+                if (period == 0) {
+                    // Simple interest on the principal, paid at maturity
+                    if (m == months) {
+                        balance += interest(principal, rateUnits * months);
+                    }
+                } else if (m % period == 0) {
+                    balance += interest(balance, rateUnits * period);
+                } else if (m == months) {
+                    // A final partial period earns pro-rata interest at maturity
+                    balance += interest(balance, rateUnits * (m % period));
+                }
+                balances[m] = balance;
+            }
+            computedThrough = Math.max(computedThrough, month);
+        }
+    }
+
+    private InterestProjector() {
+    }
+
+    public static Schedule project(long principalMinor, long rateUnits, int months, Compounding compounding) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_MONTHS);
+        }
+        if (principalMinor < 0 || rateUnits < 0 || rateUnits > 100 * RATE_SCALE) {
+            throw new IllegalArgumentException("principal must not be negative and the rate must be 0-100%");
+        }
+        return new Schedule(principalMinor, rateUnits, months, compounding);
+    }
+
+    public static Schedule project(BigDecimal balance, BigDecimal annualRatePercent, int months, Compounding compounding) {
+        return project(toMinorUnits(balance), toRateUnits(annualRatePercent), months, compounding);
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    // Whole đồng for display, rounded half-up
+    public static long toDong(long minor) {
+        return Math.floorDiv(minor + 50, 100);
+    }
+
+    public static long toRateUnits(BigDecimal annualRatePercent) {
+        return annualRatePercent.multiply(BigDecimal.valueOf(RATE_SCALE)).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * balance * factor / RATE_DIVISOR rounded half-up, without overflowing: balance is split into
+     * q * RATE_DIVISOR + r so that only r * factor (< 1.2e7 * 3.6e8 for 100%/year over 360 months)
+     * needs a full multiplication.
+     */
+    static long interest(long balance, long factor) {
+        long q = balance / RATE_DIVISOR;
+        long r = balance % RATE_DIVISOR;
+        return Math.multiplyExact(q, factor) + (r * factor + RATE_DIVISOR / 2) / RATE_DIVISOR;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.final_mobile.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal list diff (Myers' algorithm) producing positional updates, so adapters can
+ * animate exactly the rows that changed instead of rebinding the whole list.
+ *
+ * Updates are dispatched from the end of the list towards the start, so every position refers
+ * to the list as it is at that moment (the same contract as RecyclerView's notifyItem* calls).
+ * Moves are reported as a removal plus an insertion.
+ */
+public final class ListDiff {
+
+    public interface ItemCallback<T> {
+        // Same identity (e.g. same transaction ID)
+        boolean areItemsTheSame(T oldItem, T newItem);
+
+        // Same identity and nothing visible changed
+        boolean areContentsTheSame(T oldItem, T newItem);
+    }
+
+    public interface UpdateCallback {
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onChanged(int position, int count);
+    }
+
+    public static final class Update {
+        public static final int INSERT = 0;
+        public static final int REMOVE = 1;
+        public static final int CHANGE = 2;
+
+        public final int type;
+        public final int position;
+        public final int count;
+
+        Update(int type, int position, int count) {
+            this.type = type;
+            this.position = position;
+            this.count = count;
+        }
+
+        @Override
+        public String toString() {
+            String name = type == INSERT ? "insert" : type == REMOVE ? "remove" : "change";
+            return name + "(" + position + "," + count + ")";
+        }
+    }
+
+    private ListDiff() {
+    }
+
+    public static <T> List<Update> calculate(List<T> oldList, List<T> newList, ItemCallback<T> callback) {
+        int n = oldList.size();
+        int m = newList.size();
+        int max = n + m;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        // v before each step d, for the backtrack
+        List<int[]> trace = new ArrayList<>();
+
+        int distance = -1;
+        for (int d = 0; d <= max && distance < 0; d++) {
+            trace.add(v.clone());
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && callback.areItemsTheSame(oldList.get(x), newList.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    distance = d;
+                    break;
+                }
+            }
+        }
+
+        // Walk back from (n, m); edits come out from the end of the list towards the start
+        List<Update> updates = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = distance; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && previous[offset + k - 1] < previous[offset + k + 1])) ? k + 1 : k - 1;
+            int prevX = previous[offset + prevK];
+            int prevY = prevX - prevK;
+
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+                addChangeIfNeeded(updates, oldList.get(x), newList.get(y), x, callback);
+            }
+            if (x == prevX) {
+                // Down move: newList[prevY] is inserted at position x
+                add(updates, Update.INSERT, x);
+            } else {
+                // Right move: oldList[prevX] is removed
+                add(updates, Update.REMOVE, prevX);
+            }
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0 && y > 0) {
+            x--;
+            y--;
+            addChangeIfNeeded(updates, oldList.get(x), newList.get(y), x, callback);
+        }
+        return updates;
+    }
+
+    public static <T> void dispatch(List<T> oldList, List<T> newList, ItemCallback<T> callback, UpdateCallback target) {
+        for (Update update : calculate(oldList, newList, callback)) {
+            switch (update.type) {
+                case Update.INSERT:
+                    target.onInserted(update.position, update.count);
+                    break;
+                case Update.REMOVE:
+                    target.onRemoved(update.position, update.count);
+                    break;
+                default:
+                    target.onChanged(update.position, update.count);
+                    break;
+            }
+        }
+    }
+
+    private static <T> void addChangeIfNeeded(List<Update> updates, T oldItem, T newItem, int position,
+                                              ItemCallback<T> callback) {
+        if (!callback.areContentsTheSame(oldItem, newItem)) {
+            add(updates, Update.CHANGE, position);
+        }
+    }
+
+    // Merge with the previous update when it extends the same run
+    private static void add(List<Update> updates, int type, int position) {
+        if (!updates.isEmpty()) {
+            Update last = updates.get(updates.size() - 1);
+            if (last.type == type) {
+                if (type == Update.INSERT && last.position == position) {
+                    updates.set(updates.size() - 1, new Update(type, position, last.count + 1));
+                    return;
+                }
+                if (type != Update.INSERT && last.position == position + 1) {
+                    updates.set(updates.size() - 1, new Update(type, position, last.count + 1));
+                    return;
+                }
+            }
+        }
+        updates.add(new Update(type, position, 1));
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * An amount of money as a long count of the currency's minor unit (whole đồng for VND, which has
+ * none; cents for USD), so adding, comparing and fee lookups never allocate intermediate
+ * BigDecimals. Immutable; arithmetic throws ArithmeticException on overflow and
+ * IllegalArgumentException when mixing currencies.
+ *
+ * Parsing reads the decimal text directly rather than going through a double, and rounds digits
+ * below the minor unit half-up, as the app has always displayed them. The display string is built
+ * once per instance, without java.util.Formatter.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String VND = "VND";
+    public static final Money ZERO = new Money(0, VND, 0);
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    private final long amount;
+    private final String currency;
+    private final int scale;
+    private transient String formatted;
+    private transient CurrencyFormatter.Symbols formattedWith;
+
+    private Money(long amount, String currency, int scale) {
+        this.amount = amount;
+        this.currency = currency;
+        this.scale = scale;
+    }
+
+    public static Money vnd(long dong) {
+        return dong == 0 ? ZERO : new Money(dong, VND, 0);
+    }
+
+    // From a count of the currency's minor unit
+    public static Money ofMinor(long minorUnits, String currency) {
+        if (VND.equals(currency)) {
+            return vnd(minorUnits);
+        }
+        return new Money(minorUnits, currency, scaleOf(currency));
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0, currency);
+    }
+
+    public static Money of(BigDecimal amount, String currency) {
+        int scale = scaleOf(currency);
+        return ofMinor(amount.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact(), currency);
+    }
+
+    /**
+     * Plain decimal text such as "1500000", "-500000000" or "250000000.50". Throws
+     * NumberFormatException if the text is not a number and ArithmeticException if it does not
+     * fit in a long.
+     */
+    public static Money parse(CharSequence text, String currency) {
+        int scale = scaleOf(currency);
+        return ofMinor(parseMinor(text, scale), currency);
+    }
+
+    /**
+     * A JSON number or numeric string; null if the field is missing or null. Integral numbers are
+     * taken as they are, decimals through their shortest text form.
+     */
+    public static Money fromJson(JSONObject json, String key, String currency) throws JSONException {
+        if (!json.has(key) || json.isNull(key)) {
+            return null;
+        }
+        Object value = json.get(key);
+        int scale = scaleOf(currency);
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ofMinor(Math.multiplyExact(((Number) value).longValue(), POWERS_OF_TEN[scale]), currency);
+        }
+        if (value instanceof BigDecimal) {
+            return of((BigDecimal) value, currency);
+        }
+        if (value instanceof BigInteger) {
+            return of(new BigDecimal((BigInteger) value), currency);
+        }
+        if (value instanceof Number) {
+            return of(BigDecimal.valueOf(((Number) value).doubleValue()), currency);
+        }
+        try {
+            return ofMinor(parseMinor(value.toString(), scale), currency);
+        } catch (NumberFormatException e) {
+            throw new JSONException(key + " is not a number: " + value);
+        }
+    }
+
+    public static Money fromJson(JSONObject json, String key, String currency, Money fallback) throws JSONException {
+        Money money = fromJson(json, key, currency);
+        return money != null ? money : fallback;
+    }
+
+    // Fraction digits of an ISO 4217 currency; 2 for unknown codes
+    static int scaleOf(String currency) {
+        if (VND.equals(currency)) {
+            return 0;
+        }
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 && digits < POWERS_OF_TEN.length ? digits : 2;
+        } catch (RuntimeException e) {
+            return 2;
+        }
+    }
+
+    static long parseMinor(CharSequence text, int scale) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        boolean negative = false;
+        if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+            negative = text.charAt(start) == '-';
+            start++;
+        }
+
+        long units = 0;
+        int fractionDigits = 0;
+        int firstDroppedDigit = -1;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (!seenPoint || fractionDigits < scale) {
+                    units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+                    if (seenPoint) {
+                        fractionDigits++;
+                    }
+                } else if (firstDroppedDigit < 0) {
+                    firstDroppedDigit = c - '0';
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (c == 'e' || c == 'E') {
+                // Exponent notation is rare enough to leave to BigDecimal
+                BigDecimal value = new BigDecimal(text.subSequence(start, end).toString());
+                long minor = value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                return negative ? -minor : minor;
+            } else {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+        }
+        if (!seenDigit) {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+        units = Math.multiplyExact(units, POWERS_OF_TEN[scale - fractionDigits]);
+        if (firstDroppedDigit >= 5) {
+            units = Math.addExact(units, 1);
+        }
+        return negative ? -units : units;
+    }
+
+    public long getMinorUnits() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(amount, scale);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return other.amount == 0 ? this : withAmount(Math.addExact(amount, other.amount));
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return other.amount == 0 ? this : withAmount(Math.subtractExact(amount, other.amount));
+    }
+
+    public Money times(long factor) {
+        return factor == 1 ? this : withAmount(Math.multiplyExact(amount, factor));
+    }
+
+    public Money negate() {
+        return withAmount(Math.negateExact(amount));
+    }
+
+    private Money withAmount(long minorUnits) {
+        return minorUnits == 0 && VND.equals(currency) ? ZERO : new Money(minorUnits, currency, scale);
+    }
+
+    public Money abs() {
+        return amount < 0 ? negate() : this;
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    public int signum() {
+        return Long.signum(amount);
+    }
+
+    public boolean isZero() {
+        return amount == 0;
+    }
+
+    public boolean isNegative() {
+        return amount < 0;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(amount, other.amount);
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    /**
+     * Grouped in the default locale with the currency's fraction digits and symbol, e.g.
+     * "1,500,000 VNĐ" or "1.500.000 VNĐ" under vi-VN.
+     */
+    public String format() {
+        CurrencyFormatter.Symbols current = CurrencyFormatter.symbols();
+        String text = formatted;
+        if (text == null || formattedWith != current) {
+            String symbol = VND.equals(currency) ? CurrencyFormatter.VND_SYMBOL : currency;
+            text = CurrencyFormatter.format(amount, scale, symbol, current);
+            formatted = text;
+            formattedWith = current;
+        }
+        return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return amount == other.amount && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(amount) + currency.hashCode();
+    }
+
+    // Plain amount without grouping, e.g. "1500000", for request bodies and edit fields
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
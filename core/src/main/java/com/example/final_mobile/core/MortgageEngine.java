@@ -0,0 +1,342 @@
+package com.example.final_mobile.core;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Amortization schedules and what-if scenarios (early repayments, rate changes) for mortgages of
+ * any term. Amounts are long minor units and rates use {@link InterestProjector#RATE_SCALE}, as in
+ * InterestProjector. Monthly interest is rounded half-up to a minor unit and payments to a whole
+ * đồng; the last payment clears whatever is left.
+ *
+ * The annuity factor r(1+r)^n / ((1+r)^n - 1) is computed with 34 significant digits
+ * (MathContext.DECIMAL128) instead of an exact BigDecimal.pow, and cached per (rate, term), so a
+ * grid of scenarios that shares rates and terms pays for each power once.
+ */
+public final class MortgageEngine {
+
+    public static final int MAX_TERM_MONTHS = 600;
+    private static final long MINOR_PER_DONG = 100;
+    private static final BigDecimal MONTHLY_RATE_DIVISOR = BigDecimal.valueOf(12 * 100 * InterestProjector.RATE_SCALE);
+    // Enough for any realistic set of (rate, term) pairs; cleared rather than evicted when exceeded
+    private static final int MAX_CACHED_FACTORS = 4096;
+    private static final Map<Long, BigDecimal> annuityFactors = new ConcurrentHashMap<>();
+
+    public enum EarlyRepayment {
+        // Keep the monthly payment and finish sooner
+        REDUCE_TERM,
+        // Keep the end date and lower the payment
+        REDUCE_PAYMENT
+    }
+
+    /** One loan plus the changes to try on it. Immutable; the with* methods return copies. */
+    public static final class Scenario {
+        final long principal;
+        final long rateUnits;
+        final int termMonths;
+        final EarlyRepayment earlyRepayment;
+        // Sorted by month; a month's events apply before its payment is computed
+        final long[] extraMonths;
+        final long[] extraAmounts;
+        final long[] rateChangeMonths;
+        final long[] rateChangeUnits;
+
+        private Scenario(long principal, long rateUnits, int termMonths, EarlyRepayment earlyRepayment,
+                         long[] extraMonths, long[] extraAmounts, long[] rateChangeMonths, long[] rateChangeUnits) {
+            this.principal = principal;
+            this.rateUnits = rateUnits;
+            this.termMonths = termMonths;
+            this.earlyRepayment = earlyRepayment;
+            this.extraMonths = extraMonths;
+            this.extraAmounts = extraAmounts;
+            this.rateChangeMonths = rateChangeMonths;
+            this.rateChangeUnits = rateChangeUnits;
+        }
+
+        public static Scenario of(long principalMinor, long rateUnits, int termMonths) {
+            if (principalMinor < 0 || termMonths < 1 || termMonths > MAX_TERM_MONTHS) {
+                throw new IllegalArgumentException("principal must not be negative and the term must be 1-" + MAX_TERM_MONTHS);
+            }
+            checkRate(rateUnits);
+            return new Scenario(principalMinor, rateUnits, termMonths, EarlyRepayment.REDUCE_TERM,
+                    new long[0], new long[0], new long[0], new long[0]);
+        }
+
+        public static Scenario of(BigDecimal principal, BigDecimal annualRatePercent, int termMonths) {
+            return of(InterestProjector.toMinorUnits(principal.abs()), InterestProjector.toRateUnits(annualRatePercent), termMonths);
+        }
+
+        // Pays amountMinor off the balance at the start of the given month (1-based)
+        public Scenario withExtraRepayment(int month, long amountMinor) {
+            checkMonth(month);
+            long[][] events = insert(extraMonths, extraAmounts, month, amountMinor);
+            return new Scenario(principal, rateUnits, termMonths, earlyRepayment, events[0], events[1],
+                    rateChangeMonths, rateChangeUnits);
+        }
+
+        // The annual rate from the given month on; the payment is recomputed over the remaining term
+        public Scenario withRateChange(int month, long newRateUnits) {
+            checkMonth(month);
+            checkRate(newRateUnits);
+            long[][] events = insert(rateChangeMonths, rateChangeUnits, month, newRateUnits);
+            return new Scenario(principal, rateUnits, termMonths, earlyRepayment, extraMonths, extraAmounts,
+                    events[0], events[1]);
+        }
+
+        public Scenario withEarlyRepayment(EarlyRepayment earlyRepayment) {
+            return new Scenario(principal, rateUnits, termMonths, earlyRepayment, extraMonths, extraAmounts,
+                    rateChangeMonths, rateChangeUnits);
+        }
+
+        private void checkMonth(int month) {
+            if (month < 1 || month > termMonths) {
+                throw new IllegalArgumentException("month " + month + " is outside the " + termMonths + "-month term");
+            }
+        }
+
+        private static void checkRate(long rateUnits) {
+            if (rateUnits < 0 || rateUnits > 100 * InterestProjector.RATE_SCALE) {
+                throw new IllegalArgumentException("rate must be 0-100%");
+            }
+        }
+
+        private static long[][] insert(long[] months, long[] values, long month, long value) {
+            int at = 0;
+            while (at < months.length && months[at] <= month) {
+                at++;
+            }
+            long[] newMonths = new long[months.length + 1];
+            long[] newValues = new long[values.length + 1];
+            System.arraycopy(months, 0, newMonths, 0, at);
+            System.arraycopy(values, 0, newValues, 0, at);
+            newMonths[at] = month;
+            newValues[at] = value;
+            System.arraycopy(months, at, newMonths, at + 1, months.length - at);
+            System.arraycopy(values, at, newValues, at + 1, values.length - at);
+            return new long[][]{newMonths, newValues};
+        }
+    }
+
+    /** Totals of one scenario; what a what-if grid compares. */
+    public static class Summary {
+        final long initialPayment;
+        int months;
+        long totalInterest;
+        long totalPaid;
+
+        Summary(long initialPayment) {
+            this.initialPayment = initialPayment;
+        }
+
+        public long getInitialPayment() {
+            return initialPayment;
+        }
+
+        // Months until the loan is paid off
+        public int getMonths() {
+            return months;
+        }
+
+        public long getTotalInterest() {
+            return totalInterest;
+        }
+
+        // Scheduled payments plus extra repayments
+        public long getTotalPaid() {
+            return totalPaid;
+        }
+    }
+
+    /** A summary plus every month's row. */
+    public static final class Schedule extends Summary {
+        private long[] payments;
+        private long[] interest;
+        private long[] balances;
+
+        Schedule(long initialPayment, int capacity) {
+            super(initialPayment);
+            payments = new long[capacity];
+            interest = new long[capacity];
+            balances = new long[capacity];
+        }
+
+        // Scheduled payment in the given month (1-based), excluding extra repayments
+        public long getPayment(int month) {
+            return payments[check(month)];
+        }
+
+        public long getInterest(int month) {
+            return interest[check(month)];
+        }
+
+        public long getPrincipalPaid(int month) {
+            return payments[check(month)] - interest[month - 1];
+        }
+
+        // Balance left after the given month's payment
+        public long getBalance(int month) {
+            return balances[check(month)];
+        }
+
+        void add(long payment, long monthInterest, long balance) {
+            payments[months] = payment;
+            interest[months] = monthInterest;
+            balances[months] = balance;
+        }
+
+        void trim() {
+            payments = Arrays.copyOf(payments, months);
+            interest = Arrays.copyOf(interest, months);
+            balances = Arrays.copyOf(balances, months);
+        }
+
+        private int check(int month) {
+            if (month < 1 || month > months) {
+                throw new IndexOutOfBoundsException("month " + month + " of " + months);
+            }
+            return month - 1;
+        }
+    }
+
+    private MortgageEngine() {
+    }
+
+    // Level monthly payment in minor units, rounded half-up to a whole đồng
+    public static long monthlyPayment(long principalMinor, long rateUnits, int termMonths) {
+        if (principalMinor == 0) {
+            return 0;
+        }
+        if (rateUnits == 0) {
+            // Rounded up so that the last payment is the smaller one
+            return ceilDiv(principalMinor, termMonths * MINOR_PER_DONG) * MINOR_PER_DONG;
+        }
+        BigDecimal payment = BigDecimal.valueOf(principalMinor).multiply(annuityFactor(rateUnits, termMonths), MathContext.DECIMAL128);
+        return roundToDong(payment.setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    public static Summary summarize(Scenario scenario) {
+        return run(scenario, false);
+    }
+
+    public static Schedule schedule(Scenario scenario) {
+        return (Schedule) run(scenario, true);
+    }
+
+    /**
+     * Summarizes every scenario, split across the executor's threads; results are in input order.
+     * Pass null to evaluate on the calling thread.
+     */
+    public static List<Summary> summarizeAll(List<Scenario> scenarios, ExecutorService executor, int parallelism)
+            throws InterruptedException {
+        Summary[] results = new Summary[scenarios.size()];
+        if (executor == null || parallelism <= 1 || scenarios.size() < 2) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = summarize(scenarios.get(i));
+            }
+            return Collections.unmodifiableList(Arrays.asList(results));
+        }
+
+        int chunk = (results.length + parallelism - 1) / parallelism;
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < results.length; start += chunk) {
+            int from = start;
+            int to = Math.min(results.length, start + chunk);
+            tasks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = summarize(scenarios.get(i));
+                }
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    private static Summary run(Scenario scenario, boolean keepRows) {
+        long rate = scenario.rateUnits;
+        long payment = monthlyPayment(scenario.principal, rate, scenario.termMonths);
+        Summary summary = keepRows ? new Schedule(payment, scenario.termMonths) : new Summary(payment);
+
+        long balance = scenario.principal;
+        int nextExtra = 0;
+        int nextRateChange = 0;
+        for (int month = 1; month <= scenario.termMonths && balance > 0; month++) {
+            boolean recompute = false;
+            while (nextRateChange < scenario.rateChangeMonths.length && scenario.rateChangeMonths[nextRateChange] == month) {
+                rate = scenario.rateChangeUnits[nextRateChange++];
+                recompute = true;
+            }
+            while (nextExtra < scenario.extraMonths.length && scenario.extraMonths[nextExtra] == month) {
+                long extra = Math.min(balance, scenario.extraAmounts[nextExtra++]);
+                balance -= extra;
+                summary.totalPaid += extra;
+                recompute |= scenario.earlyRepayment == EarlyRepayment.REDUCE_PAYMENT;
+            }
+            if (balance == 0) {
+                break;
+            }
+            if (recompute) {
+                payment = monthlyPayment(balance, rate, scenario.termMonths - month + 1);
+            }
+
+            long monthInterest = InterestProjector.interest(balance, rate);
+            long due = balance + monthInterest;
+            long paid = month == scenario.termMonths ? due : Math.min(payment, due);
+            balance = due - paid;
+
+            summary.totalInterest += monthInterest;
+            summary.totalPaid += paid;
+            if (keepRows) {
+                ((Schedule) summary).add(paid, monthInterest, balance);
+            }
+            summary.months = month;
+        }
+        if (keepRows) {
+            ((Schedule) summary).trim();
+        }
+        return summary;
+    }
+
+    // r(1+r)^n / ((1+r)^n - 1) with r the monthly rate
+    static BigDecimal annuityFactor(long rateUnits, int termMonths) {
+        Long key = rateUnits * (MAX_TERM_MONTHS + 1) + termMonths;
+        BigDecimal factor = annuityFactors.get(key);
+        if (factor == null) {
+            BigDecimal r = BigDecimal.valueOf(rateUnits).divide(MONTHLY_RATE_DIVISOR, MathContext.DECIMAL128);
+            BigDecimal growth = BigDecimal.ONE.add(r).pow(termMonths, MathContext.DECIMAL128);
+            factor = r.multiply(growth, MathContext.DECIMAL128)
+                    .divide(growth.subtract(BigDecimal.ONE), MathContext.DECIMAL128);
+            if (annuityFactors.size() >= MAX_CACHED_FACTORS) {
+                annuityFactors.clear();
+            }
+            annuityFactors.put(key, factor);
+        }
+        return factor;
+    }
+
+    private static long roundToDong(long minor) {
+        return (minor + MINOR_PER_DONG / 2) / MINOR_PER_DONG * MINOR_PER_DONG;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How long each stage of a utility payment takes, per service type. Unlike ApiMetrics these are
+ * user-visible stages: OTP entry is the time the user spends on the OTP dialog, and initiate and
+ * verify include any retries. Only stages that succeed are timed; failures are counted. All times
+ * are in microseconds.
+ */
+public final class PaymentStageMetrics {
+
+    public enum Stage {
+        // Initiate request to the OTP being issued
+        INITIATE("initiate"),
+        // OTP dialog shown until the user submits the code
+        OTP_ENTRY("otp_entry"),
+        // Verify request to the receipt
+        VERIFY("verify"),
+        // Initiate request to the receipt
+        TOTAL("total");
+
+        public final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    public static final class ServiceType {
+        private final String name;
+        private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+        private final LongAdder[] failures = new LongAdder[Stage.values().length];
+        private final LongAdder retries = new LongAdder();
+
+        ServiceType(String name) {
+            this.name = name;
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = new LatencyHistogram();
+                failures[i] = new LongAdder();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram(Stage stage) {
+            return stages[stage.ordinal()];
+        }
+
+        public long getFailures(Stage stage) {
+            return failures[stage.ordinal()].sum();
+        }
+
+        public long getRetries() {
+            return retries.sum();
+        }
+    }
+
+    private final Map<String, ServiceType> serviceTypes = new ConcurrentHashMap<>();
+
+    public void record(String serviceType, Stage stage, long micros) {
+        get(serviceType).stages[stage.ordinal()].record(micros);
+    }
+
+    public void recordFailure(String serviceType, Stage stage) {
+        get(serviceType).failures[stage.ordinal()].increment();
+    }
+
+    public void recordRetry(String serviceType) {
+        get(serviceType).retries.increment();
+    }
+
+    // Sorted by name
+    public List<ServiceType> getServiceTypes() {
+        List<ServiceType> list = new ArrayList<>(serviceTypes.values());
+        Collections.sort(list, (a, b) -> a.name.compareTo(b.name));
+        return list;
+    }
+
+    public void reset() {
+        serviceTypes.clear();
+    }
+
+    public JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        for (ServiceType type : getServiceTypes()) {
+            JSONObject item = new JSONObject();
+            item.put("retries", type.getRetries());
+            for (Stage stage : Stage.values()) {
+                LatencyHistogram histogram = type.getHistogram(stage);
+                if (histogram.getCount() == 0 && type.getFailures(stage) == 0) {
+                    continue;
+                }
+                JSONObject stats = new JSONObject();
+                stats.put("count", histogram.getCount());
+                stats.put("failures", type.getFailures(stage));
+                stats.put("p50", histogram.getPercentile(50));
+                stats.put("p90", histogram.getPercentile(90));
+                stats.put("max", histogram.getMax());
+                item.put(stage.label, stats);
+            }
+            json.put(type.name, item);
+        }
+        return json;
+    }
+
+    private ServiceType get(String serviceType) {
+        ServiceType type = serviceTypes.get(serviceType);
+        if (type == null) {
+            type = serviceTypes.computeIfAbsent(serviceType, ServiceType::new);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gateway payments (VNPay, bank transfer) whose outcome the app is still waiting for, oldest
+ * first. A payment stays until its status is final or it is older than {@link #MAX_AGE_MILLIS};
+ * past {@link #MAX_TRACKED} the oldest is dropped. Persisted with {@link #toJson()} so tracking
+ * resumes after the process is killed while the user is in the browser.
+ */
+public final class PendingPayments {
+
+    public static final int MAX_TRACKED = 20;
+    // VNPay links expire after 15 minutes; anything still open well after that is abandoned
+    public static final long MAX_AGE_MILLIS = 30 * 60 * 1000L;
+    // Status the watch endpoint reports for a payment it does not know
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    static final long MIN_POLL_DELAY_MS = 2000;
+    static final long MAX_POLL_DELAY_MS = 30000;
+
+    public static final class Entry {
+        private final String paymentId;
+        private final String paymentMethod;
+        private final String status;
+        private final long trackedSince;
+
+        public Entry(String paymentId, String paymentMethod, String status, long trackedSince) {
+            if (paymentId == null || paymentId.isEmpty() || paymentId.contains(",")) {
+                throw new IllegalArgumentException("Invalid payment id: " + paymentId);
+            }
+            this.paymentId = paymentId;
+            this.paymentMethod = paymentMethod;
+            this.status = status != null ? status : "PENDING";
+            this.trackedSince = trackedSince;
+        }
+
+        public String getPaymentId() {
+            return paymentId;
+        }
+
+        public String getPaymentMethod() {
+            return paymentMethod;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getTrackedSince() {
+            return trackedSince;
+        }
+
+        Entry withStatus(String status) {
+            return new Entry(paymentId, paymentMethod, status, trackedSince);
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject()
+                    .put("payment_id", paymentId)
+                    .put("status", status)
+                    .put("tracked_since", trackedSince);
+            if (paymentMethod != null) {
+                json.put("payment_method", paymentMethod);
+            }
+            return json;
+        }
+
+        static Entry fromJson(JSONObject json) throws JSONException {
+            return new Entry(json.getString("payment_id"), json.optString("payment_method", null),
+                    json.optString("status", "PENDING"), json.optLong("tracked_since"));
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /** Pending payments written by {@link #toJson()}; unreadable entries are skipped. */
+    public static PendingPayments fromJson(JSONArray json) {
+        PendingPayments pending = new PendingPayments();
+        for (int i = 0; i < json.length() && pending.entries.size() < MAX_TRACKED; i++) {
+            JSONObject item = json.optJSONObject(i);
+            if (item == null) {
+                continue;
+            }
+            try {
+                pending.entries.add(Entry.fromJson(item));
+            } catch (JSONException | IllegalArgumentException e) {
+                // Keep the rest
+            }
+        }
+        return pending;
+    }
+
+    public static boolean isFinal(String status) {
+        return "COMPLETED".equals(status) || "FAILED".equals(status) || "CANCELLED".equals(status)
+                || NOT_FOUND.equals(status);
+    }
+
+    // Tracking an already tracked payment keeps its original start time
+    public synchronized void track(Entry entry) {
+        if (isFinal(entry.status)) {
+            return;
+        }
+        for (Entry existing : entries) {
+            if (existing.paymentId.equals(entry.paymentId)) {
+                return;
+            }
+        }
+        entries.add(entry);
+        if (entries.size() > MAX_TRACKED) {
+            entries.remove(0);
+        }
+    }
+
+    /**
+     * Record a status from the backend. Returns true if it differs from the known one; a final
+     * status also stops tracking the payment. Untracked payments are ignored.
+     */
+    public synchronized boolean update(String paymentId, String status) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (!entry.paymentId.equals(paymentId)) {
+                continue;
+            }
+            if (entry.status.equals(status)) {
+                return false;
+            }
+            if (isFinal(status)) {
+                entries.remove(i);
+            } else {
+                entries.set(i, entry.withStatus(status));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Stops tracking payments older than MAX_AGE_MILLIS and returns them
+    public synchronized List<Entry> expire(long now) {
+        List<Entry> expired = new ArrayList<>();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (now - entries.get(i).trackedSince > MAX_AGE_MILLIS) {
+                expired.add(0, entries.remove(i));
+            }
+        }
+        return expired;
+    }
+
+    // "id:status,id:status" as the watch endpoint's known parameter expects
+    public synchronized String knownKey() {
+        StringBuilder key = new StringBuilder();
+        for (Entry entry : entries) {
+            if (key.length() > 0) {
+                key.append(',');
+            }
+            key.append(entry.paymentId).append(':').append(entry.status);
+        }
+        return key.toString();
+    }
+
+    /**
+     * How long to wait before polling again when long-polling is unavailable. A payment the user
+     * just opened in the browser is polled every couple of seconds; the longer the newest one has
+     * been open, the less likely it is about to finish, so the interval grows up to 30 seconds.
+     */
+    public synchronized long pollDelayMillis(long now) {
+        long newest = Long.MIN_VALUE;
+        for (Entry entry : entries) {
+            newest = Math.max(newest, entry.trackedSince);
+        }
+        if (newest == Long.MIN_VALUE) {
+            return MAX_POLL_DELAY_MS;
+        }
+        long age = Math.max(0, now - newest);
+        return Math.min(MAX_POLL_DELAY_MS, Math.max(MIN_POLL_DELAY_MS, age / 10));
+    }
+
+    public synchronized List<Entry> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public synchronized JSONArray toJson() throws JSONException {
+        JSONArray json = new JSONArray();
+        for (Entry entry : entries) {
+            json.put(entry.toJson());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.final_mobile.core;
+
+import java.util.Random;
+
+/**
+ * When a failed request may be sent again and how long to wait first. Only failures where the
+ * request may not have been processed are retried: no response at all (status -1, as ApiService
+ * reports network errors) and gateway errors (502-504). Backoff doubles per retry; the jittered
+ * form spreads clients that failed together so they do not all retry at the same moment.
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy NONE = new RetryPolicy(0, 0);
+
+    private final int maxRetries;
+    private final long initialBackoffMs;
+
+    private RetryPolicy(int maxRetries, long initialBackoffMs) {
+        this.maxRetries = maxRetries;
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public static RetryPolicy transientErrors(int maxRetries, long initialBackoffMs) {
+        if (maxRetries < 0 || initialBackoffMs < 0) {
+            throw new IllegalArgumentException("Retries and backoff must not be negative");
+        }
+        return new RetryPolicy(maxRetries, initialBackoffMs);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    // retriesSoFar is 0 before the first retry
+    public boolean shouldRetry(int retriesSoFar, int statusCode) {
+        return retriesSoFar < maxRetries && isTransient(statusCode);
+    }
+
+    public long backoffMillis(int retriesSoFar) {
+        return initialBackoffMs << Math.min(retriesSoFar, 20);
+    }
+
+    // Somewhere between half and all of backoffMillis(retriesSoFar)
+    public long backoffMillis(int retriesSoFar, Random random) {
+        long max = backoffMillis(retriesSoFar);
+        long half = max / 2;
+        return half + (long) (random.nextDouble() * (max - half + 1));
+    }
+
+    public static boolean isTransient(int statusCode) {
+        return statusCode == -1 || (statusCode >= 502 && statusCode <= 504);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The bills a user pays again and again, most recently paid first. Paying the same reference
+ * again moves it to the front with the new amount; past {@link #MAX_ENTRIES} the least recently
+ * paid bill is dropped.
+ */
+public final class SavedBillers {
+
+    public static final int MAX_ENTRIES = 10;
+
+    public static final class Entry {
+        private final String serviceType;
+        private final String reference;
+        private final String customerName;
+        private final String provider;
+        private final Money lastAmount;
+        private final long lastPaidAt;
+
+        public Entry(String serviceType, String reference, String customerName, String provider,
+                     Money lastAmount, long lastPaidAt) {
+            if (serviceType == null || reference == null || reference.isEmpty()) {
+                throw new IllegalArgumentException("A saved biller needs a service type and reference");
+            }
+            this.serviceType = serviceType;
+            this.reference = reference;
+            this.customerName = customerName;
+            this.provider = provider;
+            this.lastAmount = lastAmount;
+            this.lastPaidAt = lastPaidAt;
+        }
+
+        public String getServiceType() {
+            return serviceType;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        // Null if the payment did not carry one
+        public String getCustomerName() {
+            return customerName;
+        }
+
+        public String getProvider() {
+            return provider;
+        }
+
+        public Money getLastAmount() {
+            return lastAmount;
+        }
+
+        public long getLastPaidAt() {
+            return lastPaidAt;
+        }
+
+        boolean isSameBill(String serviceType, String reference) {
+            return this.serviceType.equals(serviceType) && this.reference.equals(reference);
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject()
+                    .put("service_type", serviceType)
+                    .put("reference", reference)
+                    .put("last_paid_at", lastPaidAt);
+            if (customerName != null) {
+                json.put("customer_name", customerName);
+            }
+            if (provider != null) {
+                json.put("provider", provider);
+            }
+            if (lastAmount != null) {
+                json.put("last_amount", lastAmount.toBigDecimal().toPlainString());
+                json.put("currency", lastAmount.getCurrency());
+            }
+            return json;
+        }
+
+        static Entry fromJson(JSONObject json) throws JSONException {
+            String currency = json.optString("currency", Money.VND);
+            return new Entry(json.getString("service_type"), json.getString("reference"),
+                    json.optString("customer_name", null), json.optString("provider", null),
+                    Money.fromJson(json, "last_amount", currency), json.optLong("last_paid_at"));
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /** Saved billers written by {@link #toJson()}; unreadable entries are skipped. */
+    public static SavedBillers fromJson(JSONArray json) {
+        SavedBillers saved = new SavedBillers();
+        for (int i = 0; i < json.length() && saved.entries.size() < MAX_ENTRIES; i++) {
+            JSONObject item = json.optJSONObject(i);
+            if (item == null) {
+                continue;
+            }
+            try {
+                saved.entries.add(Entry.fromJson(item));
+            } catch (JSONException | IllegalArgumentException e) {
+                // Keep the rest
+            }
+        }
+        return saved;
+    }
+
+    public synchronized void remember(Entry entry) {
+        remove(entry.serviceType, entry.reference);
+        entries.add(0, entry);
+        if (entries.size() > MAX_ENTRIES) {
+            entries.remove(entries.size() - 1);
+        }
+    }
+
+    public synchronized boolean remove(String serviceType, String reference) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).isSameBill(serviceType, reference)) {
+                entries.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Null if this bill has not been paid before
+    public synchronized Entry find(String serviceType, String reference) {
+        for (Entry entry : entries) {
+            if (entry.isSameBill(serviceType, reference)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    // Most recently paid first
+    public synchronized List<Entry> forServiceType(String serviceType) {
+        List<Entry> matching = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.serviceType.equals(serviceType)) {
+                matching.add(entry);
+            }
+        }
+        return matching;
+    }
+
+    public synchronized List<Entry> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public synchronized JSONArray toJson() throws JSONException {
+        JSONArray json = new JSONArray();
+        for (Entry entry : entries) {
+            json.put(entry.toJson());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.final_mobile.core;
+
+import com.example.final_mobile.models.Transaction;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Decodes transactions as returned by the transactions endpoints.
+ */
+public final class TransactionJsonParser {
+
+    // SimpleDateFormat is not thread-safe; one pair per thread instead of two per transaction
+    private static final ThreadLocal<SimpleDateFormat> ISO_SECONDS =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.getDefault()));
+    private static final ThreadLocal<SimpleDateFormat> ISO_MILLIS =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS", Locale.getDefault()));
+
+    private TransactionJsonParser() {
+    }
+
+    public static List<Transaction> parseTransactions(JSONArray transactionsArray) throws JSONException {
+        List<Transaction> transactions = new ArrayList<>(transactionsArray.length());
+        for (int i = 0; i < transactionsArray.length(); i++) {
+            transactions.add(parseTransaction(transactionsArray.getJSONObject(i)));
+        }
+        return transactions;
+    }
+
+    public static Transaction parseTransaction(JSONObject transactionJson) throws JSONException {
+        Transaction transaction = new Transaction();
+
+        // Store both transaction_id and the MongoDB _id; the backend's getTransaction API
+        // looks transactions up by transaction_id, so that is the primary ID when present
+        String transactionId = transactionJson.optString("transaction_id", "");
+        String mongoId = transactionJson.optString("id", "");
+        transaction.setTransactionId(transactionId);
+        transaction.setMongoId(mongoId);
+        if (!transactionId.isEmpty()) {
+            transaction.setId(transactionId);
+        } else if (!mongoId.isEmpty()) {
+            transaction.setId(mongoId);
+        }
+
+        transaction.setFromAccountId(transactionJson.optString("from_account_id", ""));
+        transaction.setToAccountId(transactionJson.optString("to_account_id", ""));
+        transaction.setFromAccountNumber(transactionJson.optString("from_account_number", ""));
+        transaction.setToAccountNumber(transactionJson.optString("to_account_number", ""));
+
+        // Amount may be a string or a number
+        String currency = transactionJson.optString("currency", Money.VND);
+        transaction.setCurrency(currency);
+        transaction.setAmount(Money.fromJson(transactionJson, "amount", currency, Money.zero(currency)));
+
+        transaction.setTransactionType(transactionJson.optString("transaction_type", "TRANSFER"));
+        transaction.setStatus(transactionJson.optString("status", "PENDING"));
+        transaction.setDescription(transactionJson.optString("description", ""));
+
+        // Use transaction_id as reference number if available, otherwise the MongoDB _id
+        String refNumber = transactionJson.optString("reference_number", "");
+        if (refNumber.isEmpty()) {
+            refNumber = !transactionId.isEmpty() ? transactionId : mongoId;
+        }
+        transaction.setReferenceNumber(refNumber);
+
+        Date createdAt = parseDate(transactionJson.opt("created_at"));
+        transaction.setCreatedAt(createdAt != null ? createdAt : new Date());
+
+        return transaction;
+    }
+
+    /**
+     * ISO 8601 ("2025-11-17T23:20:47.532Z" or without millis), either as a string or wrapped in
+     * an object ({"$date": ...} / {"iso": ...}). Returns null if missing or unparseable.
+     */
+    public static Date parseDate(Object value) {
+        String text = null;
+        if (value instanceof String) {
+            text = (String) value;
+        } else if (value instanceof JSONObject) {
+            JSONObject dateObj = (JSONObject) value;
+            text = dateObj.optString("$date", "");
+            if (text.isEmpty()) {
+                text = dateObj.optString("iso", "");
+            }
+        }
+        if (text == null || text.isEmpty() || text.equals("{}")) {
+            return null;
+        }
+
+        SimpleDateFormat format = text.contains(".") ? ISO_MILLIS.get() : ISO_SECONDS.get();
+        if (text.endsWith("Z")) {
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            text = text.substring(0, text.length() - 1);
+        } else {
+            format.setTimeZone(TimeZone.getDefault());
+        }
+        try {
+            return format.parse(text);
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+}
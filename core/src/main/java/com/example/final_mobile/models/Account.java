@@ -1,5 +1,7 @@
 package com.example.final_mobile.models;
 
+import com.example.final_mobile.core.Money;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Date;
@@ -9,7 +11,7 @@ public class Account implements Serializable {
     private String userId;
     private String accountNumber;
     private String accountType; // CHECKING, SAVING, MORTGAGE
-    private BigDecimal balance;
+    private Money balance;
     private BigDecimal interestRate; // For saving accounts
     private String currency;
     private boolean isActive;
@@ -24,7 +26,7 @@ public class Account implements Serializable {
     // Constructors
     public Account() {
         this.currency = "VND";
-        this.balance = BigDecimal.ZERO;
+        this.balance = Money.ZERO;
         this.isActive = true;
         this.createdAt = new Date();
         this.updatedAt = new Date();
@@ -50,8 +52,8 @@ public class Account implements Serializable {
     public String getAccountType() { return accountType; }
     public void setAccountType(String accountType) { this.accountType = accountType; }
 
-    public BigDecimal getBalance() { return balance; }
-    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public Money getBalance() { return balance; }
+    public void setBalance(Money balance) { this.balance = balance; }
 
     public BigDecimal getInterestRate() { return interestRate; }
     public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
@@ -82,7 +84,7 @@ public class Account implements Serializable {
     }
 
     public String getFormattedBalance() {
-        return String.format("%,.0f %s", balance.doubleValue(), currency);
+        return balance.format();
     }
 
     public String getMaskedAccountNumber() {
@@ -1,6 +1,7 @@
 package com.example.final_mobile.models;
 
-import java.math.BigDecimal;
+import com.example.final_mobile.core.Money;
+
 import java.util.Date;
 
 public class Transaction {
@@ -9,7 +10,7 @@ public class Transaction {
     private String toAccountId;
     private String fromAccountNumber;
     private String toAccountNumber;
-    private BigDecimal amount;
+    private Money amount;
     private String currency;
     private String transactionType; // TRANSFER, DEPOSIT, WITHDRAWAL, PAYMENT
     private String status; // PENDING, COMPLETED, FAILED, CANCELLED
@@ -41,7 +42,7 @@ public class Transaction {
         this.updatedAt = new Date();
     }
 
-    public Transaction(String fromAccountId, String toAccountId, BigDecimal amount, String transactionType) {
+    public Transaction(String fromAccountId, String toAccountId, Money amount, String transactionType) {
         this();
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
@@ -76,8 +77,8 @@ public class Transaction {
     public String getToAccountNumber() { return toAccountNumber; }
     public void setToAccountNumber(String toAccountNumber) { this.toAccountNumber = toAccountNumber; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
@@ -120,7 +121,7 @@ public class Transaction {
     }
 
     public String getFormattedAmount() {
-        return String.format("%,.0f %s", amount.doubleValue(), currency);
+        return amount.format();
     }
 
     public String getDisplayAmount(String currentAccountId) {
@@ -24,6 +24,7 @@ public class ApiConfig {
     public static final String REFRESH_TOKEN = "auth/refresh-token";  // Updated
     public static final String VERIFY_OTP = "auth/verify-otp";
     public static final String SEND_OTP = "auth/send-otp";
+    public static final String API_TEST = "test";  // Lightweight endpoint, used to pre-connect at startup
     
     // User endpoints - Updated to match Node.js backend
     public static final String USER_PROFILE = "auth/me";  // Updated
@@ -50,11 +51,19 @@ public class ApiConfig {
     public static final String PAY_BILL = "utilities/pay-bill";
     public static final String TOPUP_PHONE = "utilities/topup";
     public static final String GET_BILL_INFO = "utilities/bill-info";
+    public static final String GET_BILL_INFO_BATCH = "utilities/bill-info/batch";
+    public static final String GET_PROVIDERS = "utilities/providers";
+    public static final String FEE_SCHEDULE = "fees/schedule";
     
     // eKYC endpoints
     public static final String UPLOAD_FACE_IMAGE = "ekyc/upload-face";
     public static final String VERIFY_IDENTITY = "ekyc/verify-identity";
     public static final String GET_VERIFICATION_STATUS = "ekyc/verification-status";
+    public static final String WATCH_VERIFICATION_STATUS = "ekyc/verification-status/watch";
+    public static final String FACE_IMAGE = "ekyc/face-image";
+    public static final String EKYC_UPLOADS = "ekyc/uploads";
+    public static final String EKYC_UPLOAD_STATUS = "ekyc/uploads/{uploadId}";
+    public static final String EKYC_UPLOAD_COMPLETE = "ekyc/uploads/{uploadId}/complete";
     
     // Map endpoints
     public static final String GET_BRANCHES = "utilities/branches";
@@ -85,6 +94,7 @@ public class ApiConfig {
     public static final String BANK_TRANSFER = "payments/bank-transfer";
     public static final String GET_PAYMENT_STATUS = "payments/{paymentId}";
     public static final String GET_PAYMENT_HISTORY = "payments/history/list";
+    public static final String WATCH_PAYMENT_STATUS = "payments/status/watch";
     
     // Headers
     public static final String HEADER_AUTHORIZATION = "Authorization";
@@ -94,6 +104,7 @@ public class ApiConfig {
     // Content Types
     public static final String CONTENT_TYPE_JSON = "application/json";
     public static final String CONTENT_TYPE_MULTIPART = "multipart/form-data";
+    public static final String CONTENT_TYPE_OCTET_STREAM = "application/octet-stream";
     
     // Response codes
     public static final int SUCCESS = 200;
@@ -102,6 +113,8 @@ public class ApiConfig {
     public static final int UNAUTHORIZED = 401;
     public static final int FORBIDDEN = 403;
     public static final int NOT_FOUND = 404;
+    public static final int CONFLICT = 409;
+    public static final int GONE = 410;
     public static final int UNPROCESSABLE_ENTITY = 422;
     public static final int INTERNAL_SERVER_ERROR = 500;
     
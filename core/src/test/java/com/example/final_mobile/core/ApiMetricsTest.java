@@ -0,0 +1,71 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ApiMetricsTest {
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        ApiMetrics metrics = new ApiMetrics();
+        assertNull(metrics.begin("GET", "accounts", System.nanoTime()));
+        assertTrue(metrics.getEndpoints().isEmpty());
+    }
+
+    @Test
+    public void pathsAreGroupedByEndpoint() {
+        assertEquals("accounts/{id}/balance", ApiMetrics.normalize("accounts/65f1c0a2e4/balance"));
+        assertEquals("transactions/history", ApiMetrics.normalize("transactions/history?page=2&limit=20"));
+        assertEquals("utilities/pay-electricity", ApiMetrics.normalize("utilities/pay-electricity"));
+        assertEquals("admin/customers/{id}", ApiMetrics.normalize("admin/customers/a@b.vn"));
+    }
+
+    @Test
+    public void sampleRecordsPhasesBytesAndOutcomes() throws Exception {
+        ApiMetrics metrics = new ApiMetrics();
+        metrics.setEnabled(true);
+
+        ApiMetrics.Sample ok = metrics.begin("GET", "accounts/123/balance", System.nanoTime() - 2_000_000);
+        ok.mark(ApiMetrics.Phase.CONNECT);
+        ok.addBytesSent(10);
+        try (InputStream in = ok.countReceived(new ByteArrayInputStream(new byte[300]))) {
+            byte[] buffer = new byte[128];
+            while (in.read(buffer) != -1) {
+                // drain
+            }
+        }
+        ok.mark(ApiMetrics.Phase.DOWNLOAD);
+        ok.finish(200);
+        // A second finish (e.g. after a failing callback) is ignored
+        ok.fail(new IllegalStateException());
+
+        metrics.begin("GET", "accounts/456/balance", 0).fail(new SocketTimeoutException());
+
+        ApiMetrics.Endpoint endpoint = metrics.getEndpoint("GET accounts/{id}/balance");
+        assertEquals(2, endpoint.getRequestCount());
+        assertEquals(1, endpoint.getErrorCount());
+        assertEquals(10, endpoint.getBytesSent());
+        assertEquals(300, endpoint.getBytesReceived());
+        assertEquals(Long.valueOf(1), endpoint.getOutcomes().get("SocketTimeoutException"));
+        assertEquals(1, endpoint.getHistogram(ApiMetrics.Phase.QUEUE_WAIT).getCount());
+        assertTrue(endpoint.getHistogram(ApiMetrics.Phase.QUEUE_WAIT).getMax() >= 2000);
+        assertEquals(2, endpoint.getHistogram(ApiMetrics.Phase.TOTAL).getCount());
+
+        JSONObject export = metrics.toJson();
+        JSONObject item = export.getJSONArray("endpoints").getJSONObject(0);
+        assertEquals("GET accounts/{id}/balance", item.getString("endpoint"));
+        assertEquals(1, item.getJSONObject("phases").getJSONObject("download").getLong("count"));
+        assertTrue(item.getJSONObject("phases").getJSONObject("total").getJSONArray("buckets").length() > 0);
+
+        metrics.reset();
+        assertTrue(metrics.getEndpoints().isEmpty());
+    }
+}
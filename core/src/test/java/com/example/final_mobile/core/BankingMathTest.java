@@ -0,0 +1,55 @@
+package com.example.final_mobile.core;
+
+import com.example.final_mobile.models.Account;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BankingMathTest {
+
+    @Test
+    public void transferFeeTiers() {
+        assertEquals(Money.ZERO, BankingMath.transferFee(Money.vnd(100000)));
+        assertEquals(Money.vnd(5000), BankingMath.transferFee(Money.vnd(100001)));
+        assertEquals(Money.vnd(5000), BankingMath.transferFee(Money.vnd(1000000)));
+        assertEquals(Money.vnd(10000), BankingMath.transferFee(Money.vnd(10000000)));
+        assertEquals(Money.vnd(20000), BankingMath.transferFee(Money.vnd(10000001)));
+        assertEquals(Money.ZERO, BankingMath.transferFee(null));
+    }
+
+    @Test
+    public void transferMustCoverAmountPlusFee() {
+        assertFalse(BankingMath.isValidTransferAmount(Money.vnd(9999), Money.vnd(1000000)));
+        assertTrue(BankingMath.isValidTransferAmount(Money.vnd(500000), Money.vnd(505000)));
+        assertFalse(BankingMath.isValidTransferAmount(Money.vnd(500000), Money.vnd(504999)));
+    }
+
+    @Test
+    public void mortgagePaymentUsesAnnuityFormula() {
+        Account mortgage = new Account();
+        mortgage.setAccountType(Account.TYPE_MORTGAGE);
+        mortgage.setBalance(Money.vnd(-500_000_000));
+        mortgage.setInterestRate(new BigDecimal("8.2"));
+
+        Money payment = BankingMath.monthlyMortgagePayment(mortgage);
+        // 500M over 240 months at 8.2%/year is about 4.24M per month
+        assertTrue(payment.isGreaterThan(Money.vnd(4_200_000)));
+        assertTrue(payment.isLessThan(Money.vnd(4_300_000)));
+    }
+
+    @Test
+    public void projectionCompoundsMonthly() {
+        List<BankingMath.ProjectedMonth> months = BankingMath.projectInterest(1200000, 12, 2);
+        assertEquals(2, months.size());
+        assertEquals(12000, months.get(0).monthlyInterest, 0.001);
+        assertEquals(1212000, months.get(0).balance, 0.001);
+        assertEquals(12120, months.get(1).monthlyInterest, 0.001);
+        assertEquals(24120, months.get(1).cumulativeInterest, 0.001);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BillerTest {
+
+    @Test
+    public void buildsTheSameBodyAsTheOldPerBillerMethods() throws Exception {
+        // UtilityService.payElectricityBill(null, "PE123", 150000, "", "10/2026")
+        JSONObject body = Biller.ELECTRICITY.buildRequest(null, "PE123", new BigDecimal("150000"),
+                Biller.details("customerName", "", "period", "10/2026"));
+        assertFalse(body.has("accountId"));
+        assertEquals("PE123", body.getString("customerNumber"));
+        assertEquals(150000.0, body.getDouble("amount"), 0);
+        assertEquals("", body.getString("customerName"));
+        assertEquals("10/2026", body.getString("period"));
+        assertEquals(4, body.length());
+    }
+
+    @Test
+    public void skipsNullDetailsAndKeepsAccount() throws Exception {
+        JSONObject body = Biller.MOVIE.buildRequest("acc-1", "Dune", new BigDecimal("90000"),
+                Biller.details("cinema", null, "quantity", 2));
+        assertEquals("acc-1", body.getString("accountId"));
+        assertEquals("Dune", body.getString("movieName"));
+        assertEquals(2, body.getInt("quantity"));
+        assertFalse(body.has("cinema"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFieldsTheBillerDoesNotTake() throws Exception {
+        Biller.PHONE_TOPUP.buildRequest(null, "0912345678", BigDecimal.TEN, Biller.details("period", "10/2026"));
+    }
+
+    @Test
+    public void looksUpBillersByServiceType() {
+        for (String serviceType : new String[]{"ELECTRICITY", "WATER", "INTERNET", "PHONE_TOPUP",
+                "FLIGHT", "MOVIE", "HOTEL", "ECOMMERCE"}) {
+            Biller biller = Biller.forServiceType(serviceType);
+            assertEquals(serviceType, biller.getServiceType());
+            assertTrue(biller.getEndpoint().startsWith("utilities/"));
+        }
+        assertSame(Biller.HOTEL, Biller.forServiceType("HOTEL"));
+        assertTrue(Biller.WATER.isRecurring());
+        assertFalse(Biller.FLIGHT.isRecurring());
+        assertNull(Biller.forServiceType("LOTTERY"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.final_mobile.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DisplayFormatterTest {
+
+    private Locale previous;
+
+    @Before
+    public void setUp() {
+        previous = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(previous);
+    }
+
+    @Test
+    public void formatsVndLikeTheOldFormatString() {
+        for (long dong : new long[]{0, 7, 999, 1_000, -10_000, 1_500_000, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(String.format("%,d VNĐ", dong), CurrencyFormatter.formatVnd(dong));
+        }
+        assertEquals("250,000,001 VNĐ", CurrencyFormatter.format(new BigDecimal("250000000.5")));
+        assertEquals("0 VNĐ", CurrencyFormatter.format((BigDecimal) null));
+        assertEquals("Số dư: 12,345", CurrencyFormatter.appendGrouped(new StringBuilder("Số dư: "), 12_345).toString());
+
+        Locale.setDefault(new Locale("vi", "VN"));
+        assertEquals("1.500.000 VNĐ", CurrencyFormatter.formatVnd(1_500_000));
+    }
+
+    @Test
+    public void relativeTimeMatchesTheHomeScreen() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2026, Calendar.OCTOBER, 19, 14, 5, 0);
+        long now = calendar.getTimeInMillis();
+
+        assertEquals("Vừa xong", DisplayFormatter.formatRelative(null, now));
+        assertEquals("Vừa xong", DisplayFormatter.formatRelative(new Date(now - 59_000), now));
+        assertEquals("5 phút trước", DisplayFormatter.formatRelative(new Date(now - 5 * 60_000), now));
+        assertEquals("23 giờ trước", DisplayFormatter.formatRelative(new Date(now - 23 * 3_600_000L - 1), now));
+        assertEquals("Hôm qua, 14:05", DisplayFormatter.formatRelative(new Date(now - 24 * 3_600_000L), now));
+        Date lastWeek = new Date(now - 3 * 24 * 3_600_000L);
+        assertEquals(new SimpleDateFormat("EEEE, HH:mm").format(lastWeek), DisplayFormatter.formatRelative(lastWeek, now));
+        assertEquals("01/10/2026, 14:05",
+                DisplayFormatter.formatRelative(new Date(now - 18 * 24 * 3_600_000L), now));
+        // Constant strings, not built per bind
+        assertSame(DisplayFormatter.formatRelative(new Date(now - 5 * 60_000), now),
+                DisplayFormatter.formatRelative(new Date(now - 5 * 60_000 - 1), now));
+    }
+
+    @Test
+    public void labelsFallBackToTheRawValue() {
+        assertEquals("Chuyển tiền", DisplayFormatter.transactionTypeLabel("TRANSFER"));
+        assertEquals("Tiện ích", DisplayFormatter.transactionTypeLabel("UTILITY"));
+        assertEquals("LOAN", DisplayFormatter.transactionTypeLabel("LOAN"));
+        assertEquals("N/A", DisplayFormatter.transactionTypeLabel(null));
+        assertEquals("Giao dịch", DisplayFormatter.transactionTypeLabel("LOAN", "Giao dịch"));
+        assertEquals("Đã hủy", DisplayFormatter.statusLabel("CANCELLED"));
+        assertEquals("REVERSED", DisplayFormatter.statusLabel("REVERSED"));
+        assertEquals(DisplayFormatter.Tone.IN_PROGRESS, DisplayFormatter.statusTone("PROCESSING"));
+        assertEquals(DisplayFormatter.Tone.NEUTRAL, DisplayFormatter.statusTone(null));
+        assertEquals("6.50%/năm", DisplayFormatter.formatAnnualRate(new BigDecimal("6.5")));
+        assertEquals("0.13%/năm", DisplayFormatter.formatAnnualRate(new BigDecimal("0.125")));
+    }
+
+    @Test
+    public void dateFormattersAreConfinedToTheirThread() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int day = t + 1;
+            tasks.add(() -> {
+                Calendar local = (Calendar) calendar.clone();
+                local.set(2026, Calendar.JANUARY, day, 8, 30, 15);
+                String expected = String.format("%02d/01/2026 08:30:15", day);
+                for (int i = 0; i < 2_000; i++) {
+                    if (!expected.equals(DisplayFormatter.formatDateTime(local.getTime()))) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertEquals(true, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FeeScheduleTest {
+
+    @Test
+    public void quotesMatchServerFees() throws Exception {
+        // Generated from backend/src/utils/feeSchedule.js: the published schedule and its fees
+        // for a range of amounts around every tier bound and the percentage caps
+        JSONObject server = new JSONObject(readResource("fee_schedule_server.json"));
+        FeeSchedule schedule = FeeSchedule.fromJson(server.getJSONObject("schedule"));
+        assertEquals("544fcb4bb13c", schedule.getVersion());
+        assertEquals(Money.vnd(10_000), schedule.getMinTransferAmount());
+
+        JSONArray quotes = server.getJSONArray("quotes");
+        for (int i = 0; i < quotes.length(); i++) {
+            JSONObject quote = quotes.getJSONObject(i);
+            Money amount = Money.vnd(quote.getLong("amount"));
+            assertEquals("transfer " + amount, Money.vnd(quote.getLong("transfer_fee")), schedule.transferFee(amount));
+            assertEquals("default transfer " + amount, schedule.transferFee(amount), FeeSchedule.DEFAULT.transferFee(amount));
+
+            JSONObject utilityFees = quote.getJSONObject("utility_fees");
+            Iterator<String> serviceTypes = utilityFees.keys();
+            while (serviceTypes.hasNext()) {
+                String serviceType = serviceTypes.next();
+                Money expected = Money.vnd(utilityFees.getLong(serviceType));
+                assertEquals(serviceType + " " + amount, expected, schedule.utilityFee(serviceType, amount));
+                assertEquals("default " + serviceType + " " + amount, expected,
+                        FeeSchedule.DEFAULT.utilityFee(serviceType, amount));
+            }
+        }
+    }
+
+    @Test
+    public void defaultScheduleIsNeverStale() {
+        assertNull(FeeSchedule.DEFAULT.getVersion());
+    }
+
+    @Test
+    public void validatesAmountAgainstMinimumAndFee() {
+        FeeSchedule schedule = FeeSchedule.DEFAULT;
+        assertFalse(schedule.isValidTransferAmount(Money.vnd(9_999), Money.vnd(1_000_000)));
+        assertTrue(schedule.isValidTransferAmount(Money.vnd(200_000), Money.vnd(205_000)));
+        assertFalse(schedule.isValidTransferAmount(Money.vnd(200_000), Money.vnd(204_999)));
+        assertFalse(schedule.isValidTransferAmount(Money.vnd(200_000), null));
+    }
+
+    @Test(expected = JSONException.class)
+    public void rejectsTiersOutOfOrder() throws Exception {
+        FeeSchedule.fromJson(new JSONObject("{\"version\":\"v2\",\"transfer\":{\"tiers\":["
+                + "{\"up_to\":1000000,\"fee\":5000},{\"up_to\":100000,\"fee\":0}]}}"));
+    }
+
+    private String readResource(String name) throws Exception {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.final_mobile.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdempotencyKeysTest {
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final IdempotencyKeys keys = new IdempotencyKeys(() -> "key-" + next.incrementAndGet());
+
+    @Test
+    public void sameRequestReusesItsKeyUntilResolved() {
+        String key = keys.keyFor("accounts/deposit", "{\"amount\":100}");
+        assertEquals(key, keys.keyFor("accounts/deposit", "{\"amount\":100}"));
+        assertNotEquals(key, keys.keyFor("accounts/deposit", "{\"amount\":200}"));
+        assertNotEquals(key, keys.keyFor("accounts/withdraw", "{\"amount\":100}"));
+
+        keys.resolve("accounts/deposit", "{\"amount\":100}");
+        assertNotEquals(key, keys.keyFor("accounts/deposit", "{\"amount\":100}"));
+    }
+
+    @Test
+    public void dropsTheLeastRecentlyUsedKeyPastTheLimit() {
+        String first = keys.keyFor("transactions/transfer", "0");
+        String second = keys.keyFor("transactions/transfer", "1");
+        for (int i = 2; i < IdempotencyKeys.MAX_PENDING; i++) {
+            keys.keyFor("transactions/transfer", String.valueOf(i));
+        }
+        // Touching the first key keeps it; the second is now the oldest
+        assertEquals(first, keys.keyFor("transactions/transfer", "0"));
+        keys.keyFor("transactions/transfer", "new");
+
+        assertEquals(IdempotencyKeys.MAX_PENDING, keys.pendingCount());
+        assertEquals(first, keys.keyFor("transactions/transfer", "0"));
+        assertNotEquals(second, keys.keyFor("transactions/transfer", "1"));
+    }
+
+    @Test
+    public void onlyTransientFailuresLeaveTheOutcomeUnknown() {
+        assertFalse(IdempotencyKeys.isOutcomeKnown(-1));
+        assertFalse(IdempotencyKeys.isOutcomeKnown(503));
+        for (int status : new int[]{200, 400, 409, 422, 500}) {
+            assertTrue(String.valueOf(status), IdempotencyKeys.isOutcomeKnown(status));
+        }
+    }
+}
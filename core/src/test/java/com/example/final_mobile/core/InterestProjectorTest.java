@@ -0,0 +1,115 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InterestProjectorTest {
+
+    // Rounding each posting to a minor unit drifts from the backend's unrounded compounding by
+    // well under half a minor unit per month
+    private static long tolerance(int month) {
+        return 1 + month / 2;
+    }
+
+    @Test
+    public void monthlyScheduleMatchesServerOutput() throws Exception {
+        // Generated by running the loop in AccountController.getInterestProjection under node
+        JSONArray cases = new JSONArray(readResource("interest_projection_server.json"));
+        for (int i = 0; i < cases.length(); i++) {
+            JSONObject server = cases.getJSONObject(i);
+            InterestProjector.Schedule schedule = InterestProjector.project(
+                    new BigDecimal(server.get("current_balance").toString()),
+                    new BigDecimal(server.get("interest_rate").toString()),
+                    server.getInt("months"), InterestProjector.Compounding.MONTHLY);
+
+            JSONArray details = server.getJSONArray("monthly_details");
+            for (int m = 1; m <= details.length(); m++) {
+                JSONObject row = details.getJSONObject(m - 1);
+                assertClose(row.getDouble("balance"), schedule.getBalance(m), tolerance(m));
+                assertClose(row.getDouble("cumulative_interest"), schedule.getCumulativeInterest(m), tolerance(m));
+                assertClose(row.getDouble("monthly_interest"), schedule.getInterest(m), tolerance(m));
+            }
+            assertClose(server.getDouble("projected_balance"), schedule.getFinalBalance(), tolerance(schedule.getMonths()));
+            assertClose(server.getDouble("total_interest"), schedule.getTotalInterest(), tolerance(schedule.getMonths()));
+        }
+    }
+
+    @Test
+    public void monthlyScheduleTracksBackendFormulaAcrossInputs() {
+        Random random = new Random(41);
+        for (int i = 0; i < 500; i++) {
+            long balance = (long) (random.nextDouble() * 5_000_000_000L);
+            BigDecimal rate = BigDecimal.valueOf(random.nextInt(1500), 2);
+            int months = 1 + random.nextInt(60);
+
+            List<BankingMath.ProjectedMonth> server = BankingMath.projectInterest(balance, rate.doubleValue(), months);
+            InterestProjector.Schedule schedule = InterestProjector.project(
+                    BigDecimal.valueOf(balance), rate, months, InterestProjector.Compounding.MONTHLY);
+            for (BankingMath.ProjectedMonth row : server) {
+                assertClose(row.balance, schedule.getBalance(row.month), tolerance(row.month));
+            }
+        }
+    }
+
+    @Test
+    public void quarterlyAndAtMaturityPostOnlyOnTheirMonths() {
+        // 12,000,000 đồng at 6%/year: 1.5% a quarter, 0.5% a month of simple interest
+        long principal = 1_200_000_000L;
+        InterestProjector.Schedule quarterly = InterestProjector.project(principal, 60_000, 7,
+                InterestProjector.Compounding.QUARTERLY);
+        assertEquals(0, quarterly.getInterest(2));
+        assertEquals(18_000_000L, quarterly.getInterest(3));
+        assertEquals(18_270_000L, quarterly.getInterest(6));
+        // Month 7 is a one-month stub paid at maturity
+        assertEquals(6_181_350L, quarterly.getInterest(7));
+
+        InterestProjector.Schedule atMaturity = InterestProjector.project(principal, 60_000, 24,
+                InterestProjector.Compounding.AT_MATURITY);
+        assertEquals(principal, atMaturity.getBalance(23));
+        assertEquals(144_000_000L, atMaturity.getTotalInterest());
+    }
+
+    @Test
+    public void rowsAreComputedOnDemandAndLargeBalancesDoNotOverflow() {
+        InterestProjector.Schedule schedule = InterestProjector.project(new BigDecimal("90000000000000"),
+                new BigDecimal("100"), 360, InterestProjector.Compounding.AT_MATURITY);
+        // 30 years of 100% simple interest on 90,000 billion đồng
+        assertEquals(InterestProjector.toMinorUnits(new BigDecimal("2790000000000000")), schedule.getFinalBalance());
+
+        InterestProjector.Schedule monthly = InterestProjector.project(new BigDecimal("150000000"),
+                new BigDecimal("6.5"), 360, InterestProjector.Compounding.MONTHLY);
+        long last = monthly.getBalance(360);
+        assertEquals(last, monthly.getFinalBalance());
+        assertTrue(monthly.getBalance(1) < last);
+        assertEquals(new BigDecimal("150812500.00"), InterestProjector.fromMinorUnits(monthly.getBalance(1)));
+    }
+
+    private static void assertClose(double serverValue, long minorUnits, long tolerance) {
+        long expected = Math.round(serverValue * 100);
+        assertTrue("server " + serverValue + " vs " + InterestProjector.fromMinorUnits(minorUnits),
+                Math.abs(expected - minorUnits) <= tolerance);
+    }
+
+    private String readResource(String name) throws Exception {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
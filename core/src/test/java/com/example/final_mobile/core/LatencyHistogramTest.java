@@ -0,0 +1,73 @@
+package com.example.final_mobile.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(100));
+        assertEquals(25.5, histogram.getMean(), 0.0001);
+    }
+
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        Random random = new Random(3);
+        long[] values = new long[20000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal-ish: 1 ms to several seconds in microseconds
+            values[i] = (long) Math.exp(7 + 2 * random.nextGaussian() * 0.7);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported >= exact);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported <= exact * 1.04);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void bucketsCoverEveryValueOnce() {
+        long previousUpper = -1;
+        for (int index = 0; index < 1184; index++) {
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertEquals(index, LatencyHistogram.bucketIndex(previousUpper + 1));
+            assertEquals(index, LatencyHistogram.bucketIndex(upper));
+            previousUpper = upper;
+        }
+    }
+
+    @Test
+    public void mergeAddsCountsAndKeepsMax() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(100);
+        b.record(5000);
+        b.record(200);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(5000, a.getMax());
+        assertEquals(3, a.getBuckets().length);
+
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getPercentile(99));
+    }
+}
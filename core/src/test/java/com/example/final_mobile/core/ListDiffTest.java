@@ -0,0 +1,137 @@
+package com.example.final_mobile.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ListDiffTest {
+
+    // "id:content" strings: same id means same item, full string equality means same content
+    private static final ListDiff.ItemCallback<String> CALLBACK = new ListDiff.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(String oldItem, String newItem) {
+            return id(oldItem).equals(id(newItem));
+        }
+
+        @Override
+        public boolean areContentsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private static String id(String item) {
+        return item.substring(0, item.indexOf(':'));
+    }
+
+    @Test
+    public void identicalListsProduceNoUpdates() {
+        List<String> list = Arrays.asList("a:1", "b:1", "c:1");
+        assertTrue(ListDiff.calculate(list, list, CALLBACK).isEmpty());
+    }
+
+    @Test
+    public void newestFirstPageIsOneInsertAtTheTop() {
+        List<String> oldList = Arrays.asList("c:1", "d:1", "e:1");
+        List<String> newList = Arrays.asList("a:1", "b:1", "c:1", "d:1", "e:1");
+
+        List<ListDiff.Update> updates = ListDiff.calculate(oldList, newList, CALLBACK);
+        assertEquals(1, updates.size());
+        assertEquals(ListDiff.Update.INSERT, updates.get(0).type);
+        assertEquals(0, updates.get(0).position);
+        assertEquals(2, updates.get(0).count);
+    }
+
+    @Test
+    public void statusChangeIsReportedAsChange() {
+        List<String> oldList = Arrays.asList("a:PENDING", "b:COMPLETED");
+        List<String> newList = Arrays.asList("a:COMPLETED", "b:COMPLETED");
+
+        List<ListDiff.Update> updates = ListDiff.calculate(oldList, newList, CALLBACK);
+        assertEquals(1, updates.size());
+        assertEquals(ListDiff.Update.CHANGE, updates.get(0).type);
+        assertEquals(0, updates.get(0).position);
+    }
+
+    @Test
+    public void randomEditsReplayToTheNewList() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<String> oldList = randomList(random);
+            List<String> newList = mutate(oldList, random);
+            assertEquals(newList, replay(oldList, newList));
+        }
+    }
+
+    private static List<String> randomList(Random random) {
+        List<String> list = new ArrayList<>();
+        int size = random.nextInt(20);
+        for (int i = 0; i < size; i++) {
+            list.add("id" + i + ":0");
+        }
+        return list;
+    }
+
+    private static List<String> mutate(List<String> list, Random random) {
+        List<String> result = new ArrayList<>(list);
+        int edits = random.nextInt(8);
+        for (int i = 0; i < edits; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 || result.isEmpty()) {
+                result.add(random.nextInt(result.size() + 1), "new" + random.nextInt(1000000) + ":0");
+            } else if (op == 1) {
+                result.remove(random.nextInt(result.size()));
+            } else if (op == 2) {
+                int index = random.nextInt(result.size());
+                result.set(index, id(result.get(index)) + ":" + random.nextInt(10));
+            } else {
+                Collections.swap(result, random.nextInt(result.size()), random.nextInt(result.size()));
+            }
+        }
+        return result;
+    }
+
+    // Apply the updates to a copy of the old list, taking inserted/changed items from the new list
+    private static List<String> replay(List<String> oldList, List<String> newList) {
+        List<String> current = new ArrayList<>(oldList);
+        ListDiff.dispatch(oldList, newList, CALLBACK, new ListDiff.UpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                for (int i = 0; i < count; i++) {
+                    current.add(position, null);
+                }
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                for (int i = 0; i < count; i++) {
+                    current.remove(position);
+                }
+            }
+
+            @Override
+            public void onChanged(int position, int count) {
+                for (int i = 0; i < count; i++) {
+                    current.set(position + i, null);
+                }
+            }
+        });
+
+        // Unchanged rows must line up with the new list; rebound rows are null placeholders
+        assertEquals(newList.size(), current.size());
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i) != null) {
+                assertEquals(newList.get(i), current.get(i));
+            } else {
+                current.set(i, newList.get(i));
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class MoneyTest {
+
+    @Test
+    public void parsesExactlyAndRoundsBelowTheMinorUnit() {
+        assertEquals(Money.vnd(1_500_000), Money.parse("1500000", Money.VND));
+        assertEquals(Money.vnd(-500_000_000), Money.parse(" -500000000 ", Money.VND));
+        assertEquals(Money.vnd(250_000_001), Money.parse("250000000.5", Money.VND));
+        assertEquals(Money.vnd(250_000_000), Money.parse("250000000.49", Money.VND));
+        assertEquals(Money.vnd(1_200), Money.parse("1.2e3", Money.VND));
+        assertEquals(1_234_550, Money.parse("12345.5", "USD").getMinorUnits());
+        // A double would lose the last digit here
+        assertEquals(9_007_199_254_740_993L, Money.parse("9007199254740993", Money.VND).getMinorUnits());
+
+        for (String bad : new String[]{"", "-", "1,000", "12a", "1.2.3"}) {
+            try {
+                Money.parse(bad, Money.VND);
+                fail(bad);
+            } catch (NumberFormatException expected) {
+            }
+        }
+        try {
+            Money.parse("99999999999999999999", Money.VND);
+            fail();
+        } catch (ArithmeticException expected) {
+        }
+    }
+
+    @Test
+    public void readsJsonNumbersAndStrings() throws Exception {
+        JSONObject json = new JSONObject("{\"a\": 150000, \"b\": \"99000\", \"c\": 250000000.5, \"d\": null,"
+                + " \"e\": 12345678901234}");
+        assertEquals(Money.vnd(150_000), Money.fromJson(json, "a", Money.VND));
+        assertEquals(Money.vnd(99_000), Money.fromJson(json, "b", Money.VND));
+        assertEquals(Money.vnd(250_000_001), Money.fromJson(json, "c", Money.VND));
+        assertEquals(Money.vnd(12_345_678_901_234L), Money.fromJson(json, "e", Money.VND));
+        assertNull(Money.fromJson(json, "d", Money.VND));
+        assertSame(Money.ZERO, Money.fromJson(json, "missing", Money.VND, Money.ZERO));
+    }
+
+    @Test
+    public void arithmeticIsCheckedAndSingleCurrency() {
+        assertEquals(Money.vnd(505_000), Money.vnd(500_000).plus(Money.vnd(5_000)));
+        assertEquals(Money.vnd(500_000_000), Money.vnd(-500_000_000).abs());
+        assertEquals(new BigDecimal("12.50"), Money.ofMinor(1_250, "USD").toBigDecimal());
+        assertEquals("1500000", Money.vnd(1_500_000).toString());
+        try {
+            Money.vnd(Long.MAX_VALUE).plus(Money.vnd(1));
+            fail();
+        } catch (ArithmeticException expected) {
+        }
+        try {
+            Money.vnd(1).compareTo(Money.ofMinor(1, "USD"));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void formatsLikeTheOldFormatStringAndCachesIt() {
+        Locale previous = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.US);
+            for (long dong : new long[]{0, 999, 1_000, -500_000_000, 1_234_567_890_123L}) {
+                assertEquals(String.format("%,.0f VNĐ", (double) dong), Money.vnd(dong).format());
+            }
+            assertEquals("-1,234.50 USD", Money.ofMinor(-123_450, "USD").format());
+
+            Money amount = Money.vnd(1_500_000);
+            assertSame(amount.format(), amount.format());
+
+            Locale.setDefault(new Locale("vi", "VN"));
+            assertEquals("1.500.000 VNĐ", amount.format());
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
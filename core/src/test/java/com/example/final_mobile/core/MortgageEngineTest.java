@@ -0,0 +1,118 @@
+package com.example.final_mobile.core;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MortgageEngineTest {
+
+    // 500,000,000 đồng at 8.2%/year
+    private static final long PRINCIPAL = 50_000_000_000L;
+    private static final long RATE = 82_000;
+
+    @Test
+    public void paymentMatchesExactAnnuityFormula() {
+        for (int term : new int[]{12, 60, 240, 360, 600}) {
+            for (long rate : new long[]{5_000, 82_000, 125_000, 450_000}) {
+                // Exact monthly rate and unbounded pow, as BankingMath used to compute it
+                BigDecimal r = BigDecimal.valueOf(rate).divide(BigDecimal.valueOf(12_000_000), 40, RoundingMode.HALF_UP);
+                BigDecimal growth = BigDecimal.ONE.add(r).pow(term);
+                BigDecimal exact = BigDecimal.valueOf(PRINCIPAL).multiply(r).multiply(growth)
+                        .divide(growth.subtract(BigDecimal.ONE), 0, RoundingMode.HALF_UP);
+                long expected = exact.divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP).longValue() * 100;
+                assertEquals("term " + term + " rate " + rate, expected, MortgageEngine.monthlyPayment(PRINCIPAL, rate, term));
+            }
+        }
+        assertEquals(50_000_000_000L / 240 / 100 * 100 + 100, MortgageEngine.monthlyPayment(PRINCIPAL, 0, 240));
+    }
+
+    @Test
+    public void scheduleRepaysPrincipalExactly() {
+        MortgageEngine.Schedule schedule = MortgageEngine.schedule(MortgageEngine.Scenario.of(PRINCIPAL, RATE, 240));
+        assertEquals(240, schedule.getMonths());
+        assertEquals(0, schedule.getBalance(240));
+
+        long principalPaid = 0;
+        long interest = 0;
+        for (int month = 1; month <= schedule.getMonths(); month++) {
+            principalPaid += schedule.getPrincipalPaid(month);
+            interest += schedule.getInterest(month);
+        }
+        assertEquals(PRINCIPAL, principalPaid);
+        assertEquals(interest, schedule.getTotalInterest());
+        assertEquals(PRINCIPAL + interest, schedule.getTotalPaid());
+        // First month: 500M * 8.2% / 12
+        assertEquals(341_666_667L, schedule.getInterest(1));
+        // Only the last payment differs from the level payment: it absorbs the rounding to whole đồng,
+        // compounded over the term (a few hundred đồng here)
+        assertEquals(schedule.getInitialPayment(), schedule.getPayment(239));
+        assertTrue(Math.abs(schedule.getPayment(240) - schedule.getInitialPayment()) < 1_000 * 100);
+    }
+
+    @Test
+    public void extraRepaymentShortensTermOrLowersPayment() {
+        MortgageEngine.Scenario base = MortgageEngine.Scenario.of(PRINCIPAL, RATE, 240);
+        MortgageEngine.Summary plain = MortgageEngine.summarize(base);
+
+        MortgageEngine.Scenario withExtra = base.withExtraRepayment(13, 10_000_000_000L);
+        MortgageEngine.Schedule shorter = MortgageEngine.schedule(withExtra);
+        assertTrue(shorter.getMonths() < 240);
+        assertEquals(plain.getInitialPayment(), shorter.getPayment(13));
+        assertTrue(shorter.getTotalInterest() < plain.getTotalInterest());
+
+        MortgageEngine.Schedule cheaper = MortgageEngine.schedule(withExtra.withEarlyRepayment(MortgageEngine.EarlyRepayment.REDUCE_PAYMENT));
+        assertEquals(240, cheaper.getMonths());
+        assertTrue(cheaper.getPayment(13) < plain.getInitialPayment());
+        // Keeping the payment saves more interest than keeping the term
+        assertTrue(shorter.getTotalInterest() < cheaper.getTotalInterest());
+
+        MortgageEngine.Schedule paidOff = MortgageEngine.schedule(base.withExtraRepayment(2, Long.MAX_VALUE));
+        assertEquals(1, paidOff.getMonths());
+        assertEquals(PRINCIPAL + paidOff.getTotalInterest(), paidOff.getTotalPaid());
+    }
+
+    @Test
+    public void rateChangeRecomputesPaymentOverRemainingTerm() {
+        MortgageEngine.Schedule schedule = MortgageEngine.schedule(
+                MortgageEngine.Scenario.of(PRINCIPAL, RATE, 240).withRateChange(25, 105_000));
+        long before = schedule.getPayment(24);
+        long after = schedule.getPayment(25);
+        assertTrue(after > before);
+        assertEquals(MortgageEngine.monthlyPayment(schedule.getBalance(24), 105_000, 216), after);
+        assertEquals(0, schedule.getBalance(240));
+    }
+
+    @Test
+    public void parallelGridMatchesSequentialEvaluation() throws Exception {
+        List<MortgageEngine.Scenario> grid = new ArrayList<>();
+        for (long rate = 60_000; rate <= 120_000; rate += 5_000) {
+            for (int term : new int[]{120, 180, 240, 300}) {
+                for (long extra : new long[]{0, 2_000_000_000L, 5_000_000_000L}) {
+                    MortgageEngine.Scenario scenario = MortgageEngine.Scenario.of(PRINCIPAL, rate, term);
+                    grid.add(extra == 0 ? scenario : scenario.withExtraRepayment(12, extra));
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<MortgageEngine.Summary> parallel = MortgageEngine.summarizeAll(grid, executor, 4);
+            List<MortgageEngine.Summary> sequential = MortgageEngine.summarizeAll(grid, null, 1);
+            assertEquals(grid.size(), parallel.size());
+            for (int i = 0; i < grid.size(); i++) {
+                assertEquals(sequential.get(i).getTotalInterest(), parallel.get(i).getTotalInterest());
+                assertEquals(sequential.get(i).getMonths(), parallel.get(i).getMonths());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PendingPaymentsTest {
+
+    @Test
+    public void finalStatusStopsTracking() {
+        PendingPayments pending = new PendingPayments();
+        pending.track(new PendingPayments.Entry("PAY1", "VNPAY", "PENDING", 0));
+        pending.track(new PendingPayments.Entry("PAY2", "VNPAY", "PENDING", 10));
+        pending.track(new PendingPayments.Entry("PAY1", "VNPAY", "PENDING", 20));
+        assertEquals("PAY1:PENDING,PAY2:PENDING", pending.knownKey());
+
+        assertFalse(pending.update("PAY1", "PENDING"));
+        assertTrue(pending.update("PAY1", "PROCESSING"));
+        assertEquals("PAY1:PROCESSING,PAY2:PENDING", pending.knownKey());
+        assertEquals(0, pending.getAll().get(0).getTrackedSince());
+
+        assertTrue(pending.update("PAY1", "COMPLETED"));
+        assertTrue(pending.update("PAY2", PendingPayments.NOT_FOUND));
+        assertFalse(pending.update("PAY3", "FAILED"));
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    public void expiresAbandonedPaymentsAndSurvivesARoundTrip() throws Exception {
+        PendingPayments pending = new PendingPayments();
+        pending.track(new PendingPayments.Entry("OLD", "VNPAY", "PENDING", 0));
+        pending.track(new PendingPayments.Entry("NEW", "BANK_TRANSFER", "PROCESSING", PendingPayments.MAX_AGE_MILLIS));
+
+        JSONArray json = pending.toJson();
+        json.put(new JSONObject().put("status", "PENDING"));
+        PendingPayments restored = PendingPayments.fromJson(new JSONArray(json.toString()));
+        assertEquals(pending.knownKey(), restored.knownKey());
+
+        List<PendingPayments.Entry> expired = restored.expire(PendingPayments.MAX_AGE_MILLIS + 1);
+        assertEquals(1, expired.size());
+        assertEquals("OLD", expired.get(0).getPaymentId());
+        assertEquals("NEW:PROCESSING", restored.knownKey());
+        assertEquals("BANK_TRANSFER", restored.getAll().get(0).getPaymentMethod());
+    }
+
+    @Test
+    public void pollsOftenRightAfterAPaymentStartsThenBacksOff() {
+        PendingPayments pending = new PendingPayments();
+        pending.track(new PendingPayments.Entry("PAY1", "VNPAY", "PENDING", 1_000_000));
+        assertEquals(PendingPayments.MIN_POLL_DELAY_MS, pending.pollDelayMillis(1_000_000));
+        assertEquals(6000, pending.pollDelayMillis(1_060_000));
+        assertEquals(PendingPayments.MAX_POLL_DELAY_MS, pending.pollDelayMillis(1_000_000 + 10 * 60_000));
+
+        // A newly started payment brings the interval back down
+        pending.track(new PendingPayments.Entry("PAY2", "VNPAY", "PENDING", 1_600_000));
+        assertEquals(PendingPayments.MIN_POLL_DELAY_MS, pending.pollDelayMillis(1_600_000));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.final_mobile.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void retriesOnlyWhenTheRequestMayNotHaveBeenProcessed() {
+        RetryPolicy policy = RetryPolicy.transientErrors(2, 1000);
+        assertTrue(policy.shouldRetry(0, -1));
+        assertTrue(policy.shouldRetry(1, 503));
+        assertFalse(policy.shouldRetry(2, -1));
+        for (int status : new int[]{400, 401, 409, 422, 500, 501}) {
+            assertFalse(String.valueOf(status), policy.shouldRetry(0, status));
+        }
+        assertFalse(RetryPolicy.NONE.shouldRetry(0, -1));
+    }
+
+    @Test
+    public void backoffDoubles() {
+        RetryPolicy policy = RetryPolicy.transientErrors(3, 500);
+        assertEquals(500, policy.backoffMillis(0));
+        assertEquals(1000, policy.backoffMillis(1));
+        assertEquals(2000, policy.backoffMillis(2));
+    }
+
+    @Test
+    public void jitteredBackoffStaysWithinHalfToFullBackoff() {
+        RetryPolicy policy = RetryPolicy.transientErrors(3, 1000);
+        Random random = new Random(7);
+        boolean varied = false;
+        long first = policy.backoffMillis(1, random);
+        for (int i = 0; i < 200; i++) {
+            long delay = policy.backoffMillis(1, random);
+            assertTrue(String.valueOf(delay), delay >= 1000 && delay <= 2000);
+            varied |= delay != first;
+        }
+        assertTrue(varied);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.final_mobile.core;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SavedBillersTest {
+
+    @Test
+    public void payingAgainMovesTheBillToTheFront() {
+        SavedBillers saved = new SavedBillers();
+        saved.remember(new SavedBillers.Entry("ELECTRICITY", "PE1", "An", null, Money.vnd(150_000), 1));
+        saved.remember(new SavedBillers.Entry("WATER", "W1", "An", null, Money.vnd(80_000), 2));
+        saved.remember(new SavedBillers.Entry("ELECTRICITY", "PE1", "An", null, Money.vnd(175_000), 3));
+
+        List<SavedBillers.Entry> all = saved.getAll();
+        assertEquals(2, all.size());
+        assertEquals("PE1", all.get(0).getReference());
+        assertEquals(Money.vnd(175_000), all.get(0).getLastAmount());
+        assertEquals(1, saved.forServiceType("WATER").size());
+        assertTrue(saved.forServiceType("INTERNET").isEmpty());
+    }
+
+    @Test
+    public void dropsTheLeastRecentlyPaidBill() {
+        SavedBillers saved = new SavedBillers();
+        for (int i = 0; i <= SavedBillers.MAX_ENTRIES; i++) {
+            saved.remember(new SavedBillers.Entry("ELECTRICITY", "PE" + i, null, null, Money.vnd(1_000), i));
+        }
+        assertEquals(SavedBillers.MAX_ENTRIES, saved.getAll().size());
+        assertNull(saved.find("ELECTRICITY", "PE0"));
+        assertEquals("PE" + SavedBillers.MAX_ENTRIES, saved.getAll().get(0).getReference());
+    }
+
+    @Test
+    public void roundTripsThroughJsonAndSkipsBadEntries() throws Exception {
+        SavedBillers saved = new SavedBillers();
+        saved.remember(new SavedBillers.Entry("INTERNET", "NET9", "Bình", "FPT", Money.vnd(250_000), 42));
+        saved.remember(new SavedBillers.Entry("WATER", "W1", null, null, null, 43));
+
+        JSONArray json = saved.toJson();
+        json.put(new JSONObject().put("reference", "no-type"));
+        SavedBillers restored = SavedBillers.fromJson(json);
+
+        assertEquals(2, restored.getAll().size());
+        SavedBillers.Entry internet = restored.find("INTERNET", "NET9");
+        assertEquals("Bình", internet.getCustomerName());
+        assertEquals("FPT", internet.getProvider());
+        assertEquals(Money.vnd(250_000), internet.getLastAmount());
+        assertEquals(42, internet.getLastPaidAt());
+        SavedBillers.Entry water = restored.find("WATER", "W1");
+        assertNull(water.getCustomerName());
+        assertNull(water.getLastAmount());
+    }
+}
@@ -0,0 +1,24 @@
+plugins {
+    application
+}
+
+// Open-model load generator for the banking API:
+//   ./gradlew :loadtest:run --args="--base-url http://localhost:8000/api/ --rate 50 --duration 60"
+// Without --base-url it runs against the in-process mock server. Needs Java 21 for virtual threads.
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+}
+
+application {
+    mainClass.set("com.example.final_mobile.loadtest.LoadTest")
+}
+
+dependencies {
+    implementation(project(":core"))
+    implementation(project(":mockserver"))
+    implementation(libs.json)
+
+    testImplementation(libs.junit)
+}
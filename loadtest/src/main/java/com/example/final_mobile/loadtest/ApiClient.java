@@ -0,0 +1,119 @@
+package com.example.final_mobile.loadtest;
+
+import com.example.final_mobile.services.ApiConfig;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blocking JSON client for one virtual thread, sending requests the way ApiService.sendJson does
+ * (same headers, bearer token, timeouts) and recording each one in the {@link LoadReport}.
+ */
+final class ApiClient {
+
+    // A request that did not succeed; ends the journey that made it
+    static final class StepFailedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final String endpoint;
+        final int statusCode;
+
+        StepFailedException(String endpoint, int statusCode, String message) {
+            super(endpoint + ": " + message);
+            this.endpoint = endpoint;
+            this.statusCode = statusCode;
+        }
+    }
+
+    private final String baseUrl;
+    private final LoadReport report;
+    private final int timeoutMillis;
+
+    ApiClient(String baseUrl, LoadReport report, int timeoutMillis) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Sends the request and returns the parsed body of a 2xx {success: true} response.
+     * endpointTemplate (e.g. ApiConfig.GET_ACCOUNT_BALANCE) is what the report groups by;
+     * path is the concrete path with parameters filled in.
+     */
+    JSONObject call(String method, String endpointTemplate, String path, JSONObject body, String token)
+            throws StepFailedException {
+        String label = method + " " + endpointTemplate;
+        long start = System.nanoTime();
+        int status = -1;
+        byte[] responseBytes = new byte[0];
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+            connection.setRequestMethod(method);
+            connection.setRequestProperty(ApiConfig.HEADER_ACCEPT, ApiConfig.CONTENT_TYPE_JSON);
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            if (token != null) {
+                connection.setRequestProperty(ApiConfig.HEADER_AUTHORIZATION, "Bearer " + token);
+            }
+            if (body != null) {
+                connection.setRequestProperty(ApiConfig.HEADER_CONTENT_TYPE, ApiConfig.CONTENT_TYPE_JSON);
+                connection.setDoOutput(true);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            status = connection.getResponseCode();
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in != null) {
+                try (InputStream stream = in) {
+                    responseBytes = readAll(stream);
+                }
+            }
+        } catch (IOException e) {
+            report.recordRequest(label, micros(start), 0, e.getClass().getSimpleName());
+            throw new StepFailedException(label, -1, e.toString());
+        }
+        long elapsed = micros(start);
+
+        JSONObject json;
+        try {
+            json = new JSONObject(new String(responseBytes, StandardCharsets.UTF_8));
+        } catch (JSONException e) {
+            report.recordRequest(label, elapsed, responseBytes.length, status >= 400 ? "HTTP " + status : "invalid JSON");
+            throw new StepFailedException(label, status, "unparseable response (HTTP " + status + ")");
+        }
+        if (status >= 400) {
+            report.recordRequest(label, elapsed, responseBytes.length, "HTTP " + status);
+            throw new StepFailedException(label, status, json.optString("message", "HTTP " + status));
+        }
+        if (!json.optBoolean("success", true)) {
+            report.recordRequest(label, elapsed, responseBytes.length, "success=false");
+            throw new StepFailedException(label, status, json.optString("message", "success=false"));
+        }
+        report.recordRequest(label, elapsed, responseBytes.length, null);
+        return json;
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.final_mobile.loadtest;
+
+import com.example.final_mobile.core.LatencyHistogram;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters collected while a load test runs. Latencies are recorded in microseconds; written to
+ * from every virtual thread, so everything here is lock-free.
+ */
+final class LoadReport {
+
+    static final class EndpointStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder requests = new LongAdder();
+        final LongAdder responseBytes = new LongAdder();
+        // "HTTP 500", "SocketTimeoutException", ... -> count
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        long errorCount() {
+            long total = 0;
+            for (LongAdder count : errors.values()) {
+                total += count.sum();
+            }
+            return total;
+        }
+    }
+
+    static final class JourneyStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        // Endpoint whose failure ended the journey -> count
+        final Map<String, LongAdder> failedAt = new ConcurrentHashMap<>();
+    }
+
+    final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    final Map<LoadTest.Journey, JourneyStats> journeys = new ConcurrentHashMap<>();
+    // Arrivals with no idle virtual user to run them
+    final LongAdder dropped = new LongAdder();
+    long elapsedNanos;
+
+    void recordRequest(String endpoint, long micros, int bytes, String error) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        stats.requests.increment();
+        stats.latency.record(micros);
+        stats.responseBytes.add(bytes);
+        if (error != null) {
+            stats.errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+        }
+    }
+
+    JourneyStats journey(LoadTest.Journey journey) {
+        return journeys.computeIfAbsent(journey, key -> new JourneyStats());
+    }
+
+    long totalRequests() {
+        long total = 0;
+        for (EndpointStats stats : endpoints.values()) {
+            total += stats.requests.sum();
+        }
+        return total;
+    }
+
+    long totalErrors() {
+        long total = 0;
+        for (EndpointStats stats : endpoints.values()) {
+            total += stats.errorCount();
+        }
+        return total;
+    }
+
+    String format() {
+        double seconds = Math.max(elapsedNanos / 1e9, 0.001);
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.US, "Duration %.1f s, %d requests (%.1f req/s), %d errors, %d dropped arrivals%n%n",
+                seconds, totalRequests(), totalRequests() / seconds, totalErrors(), dropped.sum()));
+
+        out.append(String.format(Locale.US, "%-10s %9s %8s %8s %9s %9s %9s %9s%n",
+                "journey", "completed", "failed", "skipped", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Map.Entry<LoadTest.Journey, JourneyStats> entry : new TreeMap<>(journeys).entrySet()) {
+            JourneyStats stats = entry.getValue();
+            out.append(String.format(Locale.US, "%-10s %9d %8d %8d %s%n", entry.getKey().label,
+                    stats.completed.sum(), stats.failed.sum(), stats.skipped.sum(), percentiles(stats.latency)));
+            for (Map.Entry<String, LongAdder> failure : new TreeMap<>(stats.failedAt).entrySet()) {
+                out.append(String.format(Locale.US, "%12s failed at %s: %d%n", "", failure.getKey(), failure.getValue().sum()));
+            }
+        }
+
+        out.append(String.format(Locale.US, "%n%-40s %8s %8s %9s %9s %9s %9s %8s  %s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "avg KB", "errors"));
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            EndpointStats stats = entry.getValue();
+            long count = stats.requests.sum();
+            out.append(String.format(Locale.US, "%-40s %8d %8.1f %s %8.1f  %s%n", entry.getKey(), count, count / seconds,
+                    percentiles(stats.latency), count == 0 ? 0 : stats.responseBytes.sum() / 1024.0 / count,
+                    errorBreakdown(stats.errors)));
+        }
+        return out.toString();
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return String.format(Locale.US, "%9.1f %9.1f %9.1f %9.1f", histogram.getPercentile(50) / 1000.0,
+                histogram.getPercentile(90) / 1000.0, histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    private static String errorBreakdown(Map<String, LongAdder> errors) {
+        if (errors.isEmpty()) {
+            return "-";
+        }
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, LongAdder> error : new TreeMap<>(errors).entrySet()) {
+            if (out.length() > 0) {
+                out.append(", ");
+            }
+            out.append(error.getKey()).append(" x").append(error.getValue().sum());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.final_mobile.loadtest;
+
+import com.example.final_mobile.mockserver.LatencyModel;
+import com.example.final_mobile.mockserver.MockBankingServer;
+import com.example.final_mobile.mockserver.MockServerConfig;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: journeys arrive as a Poisson process at --rate per second whether or
+ * not earlier ones finished, each run by an idle virtual user on its own virtual thread. When all
+ * virtual users are busy the arrival is dropped and counted, so a saturated backend shows up as
+ * dropped arrivals and growing latency instead of a silently lower request rate.
+ *
+ *   ./gradlew :loadtest:run --args="--rate 50 --duration 60"
+ *   ./gradlew :loadtest:run --args="--base-url http://localhost:8000/api/ --emails customer@example.com,user2@example.com --rate 2"
+ *
+ * Without --base-url it loads an in-process MockBankingServer, which is useful for checking the
+ * tool itself and the client-side costs. A real backend must run in development mode so login,
+ * transfer and bill OTPs come back in development_otp.
+ */
+public final class LoadTest {
+
+    enum Journey {
+        BALANCE("balance"), TRANSFER("transfer"), BILL("bill"), HISTORY("history");
+
+        final String label;
+
+        Journey(String label) {
+            this.label = label;
+        }
+
+        static Journey fromName(String name) {
+            for (Journey journey : values()) {
+                if (journey.label.equals(name)) {
+                    return journey;
+                }
+            }
+            throw new IllegalArgumentException("Unknown journey " + name + " (balance, transfer, bill, history)");
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && ("--help".equals(args[0]) || "-h".equals(args[0]))) {
+            System.out.println(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        LoadReport report = run(options);
+        System.out.println(report.format());
+    }
+
+    static LoadReport run(LoadTestOptions options) throws IOException, InterruptedException {
+        List<String> emails = options.userEmails();
+        MockBankingServer mock = null;
+        String baseUrl = options.baseUrl;
+        if (baseUrl == null) {
+            mock = MockBankingServer.start(MockServerConfig.builder()
+                    .seed(options.seed)
+                    .users(emails.size())
+                    .latency(LatencyModel.logNormal(options.mockLatencyMillis, 0.5))
+                    .errorRate(options.mockErrorRate)
+                    .build());
+            baseUrl = mock.getBaseUrl();
+            System.out.println("Loading in-process mock server at " + baseUrl);
+        }
+
+        try {
+            LoadReport report = new LoadReport();
+            ApiClient api = new ApiClient(baseUrl, report, options.timeoutMillis);
+            ConcurrentLinkedQueue<VirtualUser> idle = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < emails.size(); i++) {
+                idle.add(new VirtualUser(emails.get(i), options.password, api, options.seed * 31 + i));
+            }
+            drive(options, report, idle);
+            return report;
+        } finally {
+            if (mock != null) {
+                mock.close();
+            }
+        }
+    }
+
+    private static void drive(LoadTestOptions options, LoadReport report, ConcurrentLinkedQueue<VirtualUser> idle)
+            throws InterruptedException {
+        Random arrivals = new Random(options.seed);
+        int totalWeight = 0;
+        for (int weight : options.mix.values()) {
+            totalWeight += weight;
+        }
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        long next = start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Journey journey = pick(options.mix, arrivals.nextInt(totalWeight));
+                VirtualUser user = idle.poll();
+                if (user == null) {
+                    report.dropped.increment();
+                } else {
+                    executor.execute(() -> {
+                        try {
+                            runJourney(user, journey, report);
+                        } finally {
+                            idle.add(user);
+                        }
+                    });
+                }
+                // Exponential inter-arrival times give a Poisson arrival process
+                next += (long) (-Math.log(1 - arrivals.nextDouble()) / options.rate * 1e9);
+            }
+            // close() waits for the journeys still in flight
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+    }
+
+    private static Journey pick(Map<Journey, Integer> mix, int roll) {
+        for (Map.Entry<Journey, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("roll outside total weight");
+    }
+
+    private static void runJourney(VirtualUser user, Journey journey, LoadReport report) {
+        LoadReport.JourneyStats stats = report.journey(journey);
+        long start = System.nanoTime();
+        try {
+            if (user.run(journey) == VirtualUser.Result.SKIPPED) {
+                stats.skipped.increment();
+                return;
+            }
+            stats.completed.increment();
+            stats.latency.record((System.nanoTime() - start) / 1000);
+        } catch (ApiClient.StepFailedException e) {
+            stats.failed.increment();
+            stats.failedAt.computeIfAbsent(e.endpoint, key -> new LongAdder()).increment();
+        } catch (RuntimeException e) {
+            // JSONException included: a response that did not have the expected shape
+            stats.failed.increment();
+            stats.failedAt.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        }
+    }
+}
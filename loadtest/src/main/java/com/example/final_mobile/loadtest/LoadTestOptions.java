@@ -0,0 +1,132 @@
+package com.example.final_mobile.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options for {@link LoadTest}. Every option has a default, so an empty command line
+ * runs a short load against the in-process mock server.
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = String.join("\n",
+            "Usage: loadtest [options]",
+            "  --base-url URL        backend to load, e.g. http://localhost:8000/api/ (default: in-process mock server)",
+            "  --rate N              journey arrivals per second, Poisson (default 20)",
+            "  --duration SECONDS    how long new journeys keep arriving (default 30)",
+            "  --users N             virtual users; each runs one journey at a time (default 200)",
+            "  --email-pattern FMT   String.format pattern for user N, from 1 (default user%d@example.com)",
+            "  --emails A,B,...      explicit accounts instead of --users/--email-pattern",
+            "  --password PASSWORD   password of every virtual user (default 123456)",
+            "  --mix SPEC            journey weights (default balance=50,transfer=20,bill=20,history=10)",
+            "  --seed N              seed for arrivals, journey choice and amounts (default 1)",
+            "  --timeout-ms N        connect/read timeout per request (default 30000)",
+            "  --mock-latency-ms N   median server latency of the mock server, log-normal (default 50)",
+            "  --mock-error-rate P   injected error rate of the mock server, 0..1 (default 0)");
+
+    String baseUrl;
+    double rate = 20;
+    int durationSeconds = 30;
+    int users = 200;
+    String emailPattern = "user%d@example.com";
+    List<String> emails;
+    String password = "123456";
+    Map<LoadTest.Journey, Integer> mix = parseMix("balance=50,transfer=20,bill=20,history=10");
+    long seed = 1;
+    int timeoutMillis = 30000;
+    long mockLatencyMillis = 50;
+    double mockErrorRate = 0;
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            String value;
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                value = arg.substring(equals + 1);
+                arg = arg.substring(0, equals);
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+
+            switch (arg) {
+                case "--base-url":
+                    options.baseUrl = value.endsWith("/") ? value : value + "/";
+                    break;
+                case "--rate":
+                    options.rate = Double.parseDouble(value);
+                    break;
+                case "--duration":
+                    options.durationSeconds = Integer.parseInt(value);
+                    break;
+                case "--users":
+                    options.users = Integer.parseInt(value);
+                    break;
+                case "--email-pattern":
+                    options.emailPattern = value;
+                    break;
+                case "--emails":
+                    options.emails = new ArrayList<>(List.of(value.split(",")));
+                    break;
+                case "--password":
+                    options.password = value;
+                    break;
+                case "--mix":
+                    options.mix = parseMix(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "--timeout-ms":
+                    options.timeoutMillis = Integer.parseInt(value);
+                    break;
+                case "--mock-latency-ms":
+                    options.mockLatencyMillis = Long.parseLong(value);
+                    break;
+                case "--mock-error-rate":
+                    options.mockErrorRate = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.rate <= 0 || options.durationSeconds <= 0) {
+            throw new IllegalArgumentException("--rate and --duration must be positive");
+        }
+        return options;
+    }
+
+    List<String> userEmails() {
+        if (emails != null) {
+            return emails;
+        }
+        List<String> generated = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            generated.add(String.format(emailPattern, i));
+        }
+        return generated;
+    }
+
+    static Map<LoadTest.Journey, Integer> parseMix(String spec) {
+        Map<LoadTest.Journey, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] nameAndWeight = part.trim().split("=");
+            if (nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Bad --mix entry: " + part);
+            }
+            int weight = Integer.parseInt(nameAndWeight[1]);
+            if (weight > 0) {
+                mix.put(LoadTest.Journey.fromName(nameAndWeight[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one journey with a positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.final_mobile.loadtest;
+
+import com.example.final_mobile.core.AccountJsonParser;
+import com.example.final_mobile.core.BankingMath;
+import com.example.final_mobile.core.Biller;
+import com.example.final_mobile.core.Money;
+import com.example.final_mobile.core.TransactionJsonParser;
+import com.example.final_mobile.models.Account;
+import com.example.final_mobile.models.Transaction;
+import com.example.final_mobile.services.ApiConfig;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * One simulated app session. Journeys send the same requests, with the same body fields, as
+ * AuthService, AccountService, TransactionService and PaymentPipeline, and apply the same client-side
+ * checks (BankingMath) before a transfer. Runs one journey at a time; the login is reused across
+ * journeys until the server rejects the token.
+ */
+final class VirtualUser {
+
+    enum Result {
+        COMPLETED, SKIPPED
+    }
+
+    private final String email;
+    private final String password;
+    private final ApiClient api;
+    private final Random random;
+    private String token;
+
+    VirtualUser(String email, String password, ApiClient api, long seed) {
+        this.email = email;
+        this.password = password;
+        this.api = api;
+        this.random = new Random(seed);
+    }
+
+    Result run(LoadTest.Journey journey) throws ApiClient.StepFailedException, JSONException {
+        try {
+            ensureLoggedIn();
+            switch (journey) {
+                case BALANCE:
+                    return checkBalance();
+                case TRANSFER:
+                    return transfer();
+                case BILL:
+                    return payElectricityBill();
+                default:
+                    return history();
+            }
+        } catch (ApiClient.StepFailedException e) {
+            if (e.statusCode == ApiConfig.UNAUTHORIZED) {
+                // Log in again on the next journey
+                token = null;
+            }
+            throw e;
+        }
+    }
+
+    // AuthService.login + verifyOtp; the OTP comes from the development_otp field
+    private void ensureLoggedIn() throws ApiClient.StepFailedException, JSONException {
+        if (token != null) {
+            return;
+        }
+        JSONObject credentials = new JSONObject().put("email", email).put("password", password);
+        JSONObject login = api.call("POST", ApiConfig.LOGIN, ApiConfig.LOGIN, credentials, null).getJSONObject("data");
+        if (!login.optBoolean("otp_required", false)) {
+            token = login.optString("token", null);
+            return;
+        }
+
+        String otp = login.optString("development_otp", login.optString("developmentOTP", ""));
+        if (otp.isEmpty()) {
+            throw new ApiClient.StepFailedException("POST " + ApiConfig.LOGIN, 0,
+                    "no development_otp in the login response; run the backend in development mode");
+        }
+        JSONObject verify = new JSONObject().put("otp_code", otp).put("token", login.getString("token"));
+        JSONObject session = api.call("POST", ApiConfig.VERIFY_OTP, ApiConfig.VERIFY_OTP, verify, null).getJSONObject("data");
+        token = session.optString("access_token", session.optString("token", null));
+    }
+
+    private List<Account> accounts() throws ApiClient.StepFailedException, JSONException {
+        JSONObject response = api.call("GET", ApiConfig.GET_ACCOUNTS, ApiConfig.GET_ACCOUNTS, null, token);
+        return AccountJsonParser.parseAccounts(response.getJSONArray("data"));
+    }
+
+    // Home screen: accounts list, then the primary account's live balance
+    private Result checkBalance() throws ApiClient.StepFailedException, JSONException {
+        Account primary = primary(accounts());
+        if (primary == null) {
+            return Result.SKIPPED;
+        }
+        api.call("GET", ApiConfig.GET_ACCOUNT_BALANCE, ApiConfig.GET_ACCOUNT_BALANCE.replace("{id}", primary.getId()),
+                null, token);
+        return Result.COMPLETED;
+    }
+
+    // Transfer screen: to one of the user's own other accounts, confirmed with the OTP
+    private Result transfer() throws ApiClient.StepFailedException, JSONException {
+        List<Account> accounts = accounts();
+        Account from = primary(accounts);
+        Account to = null;
+        for (Account account : accounts) {
+            if (account != from && !account.isMortgageAccount()) {
+                to = account;
+                break;
+            }
+        }
+        Money amount = Money.vnd(10_000L * (1 + random.nextInt(20)));
+        if (from == null || to == null || !BankingMath.isValidTransferAmount(amount, from.getBalance())) {
+            return Result.SKIPPED;
+        }
+
+        JSONObject transfer = new JSONObject()
+                .put("from_account_id", from.getId())
+                .put("to_account_number", to.getAccountNumber())
+                .put("amount", amount.toString())
+                .put("description", "Load test")
+                .put("transaction_type", Transaction.TYPE_TRANSFER);
+        JSONObject initiated = api.call("POST", ApiConfig.TRANSFER_MONEY, ApiConfig.TRANSFER_MONEY, transfer, token)
+                .getJSONObject("data");
+
+        String transactionId = initiated.getString("transaction_id");
+        String otp = initiated.optString("development_otp", "");
+        JSONObject verify = new JSONObject()
+                .put("transaction_id", transactionId)
+                .put("transactionId", transactionId)
+                .put("otp_code", otp)
+                .put("otpCode", otp);
+        api.call("POST", ApiConfig.VERIFY_TRANSFER_OTP, ApiConfig.VERIFY_TRANSFER_OTP, verify, token);
+        return Result.COMPLETED;
+    }
+
+    // Utilities screen: electricity bill from the primary account, confirmed with the OTP
+    private Result payElectricityBill() throws ApiClient.StepFailedException, JSONException {
+        Account primary = primary(accounts());
+        long amount = 1000L * (50 + random.nextInt(450));
+        if (primary == null || primary.getBalance().getMinorUnits() < amount + 20_000) {
+            return Result.SKIPPED;
+        }
+
+        Biller biller = Biller.ELECTRICITY;
+        JSONObject bill = biller.buildRequest(primary.getId(),
+                String.format(Locale.US, "PE%08d", random.nextInt(100_000_000)), BigDecimal.valueOf(amount),
+                Biller.details("period", String.format(Locale.US, "%02d/2024", 1 + random.nextInt(12))));
+        JSONObject initiated = api.call("POST", biller.getEndpoint(), biller.getEndpoint(), bill, token).getJSONObject("data");
+
+        JSONObject verify = Biller.buildVerifyRequest(initiated.getString("transaction_id"),
+                initiated.optString("development_otp", ""));
+        api.call("POST", Biller.VERIFY_ENDPOINT, Biller.VERIFY_ENDPOINT, verify, token);
+        return Result.COMPLETED;
+    }
+
+    // History screen: first page, decoded like TransactionService does
+    private Result history() throws ApiClient.StepFailedException, JSONException {
+        String path = ApiConfig.GET_TRANSACTIONS + "?page=1&limit=20";
+        JSONObject response = api.call("GET", ApiConfig.GET_TRANSACTIONS, path, null, token);
+        TransactionJsonParser.parseTransactions(response.getJSONArray("data"));
+        return Result.COMPLETED;
+    }
+
+    // Same choice as AccountService.findPrimaryAccount: the active checking account
+    private static Account primary(List<Account> accounts) {
+        for (Account account : accounts) {
+            if (account.isCheckingAccount() && account.isActive()) {
+                return account;
+            }
+        }
+        return null;
+    }
+}
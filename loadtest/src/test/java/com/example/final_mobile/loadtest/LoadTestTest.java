@@ -0,0 +1,53 @@
+package com.example.final_mobile.loadtest;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadTestTest {
+
+    @Test
+    public void shortRunAgainstMockCompletesEveryJourney() throws Exception {
+        LoadReport report = LoadTest.run(LoadTestOptions.parse(new String[] {
+                "--rate", "40", "--duration", "1", "--users", "20", "--mock-latency-ms", "2"}));
+
+        long completed = 0;
+        for (LoadReport.JourneyStats stats : report.journeys.values()) {
+            assertEquals(0, stats.failed.sum());
+            completed += stats.completed.sum();
+        }
+        assertTrue(completed > 10);
+        assertEquals(0, report.totalErrors());
+        assertTrue(report.format().contains("POST auth/login"));
+    }
+
+    @Test
+    public void injectedErrorsAreAttributedToEndpoints() throws Exception {
+        LoadReport report = LoadTest.run(LoadTestOptions.parse(new String[] {
+                "--rate", "40", "--duration", "1", "--users", "20", "--mock-latency-ms", "2",
+                "--mock-error-rate", "0.3"}));
+
+        assertTrue(report.totalErrors() > 0);
+        long failed = 0;
+        for (LoadReport.JourneyStats stats : report.journeys.values()) {
+            failed += stats.failed.sum();
+        }
+        assertTrue(failed > 0);
+    }
+
+    @Test
+    public void mixParsesWeightsAndRejectsUnknownJourneys() {
+        Map<LoadTest.Journey, Integer> mix = LoadTestOptions.parseMix("balance=3, history=1, bill=0");
+        assertEquals(2, mix.size());
+        assertEquals(Integer.valueOf(3), mix.get(LoadTest.Journey.BALANCE));
+        try {
+            LoadTestOptions.parseMix("balance=1,loan=2");
+            throw new AssertionError("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("loan"));
+        }
+    }
+}
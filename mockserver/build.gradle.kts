@@ -0,0 +1,16 @@
+plugins {
+    `java-library`
+}
+
+// In-process mock of the backend API for JVM tests and benchmarks (uses the JDK's built-in HTTP server)
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    api(project(":core"))
+    api(libs.json)
+
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,36 @@
+package com.example.final_mobile.mockserver;
+
+import java.util.Random;
+
+/**
+ * Server-side delay added before a mock response is written. Samples come from the per-request
+ * Random handed out by the server, so a given seed always produces the same delays.
+ */
+public interface LatencyModel {
+
+    long sampleMillis(Random random);
+
+    static LatencyModel none() {
+        return random -> 0;
+    }
+
+    static LatencyModel fixed(long millis) {
+        return random -> millis;
+    }
+
+    static LatencyModel uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("maxMillis < minMillis");
+        }
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /**
+     * Log-normal around a median, the usual shape of real API latency: most calls near the
+     * median and a long tail. sigma 0.5 puts p99 at roughly 3.2x the median.
+     */
+    static LatencyModel logNormal(long medianMillis, double sigma) {
+        double mu = Math.log(Math.max(1, medianMillis));
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}
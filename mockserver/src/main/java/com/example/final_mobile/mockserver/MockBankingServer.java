@@ -0,0 +1,1824 @@
+package com.example.final_mobile.mockserver;
+
+import com.example.final_mobile.core.BankingMath;
+import com.example.final_mobile.core.IdempotencyKeys;
+import com.example.final_mobile.core.Money;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Node.js backend: the ApiConfig endpoints with the same paths,
+ * request fields and response shapes, served on a loopback port so ApiService and the services
+ * can be exercised from JVM tests and benchmarks without MongoDB or a network.
+ *
+ * Latency, injected errors, dropped responses, payload padding and dataset size come from
+ * {@link MockServerConfig}. OTPs are returned in the development_otp field, as the backend does in
+ * development. Money-moving POSTs honour the Idempotency-Key header like the backend does.
+ *
+ * <pre>
+ * try (MockBankingServer server = MockBankingServer.start(MockServerConfig.defaults())) {
+ *     String baseUrl = server.getBaseUrl(); // http://127.0.0.1:port/api/
+ * }
+ * </pre>
+ */
+public final class MockBankingServer implements Closeable {
+
+    public static final String CUSTOMER_EMAIL = MockDataset.CUSTOMER_EMAIL;
+    public static final String OFFICER_EMAIL = MockDataset.OFFICER_EMAIL;
+    public static final String DEFAULT_PASSWORD = MockDataset.DEFAULT_PASSWORD;
+
+    private static final int AUTH_PUBLIC = 0;
+    private static final int AUTH_USER = 1;
+    private static final int AUTH_OFFICER = 2;
+
+    private static final long IDEMPOTENCY_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private interface Handler {
+        Reply handle(Call call) throws JSONException;
+    }
+
+    private static final class Route {
+        final String method;
+        final String pattern;
+        final String[] segments;
+        final int auth;
+        final boolean idempotent;
+        final Handler handler;
+
+        Route(String method, String pattern, int auth, boolean idempotent, Handler handler) {
+            this.method = method;
+            this.pattern = pattern;
+            this.segments = pattern.split("/");
+            this.auth = auth;
+            this.idempotent = idempotent;
+            this.handler = handler;
+        }
+
+        // Path parameters by name, or null when the path does not match
+        Map<String, String> match(String method, String[] pathSegments) {
+            if (!this.method.equals(method) || segments.length != pathSegments.length) {
+                return null;
+            }
+            Map<String, String> params = new HashMap<>();
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    params.put(segment.substring(1, segment.length() - 1), pathSegments[i]);
+                } else if (!segment.equals(pathSegments[i])) {
+                    return null;
+                }
+            }
+            return params;
+        }
+    }
+
+    private static final class Call {
+        final Map<String, String> params;
+        final Map<String, String> query;
+        final JSONObject body;
+        final String token;
+        final String idempotencyKey;
+        MockDataset.User user;
+
+        Call(Map<String, String> params, Map<String, String> query, JSONObject body, String token, String idempotencyKey) {
+            this.params = params;
+            this.query = query;
+            this.body = body;
+            this.token = token;
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        String param(String name) {
+            return params.get(name);
+        }
+
+        String query(String name, String fallback) {
+            String value = query.get(name);
+            return value != null && !value.isEmpty() ? value : fallback;
+        }
+
+        int queryInt(String name, int fallback) {
+            try {
+                return Integer.parseInt(query(name, String.valueOf(fallback)));
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+
+        // First non-empty of the given body fields (the app sends snake_case and camelCase variants)
+        String field(String... names) {
+            for (String name : names) {
+                String value = body.optString(name, "");
+                if (!value.isEmpty()) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        // Whole đồng; amounts arrive as numbers or numeric strings. Long.MIN_VALUE when missing/invalid.
+        long amount(String name) {
+            double value = body.optDouble(name, Double.NaN);
+            return Double.isNaN(value) ? Long.MIN_VALUE : Math.round(value);
+        }
+    }
+
+    private static final class Reply {
+        final int status;
+        final JSONObject body;
+        // Sent again for a repeated Idempotency-Key rather than handled
+        final boolean replayed;
+
+        Reply(int status, JSONObject body) {
+            this(status, body, false);
+        }
+
+        Reply(int status, JSONObject body, boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.replayed = replayed;
+        }
+    }
+
+    // The first reply to an Idempotency-Key, and the request it answered
+    private static final class StoredReply {
+        final String request;
+        final int status;
+        final String body;
+        final long expiresAt;
+
+        StoredReply(String request, Reply reply, long expiresAt) {
+            this.request = request;
+            this.status = reply.status;
+            this.body = reply.body.toString();
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class PendingLogin {
+        final MockDataset.User user;
+        final String otp;
+
+        PendingLogin(MockDataset.User user, String otp) {
+            this.user = user;
+            this.otp = otp;
+        }
+    }
+
+    private static final class Session {
+        final MockDataset.User user;
+        final long expiresAt;
+
+        Session(MockDataset.User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final MockServerConfig config;
+    private final MockDataset dataset;
+    private final List<Route> routes = new ArrayList<>();
+    private final AtomicLong requestSequence = new AtomicLong();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong droppedResponses = new AtomicLong();
+    private final String padding;
+
+    // Guarded by dataset
+    private final Map<String, PendingLogin> pendingLogins = new HashMap<>();
+    private final Map<String, Session> accessTokens = new HashMap<>();
+    private final Map<String, MockDataset.User> refreshTokens = new HashMap<>();
+    // "userId key" -> first reply, kept for IDEMPOTENCY_TTL_MILLIS on the server clock
+    private final Map<String, StoredReply> idempotentReplies = new HashMap<>();
+    private long nextToken = 1;
+
+    private volatile long clockOffsetMillis;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private MockBankingServer(MockServerConfig config) {
+        this.config = config;
+        this.dataset = new MockDataset(config);
+        this.padding = repeat('x', config.paddingBytes);
+        registerRoutes();
+    }
+
+    public static MockBankingServer start(MockServerConfig config) throws IOException {
+        MockBankingServer mock = new MockBankingServer(config);
+        mock.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        // Latency is simulated by sleeping, so every in-flight request needs its own thread
+        mock.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "MockBankingServer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        mock.server.setExecutor(mock.executor);
+        mock.server.createContext("/api/", mock::handle);
+        mock.server.start();
+        return mock;
+    }
+
+    // Drop-in replacement for ApiConfig.BASE_URL
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/";
+    }
+
+    public MockServerConfig getConfig() {
+        return config;
+    }
+
+    // Moves the server clock forward, e.g. past the access token TTL to exercise the refresh path
+    public void advanceClock(long millis) {
+        clockOffsetMillis += millis;
+    }
+
+    public long getTotalRequests() {
+        return requestSequence.get();
+    }
+
+    // Requests that were handled but whose response was never sent (MockServerConfig dropRate)
+    public long getDroppedResponses() {
+        return droppedResponses.get();
+    }
+
+    // Requests that matched a route, keyed like "GET accounts/{id}"
+    public int getRequestCount(String method, String pattern) {
+        AtomicInteger count = requestCounts.get(method + " " + pattern);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private long now() {
+        return MockDataset.EPOCH_MILLIS + clockOffsetMillis;
+    }
+
+    // ---- Request pipeline ----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long sequence = requestSequence.incrementAndGet();
+        // Per-request Random: the same seed gives the same latency/error/drop for the n-th request
+        Random random = new Random(requestSeed(config.seed, sequence));
+
+        Reply reply;
+        try {
+            reply = dispatch(exchange, random);
+        } catch (JSONException e) {
+            reply = error(400, "Invalid JSON: " + e.getMessage());
+        } catch (RuntimeException e) {
+            reply = error(500, "Mock server error: " + e);
+        }
+        if (reply == null) {
+            // Dropped: the connection closes without a response, as if the network lost it
+            exchange.close();
+            return;
+        }
+
+        byte[] bytes = render(reply.body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (reply.replayed) {
+            exchange.getResponseHeaders().set(IdempotencyKeys.REPLAYED_HEADER, "true");
+        }
+        exchange.sendResponseHeaders(reply.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Consecutive seeds start java.util.Random on nearly the same first draw, so spread them out
+    // (SplitMix64 finalizer); otherwise a 50% drop rate drops long runs of requests in a row
+    private static long requestSeed(long seed, long sequence) {
+        long z = seed * 1_000_003L + sequence * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Null when the response is to be dropped
+    private Reply dispatch(HttpExchange exchange, Random random) throws IOException, JSONException {
+        String path = exchange.getRequestURI().getPath().substring("/api/".length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        String method = exchange.getRequestMethod();
+        String[] pathSegments = path.split("/");
+
+        Route route = null;
+        Map<String, String> params = null;
+        for (Route candidate : routes) {
+            params = candidate.match(method, pathSegments);
+            if (params != null) {
+                route = candidate;
+                break;
+            }
+        }
+
+        MockServerConfig.EndpointProfile profile = config.profileFor(path);
+        sleep(profile.latency.sampleMillis(random));
+        if (profile.errorRate > 0 && random.nextDouble() < profile.errorRate) {
+            return error(config.errorStatus, "Injected failure");
+        }
+        if (route == null) {
+            return error(404, "Route " + method + " /api/" + path + " not found");
+        }
+        requestCounts.computeIfAbsent(method + " " + route.pattern, key -> new AtomicInteger()).incrementAndGet();
+
+        Call call = new Call(params, parseQuery(exchange.getRequestURI().getRawQuery()),
+                parseBody(exchange), bearerToken(exchange), exchange.getRequestHeaders().getFirst(IdempotencyKeys.HEADER));
+        Reply reply;
+        synchronized (dataset) {
+            if (route.auth != AUTH_PUBLIC) {
+                Reply denied = authenticate(call, route.auth);
+                if (denied != null) {
+                    return denied;
+                }
+            }
+            reply = route.idempotent && call.idempotencyKey != null
+                    ? handleOnce(route, method + " " + path, call)
+                    : route.handler.handle(call);
+        }
+        if (profile.dropRate > 0 && random.nextDouble() < profile.dropRate) {
+            droppedResponses.incrementAndGet();
+            return null;
+        }
+        return reply;
+    }
+
+    // The backend's idempotency middleware: one run per user and key, the same reply afterwards.
+    // Requests are serialized on dataset, so a repeat never finds the first one still running.
+    private Reply handleOnce(Route route, String target, Call call) throws JSONException {
+        String request = target + "\n" + call.body;
+        String storeKey = call.user.id + " " + call.idempotencyKey;
+        StoredReply stored = idempotentReplies.get(storeKey);
+        if (stored != null && now() >= stored.expiresAt) {
+            idempotentReplies.remove(storeKey);
+            stored = null;
+        }
+        if (stored != null) {
+            if (!stored.request.equals(request)) {
+                Reply reused = error(422, "Idempotency-Key was already used for a different request");
+                reused.body.put("code", IdempotencyKeys.KEY_REUSED);
+                return reused;
+            }
+            return new Reply(stored.status, new JSONObject(stored.body), true);
+        }
+        Reply reply = route.handler.handle(call);
+        idempotentReplies.put(storeKey, new StoredReply(request, reply, now() + IDEMPOTENCY_TTL_MILLIS));
+        return reply;
+    }
+
+    private Reply authenticate(Call call, int auth) throws JSONException {
+        if (call.token == null) {
+            return error(401, "Access token is required");
+        }
+        Session session = accessTokens.get(call.token);
+        if (session == null) {
+            return error(401, "Invalid access token");
+        }
+        if (now() >= session.expiresAt) {
+            return error(401, "Access token expired");
+        }
+        if (!session.user.active) {
+            return error(401, "Account is deactivated");
+        }
+        if (auth == AUTH_OFFICER && !session.user.isOfficer()) {
+            return error(403, "Bank officer access required");
+        }
+        call.user = session.user;
+        return null;
+    }
+
+    private String render(JSONObject body) {
+        if (!padding.isEmpty()) {
+            try {
+                body.put("_padding", padding);
+            } catch (JSONException ignored) {
+                // Key is not null, cannot happen
+            }
+        }
+        return body.toString();
+    }
+
+    private static JSONObject parseBody(HttpExchange exchange) throws IOException, JSONException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        byte[] bytes = readAll(exchange.getRequestBody());
+        if (bytes.length == 0 || contentType == null || !contentType.startsWith("application/json")) {
+            return new JSONObject();
+        }
+        return new JSONObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        String token = header.substring("Bearer ".length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            query.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return query;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[Math.max(0, count)];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    // ---- Replies in the backend's {success, message, data} envelope ----
+
+    private static Reply ok(String message, Object data) throws JSONException {
+        return reply(200, message, data);
+    }
+
+    private static Reply reply(int status, String message, Object data) throws JSONException {
+        JSONObject body = new JSONObject();
+        body.put("success", true);
+        if (message != null) {
+            body.put("message", message);
+        }
+        if (data != null) {
+            body.put("data", data);
+        }
+        return new Reply(status, body);
+    }
+
+    private static Reply error(int status, String message) throws JSONException {
+        JSONObject body = new JSONObject();
+        body.put("success", false);
+        body.put("message", message);
+        return new Reply(status, body);
+    }
+
+    private void route(String method, String pattern, int auth, Handler handler) {
+        routes.add(new Route(method, pattern, auth, false, handler));
+    }
+
+    // A POST that moves money; runs at most once per Idempotency-Key
+    private void moneyRoute(String pattern, int auth, Handler handler) {
+        routes.add(new Route("POST", pattern, auth, true, handler));
+    }
+
+    // Literal routes are registered before parameterized ones that would also match them
+    private void registerRoutes() {
+        route("GET", "test", AUTH_PUBLIC, call -> ok("API is working", null));
+
+        route("POST", "auth/register", AUTH_PUBLIC, this::register);
+        route("POST", "auth/login", AUTH_PUBLIC, this::login);
+        route("POST", "auth/verify-otp", AUTH_PUBLIC, this::verifyLoginOtp);
+        route("POST", "auth/refresh-token", AUTH_PUBLIC, this::refreshToken);
+        route("POST", "auth/logout", AUTH_USER, this::logout);
+        route("GET", "auth/me", AUTH_USER, call -> ok("User retrieved successfully", MockDataset.userJson(call.user)));
+
+        route("PUT", "user/update", AUTH_USER, this::updateProfile);
+        route("PUT", "user/change-password", AUTH_USER, this::changePassword);
+
+        route("GET", "accounts", AUTH_USER, this::getAccounts);
+        route("GET", "accounts/summary", AUTH_USER, this::getAccountSummary);
+        route("GET", "accounts/primary", AUTH_USER, this::getPrimaryAccount);
+        moneyRoute("accounts/deposit", AUTH_USER, call -> moveMoney(call, true));
+        moneyRoute("accounts/withdraw", AUTH_USER, call -> moveMoney(call, false));
+        route("POST", "accounts/create-defaults", AUTH_USER, this::createDefaultAccounts);
+        route("GET", "accounts/number/{accountNumber}", AUTH_USER, this::getAccountByNumber);
+        route("GET", "accounts/{accountId}/interest-projection", AUTH_USER, this::getInterestProjection);
+        route("GET", "accounts/{accountId}/balance", AUTH_USER, this::getAccountBalance);
+        route("GET", "accounts/{accountId}", AUTH_USER, this::getAccount);
+
+        moneyRoute("transactions/transfer", AUTH_USER, this::initiateTransfer);
+        moneyRoute("transactions/verify-otp", AUTH_USER, this::verifyTransferOtp);
+        route("GET", "transactions/history", AUTH_USER, this::getTransactionHistory);
+        route("GET", "transactions/{id}", AUTH_USER, this::getTransaction);
+
+        utility("pay-electricity", "ELECTRICITY", "EVN", "customerNumber", "Thanh toán tiền điện");
+        utility("pay-water", "WATER", "SAWACO", "customerNumber", "Thanh toán tiền nước");
+        utility("pay-internet", "INTERNET", "VNPT", "customerNumber", "Thanh toán cước internet");
+        utility("mobile-topup", "PHONE_TOPUP", "AUTO", "phoneNumber", "Nạp tiền điện thoại");
+        utility("buy-data-package", "DATA_PACKAGE", "AUTO", "phoneNumber", "Mua gói data");
+        utility("buy-scratch-card", "SCRATCH_CARD", "AUTO", "cardType", "Mua thẻ cào");
+        utility("book-flight", "FLIGHT", "GENERAL", "flightNumber", "Đặt vé máy bay");
+        utility("buy-movie-ticket", "MOVIE", "GENERAL", "movieName", "Mua vé xem phim");
+        utility("book-hotel", "HOTEL", "GENERAL", "hotelName", "Đặt phòng khách sạn");
+        utility("pay-ecommerce", "ECOMMERCE", "GENERAL", "orderId", "Thanh toán đơn hàng");
+        moneyRoute("utilities/verify-otp", AUTH_USER, this::verifyUtilityOtp);
+        route("GET", "utilities/history", AUTH_USER, this::getUtilityHistory);
+        route("GET", "utilities/providers", AUTH_USER, this::getProviders);
+        route("GET", "utilities/branches", AUTH_USER, this::getBranches);
+        route("GET", "utilities/branches/nearest", AUTH_USER, this::getNearestBranch);
+
+        route("GET", "ekyc/verification-status", AUTH_USER, this::getVerificationStatus);
+
+        moneyRoute("payments/vnpay/create-payment", AUTH_USER, this::createVnpayPayment);
+        moneyRoute("payments/bank-transfer", AUTH_USER, this::createBankTransfer);
+        route("GET", "payments/history/list", AUTH_USER, this::getPaymentHistory);
+        route("GET", "payments/{paymentId}", AUTH_USER, this::getPaymentStatus);
+
+        route("GET", "admin/dashboard", AUTH_OFFICER, this::getDashboard);
+        route("GET", "admin/customers/search", AUTH_OFFICER, this::searchCustomers);
+        route("GET", "admin/customers", AUTH_OFFICER, this::getCustomers);
+        route("POST", "admin/customers", AUTH_OFFICER, this::createCustomer);
+        route("GET", "admin/customers/{customerId}", AUTH_OFFICER, this::getCustomerDetails);
+        route("PUT", "admin/customers/{customerId}", AUTH_OFFICER, this::updateCustomer);
+        route("POST", "admin/accounts/create", AUTH_OFFICER, this::adminCreateAccount);
+        route("PUT", "admin/accounts/{accountId}", AUTH_OFFICER, this::adminUpdateAccount);
+        route("DELETE", "admin/accounts/{accountId}", AUTH_OFFICER, this::adminDeactivateAccount);
+        route("GET", "admin/transactions", AUTH_OFFICER, this::adminGetTransactions);
+        moneyRoute("admin/transactions/transfer", AUTH_OFFICER, this::adminTransfer);
+        moneyRoute("admin/transactions/deposit", AUTH_OFFICER, this::adminDeposit);
+        route("PUT", "admin/interest-rates", AUTH_OFFICER, this::updateInterestRate);
+        route("GET", "admin/interest-rates/history", AUTH_OFFICER, this::getInterestRateHistory);
+    }
+
+    // ---- auth ----
+
+    private Reply register(Call call) throws JSONException {
+        String email = call.field("email");
+        String password = call.field("password");
+        String fullName = call.field("fullName", "full_name");
+        if (email == null || password == null || fullName == null) {
+            return error(400, "Email, password and full name are required");
+        }
+        if (dataset.findUserByEmail(email) != null) {
+            return error(409, "User already exists with this email");
+        }
+        MockDataset.User user = dataset.addUser(email, fullName, "CUSTOMER");
+        user.password = password;
+        if (call.field("phone") != null) {
+            user.phone = call.field("phone");
+        }
+        if (call.field("address") != null) {
+            user.address = call.field("address");
+        }
+        dataset.addAccount(user, "CHECKING", 0, now());
+        return reply(201, "User registered successfully", sessionData(user));
+    }
+
+    private Reply login(Call call) throws JSONException {
+        String email = call.field("email");
+        String password = call.field("password");
+        if (email == null || password == null) {
+            return error(400, "Email and password are required");
+        }
+        MockDataset.User user = dataset.findUserByEmail(email);
+        if (user == null || !user.password.equals(password)) {
+            return error(401, "Invalid email or password");
+        }
+        if (!user.active) {
+            return error(401, "Account is deactivated");
+        }
+
+        String tempToken = "mock-login-" + nextToken++;
+        String otp = dataset.newOtp();
+        pendingLogins.put(tempToken, new PendingLogin(user, otp));
+
+        JSONObject data = new JSONObject();
+        data.put("user_id", user.id);
+        data.put("email", user.email);
+        data.put("otp_required", true);
+        data.put("token", tempToken);
+        data.put("user", MockDataset.userJson(user));
+        data.put("developmentOTP", otp);
+        data.put("development_otp", otp);
+        return ok("OTP sent to your registered email/phone", data);
+    }
+
+    private Reply verifyLoginOtp(Call call) throws JSONException {
+        String otp = call.field("otpCode", "otp_code");
+        String token = call.field("token");
+        String userId = call.field("userId");
+        if (otp == null || (token == null && userId == null)) {
+            return error(400, "User ID and OTP are required");
+        }
+
+        String pendingKey = token;
+        if (pendingKey == null || !pendingLogins.containsKey(pendingKey)) {
+            pendingKey = null;
+            for (Map.Entry<String, PendingLogin> entry : pendingLogins.entrySet()) {
+                if (entry.getValue().user.id.equals(userId)) {
+                    pendingKey = entry.getKey();
+                }
+            }
+        }
+        PendingLogin pending = pendingKey != null ? pendingLogins.get(pendingKey) : null;
+        if (pending == null) {
+            return error(401, "Invalid or expired OTP");
+        }
+        if (!pending.otp.equals(otp)) {
+            return error(401, "Invalid OTP");
+        }
+
+        pendingLogins.remove(pendingKey);
+        pending.user.lastLogin = now();
+        return ok("Login successful", sessionData(pending.user));
+    }
+
+    private Reply refreshToken(Call call) throws JSONException {
+        String refreshToken = call.field("refreshToken", "refresh_token");
+        MockDataset.User user = refreshToken != null ? refreshTokens.remove(refreshToken) : null;
+        if (user == null) {
+            return error(401, "Invalid refresh token");
+        }
+        JSONObject session = sessionData(user);
+        JSONObject data = new JSONObject();
+        data.put("accessToken", session.get("accessToken"));
+        data.put("refreshToken", session.get("refreshToken"));
+        data.put("access_token", session.get("access_token"));
+        data.put("refresh_token", session.get("refresh_token"));
+        data.put("token", session.get("token"));
+        return ok("Token refreshed successfully", data);
+    }
+
+    private Reply logout(Call call) throws JSONException {
+        accessTokens.remove(call.token);
+        Iterator<Map.Entry<String, MockDataset.User>> iterator = refreshTokens.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue() == call.user) {
+                iterator.remove();
+            }
+        }
+        return ok("Logout successful", null);
+    }
+
+    // New access/refresh pair under every name the app reads
+    private JSONObject sessionData(MockDataset.User user) throws JSONException {
+        String accessToken = "mock-access-" + nextToken++;
+        String refreshToken = "mock-refresh-" + nextToken++;
+        accessTokens.put(accessToken, new Session(user, now() + config.accessTokenTtlMillis));
+        refreshTokens.put(refreshToken, user);
+
+        JSONObject data = new JSONObject();
+        data.put("user", MockDataset.userJson(user));
+        data.put("accessToken", accessToken);
+        data.put("refreshToken", refreshToken);
+        data.put("refresh_token", refreshToken);
+        data.put("token", accessToken);
+        data.put("access_token", accessToken);
+        return data;
+    }
+
+    // ---- user ----
+
+    private Reply updateProfile(Call call) throws JSONException {
+        String fullName = call.field("full_name", "fullName");
+        if (fullName != null) {
+            call.user.fullName = fullName;
+        }
+        if (call.field("phone") != null) {
+            call.user.phone = call.field("phone");
+        }
+        if (call.field("address") != null) {
+            call.user.address = call.field("address");
+        }
+        call.user.updatedAt = now();
+        return ok("Profile updated successfully", MockDataset.userJson(call.user));
+    }
+
+    private Reply changePassword(Call call) throws JSONException {
+        String current = call.field("current_password", "currentPassword");
+        String next = call.field("new_password", "newPassword");
+        if (current == null || next == null) {
+            return error(400, "Current password and new password are required");
+        }
+        if (!call.user.password.equals(current)) {
+            return error(400, "Current password is incorrect");
+        }
+        if (next.length() < 6) {
+            return error(400, "New password must be at least 6 characters");
+        }
+        call.user.password = next;
+        call.user.updatedAt = now();
+        return ok("Password changed successfully", null);
+    }
+
+    // ---- accounts ----
+
+    private MockDataset.Account ownAccount(Call call, String accountId) {
+        MockDataset.Account account = accountId != null ? dataset.accountsById.get(accountId) : null;
+        return account != null && account.owner == call.user && account.active ? account : null;
+    }
+
+    private Reply getAccounts(Call call) throws JSONException {
+        JSONArray data = new JSONArray();
+        for (MockDataset.Account account : dataset.accountsOf(call.user)) {
+            data.put(MockDataset.accountJson(account));
+        }
+        return ok("Accounts retrieved successfully", data);
+    }
+
+    private Reply getAccountSummary(Call call) throws JSONException {
+        JSONArray checking = new JSONArray();
+        JSONArray saving = new JSONArray();
+        JSONArray mortgage = new JSONArray();
+        long assets = 0;
+        long liabilities = 0;
+        List<MockDataset.Account> accounts = dataset.accountsOf(call.user);
+        for (MockDataset.Account account : accounts) {
+            JSONObject json = MockDataset.accountJson(account);
+            if ("MORTGAGE".equals(account.accountType)) {
+                mortgage.put(json);
+                liabilities += account.balance;
+            } else {
+                (("SAVING".equals(account.accountType)) ? saving : checking).put(json);
+                assets += account.balance;
+            }
+        }
+
+        JSONObject summary = new JSONObject();
+        summary.put("checking", checking);
+        summary.put("saving", saving);
+        summary.put("mortgage", mortgage);
+        JSONObject totals = new JSONObject();
+        totals.put("totalAssets", assets);
+        totals.put("totalLiabilities", liabilities);
+        totals.put("netWorth", assets - liabilities);
+        JSONObject counts = new JSONObject();
+        counts.put("checking", checking.length());
+        counts.put("saving", saving.length());
+        counts.put("mortgage", mortgage.length());
+        counts.put("total", accounts.size());
+
+        JSONObject data = new JSONObject();
+        data.put("summary", summary);
+        data.put("totals", totals);
+        data.put("primaryAccount", checking.length() > 0 ? checking.get(0) : JSONObject.NULL);
+        data.put("accountCounts", counts);
+        return ok(accounts.isEmpty() ? "No accounts found" : "Account summary retrieved successfully", data);
+    }
+
+    private Reply getPrimaryAccount(Call call) throws JSONException {
+        MockDataset.Account primary = dataset.primaryAccountOf(call.user);
+        if (primary == null) {
+            return error(404, "No primary account found");
+        }
+        return ok("Primary account retrieved successfully", MockDataset.accountJson(primary));
+    }
+
+    private Reply getAccount(Call call) throws JSONException {
+        MockDataset.Account account = ownAccount(call, call.param("accountId"));
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        double rate = account.interestRate != null ? account.interestRate : 0;
+        double monthly = account.balance * rate / 100 / 12;
+        JSONObject calculations = new JSONObject();
+        calculations.put("monthlyInterest", "SAVING".equals(account.accountType) ? monthly : 0);
+        calculations.put("monthlyPayment", "MORTGAGE".equals(account.accountType) ? monthly : 0);
+        calculations.put("annualInterest", account.balance * rate / 100);
+
+        JSONObject data = new JSONObject();
+        data.put("account", MockDataset.accountJson(account));
+        data.put("calculations", calculations);
+        return ok("Account retrieved successfully", data);
+    }
+
+    private Reply getAccountBalance(Call call) throws JSONException {
+        MockDataset.Account account = ownAccount(call, call.param("accountId"));
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        JSONObject data = new JSONObject();
+        data.put("account_number", MockDataset.masked(account.accountNumber));
+        data.put("account_type", account.accountType);
+        data.put("balance", account.balance);
+        data.put("formatted_balance", MockDataset.money(account.balance, "VND"));
+        data.put("currency", "VND");
+        data.put("timestamp", MockDataset.iso(now()));
+        return ok("Balance retrieved successfully", data);
+    }
+
+    private Reply getAccountByNumber(Call call) throws JSONException {
+        MockDataset.Account account = dataset.accountsByNumber.get(call.param("accountNumber"));
+        if (account == null || !account.active) {
+            return error(404, "Account not found");
+        }
+        JSONObject data = new JSONObject();
+        data.put("account_number", MockDataset.masked(account.accountNumber));
+        data.put("account_type", account.accountType);
+        data.put("owner_name", account.owner.fullName);
+        return ok("Account found", data);
+    }
+
+    // Same formula and rounding as the backend; BankingMath.projectInterest already mirrors it
+    private Reply getInterestProjection(Call call) throws JSONException {
+        MockDataset.Account account = ownAccount(call, call.param("accountId"));
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        if (!"SAVING".equals(account.accountType)) {
+            return error(400, "Interest projection is only available for saving accounts");
+        }
+        int months = call.queryInt("months", 12);
+        if (months < 1 || months > 60) {
+            return error(400, "Months must be between 1 and 60");
+        }
+
+        double rate = account.interestRate != null ? account.interestRate : 0;
+        List<BankingMath.ProjectedMonth> projected = BankingMath.projectInterest(account.balance, rate, months);
+        JSONArray details = new JSONArray();
+        for (BankingMath.ProjectedMonth month : projected) {
+            JSONObject json = new JSONObject();
+            json.put("month", month.month);
+            json.put("balance", month.balance);
+            json.put("monthly_interest", month.monthlyInterest);
+            json.put("cumulative_interest", month.cumulativeInterest);
+            details.put(json);
+        }
+        BankingMath.ProjectedMonth last = projected.get(projected.size() - 1);
+
+        JSONObject accountJson = new JSONObject();
+        accountJson.put("id", account.id);
+        accountJson.put("account_number", account.accountNumber);
+        accountJson.put("account_type", account.accountType);
+        accountJson.put("current_balance", account.balance);
+        accountJson.put("interest_rate", rate);
+        JSONObject projection = new JSONObject();
+        projection.put("months", months);
+        projection.put("current_balance", account.balance);
+        projection.put("projected_balance", last.balance);
+        projection.put("total_interest", last.cumulativeInterest);
+        projection.put("monthly_details", details);
+
+        JSONObject data = new JSONObject();
+        data.put("account", accountJson);
+        data.put("projection", projection);
+        return ok("Interest projection calculated successfully", data);
+    }
+
+    private Reply moveMoney(Call call, boolean deposit) throws JSONException {
+        String accountId = call.field("accountId", "account_id");
+        long amount = call.amount("amount");
+        if (accountId == null || amount == Long.MIN_VALUE) {
+            return error(400, "Account ID and valid amount are required");
+        }
+        if (amount <= 0) {
+            return error(400, "Amount must be greater than 0");
+        }
+        MockDataset.Account account = ownAccount(call, accountId);
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        if (!deposit && account.balance < amount) {
+            return error(400, "Insufficient balance");
+        }
+
+        account.balance += deposit ? amount : -amount;
+        account.updatedAt = now();
+        String description = call.field("description");
+        MockDataset.Transaction transaction = dataset.newTransaction(deposit ? null : account, deposit ? account : null,
+                amount, description != null ? description : (deposit ? "Nạp tiền" : "Rút tiền"),
+                deposit ? "DEPOSIT" : "WITHDRAWAL", now());
+        complete(transaction, call.user.id);
+
+        JSONObject data = new JSONObject();
+        data.put("transaction_id", transaction.transactionId);
+        data.put("account", MockDataset.accountJson(account));
+        data.put("amount", amount);
+        data.put("new_balance", account.balance);
+        data.put("formatted_balance", MockDataset.money(account.balance, "VND"));
+        return ok(deposit ? "Deposit completed successfully" : "Withdrawal completed successfully", data);
+    }
+
+    private Reply createDefaultAccounts(Call call) throws JSONException {
+        List<MockDataset.Account> existing = dataset.accountsOf(call.user);
+        if (existing.isEmpty()) {
+            existing.add(dataset.addAccount(call.user, "CHECKING", 0, now()));
+            existing.add(dataset.addAccount(call.user, "SAVING", 0, now()));
+        }
+        JSONArray data = new JSONArray();
+        for (MockDataset.Account account : existing) {
+            data.put(MockDataset.accountJson(account));
+        }
+        return ok("Default accounts ready", data);
+    }
+
+    // ---- transactions ----
+
+    private Reply initiateTransfer(Call call) throws JSONException {
+        String toAccountNumber = call.field("to_account_number", "toAccountNumber");
+        long amount = call.amount("amount");
+        if (toAccountNumber == null || amount == Long.MIN_VALUE) {
+            return error(400, "Vui lòng nhập đầy đủ số tài khoản nhận và số tiền");
+        }
+        if (amount <= 0) {
+            return error(400, "Số tiền phải lớn hơn 0");
+        }
+        if (amount < BankingMath.MIN_TRANSFER_AMOUNT.getMinorUnits()) {
+            return error(400, "Số tiền chuyển tối thiểu là 10,000 VND");
+        }
+
+        String fromAccountId = call.field("from_account_id", "fromAccountId");
+        MockDataset.Account from = fromAccountId != null
+                ? ownAccount(call, fromAccountId) : dataset.primaryAccountOf(call.user);
+        if (from == null) {
+            return error(404, "Source account not found");
+        }
+        MockDataset.Account to = dataset.accountsByNumber.get(toAccountNumber);
+        if (to == null || !to.active) {
+            return error(404, "Recipient account not found");
+        }
+        if (to == from) {
+            return error(400, "Không thể chuyển tiền đến cùng tài khoản");
+        }
+        long fee = BankingMath.transferFee(Money.vnd(amount)).getMinorUnits();
+        if (from.balance < amount + fee) {
+            return error(400, String.format(Locale.US, "Số dư không đủ. Bạn cần %,d VND (bao gồm phí %,d VND) nhưng số dư hiện tại là %,d VND",
+                    amount + fee, fee, from.balance));
+        }
+
+        String description = call.field("description");
+        MockDataset.Transaction transaction = dataset.newTransaction(from, to, amount,
+                description != null ? description : "Chuyển tiền", "TRANSFER", now());
+        transaction.fee = fee;
+        transaction.initiatedBy = call.user.id;
+        transaction.otp = dataset.newOtp();
+        dataset.record(transaction);
+
+        JSONObject toJson = new JSONObject();
+        toJson.put("account_number", MockDataset.masked(to.accountNumber));
+        toJson.put("owner_name", to.owner.fullName);
+
+        JSONObject data = new JSONObject();
+        data.put("otp_required", true);
+        data.put("transaction_id", transaction.transactionId);
+        data.put("transaction_reference", transaction.transactionId);
+        data.put("from_account", MockDataset.accountJson(from));
+        data.put("to_account", toJson);
+        data.put("amount", amount);
+        data.put("formatted_amount", MockDataset.money(amount, "VND"));
+        data.put("fee", fee);
+        data.put("formatted_fee", MockDataset.money(fee, "VND"));
+        data.put("total_amount", amount + fee);
+        data.put("formatted_total_amount", MockDataset.money(amount + fee, "VND"));
+        data.put("currency", "VND");
+        data.put("description", transaction.description);
+        data.put("development_otp", transaction.otp);
+        data.put("developmentOTP", transaction.otp);
+        return ok("Transaction initiated. OTP sent for verification.", data);
+    }
+
+    private Reply verifyTransferOtp(Call call) throws JSONException {
+        String transactionId = call.field("transaction_id", "transactionId");
+        String otp = call.field("otp_code", "otpCode");
+        if (transactionId == null || otp == null) {
+            return error(400, "Transaction ID and OTP are required");
+        }
+        MockDataset.Transaction transaction = dataset.transactionsById.get(transactionId);
+        if (transaction == null || !"PENDING".equals(transaction.status) || !call.user.id.equals(transaction.initiatedBy)) {
+            return error(404, "Transaction not found or already processed");
+        }
+        if (!transaction.otp.equals(otp)) {
+            return error(400, "Invalid OTP");
+        }
+
+        long total = transaction.amount + transaction.fee;
+        if (transaction.from.balance < total) {
+            transaction.status = "FAILED";
+            return error(400, String.format(Locale.US, "Số dư không đủ. Bạn cần %,d VND nhưng số dư hiện tại là %,d VND",
+                    total, transaction.from.balance));
+        }
+        transaction.from.balance -= total;
+        transaction.to.balance += transaction.amount;
+        transaction.from.updatedAt = now();
+        transaction.to.updatedAt = now();
+        transaction.status = "COMPLETED";
+        transaction.otpVerified = true;
+        transaction.processedAt = now();
+        transaction.updatedAt = now();
+        return ok("Transfer completed successfully", MockDataset.transactionJson(transaction));
+    }
+
+    private Reply getTransactionHistory(Call call) throws JSONException {
+        int page = Math.max(1, call.queryInt("page", 1));
+        int limit = Math.max(1, call.queryInt("limit", 20));
+        String accountId = call.query("accountId", null);
+        String type = call.query("type", null);
+        String status = call.query("status", null);
+
+        List<MockDataset.Transaction> matches = new ArrayList<>();
+        for (MockDataset.Transaction transaction : dataset.transactionsOf(call.user)) {
+            if (accountId != null && !involves(transaction, accountId)) {
+                continue;
+            }
+            if (type != null && !type.equals(transaction.transactionType)) {
+                continue;
+            }
+            if (status != null && !status.equals(transaction.status)) {
+                continue;
+            }
+            matches.add(transaction);
+        }
+
+        JSONArray data = new JSONArray();
+        for (MockDataset.Transaction transaction : page(matches, page, limit)) {
+            data.put(MockDataset.transactionJson(transaction));
+        }
+        int totalPages = (matches.size() + limit - 1) / limit;
+        JSONObject pagination = new JSONObject();
+        pagination.put("currentPage", page);
+        pagination.put("totalPages", totalPages);
+        pagination.put("totalTransactions", matches.size());
+        pagination.put("hasNextPage", page < totalPages);
+        pagination.put("hasPrevPage", page > 1);
+
+        Reply reply = ok("Transaction history retrieved successfully", data);
+        reply.body.put("meta", new JSONObject().put("pagination", pagination));
+        return reply;
+    }
+
+    private Reply getTransaction(Call call) throws JSONException {
+        MockDataset.Transaction transaction = dataset.findTransaction(call.param("id"));
+        boolean visible = transaction != null && (call.user.isOfficer()
+                || (transaction.from != null && transaction.from.owner == call.user)
+                || (transaction.to != null && transaction.to.owner == call.user));
+        if (!visible) {
+            return error(404, "Transaction not found");
+        }
+        return ok("Transaction details retrieved successfully", MockDataset.transactionJson(transaction));
+    }
+
+    private static boolean involves(MockDataset.Transaction transaction, String accountId) {
+        return (transaction.from != null && transaction.from.id.equals(accountId))
+                || (transaction.to != null && transaction.to.id.equals(accountId));
+    }
+
+    private void complete(MockDataset.Transaction transaction, String initiatedBy) {
+        transaction.status = "COMPLETED";
+        transaction.otpVerified = true;
+        transaction.processedAt = transaction.createdAt;
+        transaction.initiatedBy = initiatedBy;
+        dataset.record(transaction);
+    }
+
+    private static <T> List<T> page(List<T> items, int page, int limit) {
+        int from = Math.min(items.size(), (page - 1) * limit);
+        int to = Math.min(items.size(), from + limit);
+        return items.subList(from, to);
+    }
+
+    // ---- utilities ----
+
+    // Every pay endpoint shares the backend's processUtilityPayment: create PENDING, answer with an OTP
+    private void utility(String endpoint, String serviceType, String defaultProvider, String numberField,
+                         String description) {
+        moneyRoute("utilities/" + endpoint, AUTH_USER, call -> {
+            String serviceNumber = call.field(numberField);
+            long amount = call.amount("amount");
+            if (serviceNumber == null || amount == Long.MIN_VALUE) {
+                return error(400, "Service number and valid amount are required");
+            }
+            if (amount <= 0) {
+                return error(400, "Amount must be greater than 0");
+            }
+            String accountId = call.field("accountId");
+            MockDataset.Account account = accountId != null ? ownAccount(call, accountId) : dataset.primaryAccountOf(call.user);
+            if (account == null) {
+                return error(404, "Account not found");
+            }
+            long fee = MockDataset.utilityFee(amount, serviceType);
+            if (account.balance < amount + fee) {
+                return error(400, "Insufficient balance");
+            }
+
+            MockDataset.UtilityPayment utility = new MockDataset.UtilityPayment();
+            utility.id = dataset.newId();
+            utility.transactionId = dataset.newReference("UTL", now());
+            utility.user = call.user;
+            utility.account = account;
+            utility.serviceType = serviceType;
+            String provider = call.field("provider", "airline", "cinema", "platform", "merchantName");
+            utility.provider = provider != null ? provider : defaultProvider;
+            utility.serviceNumber = serviceNumber;
+            utility.amount = amount;
+            utility.fee = fee;
+            utility.description = description;
+            for (Iterator<String> keys = call.body.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                if (!key.equals("accountId") && !key.equals("amount")) {
+                    utility.metadata.put(key, call.body.get(key));
+                }
+            }
+            utility.otp = dataset.newOtp();
+            utility.createdAt = now();
+            utility.updatedAt = now();
+            dataset.utilities.put(utility.transactionId, utility);
+
+            JSONObject data = new JSONObject();
+            data.put("otp_required", true);
+            data.put("transaction_id", utility.transactionId);
+            data.put("service_type", serviceType);
+            data.put("provider", utility.provider);
+            data.put("service_number", serviceNumber);
+            data.put("amount", amount);
+            data.put("formatted_amount", MockDataset.money(amount, "VND"));
+            data.put("fee", fee);
+            data.put("total_amount", amount + fee);
+            data.put("formatted_total_amount", MockDataset.money(amount + fee, "VND"));
+            data.put("currency", "VND");
+            data.put("description", description);
+            data.put("development_otp", utility.otp);
+            data.put("developmentOTP", utility.otp);
+            return ok("Payment initiated. OTP sent for verification.", data);
+        });
+    }
+
+    private Reply verifyUtilityOtp(Call call) throws JSONException {
+        String transactionId = call.field("transactionId", "transaction_id");
+        String otp = call.field("otpCode", "otp_code");
+        if (transactionId == null || otp == null) {
+            return error(400, "Transaction ID and OTP are required");
+        }
+        MockDataset.UtilityPayment utility = dataset.utilities.get(transactionId);
+        if (utility == null || utility.user != call.user || !"PENDING".equals(utility.status)) {
+            return error(404, "Utility transaction not found or already processed");
+        }
+        if (!utility.otp.equals(otp)) {
+            return error(400, "Invalid OTP");
+        }
+        long total = utility.amount + utility.fee;
+        if (utility.account.balance < total) {
+            utility.status = "FAILED";
+            return error(400, "Insufficient balance");
+        }
+        utility.account.balance -= total;
+        utility.account.updatedAt = now();
+        utility.status = "COMPLETED";
+        utility.processedAt = now();
+        utility.updatedAt = now();
+        return ok("Payment completed successfully", MockDataset.utilityJson(utility));
+    }
+
+    private Reply getUtilityHistory(Call call) throws JSONException {
+        int page = Math.max(1, call.queryInt("page", 1));
+        int limit = Math.max(1, call.queryInt("limit", 20));
+        String serviceType = call.query("serviceType", null);
+        List<MockDataset.UtilityPayment> matches = new ArrayList<>();
+        for (MockDataset.UtilityPayment utility : dataset.utilities.values()) {
+            if (utility.user == call.user && (serviceType == null || serviceType.equals(utility.serviceType))) {
+                matches.add(utility);
+            }
+        }
+        Collections.reverse(matches);
+
+        JSONArray data = new JSONArray();
+        for (MockDataset.UtilityPayment utility : page(matches, page, limit)) {
+            data.put(MockDataset.utilityJson(utility));
+        }
+        JSONObject pagination = new JSONObject();
+        pagination.put("page", page);
+        pagination.put("limit", limit);
+        pagination.put("total", matches.size());
+        pagination.put("totalPages", (matches.size() + limit - 1) / limit);
+        Reply reply = ok("Utility history retrieved successfully", data);
+        reply.body.put("pagination", pagination);
+        return reply;
+    }
+
+    private Reply getProviders(Call call) throws JSONException {
+        JSONObject providers = new JSONObject();
+        providers.put("ELECTRICITY", providerList("EVN", "Điện Lực Việt Nam"));
+        providers.put("WATER", providerList("SAWACO", "Công ty nước Sài Gòn", "HAWACO", "Công ty nước Hà Nội"));
+        providers.put("INTERNET", providerList("VNPT", "VNPT", "VIETTEL", "Viettel", "FPT", "FPT Telecom"));
+        providers.put("PHONE_TOPUP", providerList("VIETTEL", "Viettel", "VINAPHONE", "Vinaphone",
+                "MOBIFONE", "Mobifone", "VIETNAMOBILE", "Vietnamobile"));
+        providers.put("FLIGHT", providerList("VIETJET", "VietJet Air", "VIETNAM_AIRLINES", "Vietnam Airlines",
+                "BAMBOO", "Bamboo Airways", "JETSTAR", "Jetstar Pacific"));
+        providers.put("MOVIE", providerList("CGV", "CGV Cinemas", "LOTTE", "Lotte Cinemas",
+                "GALAXY", "Galaxy Cinemas", "BHD", "BHD Star Cinemas"));
+        providers.put("HOTEL", providerList("AGODA", "Agoda", "BOOKING", "Booking.com",
+                "TRAVELOKA", "Traveloka", "EXPEDIA", "Expedia"));
+        providers.put("ECOMMERCE", providerList("SHOPEE", "Shopee", "LAZADA", "Lazada", "TIKI", "Tiki", "SENDO", "Sendo"));
+
+        String serviceType = call.query("serviceType", null);
+        if (serviceType != null && providers.has(serviceType)) {
+            return ok(null, providers.getJSONArray(serviceType));
+        }
+        return ok(null, providers);
+    }
+
+    private static JSONArray providerList(String... codesAndNames) throws JSONException {
+        JSONArray list = new JSONArray();
+        for (int i = 0; i < codesAndNames.length; i += 2) {
+            JSONObject provider = new JSONObject();
+            provider.put("code", codesAndNames[i]);
+            provider.put("name", codesAndNames[i + 1]);
+            provider.put("logo", codesAndNames[i].toLowerCase(Locale.US) + "_logo.png");
+            list.put(provider);
+        }
+        return list;
+    }
+
+    private Reply getBranches(Call call) throws JSONException {
+        JSONArray data = new JSONArray();
+        for (MockDataset.Branch branch : dataset.branches) {
+            data.put(MockDataset.branchJson(branch));
+        }
+        return ok("Branches retrieved successfully", data);
+    }
+
+    private Reply getNearestBranch(Call call) throws JSONException {
+        double latitude;
+        double longitude;
+        try {
+            latitude = Double.parseDouble(call.query("latitude", call.query("lat", "")));
+            longitude = Double.parseDouble(call.query("longitude", call.query("lng", "")));
+        } catch (NumberFormatException e) {
+            return error(400, "Latitude and longitude are required");
+        }
+        if (dataset.branches.isEmpty()) {
+            return error(404, "No branches found");
+        }
+
+        List<JSONObject> withDistance = new ArrayList<>();
+        for (MockDataset.Branch branch : dataset.branches) {
+            JSONObject json = MockDataset.branchJson(branch);
+            json.put("distance", haversineKm(latitude, longitude, branch.latitude, branch.longitude));
+            withDistance.add(json);
+        }
+        withDistance.sort((a, b) -> Double.compare(a.optDouble("distance"), b.optDouble("distance")));
+
+        JSONObject data = new JSONObject();
+        data.put("nearest", withDistance.get(0));
+        data.put("allBranches", new JSONArray(withDistance));
+        return ok("Nearest branch found", data);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // ---- ekyc ----
+
+    private Reply getVerificationStatus(Call call) throws JSONException {
+        JSONObject data = new JSONObject();
+        data.put("verification_status", "NOT_STARTED");
+        data.put("status_key", "NOT_STARTED");
+        data.put("has_face_image", false);
+        data.put("is_valid", false);
+        return ok("Verification status retrieved successfully", data);
+    }
+
+    // ---- payments ----
+
+    private Reply createVnpayPayment(Call call) throws JSONException {
+        long amount = call.amount("amount");
+        if (amount == Long.MIN_VALUE || amount <= 0) {
+            return error(400, "Số tiền không hợp lệ");
+        }
+        MockDataset.Payment payment = newPayment(call, amount, "VNPAY", "PENDING");
+        String orderId = payment.paymentId.substring("PAY".length());
+
+        JSONObject data = new JSONObject();
+        data.put("paymentId", payment.paymentId);
+        data.put("paymentUrl", "https://sandbox.vnpayment.vn/paymentv2/vpcpay.html?vnp_TxnRef=" + orderId);
+        data.put("orderId", orderId);
+        data.put("amount", amount);
+        data.put("currency", "VND");
+        data.put("expiresAt", MockDataset.iso(now() + 15 * 60 * 1000));
+        return ok(null, data);
+    }
+
+    private Reply createBankTransfer(Call call) throws JSONException {
+        String accountId = call.field("accountId");
+        String recipientAccountNumber = call.field("recipientAccountNumber");
+        String recipientName = call.field("recipientName");
+        String bankName = call.field("bankName");
+        long amount = call.amount("amount");
+        if (accountId == null || amount == Long.MIN_VALUE || bankName == null
+                || recipientAccountNumber == null || recipientName == null) {
+            return error(400, "Vui lòng nhập đầy đủ thông tin chuyển khoản");
+        }
+        if (amount <= 0) {
+            return error(400, "Số tiền không hợp lệ");
+        }
+        MockDataset.Account from = ownAccount(call, accountId);
+        if (from == null) {
+            return error(404, "Không tìm thấy tài khoản");
+        }
+        long fee = BankingMath.transferFee(Money.vnd(amount)).getMinorUnits();
+        if (from.balance < amount + fee) {
+            return error(400, "Số dư không đủ");
+        }
+
+        from.balance -= amount + fee;
+        from.updatedAt = now();
+        MockDataset.Transaction transaction = dataset.newTransaction(from, null, amount,
+                call.field("description") != null ? call.field("description") : "Chuyển khoản liên ngân hàng",
+                "TRANSFER", now());
+        transaction.fee = fee;
+        complete(transaction, call.user.id);
+        MockDataset.Payment payment = newPayment(call, amount, "BANK_TRANSFER", "COMPLETED");
+        payment.transaction = transaction;
+        payment.completedAt = now();
+
+        JSONObject data = new JSONObject();
+        data.put("paymentId", payment.paymentId);
+        data.put("transactionId", transaction.transactionId);
+        data.put("amount", amount);
+        data.put("fee", fee);
+        data.put("totalAmount", amount + fee);
+        data.put("recipientAccountNumber", recipientAccountNumber);
+        data.put("recipientName", recipientName);
+        data.put("bankName", bankName);
+        data.put("transferReference", "BT" + transaction.transactionId.substring("TXN".length()));
+        data.put("status", "COMPLETED");
+        return ok(null, data);
+    }
+
+    private MockDataset.Payment newPayment(Call call, long amount, String method, String status) {
+        MockDataset.Payment payment = new MockDataset.Payment();
+        payment.paymentId = dataset.newReference("PAY", now());
+        payment.user = call.user;
+        payment.amount = amount;
+        payment.paymentMethod = method;
+        payment.status = status;
+        payment.description = call.field("description");
+        payment.createdAt = now();
+        dataset.payments.put(payment.paymentId, payment);
+        return payment;
+    }
+
+    private Reply getPaymentStatus(Call call) throws JSONException {
+        MockDataset.Payment payment = dataset.payments.get(call.param("paymentId"));
+        if (payment == null || payment.user != call.user) {
+            return error(404, "Không tìm thấy giao dịch thanh toán");
+        }
+        return ok(null, MockDataset.paymentJson(payment));
+    }
+
+    private Reply getPaymentHistory(Call call) throws JSONException {
+        int page = Math.max(1, call.queryInt("page", 1));
+        int limit = Math.max(1, call.queryInt("limit", 20));
+        String method = call.query("paymentMethod", null);
+        String status = call.query("status", null);
+        List<MockDataset.Payment> matches = new ArrayList<>();
+        for (MockDataset.Payment payment : dataset.payments.values()) {
+            if (payment.user == call.user && (method == null || method.equals(payment.paymentMethod))
+                    && (status == null || status.equals(payment.status))) {
+                matches.add(payment);
+            }
+        }
+        Collections.reverse(matches);
+
+        JSONArray payments = new JSONArray();
+        for (MockDataset.Payment payment : page(matches, page, limit)) {
+            payments.put(MockDataset.paymentJson(payment));
+        }
+        JSONObject pagination = new JSONObject();
+        pagination.put("page", page);
+        pagination.put("limit", limit);
+        pagination.put("total", matches.size());
+        pagination.put("totalPages", (matches.size() + limit - 1) / limit);
+        JSONObject data = new JSONObject();
+        data.put("payments", payments);
+        data.put("pagination", pagination);
+        return ok(null, data);
+    }
+
+    // ---- admin ----
+
+    private Reply getDashboard(Call call) throws JSONException {
+        int customers = 0;
+        for (MockDataset.User user : dataset.usersById.values()) {
+            if (!user.isOfficer()) {
+                customers++;
+            }
+        }
+        int activeAccounts = 0;
+        long totalBalance = 0;
+        for (MockDataset.Account account : dataset.accountsById.values()) {
+            if (account.active) {
+                activeAccounts++;
+                totalBalance += account.balance;
+            }
+        }
+        long startOfDay = now() - Math.floorMod(now(), 24L * 3600 * 1000);
+        int today = 0;
+        JSONArray recent = new JSONArray();
+        for (MockDataset.Transaction transaction : dataset.transactions) {
+            if (transaction.createdAt >= startOfDay) {
+                today++;
+            }
+            if (recent.length() < 10) {
+                JSONObject json = new JSONObject();
+                json.put("transaction_id", transaction.transactionId);
+                json.put("amount", transaction.amount);
+                json.put("type", transaction.transactionType);
+                json.put("status", transaction.status);
+                json.put("description", transaction.description);
+                json.put("created_at", MockDataset.iso(transaction.createdAt));
+                MockDataset.User initiator = transaction.initiatedBy != null ? dataset.usersById.get(transaction.initiatedBy) : null;
+                json.put("initiated_by", initiator != null
+                        ? new JSONObject().put("name", initiator.fullName).put("email", initiator.email) : JSONObject.NULL);
+                recent.put(json);
+            }
+        }
+
+        JSONObject data = new JSONObject();
+        data.put("total_customers", customers);
+        data.put("active_accounts", activeAccounts);
+        data.put("total_balance", totalBalance);
+        data.put("today_transactions", today);
+        data.put("recent_transactions", recent);
+        return ok("Dashboard stats retrieved successfully", data);
+    }
+
+    private List<MockDataset.User> customers() {
+        List<MockDataset.User> customers = new ArrayList<>();
+        for (MockDataset.User user : dataset.usersById.values()) {
+            if (!user.isOfficer()) {
+                customers.add(user);
+            }
+        }
+        return customers;
+    }
+
+    private Reply getCustomers(Call call) throws JSONException {
+        int page = Math.max(1, call.queryInt("page", 1));
+        int limit = Math.max(1, call.queryInt("limit", 20));
+        List<MockDataset.User> customers = customers();
+
+        JSONArray data = new JSONArray();
+        for (MockDataset.User customer : page(customers, page, limit)) {
+            JSONObject json = MockDataset.userJson(customer);
+            JSONObject byType = new JSONObject();
+            byType.put("checking", new JSONArray());
+            byType.put("saving", new JSONArray());
+            byType.put("mortgage", new JSONArray());
+            List<MockDataset.Account> accounts = dataset.accountsOf(customer);
+            for (MockDataset.Account account : accounts) {
+                byType.getJSONArray(account.accountType.toLowerCase(Locale.US)).put(MockDataset.accountJson(account));
+            }
+            MockDataset.Account primary = dataset.primaryAccountOf(customer);
+            json.put("account_count", accounts.size());
+            json.put("accounts_by_type", byType);
+            json.put("primary_account", primary != null
+                    ? new JSONObject().put("account_number", primary.accountNumber).put("balance", primary.balance)
+                    : JSONObject.NULL);
+            data.put(json);
+        }
+
+        JSONObject meta = new JSONObject();
+        meta.put("page", page);
+        meta.put("limit", limit);
+        meta.put("total", customers.size());
+        meta.put("total_pages", (customers.size() + limit - 1) / limit);
+        Reply reply = ok("Customers retrieved successfully", data);
+        reply.body.put("meta", meta);
+        return reply;
+    }
+
+    private Reply searchCustomers(Call call) throws JSONException {
+        String query = call.query("query", call.query("q", ""));
+        if (query.length() < 2) {
+            return error(400, "Search query must be at least 2 characters");
+        }
+        String needle = query.toLowerCase(Locale.ROOT);
+        JSONArray data = new JSONArray();
+        for (MockDataset.User customer : customers()) {
+            if (customer.email.toLowerCase(Locale.ROOT).contains(needle)
+                    || customer.fullName.toLowerCase(Locale.ROOT).contains(needle)
+                    || customer.phone.contains(needle)) {
+                data.put(MockDataset.userJson(customer));
+            }
+        }
+        return ok("Search completed successfully", data);
+    }
+
+    private Reply getCustomerDetails(Call call) throws JSONException {
+        MockDataset.User customer = dataset.usersById.get(call.param("customerId"));
+        if (customer == null || customer.isOfficer()) {
+            return error(404, "Customer not found");
+        }
+        List<MockDataset.Account> accounts = dataset.accountsOf(customer);
+        JSONArray accountsJson = new JSONArray();
+        for (MockDataset.Account account : accounts) {
+            accountsJson.put(MockDataset.accountJson(account));
+        }
+        JSONArray stats = new JSONArray();
+        Map<String, long[]> byStatus = new HashMap<>();
+        for (MockDataset.Transaction transaction : dataset.transactionsOf(customer)) {
+            long[] countAndTotal = byStatus.computeIfAbsent(transaction.status, key -> new long[2]);
+            countAndTotal[0]++;
+            countAndTotal[1] += transaction.amount;
+        }
+        for (Map.Entry<String, long[]> entry : byStatus.entrySet()) {
+            stats.put(new JSONObject().put("_id", entry.getKey()).put("count", entry.getValue()[0])
+                    .put("totalAmount", entry.getValue()[1]));
+        }
+
+        JSONObject data = new JSONObject();
+        data.put("customer", MockDataset.userJson(customer));
+        data.put("accounts", accountsJson);
+        data.put("transaction_stats", stats);
+        data.put("account_count", accounts.size());
+        return ok("Customer details retrieved successfully", data);
+    }
+
+    private Reply createCustomer(Call call) throws JSONException {
+        String email = call.field("email");
+        String password = call.field("password");
+        String fullName = call.field("fullName", "full_name");
+        if (email == null || password == null || fullName == null) {
+            return error(400, "Email, password and full name are required");
+        }
+        if (dataset.findUserByEmail(email) != null) {
+            return error(409, "User already exists with this email");
+        }
+        MockDataset.User customer = dataset.addUser(email, fullName, "CUSTOMER");
+        customer.password = password;
+        if (call.field("phone") != null) {
+            customer.phone = call.field("phone");
+        }
+        if (call.field("address") != null) {
+            customer.address = call.field("address");
+        }
+        dataset.addAccount(customer, "CHECKING", 0, now());
+        return reply(201, "Customer created successfully", MockDataset.userJson(customer));
+    }
+
+    private Reply updateCustomer(Call call) throws JSONException {
+        MockDataset.User customer = dataset.usersById.get(call.param("customerId"));
+        if (customer == null || customer.isOfficer()) {
+            return error(404, "Customer not found");
+        }
+        String email = call.field("email");
+        if (email != null && !email.equalsIgnoreCase(customer.email)) {
+            if (dataset.findUserByEmail(email) != null) {
+                return error(409, "Email already in use");
+            }
+            customer.email = email;
+        }
+        String fullName = call.field("fullName", "full_name");
+        if (fullName != null) {
+            customer.fullName = fullName;
+        }
+        if (call.field("phone") != null) {
+            customer.phone = call.field("phone");
+        }
+        if (call.field("address") != null) {
+            customer.address = call.field("address");
+        }
+        if (call.body.has("isActive")) {
+            customer.active = call.body.optBoolean("isActive", customer.active);
+        }
+        customer.updatedAt = now();
+        return ok("Customer updated successfully", MockDataset.userJson(customer));
+    }
+
+    private Reply adminCreateAccount(Call call) throws JSONException {
+        MockDataset.User customer = dataset.usersById.get(call.field("customerId"));
+        String accountType = call.field("accountType");
+        if (customer == null || accountType == null) {
+            return error(400, "Customer ID and account type are required");
+        }
+        if (!Arrays.asList("CHECKING", "SAVING", "MORTGAGE").contains(accountType)) {
+            return error(400, "Invalid account type");
+        }
+        long initialBalance = Math.max(0, call.amount("initialBalance"));
+        MockDataset.Account account = dataset.addAccount(customer, accountType, initialBalance, now());
+        if (call.body.has("interestRate")) {
+            account.interestRate = call.body.optDouble("interestRate");
+        }
+        return reply(201, "Account created successfully", MockDataset.accountJson(account));
+    }
+
+    private Reply adminUpdateAccount(Call call) throws JSONException {
+        MockDataset.Account account = dataset.accountsById.get(call.param("accountId"));
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        if (call.body.has("interestRate")) {
+            account.interestRate = call.body.optDouble("interestRate");
+        }
+        if (call.body.has("isActive")) {
+            account.active = call.body.optBoolean("isActive", account.active);
+        }
+        long balance = call.amount("balance");
+        if (balance != Long.MIN_VALUE) {
+            account.balance = balance;
+        }
+        account.updatedAt = now();
+        return ok("Account updated successfully", MockDataset.accountJson(account));
+    }
+
+    private Reply adminDeactivateAccount(Call call) throws JSONException {
+        MockDataset.Account account = dataset.accountsById.get(call.param("accountId"));
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        account.active = false;
+        account.updatedAt = now();
+        return ok("Account deactivated successfully", MockDataset.accountJson(account));
+    }
+
+    private Reply adminGetTransactions(Call call) throws JSONException {
+        int page = Math.max(1, call.queryInt("page", 1));
+        int limit = Math.max(1, call.queryInt("limit", 50));
+        String type = call.query("type", null);
+        String status = call.query("status", null);
+        List<MockDataset.Transaction> matches = new ArrayList<>();
+        for (MockDataset.Transaction transaction : dataset.transactions) {
+            if ((type == null || type.equals(transaction.transactionType))
+                    && (status == null || status.equals(transaction.status))) {
+                matches.add(transaction);
+            }
+        }
+        JSONArray data = new JSONArray();
+        for (MockDataset.Transaction transaction : page(matches, page, limit)) {
+            data.put(MockDataset.transactionJson(transaction));
+        }
+        JSONObject meta = new JSONObject();
+        meta.put("page", page);
+        meta.put("limit", limit);
+        meta.put("total", matches.size());
+        meta.put("total_pages", (matches.size() + limit - 1) / limit);
+        Reply reply = ok("Transactions retrieved successfully", data);
+        reply.body.put("meta", meta);
+        return reply;
+    }
+
+    private Reply adminTransfer(Call call) throws JSONException {
+        MockDataset.Account from = dataset.accountsByNumber.get(call.field("fromAccountNumber"));
+        MockDataset.Account to = dataset.accountsByNumber.get(call.field("toAccountNumber"));
+        long amount = call.amount("amount");
+        if (from == null || to == null) {
+            return error(404, "Account not found");
+        }
+        if (amount == Long.MIN_VALUE || amount <= 0) {
+            return error(400, "Amount must be greater than 0");
+        }
+        if (from == to) {
+            return error(400, "Cannot transfer to the same account");
+        }
+        if (from.balance < amount) {
+            return error(400, "Insufficient balance");
+        }
+        from.balance -= amount;
+        to.balance += amount;
+        from.updatedAt = now();
+        to.updatedAt = now();
+        String description = call.field("description");
+        MockDataset.Transaction transaction = dataset.newTransaction(from, to, amount,
+                description != null ? description : "Chuyển tiền bởi nhân viên ngân hàng", "TRANSFER", now());
+        complete(transaction, call.user.id);
+        return ok("Transfer completed successfully", MockDataset.transactionJson(transaction));
+    }
+
+    private Reply adminDeposit(Call call) throws JSONException {
+        MockDataset.Account account = dataset.accountsByNumber.get(call.field("accountNumber"));
+        long amount = call.amount("amount");
+        if (account == null) {
+            return error(404, "Account not found");
+        }
+        if (amount == Long.MIN_VALUE || amount <= 0) {
+            return error(400, "Amount must be greater than 0");
+        }
+        account.balance += amount;
+        account.updatedAt = now();
+        String description = call.field("description");
+        MockDataset.Transaction transaction = dataset.newTransaction(null, account, amount,
+                description != null ? description : "Nạp tiền bởi nhân viên ngân hàng", "DEPOSIT", now());
+        complete(transaction, call.user.id);
+        return ok("Deposit completed successfully", MockDataset.transactionJson(transaction));
+    }
+
+    private Reply updateInterestRate(Call call) throws JSONException {
+        String accountType = call.field("accountType");
+        double newRate = call.body.optDouble("newRate", Double.NaN);
+        if (accountType == null || Double.isNaN(newRate)) {
+            return error(400, "Account type and new rate are required");
+        }
+        if (newRate < 0 || newRate > 100) {
+            return error(400, "Interest rate must be between 0 and 100");
+        }
+        int updated = 0;
+        int total = 0;
+        double oldRate = 0;
+        String reason = call.field("reason");
+        for (MockDataset.Account account : dataset.accountsById.values()) {
+            if (!account.active || !accountType.equals(account.accountType)) {
+                continue;
+            }
+            if (total++ == 0 && account.interestRate != null) {
+                oldRate = account.interestRate;
+            }
+            JSONObject entry = new JSONObject();
+            entry.put("id", dataset.newId());
+            entry.put("account_id", account.id);
+            entry.put("account_number", account.accountNumber);
+            entry.put("account_type", accountType);
+            entry.put("old_rate", account.interestRate != null ? account.interestRate : 0);
+            entry.put("new_rate", newRate);
+            entry.put("changed_by", new JSONObject().put("id", call.user.id).put("name", call.user.fullName)
+                    .put("email", call.user.email));
+            entry.put("reason", reason != null ? reason : "Bulk update by bank officer");
+            entry.put("effective_date", MockDataset.iso(now()));
+            entry.put("created_at", MockDataset.iso(now()));
+            dataset.interestRateHistory.add(0, entry);
+            account.interestRate = newRate;
+            account.updatedAt = now();
+            updated++;
+        }
+
+        JSONObject data = new JSONObject();
+        data.put("accountType", accountType);
+        data.put("oldRate", oldRate);
+        data.put("newRate", newRate);
+        data.put("updatedCount", updated);
+        data.put("totalAccounts", total);
+        return ok("Interest rate updated for " + updated + " " + accountType + " account(s)", data);
+    }
+
+    private Reply getInterestRateHistory(Call call) throws JSONException {
+        int page = Math.max(1, call.queryInt("page", 1));
+        int limit = Math.max(1, call.queryInt("limit", 50));
+        String accountType = call.query("accountType", null);
+        String accountId = call.query("accountId", null);
+        List<JSONObject> matches = new ArrayList<>();
+        for (JSONObject entry : dataset.interestRateHistory) {
+            if ((accountType == null || accountType.equals(entry.optString("account_type")))
+                    && (accountId == null || accountId.equals(entry.optString("account_id")))) {
+                matches.add(entry);
+            }
+        }
+        JSONObject pagination = new JSONObject();
+        pagination.put("currentPage", page);
+        pagination.put("totalPages", (matches.size() + limit - 1) / limit);
+        pagination.put("total", matches.size());
+        Reply reply = ok("Interest rate history retrieved successfully", new JSONArray(page(matches, page, limit)));
+        reply.body.put("pagination", pagination);
+        return reply;
+    }
+}
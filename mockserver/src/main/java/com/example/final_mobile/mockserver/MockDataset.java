@@ -0,0 +1,526 @@
+package com.example.final_mobile.mockserver;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * In-memory users, accounts and transactions behind {@link MockBankingServer}, generated from
+ * the config seed. Amounts are whole đồng. JSON output mirrors backend/src/utils/responseFormatter.js.
+ *
+ * Not thread-safe on its own; the server serializes access.
+ */
+final class MockDataset {
+
+    static final String CUSTOMER_EMAIL = "customer@example.com";
+    static final String OFFICER_EMAIL = "officer@example.com";
+    static final String DEFAULT_PASSWORD = "123456";
+
+    // 2024-01-01T00:00:00Z; generated history goes backwards from here
+    static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final String[] LAST_NAMES = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Võ", "Đặng", "Bùi"};
+    private static final String[] FIRST_NAMES = {"An", "Bình", "Chi", "Dũng", "Hà", "Khoa", "Linh", "Minh", "Nam", "Thảo"};
+    private static final String[] DESCRIPTIONS = {"Chuyển tiền", "Tiền nhà", "Ăn trưa", "Trả nợ", "Mua sắm", "Học phí"};
+    private static final String[] DISTRICTS = {"Quận 1", "Quận 3", "Quận 5", "Quận 7", "Bình Thạnh", "Thủ Đức"};
+
+    static final class User {
+        String id;
+        String email;
+        String password;
+        String fullName;
+        String phone;
+        String address;
+        String customerType = "CUSTOMER";
+        boolean active = true;
+        long createdAt;
+        long updatedAt;
+        Long lastLogin;
+
+        boolean isOfficer() {
+            return "BANK_OFFICER".equals(customerType);
+        }
+    }
+
+    static final class Account {
+        String id;
+        User owner;
+        String accountNumber;
+        String accountType;
+        long balance;
+        Double interestRate;
+        boolean active = true;
+        long createdAt;
+        long updatedAt;
+    }
+
+    static final class Transaction {
+        String id;
+        String transactionId;
+        Account from;
+        Account to;
+        long amount;
+        long fee;
+        String description;
+        String transactionType;
+        String status;
+        boolean otpVerified;
+        String otp;
+        String initiatedBy;
+        long createdAt;
+        long updatedAt;
+        Long processedAt;
+    }
+
+    static final class UtilityPayment {
+        String id;
+        String transactionId;
+        User user;
+        Account account;
+        String serviceType;
+        String provider;
+        String serviceNumber;
+        long amount;
+        long fee;
+        String status = "PENDING";
+        String description;
+        JSONObject metadata = new JSONObject();
+        String otp;
+        long createdAt;
+        long updatedAt;
+        Long processedAt;
+    }
+
+    static final class Payment {
+        String paymentId;
+        User user;
+        long amount;
+        String paymentMethod;
+        String status;
+        String description;
+        Transaction transaction;
+        long createdAt;
+        Long completedAt;
+    }
+
+    static final class Branch {
+        String id;
+        String name;
+        String address;
+        String phone;
+        double latitude;
+        double longitude;
+    }
+
+    final Map<String, User> usersById = new LinkedHashMap<>();
+    final Map<String, Account> accountsById = new LinkedHashMap<>();
+    final Map<String, Account> accountsByNumber = new LinkedHashMap<>();
+    // Newest first, like the backend's sort({createdAt: -1})
+    final List<Transaction> transactions = new ArrayList<>();
+    final Map<String, Transaction> transactionsById = new LinkedHashMap<>();
+    final Map<String, UtilityPayment> utilities = new LinkedHashMap<>();
+    final Map<String, Payment> payments = new LinkedHashMap<>();
+    final List<Branch> branches = new ArrayList<>();
+    final List<JSONObject> interestRateHistory = new ArrayList<>();
+
+    private final Random random;
+    private long nextId = 1;
+    private long nextNumber = 1;
+
+    MockDataset(MockServerConfig config) {
+        this.random = new Random(config.seed);
+
+        User customer = addUser(CUSTOMER_EMAIL, "Nguyễn Văn A", "CUSTOMER");
+        addAccounts(customer, config.accountsPerUser);
+        User officer = addUser(OFFICER_EMAIL, "Trần Thị B", "BANK_OFFICER");
+        for (int i = 0; i < config.users; i++) {
+            User user = addUser("user" + (i + 1) + "@example.com", randomName(), "CUSTOMER");
+            addAccounts(user, config.accountsPerUser);
+        }
+        generateHistory(config.transactionsPerAccount, officer);
+        for (int i = 0; i < config.branches; i++) {
+            addBranch(i);
+        }
+    }
+
+    String newId() {
+        // Same shape as a Mongo ObjectId
+        return String.format(Locale.US, "%024x", nextId++);
+    }
+
+    String newReference(String prefix, long now) {
+        // The server clock only moves when a test advances it, so the counter keeps references unique
+        return prefix + now + String.format(Locale.US, "%06d", nextNumber++);
+    }
+
+    String newOtp() {
+        return String.format(Locale.US, "%06d", random.nextInt(1000000));
+    }
+
+    User addUser(String email, String fullName, String customerType) {
+        User user = new User();
+        user.id = newId();
+        user.email = email;
+        user.password = DEFAULT_PASSWORD;
+        user.fullName = fullName;
+        user.phone = "09" + String.format(Locale.US, "%08d", random.nextInt(100000000));
+        user.address = (random.nextInt(300) + 1) + " Nguyễn Huệ, " + DISTRICTS[random.nextInt(DISTRICTS.length)] + ", TP.HCM";
+        user.customerType = customerType;
+        user.createdAt = EPOCH_MILLIS - 365L * 24 * 3600 * 1000;
+        user.updatedAt = user.createdAt;
+        usersById.put(user.id, user);
+        return user;
+    }
+
+    User findUserByEmail(String email) {
+        for (User user : usersById.values()) {
+            if (user.email.equalsIgnoreCase(email)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    // Checking first (the primary account), then saving, then mortgage, then more checking
+    private void addAccounts(User user, int count) {
+        String[] types = {"CHECKING", "SAVING", "MORTGAGE"};
+        for (int i = 0; i < count; i++) {
+            String type = i < types.length ? types[i] : "CHECKING";
+            long balance;
+            if ("MORTGAGE".equals(type)) {
+                balance = 100_000_000L * (1 + random.nextInt(20));
+            } else {
+                balance = 1000L * (5_000 + random.nextInt(500_000));
+            }
+            addAccount(user, type, balance, EPOCH_MILLIS - (365L - i) * 24 * 3600 * 1000);
+        }
+    }
+
+    Account addAccount(User user, String type, long balance, long createdAt) {
+        Account account = new Account();
+        account.id = newId();
+        account.owner = user;
+        account.accountNumber = String.format(Locale.US, "9704%012d", nextNumber++);
+        account.accountType = type;
+        account.balance = balance;
+        if ("SAVING".equals(type)) {
+            account.interestRate = 5.5;
+        } else if ("MORTGAGE".equals(type)) {
+            account.interestRate = 8.2;
+        }
+        account.createdAt = createdAt;
+        account.updatedAt = createdAt;
+        accountsById.put(account.id, account);
+        accountsByNumber.put(account.accountNumber, account);
+        return account;
+    }
+
+    List<Account> accountsOf(User user) {
+        List<Account> result = new ArrayList<>();
+        for (Account account : accountsById.values()) {
+            if (account.owner == user && account.active) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    // Oldest active checking account, like the backend's primary account lookup
+    Account primaryAccountOf(User user) {
+        for (Account account : accountsOf(user)) {
+            if ("CHECKING".equals(account.accountType)) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    // Completed transfers between random checking accounts, spread over the last 90 days
+    private void generateHistory(int perAccount, User officer) {
+        List<Account> checking = new ArrayList<>();
+        for (Account account : accountsById.values()) {
+            if ("CHECKING".equals(account.accountType)) {
+                checking.add(account);
+            }
+        }
+        if (checking.size() < 2 || perAccount <= 0) {
+            return;
+        }
+
+        int total = checking.size() * perAccount / 2;
+        long spanMillis = 90L * 24 * 3600 * 1000;
+        List<Transaction> generated = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            Account from = checking.get(random.nextInt(checking.size()));
+            Account to = checking.get(random.nextInt(checking.size()));
+            if (from == to) {
+                to = checking.get((checking.indexOf(from) + 1) % checking.size());
+            }
+            long createdAt = EPOCH_MILLIS - spanMillis + (spanMillis / total) * i;
+            Transaction transaction = newTransaction(from, to, 1000L * (10 + random.nextInt(5000)),
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)], "TRANSFER", createdAt);
+            transaction.status = "COMPLETED";
+            transaction.otpVerified = true;
+            transaction.processedAt = createdAt;
+            transaction.initiatedBy = random.nextInt(20) == 0 ? officer.id : from.owner.id;
+            generated.add(0, transaction);
+        }
+        for (Transaction transaction : generated) {
+            transactions.add(transaction);
+            transactionsById.put(transaction.transactionId, transaction);
+        }
+    }
+
+    Transaction newTransaction(Account from, Account to, long amount, String description, String type, long now) {
+        Transaction transaction = new Transaction();
+        transaction.id = newId();
+        transaction.transactionId = newReference("TXN", now);
+        transaction.from = from;
+        transaction.to = to;
+        transaction.amount = amount;
+        transaction.description = description;
+        transaction.transactionType = type;
+        transaction.status = "PENDING";
+        transaction.createdAt = now;
+        transaction.updatedAt = now;
+        return transaction;
+    }
+
+    void record(Transaction transaction) {
+        transactions.add(0, transaction);
+        transactionsById.put(transaction.transactionId, transaction);
+    }
+
+    Transaction findTransaction(String id) {
+        Transaction transaction = transactionsById.get(id);
+        if (transaction != null) {
+            return transaction;
+        }
+        for (Transaction candidate : transactions) {
+            if (candidate.id.equals(id)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    List<Transaction> transactionsOf(User user) {
+        List<Transaction> result = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            if ((transaction.from != null && transaction.from.owner == user)
+                    || (transaction.to != null && transaction.to.owner == user)) {
+                result.add(transaction);
+            }
+        }
+        return result;
+    }
+
+    private void addBranch(int index) {
+        Branch branch = new Branch();
+        branch.id = newId();
+        branch.name = "Chi nhánh " + DISTRICTS[index % DISTRICTS.length] + " " + (index / DISTRICTS.length + 1);
+        branch.address = (index + 1) + " Lê Lợi, " + DISTRICTS[index % DISTRICTS.length] + ", TP.HCM";
+        branch.phone = "028" + String.format(Locale.US, "%08d", random.nextInt(100000000));
+        // Around Ho Chi Minh City
+        branch.latitude = 10.70 + random.nextDouble() * 0.15;
+        branch.longitude = 106.60 + random.nextDouble() * 0.15;
+        branches.add(branch);
+    }
+
+    private String randomName() {
+        return LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+    }
+
+    // Utility fees (backend Utility.calculateFee): 1% capped at 20k for bills, free for mobile, flat 5k otherwise
+    static long utilityFee(long amount, String serviceType) {
+        switch (serviceType) {
+            case "ELECTRICITY":
+            case "WATER":
+            case "INTERNET":
+                return Math.min(amount / 100, 20000);
+            case "PHONE_TOPUP":
+            case "DATA_PACKAGE":
+            case "SCRATCH_CARD":
+                return 0;
+            default:
+                return 5000;
+        }
+    }
+
+    // ---- JSON, field for field as in responseFormatter.js ----
+
+    static String iso(Long millis) {
+        if (millis == null) {
+            return null;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    // Number.toLocaleString() in the backend's en-US locale
+    static String money(long amount, String currency) {
+        return String.format(Locale.US, "%,d %s", amount, currency);
+    }
+
+    static String masked(String accountNumber) {
+        return "**** **** **** " + accountNumber.substring(accountNumber.length() - 4);
+    }
+
+    static JSONObject userJson(User user) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", user.id);
+        json.put("email", user.email);
+        json.put("full_name", user.fullName);
+        json.put("phone", user.phone);
+        json.put("address", user.address);
+        json.put("customer_type", user.customerType);
+        json.put("is_active", user.active);
+        json.put("email_verified", true);
+        json.put("phone_verified", false);
+        json.put("last_login", nullable(iso(user.lastLogin)));
+        json.put("created_at", iso(user.createdAt));
+        json.put("updated_at", iso(user.updatedAt));
+        return json;
+    }
+
+    static JSONObject accountJson(Account account) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", account.id);
+        json.put("user_id", account.owner.id);
+        json.put("account_number", account.accountNumber);
+        json.put("masked_account_number", masked(account.accountNumber));
+        json.put("account_type", account.accountType);
+        json.put("balance", account.balance);
+        json.put("formatted_balance", money(account.balance, "VND"));
+        json.put("interest_rate", account.interestRate != null ? account.interestRate : JSONObject.NULL);
+        json.put("currency", "VND");
+        json.put("is_active", account.active);
+        json.put("created_at", iso(account.createdAt));
+        json.put("updated_at", iso(account.updatedAt));
+        return json;
+    }
+
+    static JSONObject transactionJson(Transaction transaction) throws JSONException {
+        JSONObject json = new JSONObject();
+        long total = transaction.amount + transaction.fee;
+        json.put("id", transaction.id);
+        json.put("transaction_id", transaction.transactionId);
+        json.put("from_account_id", transaction.from != null ? transaction.from.id : JSONObject.NULL);
+        json.put("to_account_id", transaction.to != null ? transaction.to.id : JSONObject.NULL);
+        json.put("from_account_number", transaction.from != null ? transaction.from.accountNumber : "");
+        json.put("to_account_number", transaction.to != null ? transaction.to.accountNumber : "");
+        json.put("amount", transaction.amount);
+        json.put("formatted_amount", money(transaction.amount, "VND"));
+        json.put("currency", "VND");
+        json.put("fee", transaction.fee);
+        json.put("formatted_fee", money(transaction.fee, "VND"));
+        json.put("total_amount", total);
+        json.put("formatted_total_amount", money(total, "VND"));
+        json.put("description", transaction.description);
+        json.put("transaction_type", transaction.transactionType);
+        json.put("status", transaction.status);
+        json.put("reference_number", transaction.transactionId);
+        json.put("otp_verified", transaction.otpVerified);
+        json.put("failure_reason", "");
+        json.put("created_at", iso(transaction.createdAt));
+        json.put("updated_at", iso(transaction.updatedAt));
+        json.put("processed_at", nullable(iso(transaction.processedAt)));
+        json.put("initiated_by", transaction.initiatedBy != null ? transaction.initiatedBy : JSONObject.NULL);
+        json.put("from_account", accountRef(transaction.from));
+        json.put("to_account", accountRef(transaction.to));
+        return json;
+    }
+
+    static JSONObject utilityJson(UtilityPayment utility) throws JSONException {
+        JSONObject json = new JSONObject();
+        long total = utility.amount + utility.fee;
+        json.put("id", utility.id);
+        json.put("transaction_id", utility.transactionId);
+        json.put("user_id", utility.user.id);
+        json.put("account_id", utility.account.id);
+        json.put("account_number", utility.account.accountNumber);
+        json.put("service_type", utility.serviceType);
+        json.put("provider", utility.provider);
+        json.put("service_number", utility.serviceNumber);
+        json.put("amount", utility.amount);
+        json.put("formatted_amount", money(utility.amount, "VND"));
+        json.put("currency", "VND");
+        json.put("fee", utility.fee);
+        json.put("formatted_fee", money(utility.fee, "VND"));
+        json.put("total_amount", total);
+        json.put("formatted_total_amount", money(total, "VND"));
+        json.put("status", utility.status);
+        json.put("description", utility.description);
+        json.put("reference_number", "COMPLETED".equals(utility.status) ? "REF" + utility.transactionId : "");
+        json.put("failure_reason", "");
+        json.put("metadata", utility.metadata);
+        json.put("created_at", iso(utility.createdAt));
+        json.put("updated_at", iso(utility.updatedAt));
+        json.put("processed_at", nullable(iso(utility.processedAt)));
+        return json;
+    }
+
+    static JSONObject paymentJson(Payment payment) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("paymentId", payment.paymentId);
+        json.put("amount", payment.amount);
+        json.put("currency", "VND");
+        json.put("paymentMethod", payment.paymentMethod);
+        json.put("status", payment.status);
+        json.put("description", payment.description);
+        json.put("createdAt", iso(payment.createdAt));
+        json.put("completedAt", nullable(iso(payment.completedAt)));
+        if (payment.transaction != null) {
+            JSONObject transaction = new JSONObject();
+            transaction.put("_id", payment.transaction.id);
+            transaction.put("transactionId", payment.transaction.transactionId);
+            transaction.put("status", payment.transaction.status);
+            transaction.put("amount", payment.transaction.amount);
+            json.put("transaction", transaction);
+        } else {
+            json.put("transaction", JSONObject.NULL);
+        }
+        return json;
+    }
+
+    static JSONObject branchJson(Branch branch) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", branch.id);
+        json.put("name", branch.name);
+        json.put("address", branch.address);
+        json.put("phone", branch.phone);
+        json.put("latitude", branch.latitude);
+        json.put("longitude", branch.longitude);
+        json.put("openingHours", "8:00 - 17:00");
+        json.put("services", new JSONArray().put("Gửi tiết kiệm").put("Chuyển tiền").put("ATM"));
+        return json;
+    }
+
+    private static Object accountRef(Account account) throws JSONException {
+        if (account == null) {
+            return JSONObject.NULL;
+        }
+        JSONObject json = new JSONObject();
+        json.put("id", account.id);
+        json.put("account_number", account.accountNumber);
+        json.put("account_type", account.accountType);
+        json.put("masked_account_number", masked(account.accountNumber));
+        json.put("formatted_balance", money(account.balance, "VND"));
+        return json;
+    }
+
+    private static Object nullable(Object value) {
+        return value != null ? value : JSONObject.NULL;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.final_mobile.mockserver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Knobs for {@link MockBankingServer}. Everything random (dataset, latency, injected errors,
+ * dropped responses, OTPs) derives from {@link #seed}, so two servers built from the same config
+ * behave the same.
+ */
+public final class MockServerConfig {
+
+    // Latency, error and drop rates for the endpoints under one path prefix, e.g. "transactions/"
+    public static final class EndpointProfile {
+        public final LatencyModel latency;
+        public final double errorRate;
+        public final double dropRate;
+
+        EndpointProfile(LatencyModel latency, double errorRate, double dropRate) {
+            this.latency = latency;
+            this.errorRate = errorRate;
+            this.dropRate = dropRate;
+        }
+    }
+
+    public final long seed;
+    public final int users;
+    public final int accountsPerUser;
+    public final int transactionsPerAccount;
+    public final int branches;
+    public final int paddingBytes;
+    public final int errorStatus;
+    public final long accessTokenTtlMillis;
+    private final EndpointProfile defaultProfile;
+    private final Map<String, EndpointProfile> overrides;
+
+    private MockServerConfig(Builder builder) {
+        this.seed = builder.seed;
+        this.users = builder.users;
+        this.accountsPerUser = builder.accountsPerUser;
+        this.transactionsPerAccount = builder.transactionsPerAccount;
+        this.branches = builder.branches;
+        this.paddingBytes = builder.paddingBytes;
+        this.errorStatus = builder.errorStatus;
+        this.accessTokenTtlMillis = builder.accessTokenTtlMillis;
+        this.defaultProfile = new EndpointProfile(builder.latency, builder.errorRate, builder.dropRate);
+        this.overrides = new LinkedHashMap<>(builder.overrides);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Defaults: no latency, no errors, a small dataset
+    public static MockServerConfig defaults() {
+        return builder().build();
+    }
+
+    // Longest matching prefix wins; the path has no leading slash ("accounts/summary")
+    public EndpointProfile profileFor(String path) {
+        EndpointProfile match = defaultProfile;
+        int matchLength = -1;
+        for (Map.Entry<String, EndpointProfile> entry : overrides.entrySet()) {
+            String prefix = entry.getKey();
+            if (path.startsWith(prefix) && prefix.length() > matchLength) {
+                match = entry.getValue();
+                matchLength = prefix.length();
+            }
+        }
+        return match;
+    }
+
+    public static final class Builder {
+        private long seed = 42;
+        private int users = 10;
+        private int accountsPerUser = 3;
+        private int transactionsPerAccount = 50;
+        private int branches = 20;
+        private int paddingBytes = 0;
+        private int errorStatus = 500;
+        private long accessTokenTtlMillis = 15 * 60 * 1000L;
+        private LatencyModel latency = LatencyModel.none();
+        private double errorRate = 0;
+        private double dropRate = 0;
+        private final Map<String, EndpointProfile> overrides = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        // Generated customers, in addition to the seeded customer and bank officer accounts
+        public Builder users(int users) {
+            this.users = users;
+            return this;
+        }
+
+        public Builder accountsPerUser(int accountsPerUser) {
+            this.accountsPerUser = Math.max(1, accountsPerUser);
+            return this;
+        }
+
+        public Builder transactionsPerAccount(int transactionsPerAccount) {
+            this.transactionsPerAccount = transactionsPerAccount;
+            return this;
+        }
+
+        public Builder branches(int branches) {
+            this.branches = branches;
+            return this;
+        }
+
+        // Extra bytes added to every response body as a "_padding" field
+        public Builder paddingBytes(int paddingBytes) {
+            this.paddingBytes = paddingBytes;
+            return this;
+        }
+
+        public Builder latency(LatencyModel latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        // Probability (0..1) that a request fails with errorStatus instead of being handled
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        // Probability (0..1) that a request is handled but its response never sent: the client
+        // sees a dropped connection and cannot tell whether its request ran
+        public Builder dropRate(double dropRate) {
+            this.dropRate = dropRate;
+            return this;
+        }
+
+        public Builder errorStatus(int errorStatus) {
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        public Builder endpoint(String pathPrefix, LatencyModel latency, double errorRate) {
+            return endpoint(pathPrefix, latency, errorRate, 0);
+        }
+
+        public Builder endpoint(String pathPrefix, LatencyModel latency, double errorRate, double dropRate) {
+            overrides.put(pathPrefix, new EndpointProfile(latency, errorRate, dropRate));
+            return this;
+        }
+
+        // Measured on the server's own clock; see MockBankingServer.advanceClock
+        public Builder accessTokenTtlMillis(long accessTokenTtlMillis) {
+            this.accessTokenTtlMillis = accessTokenTtlMillis;
+            return this;
+        }
+
+        public MockServerConfig build() {
+            return new MockServerConfig(this);
+        }
+    }
+}
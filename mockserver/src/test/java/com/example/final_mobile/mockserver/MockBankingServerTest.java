@@ -0,0 +1,290 @@
+package com.example.final_mobile.mockserver;
+
+import com.example.final_mobile.core.IdempotencyKeys;
+import com.example.final_mobile.core.RetryPolicy;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MockBankingServerTest {
+
+    private MockBankingServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void loginWithOtpThenListAccounts() throws Exception {
+        server = MockBankingServer.start(MockServerConfig.defaults());
+        String token = login(MockBankingServer.CUSTOMER_EMAIL);
+
+        Response accounts = call("GET", "accounts", null, token);
+        assertEquals(200, accounts.status);
+        JSONArray data = accounts.body.getJSONArray("data");
+        assertEquals(3, data.length());
+        assertEquals("CHECKING", data.getJSONObject(0).getString("account_type"));
+        assertTrue(data.getJSONObject(0).getString("masked_account_number").startsWith("**** **** **** "));
+    }
+
+    @Test
+    public void wrongPasswordAndMissingTokenAreRejected() throws Exception {
+        server = MockBankingServer.start(MockServerConfig.defaults());
+        JSONObject body = new JSONObject().put("email", MockBankingServer.CUSTOMER_EMAIL).put("password", "wrong");
+        assertEquals(401, call("POST", "auth/login", body, null).status);
+        assertEquals(401, call("GET", "accounts", null, null).status);
+        assertEquals(403, call("GET", "admin/dashboard", null, login(MockBankingServer.CUSTOMER_EMAIL)).status);
+        assertEquals(200, call("GET", "admin/dashboard", null, login(MockBankingServer.OFFICER_EMAIL)).status);
+    }
+
+    @Test
+    public void transferDebitsAmountPlusFeeAfterOtp() throws Exception {
+        server = MockBankingServer.start(MockServerConfig.builder().users(1).build());
+        String token = login(MockBankingServer.CUSTOMER_EMAIL);
+        JSONObject from = call("GET", "accounts/primary", null, token).body.getJSONObject("data");
+        String recipient = recipientAccountNumber();
+
+        JSONObject transfer = new JSONObject()
+                .put("from_account_id", from.getString("id"))
+                .put("to_account_number", recipient)
+                .put("amount", "500000")
+                .put("description", "Test");
+        JSONObject initiated = call("POST", "transactions/transfer", transfer, token).body.getJSONObject("data");
+        assertTrue(initiated.getBoolean("otp_required"));
+        assertEquals(5000, initiated.getLong("fee"));
+
+        JSONObject verify = new JSONObject()
+                .put("transaction_id", initiated.getString("transaction_id"))
+                .put("otp_code", initiated.getString("development_otp"));
+        JSONObject completed = call("POST", "transactions/verify-otp", verify, token).body.getJSONObject("data");
+        assertEquals("COMPLETED", completed.getString("status"));
+
+        JSONObject after = call("GET", "accounts/primary", null, token).body.getJSONObject("data");
+        assertEquals(from.getLong("balance") - 505000, after.getLong("balance"));
+        assertEquals(404, call("POST", "transactions/verify-otp", verify, token).status);
+    }
+
+    @Test
+    public void expiredAccessTokenIsRefreshedWithRotation() throws Exception {
+        server = MockBankingServer.start(MockServerConfig.builder().accessTokenTtlMillis(60_000).build());
+        JSONObject session = loginSession(MockBankingServer.CUSTOMER_EMAIL);
+        String refreshToken = session.getString("refresh_token");
+
+        server.advanceClock(61_000);
+        Response expired = call("GET", "auth/me", null, session.getString("access_token"));
+        assertEquals(401, expired.status);
+        assertEquals("Access token expired", expired.body.getString("message"));
+
+        JSONObject refresh = new JSONObject().put("refreshToken", refreshToken);
+        Response refreshed = call("POST", "auth/refresh-token", refresh, null);
+        assertEquals(200, refreshed.status);
+        assertEquals(200, call("GET", "auth/me", null, refreshed.body.getJSONObject("data").getString("token")).status);
+        // Refresh tokens are single use
+        assertEquals(401, call("POST", "auth/refresh-token", refresh, null).status);
+    }
+
+    @Test
+    public void sameSeedServesTheSameData() throws Exception {
+        MockServerConfig config = MockServerConfig.builder().seed(7).users(5).transactionsPerAccount(20).build();
+        server = MockBankingServer.start(config);
+        String first = call("GET", "transactions/history?limit=50", null, login(MockBankingServer.CUSTOMER_EMAIL)).body.toString();
+        server.close();
+
+        server = MockBankingServer.start(config);
+        String second = call("GET", "transactions/history?limit=50", null, login(MockBankingServer.CUSTOMER_EMAIL)).body.toString();
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void injectedErrorsPaddingAndEndpointOverrides() throws Exception {
+        server = MockBankingServer.start(MockServerConfig.builder()
+                .paddingBytes(2048)
+                .errorRate(1.0)
+                .endpoint("auth/", LatencyModel.none(), 0)
+                .endpoint("test", LatencyModel.fixed(50), 0)
+                .build());
+
+        Response failed = call("GET", "accounts", null, login(MockBankingServer.CUSTOMER_EMAIL));
+        assertEquals(500, failed.status);
+        assertFalse(failed.body.getBoolean("success"));
+
+        long start = System.nanoTime();
+        Response test = call("GET", "test", null, null);
+        assertEquals(200, test.status);
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 50);
+        assertEquals(2048, test.body.getString("_padding").length());
+        assertEquals(1, server.getRequestCount("GET", "test"));
+    }
+
+    @Test
+    public void retriesWithTheSameKeyMoveMoneyExactlyOnceWhenResponsesAreDropped() throws Exception {
+        server = MockBankingServer.start(MockServerConfig.builder()
+                .users(1)
+                .endpoint("accounts/deposit", LatencyModel.none(), 0, 0.5)
+                .endpoint("transactions/verify-otp", LatencyModel.none(), 0, 0.5)
+                .build());
+        String token = login(MockBankingServer.CUSTOMER_EMAIL);
+        JSONObject from = call("GET", "accounts/primary", null, token).body.getJSONObject("data");
+        String recipient = recipientAccountNumber();
+
+        for (int i = 0; i < 4; i++) {
+            JSONObject deposit = new JSONObject()
+                    .put("account_id", from.getString("id"))
+                    .put("amount", "100000");
+            assertEquals(200, callWithRetry("accounts/deposit", deposit, token, "deposit-" + i).status);
+        }
+
+        JSONObject transfer = new JSONObject()
+                .put("from_account_id", from.getString("id"))
+                .put("to_account_number", recipient)
+                .put("amount", "500000")
+                .put("description", "Test");
+        JSONObject initiated = callWithRetry("transactions/transfer", transfer, token, "transfer").body.getJSONObject("data");
+        JSONObject verify = new JSONObject()
+                .put("transaction_id", initiated.getString("transaction_id"))
+                .put("otp_code", initiated.getString("development_otp"));
+        Response verified = callWithRetry("transactions/verify-otp", verify, token, "verify");
+        assertEquals(200, verified.status);
+        assertEquals("COMPLETED", verified.body.getJSONObject("data").getString("status"));
+
+        // Some responses were lost and retried, yet every deposit and the transfer ran once
+        assertTrue(server.getDroppedResponses() > 0);
+        assertTrue(server.getRequestCount("POST", "accounts/deposit") > 4);
+        JSONObject after = call("GET", "accounts/primary", null, token).body.getJSONObject("data");
+        assertEquals(from.getLong("balance") + 4 * 100000 - 505000, after.getLong("balance"));
+
+        // A repeat gets the stored reply, a new key runs the request again, and the same key for
+        // another request is refused
+        Response replayed = callWithRetry("transactions/verify-otp", verify, token, "verify");
+        assertEquals(200, replayed.status);
+        assertTrue(replayed.replayed);
+        assertEquals(404, callWithRetry("transactions/verify-otp", verify, token, "verify-again").status);
+        Response reused = call("POST", "accounts/withdraw",
+                new JSONObject().put("account_id", from.getString("id")).put("amount", "1000"), token, "verify");
+        assertEquals(422, reused.status);
+        assertEquals(IdempotencyKeys.KEY_REUSED, reused.body.getString("code"));
+    }
+
+    @Test
+    public void latencyModelsAreDeterministic() {
+        LatencyModel model = LatencyModel.logNormal(100, 0.5);
+        Random a = new Random(1);
+        Random b = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            long sample = model.sampleMillis(a);
+            assertEquals(sample, model.sampleMillis(b));
+            assertTrue(sample > 0);
+        }
+        Random random = new Random(2);
+        for (int i = 0; i < 100; i++) {
+            long sample = LatencyModel.uniform(10, 20).sampleMillis(random);
+            assertTrue(sample >= 10 && sample <= 20);
+        }
+    }
+
+    private String recipientAccountNumber() throws Exception {
+        String token = login("user1@example.com");
+        return call("GET", "accounts/primary", null, token).body.getJSONObject("data").getString("account_number");
+    }
+
+    private String login(String email) throws Exception {
+        return loginSession(email).getString("access_token");
+    }
+
+    private JSONObject loginSession(String email) throws Exception {
+        JSONObject credentials = new JSONObject().put("email", email).put("password", MockBankingServer.DEFAULT_PASSWORD);
+        JSONObject login = call("POST", "auth/login", credentials, null).body.getJSONObject("data");
+        assertTrue(login.getBoolean("otp_required"));
+
+        JSONObject otp = new JSONObject()
+                .put("otp_code", login.getString("development_otp"))
+                .put("token", login.getString("token"));
+        Response verified = call("POST", "auth/verify-otp", otp, null);
+        assertEquals(200, verified.status);
+        return verified.body.getJSONObject("data");
+    }
+
+    private static final class Response {
+        final int status;
+        final JSONObject body;
+        final boolean replayed;
+
+        Response(int status, JSONObject body, boolean replayed) {
+            this.status = status;
+            this.body = body;
+            this.replayed = replayed;
+        }
+    }
+
+    // What ApiService.postIdempotent does: the same key on every attempt, retried while the outcome is unknown
+    private Response callWithRetry(String endpoint, JSONObject body, String token, String key) throws IOException {
+        RetryPolicy policy = RetryPolicy.transientErrors(10, 0);
+        for (int retries = 0; ; retries++) {
+            Response response = call("POST", endpoint, body, token, key);
+            if (!policy.shouldRetry(retries, response.status)) {
+                return response;
+            }
+        }
+    }
+
+    private Response call(String method, String endpoint, JSONObject body, String token) throws IOException {
+        return call(method, endpoint, body, token, null);
+    }
+
+    // A dropped response comes back as status -1, like ApiService reports network errors
+    private Response call(String method, String endpoint, JSONObject body, String token, String idempotencyKey)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getBaseUrl() + endpoint).openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", "Bearer " + token);
+        }
+        if (idempotencyKey != null) {
+            connection.setRequestProperty(IdempotencyKeys.HEADER, idempotencyKey);
+        }
+        if (body != null) {
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status;
+        try {
+            status = connection.getResponseCode();
+        } catch (IOException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return new Response(-1, null, false);
+        }
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        in.close();
+        return new Response(status, new JSONObject(bytes.toString("UTF-8")),
+                "true".equals(connection.getHeaderField(IdempotencyKeys.REPLAYED_HEADER)));
+    }
+}
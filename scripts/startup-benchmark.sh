@@ -0,0 +1,71 @@
+#!/bin/bash
+# Repeatable cold/warm start benchmark for the Android app.
+#
+# Usage: scripts/startup-benchmark.sh [iterations]   (default 10)
+# Needs a device/emulator with the app installed (./gradlew installDebug).
+#
+# cold: process killed before each launch (am force-stop)
+# warm: process alive, activity re-created after pressing HOME
+# Times are ActivityManager's TotalTime (launch to first frame), in ms.
+
+PACKAGE="com.example.final_mobile"
+ACTIVITY="$PACKAGE/.LoginActivity"
+ITERATIONS=${1:-10}
+
+launch() {
+    adb shell am start-activity -W -n "$ACTIVITY" 2>/dev/null | tr -d '\r' | awk -F': ' '/TotalTime/ {print $2}'
+}
+
+summary() {
+    local label=$1
+    shift
+    printf '%s\n' "$@" | sort -n | awk -v label="$label" '
+        { v[NR] = $1; sum += $1 }
+        END {
+            if (NR == 0) { print label ": no samples"; exit }
+            median = (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2
+            printf "%-5s n=%d min=%d median=%d mean=%.1f max=%d\n", label, NR, v[1], median, sum / NR, v[NR]
+        }'
+}
+
+if ! adb get-state >/dev/null 2>&1; then
+    echo "No device connected"
+    exit 1
+fi
+
+echo "Startup benchmark: $PACKAGE, $ITERATIONS iterations"
+
+# One unmeasured launch so dex/oat compilation does not skew the first sample
+adb shell am force-stop "$PACKAGE"
+launch >/dev/null
+sleep 2
+
+cold=()
+for i in $(seq 1 "$ITERATIONS"); do
+    adb shell am force-stop "$PACKAGE"
+    sleep 1
+    adb logcat -c
+    t=$(launch)
+    cold+=("$t")
+    echo "cold #$i: ${t} ms"
+    sleep 2
+done
+
+# Startup phases from the last cold launch
+echo
+adb logcat -d -s StartupTrace:I | tr -d '\r' | sed -n '/Startup report/,$p'
+echo
+
+warm=()
+for i in $(seq 1 "$ITERATIONS"); do
+    adb shell input keyevent KEYCODE_HOME
+    sleep 1
+    t=$(launch)
+    warm+=("$t")
+    echo "warm #$i: ${t} ms"
+    sleep 1
+done
+
+echo
+summary "cold" "${cold[@]}"
+summary "warm" "${warm[@]}"
@@ -21,4 +21,8 @@ dependencyResolutionManagement {
 
 rootProject.name = "Final_Mobile"
 include(":app")
- 
\ No newline at end of file
+include(":baselineprofile")
+include(":core")
+include(":benchmarks")
+include(":mockserver")
+include(":loadtest")